@@ -1,5 +1,6 @@
 package com.example.api.common;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 import java.io.Serializable;
@@ -8,6 +9,7 @@ import java.util.List;
 /**
  * 分页结果封装（与设计文档 1.2 一致）
  * 列表接口统一采用包裹式：{ "data": { "items": [...], "total": 100, "page": 1, "size": 20 } }
+ * 支持游标分页的接口额外返回 nextCursor；total 为估算值时 totalEstimated=true，未计数时 total=-1
  *
  * @param <T> 列表元素类型
  */
@@ -20,6 +22,10 @@ public class PagedResult<T> implements Serializable {
     private long total;
     private int page;
     private int size;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean totalEstimated;
 
     public PagedResult() {
     }
@@ -0,0 +1,102 @@
+package com.example.api.common.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 时间有序 ID 生成器（Snowflake 风格，无锁）
+ * 64 位布局：41 位毫秒时间戳（自 2024-01-01 起）| 10 位节点 ID | 12 位序列号
+ * 字符串形式为 13 位定长 Crockford Base32（小写），字典序与生成顺序一致，
+ * 作为 InnoDB 主键时新记录总是追加到 B+ 树尾部，避免随机 UUID 造成的页分裂。
+ * 时钟回拨或同一毫秒序列号耗尽时沿用/借用逻辑时间戳，保证单节点内严格递增。
+ */
+public final class TimeOrderedIdGenerator {
+
+    /** 自定义纪元：2024-01-01T00:00:00Z */
+    public static final long EPOCH_MILLIS = 1704067200000L;
+
+    private static final int WORKER_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    public static final long MAX_WORKER_ID = (1L << WORKER_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final int ENCODED_LENGTH = 13;
+    private static final char[] ALPHABET = "0123456789abcdefghjkmnpqrstvwxyz".toCharArray();
+
+    private final long workerId;
+    private final BooleanSupplier ownership;
+    /** 上次分配的 (逻辑时间戳 << 12 | 序列号) */
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * 使用静态配置的节点 ID（由部署方保证各实例唯一）
+     */
+    public TimeOrderedIdGenerator(long workerId) {
+        this(workerId, () -> true);
+    }
+
+    /**
+     * 使用租约分配的节点 ID；ownership 返回 false（租约丢失）时拒绝发号
+     */
+    public TimeOrderedIdGenerator(long workerId, BooleanSupplier ownership) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("workerId 必须在 0~" + MAX_WORKER_ID + " 之间: " + workerId);
+        }
+        this.workerId = workerId;
+        this.ownership = ownership;
+    }
+
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    /**
+     * 生成数值 ID（单节点内严格递增）
+     *
+     * @throws IllegalStateException 节点 ID 租约已丢失
+     */
+    public long nextLong() {
+        if (!ownership.getAsBoolean()) {
+            throw new IllegalStateException("节点 ID 租约已丢失，拒绝生成 ID: workerId=" + workerId);
+        }
+        while (true) {
+            long prev = state.get();
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            long next = now > (prev >>> SEQUENCE_BITS)
+                    ? now << SEQUENCE_BITS
+                    // 同一毫秒或时钟回拨：序列号加一，耗尽时进位到下一逻辑毫秒
+                    : prev + 1;
+            if (state.compareAndSet(prev, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                long sequence = next & SEQUENCE_MASK;
+                return (timestamp << (WORKER_BITS + SEQUENCE_BITS)) | (workerId << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+
+    /**
+     * 生成带前缀的字符串 ID，如 conv_0jz4m8c1xk3ab
+     */
+    public String nextId(String prefix) {
+        return prefix + encode(nextLong());
+    }
+
+    /**
+     * 从 ID 中提取生成时间（毫秒时间戳）
+     */
+    public static long extractTimestamp(long id) {
+        return (id >>> (WORKER_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    /**
+     * 定长 Crockford Base32 编码（13 位，高位补 0，保证字典序与数值序一致）
+     */
+    static String encode(long value) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+}
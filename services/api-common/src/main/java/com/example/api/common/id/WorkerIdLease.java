@@ -0,0 +1,147 @@
+package com.example.api.common.id;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.InetAddress;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 节点 ID 租约（JdbcTemplate，各服务只需提供同结构的 id_worker_leases 表）
+ * - 启动时读取未过期的租约，从随机起点占用一个空闲或已过期的节点号（0~1023），全部占满时启动失败
+ * - 后台按 ttl/3 续约，关闭时释放；过期判断统一使用数据库时间，不受各 Pod 时钟偏差影响
+ * - 本地持有期限 = 最近一次成功续约的发起时刻 + ttl（早于数据库中的到期时间），
+ *   超过期限仍未续约成功即视为失去租约，isHeld() 返回 false，生成器拒绝继续发号，避免与接手者重复
+ */
+@Slf4j
+public class WorkerIdLease implements AutoCloseable {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String owner;
+    private final long ttlSeconds;
+    private final long workerId;
+    private final ScheduledExecutorService renewer;
+    private volatile long heldUntilNanos;
+
+    private WorkerIdLease(JdbcTemplate jdbcTemplate, String owner, long ttlSeconds, long workerId, long acquiredAtNanos) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.owner = owner;
+        this.ttlSeconds = ttlSeconds;
+        this.workerId = workerId;
+        this.heldUntilNanos = acquiredAtNanos + TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "id-worker-lease-" + workerId);
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1, TimeUnit.SECONDS.toMillis(ttlSeconds) / 3);
+        renewer.scheduleWithFixedDelay(this::renew, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 占用一个节点号
+     *
+     * @param ttlSeconds 租约时长（秒），进程异常退出后最多经过该时长节点号可被重新占用
+     * @throws IllegalStateException 0~1023 均已被占用
+     */
+    public static WorkerIdLease acquire(JdbcTemplate jdbcTemplate, long ttlSeconds) {
+        if (ttlSeconds < 3) {
+            throw new IllegalArgumentException("租约时长至少 3 秒: " + ttlSeconds);
+        }
+        String owner = ownerName();
+        Set<Long> taken = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT worker_id FROM id_worker_leases WHERE expires_at >= CURRENT_TIMESTAMP(3)", Long.class));
+        long size = TimeOrderedIdGenerator.MAX_WORKER_ID + 1;
+        long start = ThreadLocalRandom.current().nextLong(size);
+        for (long i = 0; i < size; i++) {
+            long candidate = (start + i) % size;
+            if (taken.contains(candidate)) {
+                continue;
+            }
+            long attemptedAt = System.nanoTime();
+            if (tryClaim(jdbcTemplate, candidate, owner, ttlSeconds)) {
+                log.info("节点 ID 租约已占用: workerId={}, owner={}, ttl={}s", candidate, owner, ttlSeconds);
+                return new WorkerIdLease(jdbcTemplate, owner, ttlSeconds, candidate, attemptedAt);
+            }
+        }
+        throw new IllegalStateException("无可用节点 ID：0~" + TimeOrderedIdGenerator.MAX_WORKER_ID + " 均已被占用");
+    }
+
+    /**
+     * 接管已过期的租约，或插入新租约（主键冲突说明已被其他实例抢先占用）
+     */
+    private static boolean tryClaim(JdbcTemplate jdbcTemplate, long workerId, String owner, long ttlSeconds) {
+        int updated = jdbcTemplate.update("UPDATE id_worker_leases "
+                        + "SET owner = ?, expires_at = TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP(3)) "
+                        + "WHERE worker_id = ? AND expires_at < CURRENT_TIMESTAMP(3)",
+                owner, ttlSeconds, workerId);
+        if (updated == 1) {
+            return true;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO id_worker_leases (worker_id, owner, expires_at) "
+                    + "VALUES (?, ?, TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP(3)))", workerId, owner, ttlSeconds);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    void renew() {
+        long attemptedAt = System.nanoTime();
+        try {
+            int updated = jdbcTemplate.update("UPDATE id_worker_leases "
+                            + "SET expires_at = TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP(3)) "
+                            + "WHERE worker_id = ? AND owner = ?",
+                    ttlSeconds, workerId, owner);
+            if (updated == 1) {
+                heldUntilNanos = attemptedAt + TimeUnit.SECONDS.toNanos(ttlSeconds);
+            } else {
+                heldUntilNanos = attemptedAt;
+                log.error("节点 ID 租约已被其他实例接管，停止发号: workerId={}, owner={}", workerId, owner);
+            }
+        } catch (DataAccessException e) {
+            log.warn("节点 ID 租约续约失败，将在持有期限内重试: workerId={}, error={}", workerId, e.getMessage());
+        }
+    }
+
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    /**
+     * 当前是否仍持有租约（本地持有期限内）
+     */
+    public boolean isHeld() {
+        return heldUntilNanos - System.nanoTime() > 0;
+    }
+
+    @Override
+    public void close() {
+        renewer.shutdownNow();
+        heldUntilNanos = System.nanoTime();
+        try {
+            jdbcTemplate.update("DELETE FROM id_worker_leases WHERE worker_id = ? AND owner = ?", workerId, owner);
+        } catch (DataAccessException e) {
+            log.warn("节点 ID 租约释放失败，将在到期后自动失效: workerId={}, error={}", workerId, e.getMessage());
+        }
+    }
+
+    private static String ownerName() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "/" + UUID.randomUUID();
+    }
+}
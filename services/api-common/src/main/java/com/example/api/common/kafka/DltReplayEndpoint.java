@@ -0,0 +1,40 @@
+package com.example.api.common.kafka;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * DLT 重放 Actuator 端点（需在 management.endpoints.web.exposure.include 中暴露，受 actuator 安全链保护）
+ * GET  /actuator/dltreplay                                     查看可重放的死信主题及目标
+ * POST /actuator/dltreplay {"dltTopic": "...", "limit": 100}    重放
+ */
+@Component
+@ConditionalOnProperty(name = "spring.kafka.enabled", havingValue = "true", matchIfMissing = true)
+@Endpoint(id = "dltreplay")
+public class DltReplayEndpoint {
+
+    private final DltReplayer dltReplayer;
+    private final DltReplayProperties properties;
+
+    public DltReplayEndpoint(DltReplayer dltReplayer, DltReplayProperties properties) {
+        this.dltReplayer = dltReplayer;
+        this.properties = properties;
+    }
+
+    @ReadOperation
+    public Map<String, String> routes() {
+        return properties.getRoutes();
+    }
+
+    @WriteOperation
+    public Map<String, Object> replay(String dltTopic, @Nullable Integer limit) {
+        int replayed = dltReplayer.replay(dltTopic, limit != null ? limit : properties.getMaxRecords());
+        return Map.of("dltTopic", dltTopic, "targetTopic", properties.getRoutes().get(dltTopic), "replayed", replayed);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.api.common.kafka;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DLT 重放配置属性
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "kafka.dlt-replay")
+public class DltReplayProperties {
+
+    /** 允许重放的死信主题 → 重放目标主题（通常是重试主题入口，重放后仍走幂等与重试流程） */
+    private Map<String, String> routes = new HashMap<>();
+
+    /** 单次重放的最大记录数 */
+    private int maxRecords = 1000;
+
+    /** 单次拉取超时 */
+    private long pollTimeoutMs = 2000;
+
+    /** 单次重放的总时长上限，超过后停止，剩余记录留到下一次 */
+    private long timeoutMs = 60000;
+}
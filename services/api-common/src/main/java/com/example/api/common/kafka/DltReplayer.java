@@ -0,0 +1,172 @@
+package com.example.api.common.kafka;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DLT 重放：从死信主题读取记录，原样（key、value 字节、业务消息头）写回目标主题
+ * 使用固定消费组 {dltTopic}-replay 记录进度，同一条记录只会被重放一次；先确认写入再提交偏移量
+ * 以 assign 读取全部分区直到开始时的末尾偏移量，不依赖消费组再均衡，也不把一次空拉取当作读完
+ * 仅在 spring.kafka.enabled=true 时加载（默认启用）
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.kafka.enabled", havingValue = "true", matchIfMissing = true)
+public class DltReplayer {
+
+    /** 死信与重试过程中附加的消息头，重放时去掉，让记录以干净状态重新进入重试流程 */
+    private static final List<String> STRIPPED_HEADER_PREFIXES = List.of("kafka_dlt-", "retry_topic-");
+
+    private final String bootstrapServers;
+    private final DltReplayProperties properties;
+
+    public DltReplayer(@Value("${spring.kafka.bootstrap-servers:localhost:9092}") String bootstrapServers,
+                       DltReplayProperties properties) {
+        this.bootstrapServers = bootstrapServers;
+        this.properties = properties;
+    }
+
+    /**
+     * 重放死信主题中尚未重放的记录
+     *
+     * @param dltTopic 死信主题，必须在 kafka.dlt-replay.routes 中配置
+     * @param limit    最多重放条数（不超过 maxRecords）
+     * @return 实际重放条数
+     */
+    public int replay(String dltTopic, int limit) {
+        String targetTopic = properties.getRoutes().get(dltTopic);
+        if (targetTopic == null) {
+            throw new IllegalArgumentException("未配置重放路由的死信主题: " + dltTopic);
+        }
+        int max = Math.min(limit, properties.getMaxRecords());
+        try (KafkaConsumer<byte[], byte[]> consumer = new KafkaConsumer<>(consumerProps(dltTopic + "-replay"));
+             KafkaProducer<byte[], byte[]> producer = new KafkaProducer<>(producerProps())) {
+            return replay(consumer, producer, dltTopic, targetTopic, max);
+        }
+    }
+
+    /**
+     * 手动分配死信主题的全部分区，从消费组已提交的位置（没有则从头）读到开始时的末尾偏移量为止；
+     * 重放期间新进入死信主题的记录（包括重放后再次失败的）留到下一次
+     */
+    int replay(Consumer<byte[], byte[]> consumer, Producer<byte[], byte[]> producer,
+               String dltTopic, String targetTopic, int max) {
+        List<TopicPartition> partitions = consumer.partitionsFor(dltTopic).stream()
+                .map(info -> new TopicPartition(info.topic(), info.partition()))
+                .toList();
+        if (partitions.isEmpty()) {
+            return 0;
+        }
+        consumer.assign(partitions);
+        Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(new HashSet<>(partitions));
+        for (TopicPartition partition : partitions) {
+            OffsetAndMetadata offset = committed.get(partition);
+            if (offset != null) {
+                consumer.seek(partition, offset.offset());
+            } else {
+                consumer.seekToBeginning(List.of(partition));
+            }
+        }
+        Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+        Set<TopicPartition> remaining = new HashSet<>(partitions);
+        remaining.removeIf(partition -> consumer.position(partition) >= endOffsets.get(partition));
+
+        int replayed = 0;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getTimeoutMs());
+        try {
+            while (replayed < max && !remaining.isEmpty()) {
+                if (System.nanoTime() - deadline > 0) {
+                    log.warn("DLT 重放超时，剩余记录留到下次: dltTopic={}, replayed={}, remaining={}",
+                            dltTopic, replayed, remaining);
+                    break;
+                }
+                consumer.pause(partitions.stream().filter(partition -> !remaining.contains(partition)).toList());
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                List<Future<?>> sends = new ArrayList<>();
+                for (ConsumerRecord<byte[], byte[]> record : consumer.poll(Duration.ofMillis(properties.getPollTimeoutMs()))) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (replayed >= max || record.offset() >= endOffsets.get(partition)) {
+                        continue;
+                    }
+                    sends.add(producer.send(toTarget(record, targetTopic)));
+                    offsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                    replayed++;
+                }
+                producer.flush();
+                for (Future<?> send : sends) {
+                    send.get();
+                }
+                if (!offsets.isEmpty()) {
+                    consumer.commitSync(offsets);
+                }
+                remaining.removeIf(partition -> consumer.position(partition) >= endOffsets.get(partition));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("DLT 重放被中断: " + dltTopic, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("DLT 重放写入失败: " + dltTopic, e.getCause());
+        }
+        log.info("DLT 重放完成: dltTopic={}, targetTopic={}, replayed={}", dltTopic, targetTopic, replayed);
+        return replayed;
+    }
+
+    static ProducerRecord<byte[], byte[]> toTarget(ConsumerRecord<byte[], byte[]> record, String targetTopic) {
+        ProducerRecord<byte[], byte[]> target = new ProducerRecord<>(targetTopic, record.key(), record.value());
+        for (Header header : record.headers()) {
+            if (STRIPPED_HEADER_PREFIXES.stream().noneMatch(header.key()::startsWith)) {
+                target.headers().add(header);
+            }
+        }
+        return target;
+    }
+
+    private Map<String, Object> consumerProps(String groupId) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        // 已提交位置早于保留期时从最早的记录继续
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Math.min(500, properties.getMaxRecords()));
+        return props;
+    }
+
+    private Map<String, Object> producerProps() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        return props;
+    }
+}
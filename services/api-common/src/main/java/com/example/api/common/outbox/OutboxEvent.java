@@ -0,0 +1,53 @@
+package com.example.api.common.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox 事件（outbox_events 表的一行）
+ * 与业务数据在同一事务中写入，由 OutboxRelay 提交后异步投递到 Kafka
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    private Long id;
+
+    /**
+     * 聚合类型（user、order 等）
+     */
+    private String aggregateType;
+
+    /**
+     * 聚合ID
+     */
+    private String aggregateId;
+
+    /**
+     * 事件类型（事件类简单类名）
+     */
+    private String eventType;
+
+    /**
+     * 目标 Topic
+     */
+    private String topic;
+
+    /**
+     * 消息 key（决定分区，同一 key 有序）
+     */
+    private String messageKey;
+
+    /**
+     * 事件 JSON
+     */
+    private String payload;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,40 @@
+package com.example.api.common.outbox;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Outbox 配置属性
+ * 轮询间隔通过 outbox.poll-interval-ms 配置（默认 200ms）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "outbox")
+public class OutboxProperties {
+
+    /** 单批最多锁定并投递的事件数 */
+    private int batchSize = 500;
+
+    /** 单次轮询最多连续投递的批数（积压时持续排空） */
+    private int maxBatchesPerPoll = 20;
+
+    /** 等待一批发送确认的超时时间 */
+    private long sendTimeoutMs = 10000;
+
+    /** 领取后的租约时长，须大于 sendTimeoutMs；进程崩溃时租约到期后事件可被重新领取 */
+    private long leaseMs = 30000;
+
+    /** 生产者配置 */
+    private Producer producer = new Producer();
+
+    @Data
+    public static class Producer {
+        /** 攒批等待时间 */
+        private int lingerMs = 20;
+        /** 单分区批大小（字节） */
+        private int batchSize = 65536;
+        /** 压缩算法 */
+        private String compressionType = "lz4";
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.api.common.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Outbox 中继：定期领取一批待投递事件，异步发送并等待确认，再删除已确认的行
+ * - 领取：各实例通过 outbox_relay_lock 串行领取，锁定后写入 leased_until 租约即提交，
+ *   等待 Kafka 确认期间不持有行锁与连接；进程崩溃时租约到期后自动重新可领（至少一次，消费方按 eventId 去重）
+ * - 同一 message_key 同一时刻只有一条在途：上一条确认后才发送下一条，不同 key 并行发送
+ * - 生产者开启幂等、lz4 压缩与 linger 攒批，一轮事件合并为少量请求
+ * - 发送失败的事件及其同 key 后续事件释放租约，下次轮询按 id 顺序重投
+ * 指标：outbox.relay.published、outbox.relay.failed、outbox.relay.batch.size、outbox.relay.lag（写入到确认的延迟）
+ * 仅在 spring.kafka.enabled=true 时加载（默认启用）
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.kafka.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay implements DisposableBean {
+
+    static final String EVENT_TYPE_HEADER = "eventType";
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       OutboxProperties properties,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${spring.kafka.bootstrap-servers:localhost:9092}") String bootstrapServers) {
+        this(outboxRepository, properties, transactionManager, meterRegistry,
+                new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(producerProps(bootstrapServers, properties.getProducer()))));
+    }
+
+    OutboxRelay(OutboxRepository outboxRepository,
+                OutboxProperties properties,
+                PlatformTransactionManager transactionManager,
+                MeterRegistry meterRegistry,
+                KafkaTemplate<String, String> kafkaTemplate) {
+        this.outboxRepository = outboxRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    private static Map<String, Object> producerProps(String bootstrapServers, OutboxProperties.Producer producer) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        // 负载已是 JSON，直接按字符串发送；消费方 JsonDeserializer 按默认类型反序列化
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, producer.getLingerMs());
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, producer.getBatchSize());
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, producer.getCompressionType());
+        return props;
+    }
+
+    /**
+     * 轮询投递；一批满额说明仍有积压，继续下一批，直到达到 maxBatchesPerPoll
+     */
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:200}")
+    public void relay() {
+        try {
+            for (int i = 0; i < properties.getMaxBatchesPerPoll(); i++) {
+                if (relayBatch() < properties.getBatchSize()) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Outbox 中继失败: error={}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 投递一批事件：短事务领取并租用 → 事务外分轮发送并等待确认 → 短事务删除已确认的行、释放其余租约
+     * 同一 message_key 的事件按 id 顺序逐条发送：每轮只发送各 key 的下一条，上一条确认后才发送后一条；
+     * 某条失败或超时后该 key 剩余事件不再发送，下次轮询排在失败事件之后重投，不会越过它先到达消费方
+     * 无 message_key 的事件互不相关，在第一轮全部发送
+     *
+     * @return 本批确认投递的事件数
+     */
+    int relayBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> {
+            outboxRepository.lockClaim();
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> pending = outboxRepository.lockPending(now, properties.getBatchSize());
+            if (!pending.isEmpty()) {
+                outboxRepository.lease(pending.stream().map(OutboxEvent::getId).toList(),
+                        now.plus(Duration.ofMillis(properties.getLeaseMs())));
+            }
+            return pending;
+        });
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        DistributionSummary.builder("outbox.relay.batch.size")
+                .register(meterRegistry)
+                .record(batch.size());
+
+        Map<Object, Deque<OutboxEvent>> chains = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            Object chainKey = event.getMessageKey() != null ? event.getMessageKey() : event.getId();
+            chains.computeIfAbsent(chainKey, k -> new ArrayDeque<>()).add(event);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getSendTimeoutMs());
+        List<Long> confirmed = new ArrayList<>(batch.size());
+        List<Long> unconfirmed = new ArrayList<>();
+        try {
+            while (!chains.isEmpty() && deadline - System.nanoTime() > 0) {
+                Map<Object, CompletableFuture<?>> inFlight = new LinkedHashMap<>();
+                chains.forEach((chainKey, chain) -> inFlight.put(chainKey, send(chain.peekFirst())));
+                kafkaTemplate.flush();
+                for (Map.Entry<Object, CompletableFuture<?>> entry : inFlight.entrySet()) {
+                    Deque<OutboxEvent> chain = chains.get(entry.getKey());
+                    OutboxEvent event = chain.peekFirst();
+                    try {
+                        entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                        chain.pollFirst();
+                        confirmed.add(event.getId());
+                        Timer.builder("outbox.relay.lag")
+                                .tag("topic", event.getTopic())
+                                .register(meterRegistry)
+                                .record(Duration.between(event.getCreatedAt(), LocalDateTime.now()));
+                        if (chain.isEmpty()) {
+                            chains.remove(entry.getKey());
+                        }
+                    } catch (ExecutionException | TimeoutException e) {
+                        chains.remove(entry.getKey());
+                        chain.forEach(pending -> unconfirmed.add(pending.getId()));
+                        log.warn("Outbox 事件投递失败，等待重投: id={}, topic={}, type={}, pendingSameKey={}, error={}",
+                                event.getId(), event.getTopic(), event.getEventType(), chain.size() - 1, e.getMessage());
+                        Counter.builder("outbox.relay.failed")
+                                .tag("topic", event.getTopic())
+                                .register(meterRegistry)
+                                .increment();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 超时或中断时仍未确认的事件同样释放，下次轮询按 id 顺序重投
+        chains.values().forEach(chain -> chain.forEach(event -> unconfirmed.add(event.getId())));
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxRepository.deleteByIds(confirmed);
+            outboxRepository.release(unconfirmed);
+        });
+        Counter.builder("outbox.relay.published")
+                .register(meterRegistry)
+                .increment(confirmed.size());
+        log.debug("Outbox 批次投递完成: batch={}, published={}", batch.size(), confirmed.size());
+        return confirmed.size();
+    }
+
+    private CompletableFuture<?> send(OutboxEvent event) {
+        ProducerRecord<String, String> record =
+                new ProducerRecord<>(event.getTopic(), event.getMessageKey(), event.getPayload());
+        record.headers().add(EVENT_TYPE_HEADER, event.getEventType().getBytes(StandardCharsets.UTF_8));
+        try {
+            return kafkaTemplate.send(record);
+        } catch (RuntimeException e) {
+            // 序列化或缓冲区满等同步异常，按失败处理
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (kafkaTemplate.getProducerFactory() instanceof DefaultKafkaProducerFactory<String, String> factory) {
+            factory.destroy();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.api.common.outbox;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outbox 表访问（JdbcTemplate，各服务只需提供同结构的 outbox_events 表）
+ */
+@Component
+public class OutboxRepository {
+
+    private static final RowMapper<OutboxEvent> ROW_MAPPER = (rs, rowNum) -> OutboxEvent.builder()
+            .id(rs.getLong("id"))
+            .aggregateType(rs.getString("aggregate_type"))
+            .aggregateId(rs.getString("aggregate_id"))
+            .eventType(rs.getString("event_type"))
+            .topic(rs.getString("topic"))
+            .messageKey(rs.getString("message_key"))
+            .payload(rs.getString("payload"))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insert(OutboxEvent event) {
+        jdbcTemplate.update("INSERT INTO outbox_events "
+                        + "(aggregate_type, aggregate_id, event_type, topic, message_key, payload, created_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                event.getAggregateType(), event.getAggregateId(), event.getEventType(), event.getTopic(),
+                event.getMessageKey(), event.getPayload(), Timestamp.valueOf(event.getCreatedAt()));
+    }
+
+    /**
+     * JDBC 批量写入（MySQL 连接开启 rewriteBatchedStatements 时改写为多行 INSERT）
+     */
+    public void insertBatch(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO outbox_events "
+                        + "(aggregate_type, aggregate_id, event_type, topic, message_key, payload, created_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                events.stream().map(event -> new Object[]{
+                        event.getAggregateType(), event.getAggregateId(), event.getEventType(), event.getTopic(),
+                        event.getMessageKey(), event.getPayload(), Timestamp.valueOf(event.getCreatedAt())}).toList());
+    }
+
+    /**
+     * 锁定 outbox_relay_lock 的唯一行，使各实例的领取事务串行执行
+     * 必须是领取事务的第一条语句：之后的一致性读在拿到锁后才建立快照，能看到前一个领取事务已提交的租约
+     */
+    public void lockClaim() {
+        jdbcTemplate.queryForList("SELECT id FROM outbox_relay_lock WHERE id = 1 FOR UPDATE", Integer.class);
+    }
+
+    /**
+     * 按写入顺序锁定一批未被租用（或租约已过期）的事件
+     * 同一 message_key 下存在更早且仍在租约中的事件时跳过该行，保证同 key 事件不会越过前一条被其他实例投递；
+     * 该判断依赖 lockClaim 串行化领取，必须在同一事务中先调用 lockClaim，随后用 lease 写入租约并尽快提交
+     */
+    public List<OutboxEvent> lockPending(LocalDateTime now, int limit) {
+        Timestamp at = Timestamp.valueOf(now);
+        return jdbcTemplate.query("SELECT e.id, e.aggregate_type, e.aggregate_id, e.event_type, e.topic, e.message_key, "
+                + "e.payload, e.created_at FROM outbox_events e "
+                + "WHERE (e.leased_until IS NULL OR e.leased_until < ?) "
+                + "AND NOT EXISTS (SELECT 1 FROM outbox_events p WHERE p.message_key = e.message_key "
+                + "AND p.id < e.id AND p.leased_until >= ?) "
+                + "ORDER BY e.id LIMIT ? FOR UPDATE SKIP LOCKED", ROW_MAPPER, at, at, limit);
+    }
+
+    /**
+     * 租用已锁定的事件直到 leasedUntil，期间其他实例不会领取
+     */
+    public int lease(Collection<Long> ids, LocalDateTime leasedUntil) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Object> args = new ArrayList<>(ids.size() + 1);
+        args.add(Timestamp.valueOf(leasedUntil));
+        args.addAll(ids);
+        return jdbcTemplate.update("UPDATE outbox_events SET leased_until = ? WHERE id IN (" + placeholders(ids.size()) + ")",
+                args.toArray());
+    }
+
+    /**
+     * 释放未投递成功的事件的租约，下次轮询重新领取
+     */
+    public int release(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update("UPDATE outbox_events SET leased_until = NULL WHERE id IN (" + placeholders(ids.size()) + ")",
+                ids.toArray());
+    }
+
+    public int deleteByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update("DELETE FROM outbox_events WHERE id IN (" + placeholders(ids.size()) + ")", ids.toArray());
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+}
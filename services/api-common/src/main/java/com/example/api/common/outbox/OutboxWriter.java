@@ -0,0 +1,75 @@
+package com.example.api.common.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Outbox 写入：在调用方事务内把事件写入 outbox_events，业务回滚则事件一并回滚
+ * 请求路径上只多一条 INSERT，投递由 OutboxRelay 在提交后完成
+ */
+@Component
+public class OutboxWriter {
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxWriter(OutboxRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 追加事件
+     *
+     * @param aggregateType 聚合类型
+     * @param aggregateId   聚合ID（可为 null）
+     * @param topic         目标 Topic
+     * @param key           消息 key（可为 null）
+     * @param event         事件对象，序列化为 JSON
+     */
+    @Transactional
+    public void append(String aggregateType, Object aggregateId, String topic, String key, Object event) {
+        outboxRepository.insert(toOutboxEvent(aggregateType, topic, new Message(aggregateId, key, event), LocalDateTime.now()));
+    }
+
+    /**
+     * 批量追加同一 Topic 的事件（一次 JDBC 批量写入）
+     */
+    @Transactional
+    public void appendAll(String aggregateType, String topic, List<Message> messages) {
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.insertBatch(messages.stream()
+                .map(message -> toOutboxEvent(aggregateType, topic, message, now))
+                .toList());
+    }
+
+    /**
+     * 待追加的事件：aggregateId、key 可为 null
+     */
+    public record Message(Object aggregateId, String key, Object event) {
+    }
+
+    private OutboxEvent toOutboxEvent(String aggregateType, String topic, Message message, LocalDateTime createdAt) {
+        Object event = message.event();
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox 事件序列化失败: " + event.getClass().getSimpleName(), e);
+        }
+        return OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(message.aggregateId() != null ? String.valueOf(message.aggregateId()) : null)
+                .eventType(event.getClass().getSimpleName())
+                .topic(topic)
+                .messageKey(message.key())
+                .payload(payload)
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.api.common.security;
+
+/**
+ * Token 签发于所属用户的撤销时间之前（如修改密码后仍使用旧 Token）
+ */
+public class RevokedTokenException extends RuntimeException {
+
+    public RevokedTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.api.common.security;
+
+/**
+ * 按用户撤销 Access Token 的广播消息：各服务实例订阅 {@link #CHANNEL}，收到后调用
+ * {@link VerifiedTokenCache#revokeSubject}；消息体为 "subject:revokedAtMillis"
+ *
+ * @param subject         用户 ID（Token 的 sub）
+ * @param revokedAtMillis 撤销时间，此前签发的 Token 失效
+ */
+public record SubjectRevocation(String subject, long revokedAtMillis) {
+
+    /** Redis pub/sub 频道（频道不区分 db，各服务共用） */
+    public static final String CHANNEL = "access_token:revoked";
+
+    public String toMessage() {
+        return subject + ":" + revokedAtMillis;
+    }
+
+    /**
+     * @throws IllegalArgumentException 消息格式不正确
+     */
+    public static SubjectRevocation parse(String message) {
+        int sep = message.lastIndexOf(':');
+        if (sep <= 0) {
+            throw new IllegalArgumentException("无效的撤销消息: " + message);
+        }
+        return new SubjectRevocation(message.substring(0, sep), Long.parseLong(message.substring(sep + 1)));
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.api.common.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 已验签 Token 缓存：以 Token 的 SHA-256 为键，缓存验签结果直到 Token 的 exp
+ * 同一 Access Token 在有效期内会被前端重复发送，命中缓存可省去每次请求的 RSA 验签。
+ * 容量有界：满时先清理过期项，仍满则本次不写入（直接走完整验签），不会无限增长；
+ * 按 subject 撤销：记录该用户的 not-before 时间，此前签发的 Token（无论是否已缓存）一律抛出 {@link RevokedTokenException}。
+ * iat 精度为秒，与撤销同一秒内签发的 Token 不受影响；not-before 在最长 Token 有效期后自动清理。
+ *
+ * @param <T> 验签结果类型（如 jjwt 的 Claims）
+ */
+public class VerifiedTokenCache<T> {
+
+    private final int maxSize;
+    private final long maxTokenLifetimeMillis;
+    private final Function<T, Long> expiresAtMillis;
+    private final Function<T, Long> issuedAtMillis;
+    private final Function<T, String> subject;
+    private final LongSupplier clock;
+    private final Map<String, Entry<T>> entries = new ConcurrentHashMap<>();
+    /** subject -> not-before（毫秒，已截断到秒） */
+    private final Map<String, Long> notBefore = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxSize                最大缓存条数，&lt;= 0 表示禁用缓存（撤销检查仍然生效）
+     * @param maxTokenLifetimeMillis Token 最长有效期，撤销记录保留这么久后清理
+     * @param expiresAtMillis        从验签结果中取过期时间（毫秒时间戳），返回 null 表示不缓存
+     * @param issuedAtMillis         从验签结果中取签发时间（毫秒时间戳），返回 null 视为撤销前签发
+     * @param subject                从验签结果中取 subject，用于按用户撤销
+     */
+    public VerifiedTokenCache(int maxSize, long maxTokenLifetimeMillis, Function<T, Long> expiresAtMillis,
+                              Function<T, Long> issuedAtMillis, Function<T, String> subject) {
+        this(maxSize, maxTokenLifetimeMillis, expiresAtMillis, issuedAtMillis, subject, System::currentTimeMillis);
+    }
+
+    VerifiedTokenCache(int maxSize, long maxTokenLifetimeMillis, Function<T, Long> expiresAtMillis,
+                       Function<T, Long> issuedAtMillis, Function<T, String> subject, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.maxTokenLifetimeMillis = maxTokenLifetimeMillis;
+        this.expiresAtMillis = Objects.requireNonNull(expiresAtMillis);
+        this.issuedAtMillis = Objects.requireNonNull(issuedAtMillis);
+        this.subject = Objects.requireNonNull(subject);
+        this.clock = clock;
+    }
+
+    /**
+     * 命中且未过期时直接返回缓存结果，否则调用 verifier 完整验签并缓存
+     * verifier 抛出的异常原样抛出，失败结果不缓存；签发早于该用户 not-before 的 Token 抛出 {@link RevokedTokenException}
+     */
+    public T get(String token, Function<String, T> verifier) {
+        if (maxSize <= 0) {
+            T value = verifier.apply(token);
+            return checkNotRevoked(value, subject.apply(value));
+        }
+        String key = hash(token);
+        long now = clock.getAsLong();
+        Entry<T> entry = entries.get(key);
+        if (entry != null) {
+            if (entry.expiresAt > now) {
+                return checkNotRevoked(entry.value, entry.subject);
+            }
+            entries.remove(key, entry);
+        }
+
+        T value = verifier.apply(token);
+        String sub = subject.apply(value);
+        checkNotRevoked(value, sub);
+        Long expiresAt = expiresAtMillis.apply(value);
+        if (expiresAt != null && expiresAt > now && hasRoom(now)) {
+            entries.put(key, new Entry<>(value, expiresAt, sub));
+        }
+        return value;
+    }
+
+    /**
+     * 驱逐单个 Token（如登出、撤销）
+     */
+    public void invalidate(String token) {
+        entries.remove(hash(token));
+    }
+
+    /**
+     * 撤销某用户在 revokedAtMillis 之前签发的全部 Token（如修改密码、重置密码），并驱逐其缓存项
+     * 多次撤销取最晚时间，可安全重复调用（如本地调用后又收到同一广播）
+     */
+    public void revokeSubject(String sub, long revokedAtMillis) {
+        if (sub == null) {
+            return;
+        }
+        long now = clock.getAsLong();
+        notBefore.values().removeIf(at -> at + maxTokenLifetimeMillis <= now);
+        notBefore.merge(sub, revokedAtMillis - revokedAtMillis % 1000, Math::max);
+        entries.values().removeIf(e -> sub.equals(e.subject));
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private T checkNotRevoked(T value, String sub) {
+        Long revokedAt = sub != null ? notBefore.get(sub) : null;
+        if (revokedAt != null) {
+            Long issuedAt = issuedAtMillis.apply(value);
+            if (issuedAt == null || issuedAt < revokedAt) {
+                throw new RevokedTokenException("Token 已撤销");
+            }
+        }
+        return value;
+    }
+
+    private boolean hasRoom(long now) {
+        if (entries.size() < maxSize) {
+            return true;
+        }
+        entries.values().removeIf(e -> e.expiresAt <= now);
+        return entries.size() < maxSize;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    private record Entry<T>(T value, long expiresAt, String subject) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.api.event;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 幂等事件消费（{@link IdempotentEventConsumer}）所需的 Kafka 组件，供各服务的 KafkaConsumerConfig 声明为 Bean
+ * - 主主题批量监听：并发数与分区数对齐，每批提交一次偏移量；消费者指标（含 records-lag）注册到 Micrometer
+ * - 重试主题逐条监听（按退避时间暂停分区），与主监听共用消费者配置
+ * - 失败事件按 JSON 转发到重试主题入口，重试耗尽进入 DLT
+ */
+public final class EventListenerFactories {
+
+    private EventListenerFactories() {
+    }
+
+    /**
+     * JSON 事件消费者：关闭自动提交（由容器提交），无法反序列化的记录以 null 值交给监听器跳过
+     *
+     * @param maxPollRecords 单次 poll 最大记录数（即单批上限）
+     */
+    public static <T> ConsumerFactory<String, T> consumerFactory(String bootstrapServers, String groupId, Class<T> eventType,
+                                                                 int maxPollRecords, MeterRegistry meterRegistry) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class.getName());
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.example.*");
+        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, eventType.getName());
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        DefaultKafkaConsumerFactory<String, T> factory = new DefaultKafkaConsumerFactory<>(props);
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
+    }
+
+    /**
+     * 主主题批量监听容器工厂，每批处理完成后提交一次偏移量
+     *
+     * @param concurrency 监听并发数，建议等于主题分区数
+     */
+    public static <T> ConcurrentKafkaListenerContainerFactory<String, T> batchListenerFactory(
+            ConsumerFactory<String, T> consumerFactory, int concurrency) {
+        ConcurrentKafkaListenerContainerFactory<String, T> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        return factory;
+    }
+
+    /**
+     * 重试主题逐条监听容器工厂
+     */
+    public static <T> ConcurrentKafkaListenerContainerFactory<String, T> retryListenerFactory(
+            ConsumerFactory<String, T> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, T> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.RECORD);
+        return factory;
+    }
+
+    /**
+     * 重试/死信主题的生产者：按 JSON 转发原始事件
+     */
+    public static KafkaTemplate<String, Object> retryKafkaTemplate(String bootstrapServers) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+
+    /**
+     * 批量监听中处理失败的事件转发到重试主题入口（保留原 key，异常信息写入消息头）
+     */
+    public static DeadLetterPublishingRecoverer retryForwarder(KafkaTemplate<String, Object> retryKafkaTemplate,
+                                                               String retryTopic) {
+        return new DeadLetterPublishingRecoverer(retryKafkaTemplate,
+                (record, exception) -> new TopicPartition(retryTopic, -1));
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.api.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 按 eventId 幂等的事件消费流程，供各服务的 @KafkaListener 方法委托
+ * - 批量：批内与已处理记录去重，逐条处理后批量标记；单条失败转发到重试主题后继续处理后续事件
+ * - 重试主题：逐条处理，已处理过的直接跳过；失败抛出由 @RetryableTopic 进入下一级或 DLT
+ * - DLT：记录并计数，待修复后通过 /actuator/dltreplay 重放
+ * 指标（tag listener）：kafka.listener.batch.size、kafka.listener.duplicates、kafka.listener.retry.forwarded、
+ * kafka.listener.retry.depth、kafka.listener.dlt
+ *
+ * @param <T> 事件类型
+ */
+@Slf4j
+public class IdempotentEventConsumer<T> {
+
+    private final String listener;
+    private final ProcessedEventStore processedEventStore;
+    private final MeterRegistry meterRegistry;
+    private final DeadLetterPublishingRecoverer retryForwarder;
+    private final Function<T, String> eventIdOf;
+
+    /**
+     * @param listener       指标 tag 与日志中的监听器名
+     * @param retryForwarder 批量监听中失败事件的转发器（转发到重试主题入口）
+     * @param eventIdOf      事件自带的 eventId，为 null 时以 topic-partition-offset 代替
+     */
+    public IdempotentEventConsumer(String listener,
+                                   ProcessedEventStore processedEventStore,
+                                   MeterRegistry meterRegistry,
+                                   DeadLetterPublishingRecoverer retryForwarder,
+                                   Function<T, String> eventIdOf) {
+        this.listener = listener;
+        this.processedEventStore = processedEventStore;
+        this.meterRegistry = meterRegistry;
+        this.retryForwarder = retryForwarder;
+        this.eventIdOf = eventIdOf;
+    }
+
+    /**
+     * 批量处理：按 eventId 去重（批内 + 已处理记录），逐条处理后批量标记
+     * 转发失败会抛出，整批按容器逻辑重投（已成功的事件在 finally 中标记）
+     */
+    public void consumeBatch(List<ConsumerRecord<String, T>> records, Consumer<T> handler) {
+        DistributionSummary.builder("kafka.listener.batch.size")
+                .tag("listener", listener)
+                .register(meterRegistry)
+                .record(records.size());
+
+        Map<String, ConsumerRecord<String, T>> events = new LinkedHashMap<>();
+        int decoded = 0;
+        for (ConsumerRecord<String, T> record : records) {
+            if (record.value() == null) {
+                log.warn("跳过无法反序列化的事件: listener={}, partition={}, offset={}",
+                        listener, record.partition(), record.offset());
+                continue;
+            }
+            decoded++;
+            events.putIfAbsent(eventId(record), record);
+        }
+        Set<String> processed = processedEventStore.findProcessed(events.keySet());
+
+        List<String> done = new ArrayList<>();
+        try {
+            for (Map.Entry<String, ConsumerRecord<String, T>> entry : events.entrySet()) {
+                if (processed.contains(entry.getKey())) {
+                    continue;
+                }
+                ConsumerRecord<String, T> record = entry.getValue();
+                try {
+                    handler.accept(record.value());
+                    done.add(entry.getKey());
+                } catch (RuntimeException e) {
+                    retryForwarder.accept(record, e);
+                    Counter.builder("kafka.listener.retry.forwarded")
+                            .tag("listener", listener)
+                            .register(meterRegistry)
+                            .increment();
+                }
+            }
+        } finally {
+            processedEventStore.markProcessed(done);
+            Counter.builder("kafka.listener.duplicates")
+                    .tag("listener", listener)
+                    .register(meterRegistry)
+                    .increment(decoded - events.size() + processed.size());
+        }
+    }
+
+    /**
+     * 重试主题上的单条事件：已处理过则跳过，否则处理后标记；失败直接抛出
+     */
+    public void consumeRetry(ConsumerRecord<String, T> record, Consumer<T> handler) {
+        int depth = retryDepth(record);
+        DistributionSummary.builder("kafka.listener.retry.depth")
+                .tag("listener", listener)
+                .register(meterRegistry)
+                .record(depth);
+        String eventId = eventId(record);
+        log.info("重试事件: listener={}, topic={}, depth={}, eventId={}", listener, record.topic(), depth, eventId);
+
+        List<String> eventIds = List.of(eventId);
+        if (!processedEventStore.findProcessed(eventIds).isEmpty()) {
+            return;
+        }
+        handler.accept(record.value());
+        processedEventStore.markProcessed(eventIds);
+    }
+
+    /**
+     * 重试耗尽进入死信主题的事件：记录并计数
+     */
+    public void recordDeadLetter(ConsumerRecord<String, T> record, String error) {
+        log.error("事件重试耗尽，进入死信主题: listener={}, topic={}, offset={}, eventId={}, error={}",
+                listener, record.topic(), record.offset(), record.value() != null ? eventId(record) : null, error);
+        Counter.builder("kafka.listener.dlt")
+                .tag("listener", listener)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private String eventId(ConsumerRecord<String, T> record) {
+        String eventId = eventIdOf.apply(record.value());
+        return eventId != null ? eventId : record.topic() + "-" + record.partition() + "-" + record.offset();
+    }
+
+    /**
+     * 当前处于第几次重试（进入重试主题为第 1 次，之后每进入下一级加 1）
+     */
+    static int retryDepth(ConsumerRecord<?, ?> record) {
+        var attempts = record.headers().lastHeader(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS);
+        if (attempts == null || attempts.value().length != Integer.BYTES) {
+            return 1;
+        }
+        return ByteBuffer.wrap(attempts.value()).getInt();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.api.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 订单生命周期事件 (共享事件类)
+ * 订单创建、状态变更、删除时经 Outbox 发布，按 orderId 分区保证同一订单有序
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 事件类型
+     */
+    public enum Type {
+        /** 订单创建 */
+        CREATED,
+        /** 订单状态变更 */
+        STATUS_CHANGED,
+        /** 订单删除 */
+        DELETED
+    }
+
+    /**
+     * 订单ID
+     */
+    private Long orderId;
+
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * 事件类型
+     */
+    private Type type;
+
+    /**
+     * 事件发生后的订单状态
+     */
+    private String status;
+
+    /**
+     * 订单金额（单价 × 数量）
+     */
+    private BigDecimal amount;
+
+    /**
+     * 发生时间
+     */
+    private LocalDateTime occurredAt;
+
+    /**
+     * 事件ID（用于幂等性处理）
+     */
+    private String eventId;
+}
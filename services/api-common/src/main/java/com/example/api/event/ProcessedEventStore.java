@@ -0,0 +1,21 @@
+package com.example.api.event;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * 已处理事件记录（按 eventId 幂等消费）
+ * 批量监听器先过滤已处理的 eventId，处理成功后再批量标记，保证至少一次投递下的幂等
+ */
+public interface ProcessedEventStore {
+
+    /**
+     * 返回给定 eventId 中已处理过的部分
+     */
+    Set<String> findProcessed(Collection<String> eventIds);
+
+    /**
+     * 标记 eventId 为已处理
+     */
+    void markProcessed(Collection<String> eventIds);
+}
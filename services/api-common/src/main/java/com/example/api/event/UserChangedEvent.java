@@ -0,0 +1,54 @@
+package com.example.api.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 用户变更事件 (共享事件类)
+ * 用户资料、角色变更或删除后发布，供其他服务失效本地缓存
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChangedEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 变更类型
+     */
+    public enum ChangeType {
+        /** 用户资料更新（姓名、邮箱、邮箱验证状态等） */
+        UPDATED,
+        /** 用户角色变更；userId 为空表示角色定义本身变更，影响所有用户 */
+        ROLES_CHANGED,
+        /** 用户被删除 */
+        DELETED
+    }
+
+    /**
+     * 用户ID（ROLES_CHANGED 时可为空，表示全部用户）
+     */
+    private Long userId;
+
+    /**
+     * 变更类型
+     */
+    private ChangeType type;
+
+    /**
+     * 变更时间
+     */
+    private LocalDateTime occurredAt;
+
+    /**
+     * 事件ID（用于幂等性处理）
+     */
+    private String eventId;
+}
@@ -0,0 +1,104 @@
+package com.example.api.common.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TimeOrderedIdGenerator 单元测试
+ * 验证：单调递增、字典序与数值序一致、并发唯一、节点 ID 编码、失去租约后拒绝发号
+ */
+class TimeOrderedIdGeneratorTest {
+
+    @Test
+    void shouldGenerateStrictlyIncreasingIds() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(1);
+        long prev = generator.nextLong();
+        for (int i = 0; i < 100_000; i++) {
+            long next = generator.nextLong();
+            assertTrue(next > prev);
+            prev = next;
+        }
+    }
+
+    @Test
+    void shouldKeepLexicographicOrderOfEncodedIds() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(7);
+        String prev = generator.nextId("msg_");
+        for (int i = 0; i < 10_000; i++) {
+            String next = generator.nextId("msg_");
+            assertTrue(next.compareTo(prev) > 0, next + " 应大于 " + prev);
+            prev = next;
+        }
+    }
+
+    @Test
+    void shouldUseFixedLengthPrefixedIds() {
+        String id = new TimeOrderedIdGenerator(0).nextId("conv_");
+
+        assertTrue(id.startsWith("conv_"));
+        assertEquals("conv_".length() + 13, id.length());
+        assertTrue(id.length() <= 36, "需兼容 VARCHAR(36) 主键");
+        assertTrue(id.substring(5).matches("[0-9a-hjkmnp-tv-z]{13}"));
+    }
+
+    @Test
+    void shouldEncodeTimestampAndWorkerId() {
+        long before = System.currentTimeMillis();
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(1023);
+        long id = generator.nextLong();
+        long after = System.currentTimeMillis();
+
+        long timestamp = TimeOrderedIdGenerator.extractTimestamp(id);
+        assertTrue(timestamp >= before && timestamp <= after + 1);
+        assertEquals(1023, (id >>> 12) & 1023);
+    }
+
+    @Test
+    void shouldProduceUniqueIdsUnderConcurrency() throws Exception {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(3);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 50_000; i++) {
+                        ids.add(generator.nextLong());
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(400_000, ids.size());
+    }
+
+    @Test
+    void shouldRejectOutOfRangeWorkerId() {
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdGenerator(1024));
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdGenerator(-1));
+    }
+
+    @Test
+    void shouldRefuseToGenerateAfterLosingOwnership() {
+        AtomicBoolean held = new AtomicBoolean(true);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(3, held::get);
+        generator.nextLong();
+        held.set(false);
+        assertThrows(IllegalStateException.class, generator::nextLong);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.api.common.id;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * WorkerIdLease 单元测试
+ * 覆盖：跳过已占用节点号、插入冲突时换下一个、全部占满时启动失败、续约失效后 isHeld 为 false
+ */
+@ExtendWith(MockitoExtension.class)
+class WorkerIdLeaseTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldClaimFreeWorkerIdAndSkipTakenOnes() {
+        List<Long> taken = LongStream.rangeClosed(0, TimeOrderedIdGenerator.MAX_WORKER_ID)
+                .filter(id -> id != 42).boxed().toList();
+        when(jdbcTemplate.queryForList(startsWith("SELECT worker_id"), eq(Long.class))).thenReturn(taken);
+
+        try (WorkerIdLease lease = WorkerIdLease.acquire(jdbcTemplate, 60)) {
+            assertEquals(42, lease.getWorkerId());
+            assertTrue(lease.isHeld());
+        }
+        verify(jdbcTemplate).update(startsWith("INSERT INTO id_worker_leases"), eq(42L), anyString(), eq(60L));
+        verify(jdbcTemplate).update(startsWith("DELETE FROM id_worker_leases"), eq(42L), anyString());
+    }
+
+    @Test
+    void shouldMoveOnWhenAnotherInstanceWinsTheRace() {
+        List<Long> taken = LongStream.rangeClosed(0, TimeOrderedIdGenerator.MAX_WORKER_ID)
+                .filter(id -> id != 1 && id != 2).boxed().toList();
+        when(jdbcTemplate.queryForList(startsWith("SELECT worker_id"), eq(Long.class))).thenReturn(taken);
+        lenient().when(jdbcTemplate.update(startsWith("INSERT INTO id_worker_leases"), eq(1L), anyString(), eq(60L)))
+                .thenThrow(new DuplicateKeyException("duplicate"));
+
+        // 随机起点可能先尝试 2，故 1 的冲突桩为 lenient；无论顺序都只能拿到 2
+        try (WorkerIdLease lease = WorkerIdLease.acquire(jdbcTemplate, 60)) {
+            assertEquals(2, lease.getWorkerId());
+        }
+    }
+
+    @Test
+    void shouldFailFastWhenAllWorkerIdsAreTaken() {
+        List<Long> taken = LongStream.rangeClosed(0, TimeOrderedIdGenerator.MAX_WORKER_ID).boxed().toList();
+        when(jdbcTemplate.queryForList(startsWith("SELECT worker_id"), eq(Long.class))).thenReturn(taken);
+
+        assertThrows(IllegalStateException.class, () -> WorkerIdLease.acquire(jdbcTemplate, 60));
+        verify(jdbcTemplate, never()).update(startsWith("INSERT"), any(Object[].class));
+    }
+
+    @Test
+    void shouldStopHoldingWhenLeaseWasTakenOver() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT worker_id"), eq(Long.class))).thenReturn(List.of());
+
+        try (WorkerIdLease lease = WorkerIdLease.acquire(jdbcTemplate, 60)) {
+            when(jdbcTemplate.update(startsWith("UPDATE id_worker_leases SET expires_at"), eq(60L), eq(lease.getWorkerId()), anyString()))
+                    .thenThrow(new QueryTimeoutException("timeout"))
+                    .thenReturn(0);
+
+            lease.renew();
+            assertTrue(lease.isHeld(), "续约失败但仍在持有期限内");
+            lease.renew();
+            assertFalse(lease.isHeld(), "租约被接管后应停止发号");
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.api.common.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DltReplayer 单元测试
+ * 覆盖：重放记录保留 key/value/业务消息头、去掉死信与重试消息头、未配置路由的主题拒绝重放、
+ * 从已提交位置（无则从头）读到开始时的末尾偏移量、空拉取不视为读完、上限条数
+ */
+class DltReplayerTest {
+
+    private static final String DLT = "user-created-events-auth-retry-dlt";
+    private static final String TARGET = "user-created-events-auth-retry";
+    private static final TopicPartition P0 = new TopicPartition(DLT, 0);
+    private static final TopicPartition P1 = new TopicPartition(DLT, 1);
+
+    @Test
+    void toTarget_keepsPayloadAndBusinessHeadersOnly() {
+        ConsumerRecord<byte[], byte[]> record = new ConsumerRecord<>("user-created-events-auth-retry-dlt", 0, 5,
+                bytes("42"), bytes("{\"userId\":42}"));
+        record.headers().add("__TypeId__", bytes("com.example.api.event.UserCreatedEvent"));
+        record.headers().add("kafka_dlt-exception-message", bytes("boom"));
+        record.headers().add("retry_topic-attempts", new byte[]{0, 0, 0, 4});
+
+        ProducerRecord<byte[], byte[]> target = DltReplayer.toTarget(record, "user-created-events-auth-retry");
+
+        assertEquals("user-created-events-auth-retry", target.topic());
+        assertArrayEquals(bytes("42"), target.key());
+        assertArrayEquals(bytes("{\"userId\":42}"), target.value());
+        assertNotNull(target.headers().lastHeader("__TypeId__"));
+        assertNull(target.headers().lastHeader("kafka_dlt-exception-message"));
+        assertNull(target.headers().lastHeader("retry_topic-attempts"));
+    }
+
+    @Test
+    void replay_rejectsTopicWithoutRoute() {
+        DltReplayer replayer = new DltReplayer("localhost:9092", new DltReplayProperties());
+
+        assertThrows(IllegalArgumentException.class, () -> replayer.replay("orders-dlt", 10));
+    }
+
+    @Test
+    void replay_readsAllPartitionsUpToEndOffsetsDespiteEmptyPolls() {
+        MockConsumer<byte[], byte[]> consumer = dltConsumer();
+        consumer.commitSync(Map.of(P1, new OffsetAndMetadata(1)));
+        AtomicInteger polls = new AtomicInteger();
+        consumer.schedulePollTask(polls::incrementAndGet);
+        consumer.schedulePollTask(() -> {
+            polls.incrementAndGet();
+            consumer.addRecord(record(P0, 0));
+            consumer.addRecord(record(P0, 1));
+            consumer.addRecord(record(P1, 1));
+            // 重放开始后才进入死信主题的记录，本次不重放
+            consumer.addRecord(record(P1, 2));
+        });
+        MockProducer<byte[], byte[]> producer = new MockProducer<>(true, new ByteArraySerializer(), new ByteArraySerializer());
+
+        int replayed = replayer().replay(consumer, producer, DLT, TARGET, 100);
+
+        assertEquals(3, replayed);
+        assertEquals(2, polls.get());
+        assertEquals(Set.of("p0-0", "p0-1", "p1-1"),
+                producer.history().stream().map(r -> new String(r.value(), StandardCharsets.UTF_8)).collect(Collectors.toSet()));
+        Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(Set.of(P0, P1));
+        assertEquals(2, committed.get(P0).offset());
+        assertEquals(2, committed.get(P1).offset());
+    }
+
+    @Test
+    void replay_stopsAtLimitAndCommitsOnlyReplayedRecords() {
+        MockConsumer<byte[], byte[]> consumer = dltConsumer();
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(P0, 0));
+            consumer.addRecord(record(P0, 1));
+        });
+        MockProducer<byte[], byte[]> producer = new MockProducer<>(true, new ByteArraySerializer(), new ByteArraySerializer());
+
+        int replayed = replayer().replay(consumer, producer, DLT, TARGET, 1);
+
+        assertEquals(1, replayed);
+        assertEquals(1, consumer.committed(Set.of(P0)).get(P0).offset());
+    }
+
+    @Test
+    void replay_returnsImmediatelyWhenNothingPending() {
+        MockConsumer<byte[], byte[]> consumer = dltConsumer();
+        consumer.updateEndOffsets(Map.of(P0, 0L, P1, 0L));
+        MockProducer<byte[], byte[]> producer = new MockProducer<>(true, new ByteArraySerializer(), new ByteArraySerializer());
+
+        assertEquals(0, replayer().replay(consumer, producer, DLT, TARGET, 100));
+        assertTrue(producer.history().isEmpty());
+    }
+
+    private static MockConsumer<byte[], byte[]> dltConsumer() {
+        MockConsumer<byte[], byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.updatePartitions(DLT, List.of(
+                new PartitionInfo(DLT, 0, null, null, null),
+                new PartitionInfo(DLT, 1, null, null, null)));
+        consumer.updateBeginningOffsets(Map.of(P0, 0L, P1, 0L));
+        consumer.updateEndOffsets(Map.of(P0, 2L, P1, 2L));
+        return consumer;
+    }
+
+    private static DltReplayer replayer() {
+        return new DltReplayer("localhost:9092", new DltReplayProperties());
+    }
+
+    private static ConsumerRecord<byte[], byte[]> record(TopicPartition partition, long offset) {
+        return new ConsumerRecord<>(partition.topic(), partition.partition(), offset,
+                bytes("42"), bytes("p" + partition.partition() + "-" + offset));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.api.common.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * OutboxRelay 单元测试
+ * 覆盖：串行领取并租用、只删除已确认的事件并释放其余租约、同 key 上一条确认后才发送下一条、
+ * 同 key 在首个失败处停止、积压时连续排空、事件类型写入消息头、指标
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OutboxProperties properties = new OutboxProperties();
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        properties.setBatchSize(2);
+        properties.setMaxBatchesPerPoll(5);
+        relay = new OutboxRelay(outboxRepository, properties, transactionManager, meterRegistry, kafkaTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relayBatch_deletesOnlyConfirmedEvents() {
+        when(outboxRepository.lockPending(any(LocalDateTime.class), eq(2))).thenReturn(List.of(event(1L), event(2L)));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        assertEquals(1, relay.relayBatch());
+
+        InOrder claim = inOrder(outboxRepository);
+        claim.verify(outboxRepository).lockClaim();
+        claim.verify(outboxRepository).lockPending(any(LocalDateTime.class), eq(2));
+        claim.verify(outboxRepository).lease(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        verify(kafkaTemplate).flush();
+        assertEquals(List.of(1L), deletedIds().get(0));
+        verify(outboxRepository).release(List.of(2L));
+        assertEquals(1, meterRegistry.get("outbox.relay.published").counter().count());
+        assertEquals(1, meterRegistry.get("outbox.relay.failed").counter().count());
+        assertEquals(1, meterRegistry.get("outbox.relay.lag").timer().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relayBatch_sendsPayloadWithKeyAndEventTypeHeader() {
+        when(outboxRepository.lockPending(any(LocalDateTime.class), eq(2))).thenReturn(List.of(event(7L)));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relayBatch();
+
+        ArgumentCaptor<ProducerRecord<String, String>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(captor.capture());
+        ProducerRecord<String, String> record = captor.getValue();
+        assertEquals("user-created-events", record.topic());
+        assertEquals("key-7", record.key());
+        assertEquals("{\"id\":7}", record.value());
+        assertEquals("UserCreatedEvent", new String(record.headers().lastHeader(OutboxRelay.EVENT_TYPE_HEADER).value()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relay_drainsBacklogUntilPartialBatch() {
+        when(outboxRepository.lockPending(any(LocalDateTime.class), eq(2)))
+                .thenReturn(List.of(event(1L), event(2L)))
+                .thenReturn(List.of(event(3L), event(4L)))
+                .thenReturn(List.of(event(5L)));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relay();
+
+        verify(outboxRepository, times(3)).lockPending(any(LocalDateTime.class), eq(2));
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L, 4L), List.of(5L)), deletedIds());
+    }
+
+    @Test
+    void relay_whenNothingPending_doesNotSend() {
+        when(outboxRepository.lockPending(any(LocalDateTime.class), eq(2))).thenReturn(List.of());
+
+        relay.relay();
+
+        verifyNoInteractions(kafkaTemplate);
+        verify(outboxRepository, never()).lease(any(), any());
+        verify(outboxRepository, never()).deleteByIds(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relayBatch_sendsNextEventOfKeyOnlyAfterPreviousIsAcknowledged() {
+        properties.setBatchSize(3);
+        when(outboxRepository.lockPending(any(LocalDateTime.class), eq(3)))
+                .thenReturn(List.of(event(1L, "a"), event(2L, "a"), event(3L, "b")));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertEquals(3, relay.relayBatch());
+
+        ArgumentCaptor<ProducerRecord<String, String>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        InOrder rounds = inOrder(kafkaTemplate);
+        rounds.verify(kafkaTemplate, times(2)).send(captor.capture());
+        rounds.verify(kafkaTemplate).flush();
+        rounds.verify(kafkaTemplate).send(captor.capture());
+        rounds.verify(kafkaTemplate).flush();
+        assertEquals(List.of("{\"id\":1}", "{\"id\":3}", "{\"id\":2}"),
+                captor.getAllValues().stream().map(ProducerRecord::value).toList());
+        assertEquals(List.of(1L, 3L, 2L), deletedIds().get(0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relayBatch_keepsLaterEventsOfFailedKeyBehindIt() {
+        properties.setBatchSize(3);
+        when(outboxRepository.lockPending(any(LocalDateTime.class), eq(3)))
+                .thenReturn(List.of(event(1L, "a"), event(2L, "a"), event(3L, "b")));
+        CompletableFuture<Object> first = new CompletableFuture<>();
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn((CompletableFuture) first)
+                .thenReturn(CompletableFuture.completedFuture(null));
+        doAnswer(invocation -> first.completeExceptionally(new IllegalStateException("broker down")))
+                .when(kafkaTemplate).flush();
+
+        assertEquals(1, relay.relayBatch());
+
+        verify(kafkaTemplate, times(2)).send(any(ProducerRecord.class));
+        assertEquals(List.of(3L), deletedIds().get(0));
+        verify(outboxRepository).release(List.of(1L, 2L));
+        assertEquals(1, meterRegistry.get("outbox.relay.failed").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relayBatch_doesNotSendPastSynchronousFailureOfSameKey() {
+        properties.setBatchSize(3);
+        when(outboxRepository.lockPending(any(LocalDateTime.class), eq(3)))
+                .thenReturn(List.of(event(1L, "a"), event(2L, "a"), event(3L, "b")));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenThrow(new IllegalStateException("buffer exhausted"))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        assertEquals(1, relay.relayBatch());
+
+        ArgumentCaptor<ProducerRecord<String, String>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(captor.capture());
+        assertEquals(List.of("{\"id\":1}", "{\"id\":3}"), captor.getAllValues().stream().map(ProducerRecord::value).toList());
+        assertEquals(List.of(3L), deletedIds().get(0));
+        verify(outboxRepository).release(List.of(1L, 2L));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Long>> deletedIds() {
+        ArgumentCaptor<Collection<Long>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(outboxRepository, atLeastOnce()).deleteByIds(captor.capture());
+        List<List<Long>> result = new ArrayList<>();
+        captor.getAllValues().forEach(ids -> result.add(new ArrayList<>(ids)));
+        return result;
+    }
+
+    private static OutboxEvent event(Long id) {
+        return event(id, "key-" + id);
+    }
+
+    private static OutboxEvent event(Long id, String key) {
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateType("user")
+                .aggregateId(String.valueOf(id))
+                .eventType("UserCreatedEvent")
+                .topic("user-created-events")
+                .messageKey(key)
+                .payload("{\"id\":" + id + "}")
+                .createdAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+    }
+}
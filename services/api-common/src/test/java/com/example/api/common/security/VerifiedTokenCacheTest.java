@@ -0,0 +1,143 @@
+package com.example.api.common.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * VerifiedTokenCache 单元测试
+ * 验证：命中不重复验签、过期后重新验签、失败不缓存、容量上限、按 Token 驱逐、按 subject 撤销
+ */
+class VerifiedTokenCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    /** 测试用验签结果："subject:expiresAt"，可选 ":issuedAt"（缺省为 1000000） */
+    private String verify(String token) {
+        verifications.incrementAndGet();
+        if (token.startsWith("bad")) {
+            throw new IllegalArgumentException("invalid");
+        }
+        return token;
+    }
+
+    private VerifiedTokenCache<String> newCache(int maxSize) {
+        return new VerifiedTokenCache<>(maxSize, 100_000,
+                v -> Long.parseLong(v.split(":")[1]),
+                v -> v.split(":").length > 2 ? Long.parseLong(v.split(":")[2]) : 1_000_000L,
+                v -> v.split(":")[0],
+                now::get);
+    }
+
+    @Test
+    void shouldVerifyOnceWhileTokenValid() {
+        VerifiedTokenCache<String> cache = newCache(10);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("u1:2000000", cache.get("u1:2000000", this::verify));
+        }
+
+        assertEquals(1, verifications.get());
+    }
+
+    @Test
+    void shouldReverifyAfterExpiry() {
+        VerifiedTokenCache<String> cache = newCache(10);
+        cache.get("u1:1000500", this::verify);
+
+        now.set(1_000_500);
+        cache.get("u1:1000500", this::verify);
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void shouldNotCacheFailures() {
+        VerifiedTokenCache<String> cache = newCache(10);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get("bad:2000000", this::verify));
+        assertThrows(IllegalArgumentException.class, () -> cache.get("bad:2000000", this::verify));
+
+        assertEquals(2, verifications.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void shouldStayWithinMaxSize() {
+        VerifiedTokenCache<String> cache = newCache(2);
+        cache.get("u1:1000100", this::verify);
+        cache.get("u2:2000000", this::verify);
+        cache.get("u3:2000000", this::verify);
+        assertEquals(2, cache.size());
+
+        // u1 过期后腾出空间
+        now.set(1_000_200);
+        cache.get("u4:2000000", this::verify);
+        assertEquals(2, cache.size());
+        cache.get("u4:2000000", this::verify);
+        assertEquals(4, verifications.get());
+    }
+
+    @Test
+    void shouldInvalidateByToken() {
+        VerifiedTokenCache<String> cache = newCache(10);
+        cache.get("u2:2000000", this::verify);
+
+        cache.invalidate("u2:2000000");
+
+        assertEquals(0, cache.size());
+        cache.get("u2:2000000", this::verify);
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void shouldRejectTokensIssuedBeforeSubjectRevocation() {
+        VerifiedTokenCache<String> cache = newCache(10);
+        cache.get("u1:2000000", this::verify);
+        cache.get("u2:2000000", this::verify);
+
+        now.set(1_002_500);
+        cache.revokeSubject("u1", now.get());
+
+        // 已缓存与未缓存的旧 Token 都被拒绝，其他用户不受影响
+        assertThrows(RevokedTokenException.class, () -> cache.get("u1:2000000", this::verify));
+        assertThrows(RevokedTokenException.class, () -> cache.get("u1:2000001:1001000", this::verify));
+        assertEquals("u2:2000000", cache.get("u2:2000000", this::verify));
+        // 撤销同一秒及之后签发的 Token 正常通过（iat 精度为秒）
+        assertEquals("u1:2000002:1002000", cache.get("u1:2000002:1002000", this::verify));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void shouldRejectRevokedTokensWhenCacheDisabled() {
+        VerifiedTokenCache<String> cache = newCache(0);
+        cache.revokeSubject("u1", 1_001_000);
+
+        assertThrows(RevokedTokenException.class, () -> cache.get("u1:2000000", this::verify));
+    }
+
+    @Test
+    void shouldForgetRevocationAfterMaxTokenLifetime() {
+        VerifiedTokenCache<String> cache = newCache(10);
+        cache.revokeSubject("u1", 1_001_000);
+
+        // 撤销前签发的 Token 此时都已过期，撤销记录在下次撤销时被清理
+        now.set(1_101_000);
+        cache.revokeSubject("u2", now.get());
+
+        assertEquals("u1:2000000", cache.get("u1:2000000", this::verify));
+    }
+
+    @Test
+    void shouldBypassWhenDisabled() {
+        VerifiedTokenCache<String> cache = newCache(0);
+        cache.get("u1:2000000", this::verify);
+        cache.get("u1:2000000", this::verify);
+
+        assertEquals(2, verifications.get());
+    }
+}
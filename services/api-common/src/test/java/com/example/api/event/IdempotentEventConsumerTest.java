@@ -0,0 +1,72 @@
+package com.example.api.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * IdempotentEventConsumer 单元测试
+ * 覆盖：无 eventId 时以 topic-partition-offset 去重、失败事件转发后继续处理、重试深度解析
+ */
+@ExtendWith(MockitoExtension.class)
+class IdempotentEventConsumerTest {
+
+    @Mock
+    private ProcessedEventStore processedEventStore;
+
+    @Mock
+    private DeadLetterPublishingRecoverer retryForwarder;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private IdempotentEventConsumer<String> consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new IdempotentEventConsumer<>("test", processedEventStore, meterRegistry, retryForwarder,
+                value -> value.startsWith("e") ? value : null);
+    }
+
+    @Test
+    void consumeBatch_fallsBackToRecordCoordinatesAndForwardsFailures() {
+        when(processedEventStore.findProcessed(anyCollection())).thenReturn(Set.of());
+        ConsumerRecord<String, String> failing = new ConsumerRecord<>("events", 0, 1, null, "fail");
+        List<String> handled = new ArrayList<>();
+
+        consumer.consumeBatch(List.of(new ConsumerRecord<>("events", 0, 0, null, "e1"), failing,
+                new ConsumerRecord<>("events", 0, 2, null, "ok")), value -> {
+            if (value.equals("fail")) {
+                throw new IllegalStateException("boom");
+            }
+            handled.add(value);
+        });
+
+        assertEquals(List.of("e1", "ok"), handled);
+        verify(retryForwarder).accept(eq(failing), any(IllegalStateException.class));
+        verify(processedEventStore).markProcessed(List.of("e1", "events-0-2"));
+        assertEquals(1, meterRegistry.get("kafka.listener.retry.forwarded").tag("listener", "test").counter().count());
+    }
+
+    @Test
+    void retryDepth_readsAttemptsHeaderOrDefaultsToFirst() {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("events-retry", 0, 0, null, "e1");
+        assertEquals(1, IdempotentEventConsumer.retryDepth(record));
+
+        record.headers().add(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS, ByteBuffer.allocate(Integer.BYTES).putInt(2).array());
+        assertEquals(2, IdempotentEventConsumer.retryDepth(record));
+    }
+}
@@ -13,7 +13,7 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 @SpringBootApplication
 @EnableDiscoveryClient
 @EnableScheduling
-@ComponentScan(basePackages = {"com.example.auth", "com.example.api.exception"})
+@ComponentScan(basePackages = {"com.example.auth", "com.example.api.exception", "com.example.api.common.kafka"})  // 扫描全局异常处理器、DLT 重放
 public class AuthServiceApplication {
 
     public static void main(String[] args) {
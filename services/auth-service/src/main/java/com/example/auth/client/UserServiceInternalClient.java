@@ -1,5 +1,7 @@
 package com.example.auth.client;
 
+import com.example.api.common.ResultCode;
+import com.example.api.exception.BusinessException;
 import com.example.auth.client.dto.*;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
@@ -39,7 +41,7 @@ public class UserServiceInternalClient {
     }
 
     /**
-     * 校验用户（登录）：验证邮箱+密码，返回 userId、email、name、roles
+     * 校验用户（登录）：验证邮箱+密码，返回 userId、email、name、emailVerified、roles
      */
     public InternalAuthValidateResponse validateUser(InternalAuthValidateRequest request) {
         String url = baseUrl + "/internal/auth/validate";
@@ -93,6 +95,19 @@ public class UserServiceInternalClient {
         return res.getBody();
     }
 
+    /**
+     * 获取用户上下文（用户信息 + 角色编码，一次往返）
+     */
+    public InternalUserContextResponse getUserContext(Long userId) {
+        String url = baseUrl + "/internal/users/" + userId + "/context";
+        ResponseEntity<InternalUserContextResponse> res = restTemplate.exchange(
+                url,
+                HttpMethod.GET,
+                new HttpEntity<>(headers()),
+                InternalUserContextResponse.class);
+        return res.getBody();
+    }
+
     /**
      * 获取用户角色列表
      */
@@ -187,6 +202,7 @@ public class UserServiceInternalClient {
 
     /**
      * 校验用户，若 401 返回 null，否则返回响应
+     * user-service 密码哈希线程池满载时返回 429，映射为 RATE_LIMIT_EXCEEDED
      */
     public InternalAuthValidateResponse validateUserOrNull(InternalAuthValidateRequest request) {
         String url = baseUrl + "/internal/auth/validate";
@@ -199,6 +215,8 @@ public class UserServiceInternalClient {
             return res.getBody();
         } catch (HttpClientErrorException.Unauthorized e) {
             return null;
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            throw new BusinessException(ResultCode.RATE_LIMIT_EXCEEDED);
         }
     }
 
@@ -209,4 +227,12 @@ public class UserServiceInternalClient {
         String url = baseUrl + "/internal/users/" + userId;
         restTemplate.exchange(url, HttpMethod.DELETE, new HttpEntity<>(headers()), Void.class);
     }
+
+    /**
+     * 按注册 Saga ID 删除用户（幂等，该注册未创建用户时同样成功）
+     */
+    public void deleteUserByRegistration(String registrationId) {
+        String url = baseUrl + "/internal/users/by-registration/" + registrationId;
+        restTemplate.exchange(url, HttpMethod.DELETE, new HttpEntity<>(headers()), Void.class);
+    }
 }
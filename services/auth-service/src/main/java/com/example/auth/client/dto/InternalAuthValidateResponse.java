@@ -7,7 +7,7 @@ import lombok.NoArgsConstructor;
 
 import java.util.List;
 
-/** 内部 API 响应：校验用户成功（userId、email、name、roles） */
+/** 内部 API 响应：校验用户成功（userId、email、name、emailVerified、roles） */
 @Data
 @Builder
 @NoArgsConstructor
@@ -16,5 +16,6 @@ public class InternalAuthValidateResponse {
     private Long userId;
     private String email;
     private String name;
+    private Boolean emailVerified;
     private List<String> roles;
 }
@@ -19,4 +19,8 @@ public class InternalCreateUserRequest {
     @NotBlank(message = "密码不能为空")
     @Size(min = 6, max = 100)
     private String password;
+
+    /** 注册 Saga ID：user-service 据此幂等创建，补偿时按此删除 */
+    @Size(max = 36)
+    private String registrationId;
 }
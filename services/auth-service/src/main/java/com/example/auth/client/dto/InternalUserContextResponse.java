@@ -0,0 +1,23 @@
+package com.example.auth.client.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** 内部 API 响应：用户上下文（用户信息 + 角色编码，refresh 时一次拉取） */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InternalUserContextResponse {
+    private Long id;
+    private String email;
+    private String name;
+    private Boolean emailVerified;
+    private LocalDateTime createdAt;
+    private List<String> roles;
+}
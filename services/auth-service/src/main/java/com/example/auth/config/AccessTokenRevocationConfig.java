@@ -0,0 +1,38 @@
+package com.example.auth.config;
+
+import com.example.api.common.security.SubjectRevocation;
+import com.example.auth.service.AccessTokenRevoker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Access Token 撤销跨副本同步：订阅按用户撤销的广播，记录到本实例的已验签缓存
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "auth.access-token-revocation.pubsub-enabled", havingValue = "true", matchIfMissing = true)
+public class AccessTokenRevocationConfig {
+
+    @Bean
+    public RedisMessageListenerContainer accessTokenRevocationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                                AccessTokenRevoker revoker) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            try {
+                revoker.onRevoked(body);
+            } catch (RuntimeException e) {
+                log.warn("处理 Access Token 撤销广播失败: message={}, error={}", body, e.getMessage());
+            }
+        }, new ChannelTopic(SubjectRevocation.CHANNEL));
+        return container;
+    }
+}
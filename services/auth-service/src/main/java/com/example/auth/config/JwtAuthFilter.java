@@ -54,7 +54,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         try {
             String token = extractToken(request);
             if (StringUtils.hasText(token)) {
-                var claims = jwtService.parseToken(token);
+                var claims = jwtService.parseTokenCached(token);
                 String userId = claims.getSubject();
                 @SuppressWarnings("unchecked")
                 List<String> roles = claims.get("roles", List.class);
@@ -1,7 +1,14 @@
 package com.example.auth.config;
 
+import com.example.api.event.EventListenerFactories;
+import com.example.api.event.UserChangedEvent;
 import com.example.api.event.UserCreatedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.PartitionInfo;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -10,16 +17,23 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
-import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 /**
  * Kafka 消费者配置
+ * 用户创建事件：批量监听、重试主题与 DLT 组件由 {@link EventListenerFactories} 创建
+ * 用户变更事件：每个实例手动分配全部分区（不加入消费组），从最新位置消费，失效本地缓存
  */
+@Slf4j
 @EnableKafka
 @Configuration
 public class KafkaConsumerConfig {
@@ -30,29 +44,91 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.consumer.group-id:auth-service-group}")
     private String groupId;
 
+    /** 监听并发数，建议等于主题分区数 */
+    @Value("${kafka.listener.user-events.concurrency:3}")
+    private int concurrency;
+
+    /** 单次 poll 最大记录数（即单批上限） */
+    @Value("${kafka.listener.user-events.max-poll-records:500}")
+    private int maxPollRecords;
+
+    private final MeterRegistry meterRegistry;
+
+    public KafkaConsumerConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @Bean
     public ConsumerFactory<String, UserCreatedEvent> consumerFactory() {
+        return EventListenerFactories.consumerFactory(bootstrapServers, groupId, UserCreatedEvent.class,
+                maxPollRecords, meterRegistry);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, UserCreatedEvent> kafkaListenerContainerFactory() {
+        return EventListenerFactories.batchListenerFactory(consumerFactory(), concurrency);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, UserCreatedEvent> userEventsRetryListenerContainerFactory() {
+        return EventListenerFactories.retryListenerFactory(consumerFactory());
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> retryKafkaTemplate() {
+        return EventListenerFactories.retryKafkaTemplate(bootstrapServers);
+    }
+
+    @Bean
+    public DeadLetterPublishingRecoverer userEventsRetryForwarder(
+            @Value("${kafka.topics.user-created-retry:user-created-events-auth-retry}") String retryTopic) {
+        return EventListenerFactories.retryForwarder(retryKafkaTemplate(), retryTopic);
+    }
+
+    /**
+     * 用户变更事件（缓存失效）消费者
+     * 每个实例需各自收到事件：不设 group.id，由监听器手动分配分区，不提交偏移量、不在 Broker 留下消费组；
+     * 无已提交偏移量时按 latest 从末尾开始，只消费启动后的新消息（启动时本地缓存为空，无需补读）
+     */
+    @Bean
+    public ConsumerFactory<String, UserChangedEvent> userChangedConsumerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
         props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class.getName());
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.example.*");
-        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, UserCreatedEvent.class.getName());
-        // 自动提交偏移量
+        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, UserChangedEvent.class.getName());
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
-        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
         return new DefaultKafkaConsumerFactory<>(props);
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, UserCreatedEvent> kafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, UserCreatedEvent> factory =
+    public ConcurrentKafkaListenerContainerFactory<String, UserChangedEvent> userChangedListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, UserChangedEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(consumerFactory());
-        // 手动确认模式
-        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.RECORD);
+        factory.setConsumerFactory(userChangedConsumerFactory());
         return factory;
     }
+
+    /**
+     * 用户变更主题的全部分区（启动时查询），供缓存失效监听手动分配
+     * 查询失败（Broker 不可达、主题尚未创建）时按 kafka.listener.user-changed.partition-count 分配
+     */
+    @Bean
+    public List<Integer> userChangedPartitions(
+            @Value("${kafka.topics.user-changed:user-changed-events}") String topic,
+            @Value("${kafka.listener.user-changed.partition-count:3}") int fallbackPartitionCount,
+            @Value("${kafka.listener.user-changed.lookup-timeout-ms:10000}") long lookupTimeoutMillis) {
+        try (Consumer<String, UserChangedEvent> consumer = userChangedConsumerFactory().createConsumer()) {
+            List<PartitionInfo> partitions = consumer.partitionsFor(topic, Duration.ofMillis(lookupTimeoutMillis));
+            if (partitions != null && !partitions.isEmpty()) {
+                return partitions.stream().map(PartitionInfo::partition).sorted().toList();
+            }
+        } catch (KafkaException e) {
+            log.warn("查询用户变更主题分区失败，按配置的分区数分配: topic={}, error={}", topic, e.getMessage());
+        }
+        return IntStream.range(0, fallbackPartitionCount).boxed().toList();
+    }
 }
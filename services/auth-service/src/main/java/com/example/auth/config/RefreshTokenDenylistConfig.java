@@ -0,0 +1,37 @@
+package com.example.auth.config;
+
+import com.example.auth.service.RefreshTokenDenylist;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Refresh Token 吊销名单跨副本同步：订阅吊销广播，收到即加入本地布隆过滤器
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "auth.denylist.pubsub-enabled", havingValue = "true", matchIfMissing = true)
+public class RefreshTokenDenylistConfig {
+
+    @Bean
+    public RedisMessageListenerContainer refreshTokenDenylistListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                               RefreshTokenDenylist denylist) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            String member = new String(message.getBody(), StandardCharsets.UTF_8);
+            try {
+                denylist.onRevoked(member);
+            } catch (RuntimeException e) {
+                log.warn("处理 Refresh Token 吊销广播失败，将由增量同步补齐: error={}", e.getMessage());
+            }
+        }, new ChannelTopic(RefreshTokenDenylist.CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.auth.config;
+
+import com.example.auth.service.TokenRotationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 启动时将旧版 refresh_token:{userId}[:deviceId] 字符串键迁移为按用户的 Hash 索引
+ * 默认关闭；升级后开启一次即可（未迁移的键也会在验证时惰性迁移）
+ */
+@Component
+@ConditionalOnProperty(name = "auth.refresh-token.migrate-legacy-keys", havingValue = "true")
+public class RefreshTokenMigrationRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenMigrationRunner.class);
+
+    private final TokenRotationService tokenRotationService;
+
+    @Value("${auth.refresh-token.migration-scan-count:1000}")
+    private int scanCount;
+
+    public RefreshTokenMigrationRunner(TokenRotationService tokenRotationService) {
+        this.tokenRotationService = tokenRotationService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            long start = System.currentTimeMillis();
+            long migrated = tokenRotationService.migrateLegacyKeys(scanCount);
+            log.info("Refresh Token 键迁移完成: migrated={}, elapsedMs={}", migrated, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("Refresh Token 键迁移失败，未迁移的键将在验证时惰性迁移", e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.auth.event;
+
+import com.example.api.event.ProcessedEventStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 Redis 的已处理事件记录：processed_event:{eventId}，保留 ttl 覆盖 Kafka 重投窗口
+ * 查询与标记各一次往返（MGET / pipeline SET）
+ */
+@Component
+public class RedisProcessedEventStore implements ProcessedEventStore {
+
+    static final String KEY_PREFIX = "processed_event:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    @Value("${kafka.listener.processed-event-ttl-seconds:604800}")
+    private long ttlSeconds;
+
+    public RedisProcessedEventStore(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Set<String> findProcessed(Collection<String> eventIds) {
+        Set<String> processed = new HashSet<>();
+        if (eventIds.isEmpty()) {
+            return processed;
+        }
+        List<String> ids = List.copyOf(eventIds);
+        List<String> values = redisTemplate.opsForValue().multiGet(ids.stream().map(id -> KEY_PREFIX + id).toList());
+        if (values == null) {
+            return processed;
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            if (values.get(i) != null) {
+                processed.add(ids.get(i));
+            }
+        }
+        return processed;
+    }
+
+    @Override
+    public void markProcessed(Collection<String> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (String id : eventIds) {
+                    ops.opsForValue().set(KEY_PREFIX + id, "1", ttlSeconds, TimeUnit.SECONDS);
+                }
+                return null;
+            }
+        });
+    }
+}
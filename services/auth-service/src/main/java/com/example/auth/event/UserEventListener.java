@@ -1,31 +1,102 @@
 package com.example.auth.event;
 
+import com.example.api.event.IdempotentEventConsumer;
+import com.example.api.event.ProcessedEventStore;
+import com.example.api.event.UserChangedEvent;
 import com.example.api.event.UserCreatedEvent;
-import lombok.RequiredArgsConstructor;
+import com.example.auth.service.UserContextCache;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * 用户事件监听器 - Auth Service
- * 监听用户创建事件，执行相关初始化操作
+ * 批量监听用户创建事件（按 eventId 幂等），执行相关初始化操作，失败事件走非阻塞重试主题与 DLT；
+ * 监听用户变更事件，失效用户上下文缓存
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class UserEventListener {
 
+    private static final String LISTENER = "user-created";
+
+    private final UserContextCache userContextCache;
+    private final IdempotentEventConsumer<UserCreatedEvent> userCreatedConsumer;
+
+    public UserEventListener(UserContextCache userContextCache,
+                             ProcessedEventStore processedEventStore,
+                             MeterRegistry meterRegistry,
+                             DeadLetterPublishingRecoverer retryForwarder) {
+        this.userContextCache = userContextCache;
+        this.userCreatedConsumer = new IdempotentEventConsumer<>(LISTENER, processedEventStore, meterRegistry,
+                retryForwarder, UserCreatedEvent::getEventId);
+    }
+
     /**
-     * 处理用户创建事件
-     * - 初始化用户认证配置
-     * - 发送欢迎邮件（如果需要）
+     * 批量处理用户创建事件：按 eventId 去重（批内 + 已处理记录），逐条处理后批量标记
+     * 单条失败不阻塞分区：转发到重试主题后继续处理后续事件，由 {@link #handleUserCreatedRetry} 带退避重试
      */
     @KafkaListener(
             topics = "${kafka.topics.user-created:user-created-events}",
             groupId = "${spring.kafka.consumer.group-id:auth-service-group}",
             containerFactory = "kafkaListenerContainerFactory"
     )
-    public void handleUserCreated(UserCreatedEvent event) {
+    public void handleUserCreatedBatch(List<ConsumerRecord<String, UserCreatedEvent>> records) {
+        userCreatedConsumer.consumeBatch(records, this::handleUserCreated);
+    }
+
+    /**
+     * 重试主题上的用户创建事件：失败按指数退避进入下一级重试主题，重试耗尽进入 DLT
+     * 各级重试主题各自独立消费，等待退避的记录不会阻塞主主题
+     */
+    @RetryableTopic(
+            attempts = "${kafka.listener.user-events.retry.attempts:4}",
+            backoff = @Backoff(
+                    delayExpression = "${kafka.listener.user-events.retry.initial-delay-ms:1000}",
+                    multiplierExpression = "${kafka.listener.user-events.retry.multiplier:2.0}",
+                    maxDelayExpression = "${kafka.listener.user-events.retry.max-delay-ms:60000}"),
+            retryTopicSuffix = "-backoff",
+            dltTopicSuffix = "-dlt",
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            kafkaTemplate = "retryKafkaTemplate",
+            listenerContainerFactory = "userEventsRetryListenerContainerFactory"
+    )
+    @KafkaListener(
+            topics = "${kafka.topics.user-created-retry:user-created-events-auth-retry}",
+            groupId = "${spring.kafka.consumer.group-id:auth-service-group}",
+            containerFactory = "userEventsRetryListenerContainerFactory"
+    )
+    public void handleUserCreatedRetry(ConsumerRecord<String, UserCreatedEvent> record) {
+        userCreatedConsumer.consumeRetry(record, this::handleUserCreated);
+    }
+
+    /**
+     * 重试耗尽的用户创建事件：记录并计数，待修复后通过 /actuator/dltreplay 重放
+     */
+    @DltHandler
+    public void handleUserCreatedDlt(ConsumerRecord<String, UserCreatedEvent> record,
+                                     @Header(name = KafkaHeaders.EXCEPTION_MESSAGE, required = false) String error) {
+        userCreatedConsumer.recordDeadLetter(record, error);
+    }
+
+    /**
+     * 处理用户创建事件
+     * - 初始化用户认证配置
+     * - 发送欢迎邮件（如果需要）
+     */
+    void handleUserCreated(UserCreatedEvent event) {
         log.info("Auth Service 收到用户创建事件: userId={}, username={}, eventId={}",
                 event.getUserId(), event.getUsername(), event.getEventId());
 
@@ -47,6 +118,26 @@ public class UserEventListener {
         }
     }
 
+    /**
+     * 处理用户变更事件：失效对应用户的上下文缓存
+     * 每个实例手动分配全部分区且不加入消费组，确保所有实例的近缓存都被失效，重启也不会遗留消费组
+     */
+    @KafkaListener(
+            topicPartitions = @TopicPartition(
+                    topic = "${kafka.topics.user-changed:user-changed-events}",
+                    partitions = "#{@userChangedPartitions}"),
+            containerFactory = "userChangedListenerContainerFactory"
+    )
+    public void handleUserChanged(UserChangedEvent event) {
+        log.debug("Auth Service 收到用户变更事件: userId={}, type={}, eventId={}",
+                event.getUserId(), event.getType(), event.getEventId());
+        if (event.getUserId() == null) {
+            userContextCache.evictAll();
+        } else {
+            userContextCache.evict(event.getUserId());
+        }
+    }
+
     /**
      * 初始化用户认证配置
      * 例如：设置默认安全策略、初始化 MFA 状态等
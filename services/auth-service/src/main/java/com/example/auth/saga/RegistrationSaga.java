@@ -7,6 +7,7 @@ import com.example.api.model.RegisterResponse;
 import com.example.auth.client.UserServiceInternalClient;
 import com.example.auth.client.dto.InternalCreateUserRequest;
 import com.example.auth.client.dto.InternalCreateUserResponse;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -14,103 +15,54 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * 注册流程 Saga：使用 Saga Pattern 管理用户注册的分布式事务
  * 
  * Saga 步骤：
- * 1. 创建用户（createUser）
- * 2. 发送邮箱验证邮件（sendEmailVerification）
+ * 1. 创建用户（createUser，同步，提交点）
+ * 2. 发送邮箱验证邮件（sendEmailVerification，异步，失败按退避重试）
  * 
  * 补偿操作：
- * - 如果步骤 2 失败，删除已创建的用户
+ * - 步骤 1 失败（如超时但对端已创建）、执行中或提交前实例崩溃，删除本次注册创建的用户：
+ *   已记录 userId 时按 ID 删除，否则按 sagaId（创建时作为 registrationId 传给 user-service）删除，
+ *   不按邮箱删除，避免误删同邮箱的其他注册
+ * - 步骤 2 重试耗尽不删除用户，用户可通过重新发送验证邮件完成验证
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RegistrationSaga {
-    
+
+    static final String SAGA_TYPE = "registration";
+
     private final UserServiceInternalClient userClient;
     private final SagaOrchestrator sagaOrchestrator;
-    
+
+    @PostConstruct
+    void registerDefinition() {
+        sagaOrchestrator.register(new SagaDefinition(SAGA_TYPE, List.of(
+                SagaStep.remote("createUser", 1, this::createUser, this::deleteCreatedUser),
+                SagaStep.async("sendEmailVerification", 2, this::sendEmailVerification))));
+    }
+
     /**
      * 执行注册 Saga
      */
     public RegisterResponse execute(RegisterRequest request) {
         SagaContext context = new SagaContext();
+        // 邮箱等数据随 Saga 首条日志在步骤 1 之前写入
         context.put("email", request.getEmail().trim().toLowerCase());
         context.put("name", request.getEmail().split("@")[0]);
-        
-        // 准备创建用户请求
-        InternalCreateUserRequest createUserRequest = new InternalCreateUserRequest();
-        createUserRequest.setName(context.get("name", String.class));
-        createUserRequest.setEmail(context.get("email", String.class));
-        createUserRequest.setPassword(request.getPassword());
-        
-        // 定义 Saga 步骤
-        List<SagaStep> steps = new ArrayList<>();
-        
-        // Step 1: 创建用户
-        steps.add(new SagaStep(
-            "createUser",
-            1,
-            () -> {
-                log.info("Saga Step 1: 创建用户 - email={}", createUserRequest.getEmail());
-                InternalCreateUserResponse response = userClient.createUser(createUserRequest);
-                context.put("userId", response.getUserId());
-                log.info("Saga Step 1: 用户创建成功 - userId={}", response.getUserId());
-                return response;
-            },
-            () -> {
-                Long userId = context.get("userId", Long.class);
-                if (userId != null) {
-                    log.info("Saga 补偿: 删除用户 - userId={}", userId);
-                    try {
-                        userClient.deleteUser(userId);
-                        log.info("Saga 补偿成功: 用户已删除 - userId={}", userId);
-                    } catch (Exception e) {
-                        log.error("Saga 补偿失败: 删除用户失败 - userId={}, error={}", 
-                            userId, e.getMessage(), e);
-                        // 补偿失败时记录告警，需要人工介入
-                        // TODO: 发送告警通知或记录到死信队列
-                        throw new RuntimeException("补偿操作失败: 删除用户失败", e);
-                    }
-                }
-            }
-        ));
-        
-        // Step 2: 发送邮箱验证邮件
-        steps.add(new SagaStep(
-            "sendEmailVerification",
-            2,
-            () -> {
-                Long userId = context.get("userId", Long.class);
-                String email = context.get("email", String.class);
-                
-                if (userId == null) {
-                    throw new BusinessException(ResultCode.REMOTE_SERVICE_ERROR, 
-                        "用户 ID 不存在，无法发送验证邮件");
-                }
-                
-                log.info("Saga Step 2: 发送邮箱验证邮件 - userId={}, email={}", userId, email);
-                userClient.sendEmailVerification(userId, email);
-                log.info("Saga Step 2: 邮箱验证邮件发送成功 - userId={}", userId);
-                return null;
-            },
-            () -> {
-                // 发送邮件失败不需要补偿（邮件发送是幂等的，可以重试）
-                // 但用户已创建，需要删除用户（由 Step 1 的补偿处理）
-                log.debug("Saga Step 2 补偿: 邮件发送失败，用户删除由 Step 1 补偿处理");
-            }
-        ));
+        // 密码只保存在内存中，不写入 Saga 日志
+        context.putTransient("password", request.getPassword());
         
         try {
             // 执行 Saga
-            sagaOrchestrator.execute(steps, context);
+            sagaOrchestrator.execute(SAGA_TYPE, context);
             
-            // Saga 执行成功
+            // Saga 已提交：用户已创建，验证邮件在后台发送
             return RegisterResponse.builder()
                 .message("注册成功，请查收验证邮件")
                 .email(context.get("email", String.class))
@@ -138,4 +90,62 @@ public class RegistrationSaga {
                 "注册失败，请稍后重试");
         }
     }
+
+    /**
+     * Step 1: 创建用户
+     */
+    private Object createUser(SagaContext context) {
+        InternalCreateUserRequest createUserRequest = new InternalCreateUserRequest();
+        createUserRequest.setName(context.get("name", String.class));
+        createUserRequest.setEmail(context.get("email", String.class));
+        createUserRequest.setPassword(context.getTransient("password", String.class));
+        createUserRequest.setRegistrationId(context.getSagaId());
+        log.info("Saga Step 1: 创建用户 - email={}", createUserRequest.getEmail());
+        InternalCreateUserResponse response = userClient.createUser(createUserRequest);
+        context.put("userId", response.getUserId());
+        log.info("Saga Step 1: 用户创建成功 - userId={}", response.getUserId());
+        return response;
+    }
+
+    /**
+     * Step 1 补偿：删除本次注册创建的用户（幂等）
+     */
+    private void deleteCreatedUser(SagaContext context) {
+        Long userId = context.get("userId", Long.class);
+        log.info("Saga 补偿: 删除用户 - sagaId={}, userId={}", context.getSagaId(), userId);
+        try {
+            if (userId != null) {
+                userClient.deleteUser(userId);
+            } else {
+                userClient.deleteUserByRegistration(context.getSagaId());
+            }
+            log.info("Saga 补偿成功: 用户已删除 - sagaId={}, userId={}", context.getSagaId(), userId);
+        } catch (HttpClientErrorException.NotFound e) {
+            log.info("Saga 补偿: 用户已不存在 - sagaId={}, userId={}", context.getSagaId(), userId);
+        } catch (Exception e) {
+            log.error("Saga 补偿失败: 删除用户失败 - sagaId={}, userId={}, error={}",
+                context.getSagaId(), userId, e.getMessage(), e);
+            // 补偿失败时记录告警，需要人工介入
+            // TODO: 发送告警通知或记录到死信队列
+            throw new RuntimeException("补偿操作失败: 删除用户失败", e);
+        }
+    }
+
+    /**
+     * Step 2: 发送邮箱验证邮件（异步，可重试）
+     */
+    private Object sendEmailVerification(SagaContext context) {
+        Long userId = context.get("userId", Long.class);
+        String email = context.get("email", String.class);
+
+        if (userId == null) {
+            throw new BusinessException(ResultCode.REMOTE_SERVICE_ERROR,
+                "用户 ID 不存在，无法发送验证邮件");
+        }
+
+        log.info("Saga Step 2: 发送邮箱验证邮件 - userId={}, email={}", userId, email);
+        userClient.sendEmailVerification(userId, email);
+        log.info("Saga Step 2: 邮箱验证邮件发送成功 - userId={}", userId);
+        return null;
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.auth.saga;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import java.util.HashMap;
 import java.util.Map;
@@ -8,60 +9,123 @@ import java.util.HashSet;
 
 /**
  * Saga 上下文：存储 Saga 执行过程中的状态和数据
- * 用于追踪已完成的步骤和需要补偿的操作
+ * 用于追踪已完成的步骤和需要补偿的操作；除 transient 数据外整体写入 Saga 日志，崩溃后据此恢复
  */
 @Data
 public class SagaContext {
+
+    /**
+     * Saga 状态
+     */
+    public enum Status {
+        /** 同步步骤执行中，失败或崩溃后需补偿 */
+        RUNNING,
+        /** 同步步骤已全部完成，异步步骤待执行，崩溃后需继续执行 */
+        ASYNC_PENDING,
+        /** 全部步骤完成 */
+        COMPLETED,
+        /** 同步步骤失败，已补偿 */
+        COMPENSATED,
+        /** 异步步骤重试耗尽 */
+        FAILED
+    }
+
     /**
      * Saga ID（用于追踪和日志）
      */
     private String sagaId;
-    
+
+    /**
+     * Saga 类型（对应已注册的 SagaDefinition，恢复时据此找回步骤）
+     */
+    private String sagaType;
+
+    /**
+     * 当前状态
+     */
+    private Status status = Status.RUNNING;
+
+    /**
+     * 最近一次写入日志的时间（毫秒）
+     */
+    private long updatedAt;
+
+    /**
+     * 正在执行的同步步骤（执行前写入日志，崩溃恢复时据此补偿可能已生效的步骤）
+     */
+    private String currentStep;
+
     /**
      * 已完成的步骤集合
      */
     private Set<String> completedSteps = new HashSet<>();
-    
+
     /**
      * Saga 执行过程中的数据存储
      */
     private Map<String, Object> data = new HashMap<>();
-    
+
+    /**
+     * 仅存在于内存、不写入日志的数据（如密码），崩溃后不可用
+     */
+    @JsonIgnore
+    private Map<String, Object> transientData = new HashMap<>();
+
     /**
      * 标记步骤为已完成
      */
     public void markStepCompleted(String stepName) {
         completedSteps.add(stepName);
     }
-    
+
     /**
      * 检查步骤是否已完成
      */
     public boolean isStepCompleted(String stepName) {
         return completedSteps.contains(stepName);
     }
-    
+
     /**
      * 存储数据
      */
     public void put(String key, Object value) {
         data.put(key, value);
     }
-    
+
     /**
-     * 获取数据
+     * 存储仅内存数据（不写入日志）
+     */
+    public void putTransient(String key, Object value) {
+        transientData.put(key, value);
+    }
+
+    /**
+     * 获取数据（从日志恢复后数值可能为 Integer，按需转换为 Long）
      */
-    @SuppressWarnings("unchecked")
     public <T> T get(String key, Class<T> type) {
-        return (T) data.get(key);
+        return convert(data.get(key), type);
+    }
+
+    /**
+     * 获取仅内存数据
+     */
+    public <T> T getTransient(String key, Class<T> type) {
+        return convert(transientData.get(key), type);
     }
-    
+
     /**
      * 获取数据（带默认值）
      */
-    @SuppressWarnings("unchecked")
     public <T> T getOrDefault(String key, T defaultValue, Class<T> type) {
-        Object value = data.get(key);
-        return value != null ? (T) value : defaultValue;
+        T value = get(key, type);
+        return value != null ? value : defaultValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T convert(Object value, Class<T> type) {
+        if (value instanceof Number n && type == Long.class) {
+            return (T) Long.valueOf(n.longValue());
+        }
+        return (T) value;
     }
 }
@@ -0,0 +1,35 @@
+package com.example.auth.saga;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Saga 定义：类型名 + 有序步骤
+ * 在 SagaOrchestrator 中按类型注册，恢复未完成的 Saga 时据此找回步骤
+ */
+public class SagaDefinition {
+
+    private final String type;
+    private final List<SagaStep> steps;
+
+    public SagaDefinition(String type, List<SagaStep> steps) {
+        this.type = type;
+        this.steps = steps.stream().sorted(Comparator.comparingInt(SagaStep::getOrder)).toList();
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public List<SagaStep> getSteps() {
+        return steps;
+    }
+
+    public List<SagaStep> getSyncSteps() {
+        return steps.stream().filter(s -> !s.isAsync()).toList();
+    }
+
+    public List<SagaStep> getAsyncSteps() {
+        return steps.stream().filter(SagaStep::isAsync).toList();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.auth.saga;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saga 日志（Redis）：每个 Saga 的上下文存为 saga:{sagaId}，未结束的 Saga 按更新时间记录在 ZSET saga:active
+ * 结束（完成/补偿/失败）后移出活动索引，日志保留 finished-ttl 供排查
+ */
+@Slf4j
+@Component
+public class SagaJournal {
+
+    static final String SAGA_KEY_PREFIX = "saga:";
+    static final String ACTIVE_INDEX_KEY = "saga:active";
+    private static final String CLAIM_KEY_SUFFIX = ":claim";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${auth.saga.finished-ttl-seconds:604800}")
+    private long finishedTtlSeconds;
+
+    public SagaJournal(RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 写入 Saga 当前状态（一次 pipeline：上下文 + 活动索引）
+     */
+    public void save(SagaContext context) {
+        context.setUpdatedAt(System.currentTimeMillis());
+        String key = SAGA_KEY_PREFIX + context.getSagaId();
+        String json = toJson(context);
+        boolean finished = context.getStatus() == SagaContext.Status.COMPLETED
+                || context.getStatus() == SagaContext.Status.COMPENSATED
+                || context.getStatus() == SagaContext.Status.FAILED;
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                if (finished) {
+                    ops.opsForValue().set(key, json, finishedTtlSeconds, TimeUnit.SECONDS);
+                    ops.opsForZSet().remove(ACTIVE_INDEX_KEY, context.getSagaId());
+                } else {
+                    ops.opsForValue().set(key, json);
+                    ops.opsForZSet().add(ACTIVE_INDEX_KEY, context.getSagaId(), context.getUpdatedAt());
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 查找超过 staleMillis 未更新的活动 Saga（其所属实例可能已崩溃）
+     */
+    public List<SagaContext> findStale(long staleMillis, int limit) {
+        long maxScore = System.currentTimeMillis() - staleMillis;
+        Set<String> ids = redisTemplate.opsForZSet().rangeByScore(ACTIVE_INDEX_KEY, 0, maxScore, 0, limit);
+        List<SagaContext> result = new ArrayList<>();
+        if (ids == null) {
+            return result;
+        }
+        for (String id : ids) {
+            String json = redisTemplate.opsForValue().get(SAGA_KEY_PREFIX + id);
+            if (json == null) {
+                redisTemplate.opsForZSet().remove(ACTIVE_INDEX_KEY, id);
+                continue;
+            }
+            try {
+                result.add(objectMapper.readValue(json, SagaContext.class));
+            } catch (JsonProcessingException e) {
+                log.error("Saga 日志无法解析，跳过: sagaId={}", id, e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 抢占恢复权，避免多个实例同时恢复同一 Saga
+     */
+    public boolean tryClaim(String sagaId, Duration lease) {
+        Boolean claimed = redisTemplate.opsForValue()
+                .setIfAbsent(SAGA_KEY_PREFIX + sagaId + CLAIM_KEY_SUFFIX, "1", lease);
+        return Boolean.TRUE.equals(claimed);
+    }
+
+    private String toJson(SagaContext context) {
+        try {
+            return objectMapper.writeValueAsString(context);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Saga 上下文序列化失败: sagaId=" + context.getSagaId(), e);
+        }
+    }
+}
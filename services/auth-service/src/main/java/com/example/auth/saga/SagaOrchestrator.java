@@ -1,78 +1,245 @@
 package com.example.auth.saga;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Saga 编排器：管理 Saga 的执行和补偿
- * 实现编排式（Orchestration）Saga Pattern
+ * 实现编排式（Orchestration）Saga Pattern，每一步的结果写入 SagaJournal：
+ * - 同步步骤在调用线程顺序执行，失败则逆序补偿；远程步骤（SagaStep.remote）失败或执行中崩溃时也补偿自身
+ * - 同步步骤全部成功即为提交点，之后的异步步骤在后台执行，失败按指数退避重试
+ * - 启动时及定期扫描长时间未更新的 Saga：RUNNING 的补偿，ASYNC_PENDING 的继续执行异步步骤
+ * 指标：auth.saga.step{saga,step,outcome}、auth.saga.recovered{saga,status}、auth.saga.async.failed{saga}
  */
 @Slf4j
 @Component
 public class SagaOrchestrator {
-    
+
+    private final SagaJournal journal;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, SagaDefinition> definitions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService asyncExecutor;
+
+    @Value("${auth.saga.async.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${auth.saga.async.initial-backoff-ms:1000}")
+    private long initialBackoffMillis;
+
+    @Value("${auth.saga.recovery.stale-ms:60000}")
+    private long recoveryStaleMillis;
+
+    @Value("${auth.saga.recovery.batch-size:100}")
+    private int recoveryBatchSize;
+
+    public SagaOrchestrator(SagaJournal journal,
+                            MeterRegistry meterRegistry,
+                            @Value("${auth.saga.async.pool-size:2}") int asyncPoolSize) {
+        this.journal = journal;
+        this.meterRegistry = meterRegistry;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.asyncExecutor = Executors.newScheduledThreadPool(asyncPoolSize, r -> {
+            Thread t = new Thread(r, "saga-async-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 注册 Saga 定义（恢复时按 sagaType 找回步骤）
+     */
+    public void register(SagaDefinition definition) {
+        definitions.put(definition.getType(), definition);
+    }
+
     /**
      * 执行 Saga
-     * 
-     * @param steps Saga 步骤列表
+     *
+     * @param sagaType 已注册的 Saga 类型
      * @param context Saga 上下文
-     * @return 执行结果
-     * @throws Exception 如果任何步骤失败，会执行补偿并抛出异常
+     * @return 最后一个同步步骤的结果
+     * @throws RuntimeException 如果任何同步步骤失败，会执行补偿并抛出原异常
      */
-    public Object execute(List<SagaStep> steps, SagaContext context) throws Exception {
+    public Object execute(String sagaType, SagaContext context) {
+        SagaDefinition definition = definition(sagaType);
         if (context.getSagaId() == null) {
             context.setSagaId(UUID.randomUUID().toString());
         }
-        
-        log.info("开始执行 Saga: sagaId={}, steps={}", context.getSagaId(), steps.size());
-        
-        // 按顺序排序步骤
-        List<SagaStep> sortedSteps = new ArrayList<>(steps);
-        sortedSteps.sort(Comparator.comparingInt(SagaStep::getOrder));
-        
+        context.setSagaType(sagaType);
+        context.setStatus(SagaContext.Status.RUNNING);
+
+        List<SagaStep> syncSteps = definition.getSyncSteps();
+        SagaContext.Status committedStatus = definition.getAsyncSteps().isEmpty()
+                ? SagaContext.Status.COMPLETED
+                : SagaContext.Status.ASYNC_PENDING;
+        log.info("开始执行 Saga: sagaId={}, type={}, steps={}", context.getSagaId(), sagaType, definition.getSteps().size());
+
         List<SagaStep> executedSteps = new ArrayList<>();
-        
+        SagaStep inFlight = null;
+        Object result = null;
         try {
-            // 顺序执行每个步骤
-            for (SagaStep step : sortedSteps) {
-                log.debug("执行 Saga 步骤: sagaId={}, step={}, order={}", 
-                    context.getSagaId(), step.getName(), step.getOrder());
-                
+            if (syncSteps.isEmpty()) {
+                context.setStatus(committedStatus);
+            } else {
+                context.setCurrentStep(syncSteps.get(0).getName());
+            }
+            journal.save(context);
+            for (int i = 0; i < syncSteps.size(); i++) {
+                SagaStep step = syncSteps.get(i);
+                log.debug("执行 Saga 步骤: sagaId={}, step={}, order={}",
+                        context.getSagaId(), step.getName(), step.getOrder());
+                inFlight = step;
                 try {
-                    Object result = step.execute();
-                    context.markStepCompleted(step.getName());
-                    executedSteps.add(step);
-                    
-                    log.debug("Saga 步骤执行成功: sagaId={}, step={}", 
-                        context.getSagaId(), step.getName());
-                    
-                } catch (Exception e) {
-                    log.error("Saga 步骤执行失败: sagaId={}, step={}, error={}", 
-                        context.getSagaId(), step.getName(), e.getMessage(), e);
+                    result = timed(definition, step, () -> step.execute(context));
+                } catch (RuntimeException e) {
+                    log.error("Saga 步骤执行失败: sagaId={}, step={}, error={}",
+                            context.getSagaId(), step.getName(), e.getMessage(), e);
                     throw e;
                 }
+                inFlight = null;
+                context.markStepCompleted(step.getName());
+                executedSteps.add(step);
+                // 下一步骤随本次日志一起写入，执行前不再额外写日志
+                context.setCurrentStep(i + 1 < syncSteps.size() ? syncSteps.get(i + 1).getName() : null);
+                if (i == syncSteps.size() - 1) {
+                    context.setStatus(committedStatus);
+                }
+                journal.save(context);
+            }
+        } catch (RuntimeException e) {
+            // 执行补偿操作（逆序补偿）；远程步骤失败时对端可能已生效，一并补偿
+            log.warn("Saga 执行失败，开始补偿: sagaId={}, error={}", context.getSagaId(), e.getMessage());
+            if (inFlight != null && inFlight.isCompensateInFlight()) {
+                executedSteps.add(inFlight);
             }
-            
-            log.info("Saga 执行成功: sagaId={}", context.getSagaId());
-            return executedSteps.isEmpty() ? null : 
-                executedSteps.get(executedSteps.size() - 1).execute();
-            
-        } catch (Exception e) {
-            // 执行补偿操作（逆序补偿）
-            log.warn("Saga 执行失败，开始补偿: sagaId={}, error={}", 
-                context.getSagaId(), e.getMessage());
-            
             compensate(executedSteps, context);
-            
+            context.setStatus(SagaContext.Status.COMPENSATED);
+            saveQuietly(context);
             throw e;
         }
+
+        log.info("Saga 已提交: sagaId={}, status={}", context.getSagaId(), context.getStatus());
+        if (context.getStatus() == SagaContext.Status.ASYNC_PENDING) {
+            asyncExecutor.execute(() -> runAsyncSteps(definition, context, 1));
+        }
+        return result;
     }
-    
+
+    /**
+     * 恢复其他实例（或本实例崩溃前）遗留的未完成 Saga
+     *
+     * @return 恢复的 Saga 数量
+     */
+    @Scheduled(fixedDelayString = "${auth.saga.recovery.interval-ms:300000}",
+            initialDelayString = "${auth.saga.recovery.interval-ms:300000}")
+    public int recover() {
+        int recovered = 0;
+        try {
+            for (SagaContext context : journal.findStale(recoveryStaleMillis, recoveryBatchSize)) {
+                SagaDefinition definition = definitions.get(context.getSagaType());
+                if (definition == null) {
+                    log.warn("未注册的 Saga 类型，跳过恢复: sagaId={}, type={}", context.getSagaId(), context.getSagaType());
+                    continue;
+                }
+                if (!journal.tryClaim(context.getSagaId(), Duration.ofMillis(recoveryStaleMillis))) {
+                    continue;
+                }
+                log.info("恢复 Saga: sagaId={}, type={}, status={}, completedSteps={}",
+                        context.getSagaId(), context.getSagaType(), context.getStatus(), context.getCompletedSteps());
+                Counter.builder("auth.saga.recovered")
+                        .tags("saga", definition.getType(), "status", context.getStatus().name())
+                        .register(meterRegistry)
+                        .increment();
+                if (context.getStatus() == SagaContext.Status.RUNNING) {
+                    List<SagaStep> executedSteps = definition.getSyncSteps().stream()
+                            .filter(step -> context.isStepCompleted(step.getName())
+                                    || (step.isCompensateInFlight() && step.getName().equals(context.getCurrentStep())))
+                            .toList();
+                    compensate(executedSteps, context);
+                    context.setStatus(SagaContext.Status.COMPENSATED);
+                    journal.save(context);
+                } else if (context.getStatus() == SagaContext.Status.ASYNC_PENDING) {
+                    asyncExecutor.execute(() -> runAsyncSteps(definition, context, 1));
+                } else {
+                    // 已结束但未移出活动索引
+                    journal.save(context);
+                }
+                recovered++;
+            }
+        } catch (RuntimeException e) {
+            log.error("Saga 恢复失败: error={}", e.getMessage(), e);
+        }
+        return recovered;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOnStartup() {
+        int recovered = recover();
+        if (recovered > 0) {
+            log.info("启动时恢复未完成 Saga: count={}", recovered);
+        }
+    }
+
+    /**
+     * 顺序执行尚未完成的异步步骤；失败按指数退避重新调度，重试耗尽标记为 FAILED
+     */
+    private void runAsyncSteps(SagaDefinition definition, SagaContext context, int attempt) {
+        for (SagaStep step : definition.getAsyncSteps()) {
+            if (context.isStepCompleted(step.getName())) {
+                continue;
+            }
+            try {
+                timed(definition, step, () -> step.execute(context));
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    log.error("Saga 异步步骤重试耗尽: sagaId={}, step={}, attempts={}, error={}",
+                            context.getSagaId(), step.getName(), attempt, e.getMessage(), e);
+                    Counter.builder("auth.saga.async.failed")
+                            .tag("saga", definition.getType())
+                            .register(meterRegistry)
+                            .increment();
+                    context.setStatus(SagaContext.Status.FAILED);
+                    saveQuietly(context);
+                    return;
+                }
+                long delay = initialBackoffMillis << (attempt - 1);
+                log.warn("Saga 异步步骤失败，{}ms 后重试: sagaId={}, step={}, attempt={}, error={}",
+                        delay, context.getSagaId(), step.getName(), attempt, e.getMessage());
+                // 刷新更新时间，避免重试期间被其他实例视为遗留 Saga
+                saveQuietly(context);
+                int nextAttempt = attempt + 1;
+                asyncExecutor.schedule(() -> runAsyncSteps(definition, context, nextAttempt), delay, TimeUnit.MILLISECONDS);
+                return;
+            }
+            context.markStepCompleted(step.getName());
+            saveQuietly(context);
+            attempt = 1;
+        }
+        context.setStatus(SagaContext.Status.COMPLETED);
+        saveQuietly(context);
+        log.info("Saga 执行完成: sagaId={}", context.getSagaId());
+    }
+
     /**
      * 执行补偿操作（逆序补偿已完成的步骤）
      */
@@ -81,20 +248,20 @@ public class SagaOrchestrator {
         for (int i = executedSteps.size() - 1; i >= 0; i--) {
             SagaStep step = executedSteps.get(i);
             try {
-                log.info("执行 Saga 补偿: sagaId={}, step={}", 
-                    context.getSagaId(), step.getName());
-                
-                step.compensate();
-                
-                log.info("Saga 补偿成功: sagaId={}, step={}", 
-                    context.getSagaId(), step.getName());
-                
+                log.info("执行 Saga 补偿: sagaId={}, step={}",
+                        context.getSagaId(), step.getName());
+
+                step.compensate(context);
+
+                log.info("Saga 补偿成功: sagaId={}, step={}",
+                        context.getSagaId(), step.getName());
+
             } catch (Exception compensationException) {
                 // 补偿失败记录日志，但不中断补偿流程
-                log.error("Saga 补偿失败: sagaId={}, step={}, error={}", 
-                    context.getSagaId(), step.getName(), 
-                    compensationException.getMessage(), compensationException);
-                
+                log.error("Saga 补偿失败: sagaId={}, step={}, error={}",
+                        context.getSagaId(), step.getName(),
+                        compensationException.getMessage(), compensationException);
+
                 // 补偿失败时，可以考虑：
                 // 1. 发送告警通知
                 // 2. 记录到死信队列
@@ -102,4 +269,42 @@ public class SagaOrchestrator {
             }
         }
     }
+
+    private Object timed(SagaDefinition definition, SagaStep step, Supplier<Object> action) {
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            outcome = "failure";
+            throw e;
+        } finally {
+            Timer.builder("auth.saga.step")
+                    .tags("saga", definition.getType(), "step", step.getName(), "outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void saveQuietly(SagaContext context) {
+        try {
+            journal.save(context);
+        } catch (RuntimeException e) {
+            log.error("Saga 日志写入失败: sagaId={}, status={}, error={}",
+                    context.getSagaId(), context.getStatus(), e.getMessage(), e);
+        }
+    }
+
+    private SagaDefinition definition(String sagaType) {
+        SagaDefinition definition = definitions.get(sagaType);
+        if (definition == null) {
+            throw new IllegalArgumentException("未注册的 Saga 类型: " + sagaType);
+        }
+        return definition;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        asyncExecutor.shutdown();
+    }
 }
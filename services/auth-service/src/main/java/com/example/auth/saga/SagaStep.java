@@ -1,59 +1,107 @@
 package com.example.auth.saga;
 
-import java.util.function.Supplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Saga 步骤：定义执行逻辑和补偿逻辑
+ * 逻辑只依赖 SagaContext，崩溃恢复时可由日志中的上下文重新驱动
  */
 public class SagaStep {
     /**
      * 步骤名称
      */
     private final String name;
-    
+
     /**
      * 执行顺序
      */
     private final int order;
-    
+
     /**
      * 执行逻辑
      */
-    private final Supplier<Object> action;
-    
+    private final Function<SagaContext, Object> action;
+
     /**
      * 补偿逻辑
      */
-    private final Runnable compensation;
-    
-    public SagaStep(String name, int order, Supplier<Object> action, Runnable compensation) {
+    private final Consumer<SagaContext> compensation;
+
+    /**
+     * 是否在提交点之后异步执行（失败重试，不触发补偿）
+     */
+    private final boolean async;
+
+    /**
+     * 失败或执行中崩溃时是否也补偿本步骤（远程调用超时等情况下对端可能已生效）
+     */
+    private final boolean compensateInFlight;
+
+    public SagaStep(String name, int order, Function<SagaContext, Object> action, Consumer<SagaContext> compensation) {
+        this(name, order, action, compensation, false);
+    }
+
+    public SagaStep(String name, int order, Function<SagaContext, Object> action, Consumer<SagaContext> compensation,
+                    boolean async) {
+        this(name, order, action, compensation, async, false);
+    }
+
+    private SagaStep(String name, int order, Function<SagaContext, Object> action, Consumer<SagaContext> compensation,
+                     boolean async, boolean compensateInFlight) {
         this.name = name;
         this.order = order;
         this.action = action;
         this.compensation = compensation;
+        this.async = async;
+        this.compensateInFlight = compensateInFlight;
+    }
+
+    /**
+     * 创建远程调用步骤：本步骤失败或执行中实例崩溃时同样执行补偿（对端可能已生效）
+     * 补偿须幂等，且不能依赖本步骤写入上下文的结果
+     */
+    public static SagaStep remote(String name, int order, Function<SagaContext, Object> action,
+                                  Consumer<SagaContext> compensation) {
+        return new SagaStep(name, order, action, compensation, false, true);
+    }
+
+    /**
+     * 创建异步步骤：同步步骤全部成功后在后台执行，失败按退避重试，无需补偿
+     */
+    public static SagaStep async(String name, int order, Function<SagaContext, Object> action) {
+        return new SagaStep(name, order, action, null, true);
     }
-    
+
     /**
      * 执行步骤
      */
-    public Object execute() {
-        return action.get();
+    public Object execute(SagaContext context) {
+        return action.apply(context);
     }
-    
+
     /**
      * 执行补偿操作
      */
-    public void compensate() {
+    public void compensate(SagaContext context) {
         if (compensation != null) {
-            compensation.run();
+            compensation.accept(context);
         }
     }
-    
+
     public String getName() {
         return name;
     }
-    
+
     public int getOrder() {
         return order;
     }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public boolean isCompensateInFlight() {
+        return compensateInFlight;
+    }
 }
@@ -0,0 +1,48 @@
+package com.example.auth.service;
+
+import com.example.api.common.security.SubjectRevocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 按用户撤销 Access Token（修改/重置密码）
+ * - 本实例立即记录撤销时间，此前签发的 Token 在认证过滤器中被拒绝
+ * - 广播到 {@link SubjectRevocation#CHANNEL}，其他 auth-service 与 user-service 实例收到后同样记录
+ *   （AccessTokenRevocationConfig 订阅）；chat-service 不接入 Redis，其旧 Token 仍有效至 exp
+ */
+@Component
+public class AccessTokenRevoker {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessTokenRevoker.class);
+
+    private final JwtService jwtService;
+    private final RedisTemplate<String, String> redisTemplate;
+
+    public AccessTokenRevoker(JwtService jwtService,
+                              @Qualifier("stringRedisTemplate") RedisTemplate<String, String> redisTemplate) {
+        this.jwtService = jwtService;
+        this.redisTemplate = redisTemplate;
+    }
+
+    public void revokeUser(String userId) {
+        SubjectRevocation revocation = new SubjectRevocation(userId, System.currentTimeMillis());
+        jwtService.revokeUser(userId, revocation.revokedAtMillis());
+        try {
+            redisTemplate.convertAndSend(SubjectRevocation.CHANNEL, revocation.toMessage());
+        } catch (RuntimeException e) {
+            log.warn("广播 Access Token 撤销失败，其他实例的旧 Token 有效至过期: userId={}, error={}",
+                    userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 收到撤销广播（含本实例自己发出的，重复记录无副作用）
+     */
+    public void onRevoked(String message) {
+        SubjectRevocation revocation = SubjectRevocation.parse(message);
+        jwtService.revokeUser(revocation.subject(), revocation.revokedAtMillis());
+    }
+}
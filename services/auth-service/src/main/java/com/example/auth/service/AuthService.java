@@ -30,6 +30,8 @@ public class AuthService {
     private final TokenRotationService tokenRotationService;
     private final RateLimitService rateLimitService;
     private final RegistrationSaga registrationSaga;
+    private final UserContextCache userContextCache;
+    private final AccessTokenRevoker accessTokenRevoker;
 
     @Value("${jwt.access-token-expiration:1800}")
     private long accessTokenExpiration;
@@ -65,14 +67,19 @@ public class AuthService {
         if (validated == null) {
             throw new BusinessException(ResultCode.INVALID_CREDENTIALS);
         }
-        InternalUserInfoResponse userInfo = userClient.getUser(validated.getUserId());
-        if (!Boolean.TRUE.equals(userInfo.getEmailVerified())) {
+        Boolean emailVerified = validated.getEmailVerified();
+        if (emailVerified == null) {
+            // 兼容未返回 emailVerified 的旧版 user-service
+            emailVerified = userClient.getUser(validated.getUserId()).getEmailVerified();
+        }
+        if (!Boolean.TRUE.equals(emailVerified)) {
             throw new BusinessException(ResultCode.EMAIL_NOT_VERIFIED);
         }
         List<String> roles = validated.getRoles() != null ? validated.getRoles() : Collections.emptyList();
         String accessToken = jwtService.generateAccessToken(
                 validated.getUserId().toString(),
                 validated.getName() != null ? validated.getName() : validated.getEmail(),
+                validated.getEmail(),
                 roles);
         String refreshToken = jwtService.generateRefreshToken(validated.getUserId().toString(), null);
         tokenRotationService.storeRefreshToken(validated.getUserId().toString(), null, refreshToken);
@@ -93,6 +100,8 @@ public class AuthService {
 
     public LoginResponse verifyEmail(VerifyEmailRequest request) {
         InternalUserInfoResponse user = userClient.verifyEmailToken(request.getToken());
+        // 验证状态已变更，不等待事件到达即失效本实例缓存
+        userContextCache.evict(user.getId());
         return buildLoginResponse(user);
     }
 
@@ -117,6 +126,7 @@ public class AuthService {
         req.setNewPassword(newPassword);
         userClient.updatePassword(userId, req);
         tokenRotationService.revokeAllByUserId(userId.toString());
+        accessTokenRevoker.revokeUser(userId.toString());
     }
 
     public LoginResponse refreshToken(RefreshTokenRequest request) {
@@ -127,25 +137,25 @@ public class AuthService {
             }
             String userId = claims.getSubject();
             String deviceId = claims.get("deviceId", String.class);
-            if (tokenRotationService.checkTokenReuse(request.getRefreshToken())) {
+            if (tokenRotationService.checkTokenReuse(claims)) {
                 tokenRotationService.revokeToken(request.getRefreshToken());
                 throw new BusinessException(ResultCode.REFRESH_TOKEN_REUSED);
             }
             if (!tokenRotationService.validateRefreshToken(userId, deviceId, request.getRefreshToken())) {
                 throw new BusinessException(ResultCode.REFRESH_TOKEN_INVALID);
             }
-            InternalUserInfoResponse user = userClient.getUser(Long.parseLong(userId));
+            InternalUserContextResponse user = userContextCache.get(Long.parseLong(userId));
             if (user == null) {
                 throw new BusinessException(ResultCode.USER_NOT_FOUND);
             }
-            InternalUserRolesResponse rolesRes = userClient.getUserRoles(user.getId());
-            List<String> roles = rolesRes != null && rolesRes.getRoles() != null ? rolesRes.getRoles() : Collections.emptyList();
+            List<String> roles = user.getRoles() != null ? user.getRoles() : Collections.emptyList();
             String accessToken = jwtService.generateAccessToken(
                     userId,
                     user.getName() != null ? user.getName() : user.getEmail(),
+                    user.getEmail(),
                     roles);
             String newRefreshToken = jwtService.generateRefreshToken(userId, deviceId);
-            tokenRotationService.markTokenAsUsed(userId, deviceId, request.getRefreshToken());
+            tokenRotationService.markTokenAsUsed(claims);
             tokenRotationService.storeRefreshToken(userId, deviceId, newRefreshToken);
             return LoginResponse.builder()
                     .accessToken(accessToken)
@@ -168,7 +178,7 @@ public class AuthService {
     }
 
     public UserInfo getCurrentUser(Long userId) {
-        InternalUserInfoResponse user = userClient.getUser(userId);
+        InternalUserContextResponse user = userContextCache.get(userId);
         if (user == null) {
             throw new BusinessException(ResultCode.USER_NOT_FOUND);
         }
@@ -184,8 +194,7 @@ public class AuthService {
 
     public void changePassword(Long userId, ChangePasswordRequest request) {
         try {
-            InternalUserInfoResponse user = userClient.getUser(userId);
-            if (user == null) {
+            if (userContextCache.get(userId) == null) {
                 throw new BusinessException(ResultCode.USER_NOT_FOUND);
             }
             InternalUpdatePasswordRequest req = new InternalUpdatePasswordRequest();
@@ -193,6 +202,7 @@ public class AuthService {
             req.setNewPassword(request.getNewPassword());
             userClient.updatePassword(userId, req);
             tokenRotationService.revokeAllByUserId(userId.toString());
+            accessTokenRevoker.revokeUser(userId.toString());
         } catch (HttpClientErrorException e) {
             if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
                 throw new BusinessException(ResultCode.USER_NOT_FOUND);
@@ -200,6 +210,9 @@ public class AuthService {
             if (e.getStatusCode() == HttpStatus.BAD_REQUEST) {
                 throw new BusinessException(ResultCode.PASSWORD_ERROR);
             }
+            if (e.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS) {
+                throw new BusinessException(ResultCode.RATE_LIMIT_EXCEEDED);
+            }
             throw new BusinessException(ResultCode.REMOTE_SERVICE_ERROR, "用户服务请求失败，请稍后重试");
         } catch (HttpServerErrorException e) {
             throw new BusinessException(ResultCode.REMOTE_SERVICE_ERROR, "用户服务暂时不可用，请稍后重试");
@@ -216,15 +229,16 @@ public class AuthService {
         String userId = user.getId().toString();
         List<String> roles = Collections.emptyList();
         try {
-            InternalUserRolesResponse rolesRes = userClient.getUserRoles(user.getId());
-            if (rolesRes != null && rolesRes.getRoles() != null) {
-                roles = rolesRes.getRoles();
+            InternalUserContextResponse context = userContextCache.get(user.getId());
+            if (context != null && context.getRoles() != null) {
+                roles = context.getRoles();
             }
         } catch (Exception ignored) {
         }
         String accessToken = jwtService.generateAccessToken(
                 userId,
                 user.getName() != null ? user.getName() : user.getEmail(),
+                user.getEmail(),
                 roles);
         String refreshToken = jwtService.generateRefreshToken(userId, null);
         tokenRotationService.storeRefreshToken(userId, null, refreshToken);
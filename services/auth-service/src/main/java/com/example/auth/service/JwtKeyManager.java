@@ -0,0 +1,166 @@
+package com.example.auth.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * JWT 密钥管理：启动时解析一次 PEM 得到不可变密钥环，之后定时检查密钥文件并热加载
+ * 轮换流程：替换 private.pem/public.pem 后，新 Token 使用新 kid 签名；
+ * 旧公钥作为退役密钥保留 retired-key-ttl（默认等于 Refresh Token 有效期），期间旧 Token 仍可验证
+ */
+@Component
+public class JwtKeyManager {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyManager.class);
+
+    private final Resource privateKeyResource;
+    private final Resource publicKeyResource;
+    private final Resource[] additionalPublicKeyResources;
+    private final Duration retiredKeyTtl;
+
+    private final AtomicReference<JwtKeyRing> keyRing = new AtomicReference<>();
+    /** 退役公钥及其过期时间（仅由 reload 线程修改） */
+    private final Map<String, RetiredKey> retiredKeys = new LinkedHashMap<>();
+    private byte[] lastFingerprint;
+
+    public JwtKeyManager(
+            @Value("${jwt.private-key-path}") Resource privateKeyResource,
+            @Value("${jwt.public-key-path}") Resource publicKeyResource,
+            @Value("${jwt.additional-public-key-paths:}") String additionalPublicKeyPaths,
+            ResourceLoader resourceLoader,
+            @Value("${jwt.retired-key-ttl-seconds:${jwt.refresh-token-expiration:604800}}") long retiredKeyTtlSeconds) {
+        this.privateKeyResource = privateKeyResource;
+        this.publicKeyResource = publicKeyResource;
+        this.additionalPublicKeyResources = resolve(additionalPublicKeyPaths, resourceLoader);
+        this.retiredKeyTtl = Duration.ofSeconds(retiredKeyTtlSeconds);
+    }
+
+    /**
+     * 逗号分隔的路径逐个解析为 Resource，忽略空白项（未配置时为空数组，而不是指向 classpath 根目录的 Resource）
+     */
+    static Resource[] resolve(String paths, ResourceLoader resourceLoader) {
+        return Arrays.stream(StringUtils.commaDelimitedListToStringArray(paths))
+                .map(String::trim)
+                .filter(path -> !path.isEmpty())
+                .map(resourceLoader::getResource)
+                .toArray(Resource[]::new);
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            if (!reload()) {
+                throw new IllegalStateException("JWT 私钥与公钥不匹配");
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("加载 JWT 密钥失败", e);
+        }
+    }
+
+    /**
+     * 当前密钥环
+     */
+    public JwtKeyRing current() {
+        return keyRing.get();
+    }
+
+    /**
+     * 定时检查密钥文件，内容变化时重建密钥环；加载失败时保留旧密钥环
+     */
+    @Scheduled(fixedDelayString = "${jwt.key-reload-interval-ms:60000}",
+            initialDelayString = "${jwt.key-reload-interval-ms:60000}")
+    public synchronized void reloadIfChanged() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("JWT 密钥热加载失败，继续使用当前密钥环: activeKid={}", current().getActiveKid(), e);
+        }
+    }
+
+    /**
+     * @return 是否成功应用（内容未变化也视为成功）
+     */
+    synchronized boolean reload() throws Exception {
+        byte[] privatePem = read(privateKeyResource);
+        byte[] publicPem = read(publicKeyResource);
+        byte[][] additionalPems = new byte[additionalPublicKeyResources.length][];
+        for (int i = 0; i < additionalPublicKeyResources.length; i++) {
+            additionalPems[i] = read(additionalPublicKeyResources[i]);
+        }
+
+        byte[] fingerprint = fingerprint(privatePem, publicPem, additionalPems);
+        boolean expiredRemoved = retiredKeys.values().removeIf(k -> k.expiresAt().isBefore(Instant.now()));
+        if (Arrays.equals(fingerprint, lastFingerprint) && !expiredRemoved) {
+            return true;
+        }
+
+        PrivateKey privateKey = JwtKeyRing.parsePrivateKey(privatePem);
+        PublicKey publicKey = JwtKeyRing.parsePublicKey(publicPem);
+        if (!JwtKeyRing.isPair(privateKey, publicKey)) {
+            // 轮换过程中两个文件可能尚未同时替换完成，等待下次检查
+            log.warn("JWT 私钥与公钥不匹配，跳过本次加载");
+            return false;
+        }
+        String activeKid = JwtKeyRing.keyId(publicKey);
+
+        JwtKeyRing previous = keyRing.get();
+        if (previous != null && !previous.getActiveKid().equals(activeKid)) {
+            retiredKeys.put(previous.getActiveKid(), new RetiredKey(
+                    previous.getVerificationKeys().get(previous.getActiveKid()), Instant.now().plus(retiredKeyTtl)));
+        }
+        retiredKeys.remove(activeKid);
+
+        Map<String, PublicKey> verificationKeys = new LinkedHashMap<>();
+        verificationKeys.put(activeKid, publicKey);
+        for (byte[] pem : additionalPems) {
+            PublicKey extra = JwtKeyRing.parsePublicKey(pem);
+            verificationKeys.putIfAbsent(JwtKeyRing.keyId(extra), extra);
+        }
+        retiredKeys.forEach((kid, retired) -> verificationKeys.putIfAbsent(kid, retired.publicKey()));
+
+        keyRing.set(new JwtKeyRing(activeKid, privateKey, verificationKeys));
+        lastFingerprint = fingerprint;
+        if (previous == null || !previous.getActiveKid().equals(activeKid)) {
+            log.info("JWT 密钥环已加载: activeKid={}, verificationKids={}", activeKid, verificationKeys.keySet());
+        }
+        return true;
+    }
+
+    private static byte[] read(Resource resource) throws IOException {
+        try (InputStream is = resource.getInputStream()) {
+            return is.readAllBytes();
+        }
+    }
+
+    private static byte[] fingerprint(byte[] privatePem, byte[] publicPem, byte[][] additionalPems) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(privatePem);
+        digest.update(publicPem);
+        for (byte[] pem : additionalPems) {
+            digest.update(pem);
+        }
+        return digest.digest();
+    }
+
+    private record RetiredKey(PublicKey publicKey, Instant expiresAt) {
+    }
+}
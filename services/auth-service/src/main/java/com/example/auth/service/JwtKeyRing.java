@@ -0,0 +1,105 @@
+package com.example.auth.service;
+
+import io.jsonwebtoken.security.InvalidKeyException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 不可变的 JWT 密钥环：一把当前签名私钥 + 按 kid 索引的验签公钥
+ * kid 由公钥 DER 编码的 SHA-256 派生，签发方与验证方可独立计算出相同的值
+ */
+public final class JwtKeyRing {
+
+    private final String activeKid;
+    private final PrivateKey signingKey;
+    private final Map<String, PublicKey> verificationKeys;
+
+    public JwtKeyRing(String activeKid, PrivateKey signingKey, Map<String, PublicKey> verificationKeys) {
+        if (!verificationKeys.containsKey(activeKid)) {
+            throw new IllegalArgumentException("验签公钥中缺少当前签名密钥: kid=" + activeKid);
+        }
+        this.activeKid = activeKid;
+        this.signingKey = signingKey;
+        this.verificationKeys = Collections.unmodifiableMap(new LinkedHashMap<>(verificationKeys));
+    }
+
+    public String getActiveKid() {
+        return activeKid;
+    }
+
+    public PrivateKey getSigningKey() {
+        return signingKey;
+    }
+
+    public Map<String, PublicKey> getVerificationKeys() {
+        return verificationKeys;
+    }
+
+    /**
+     * 按 kid 查找验签公钥；未携带 kid 的旧 Token 使用当前公钥
+     *
+     * @throws InvalidKeyException kid 不在密钥环中
+     */
+    public PublicKey verificationKey(String kid) {
+        if (kid == null) {
+            return verificationKeys.get(activeKid);
+        }
+        PublicKey key = verificationKeys.get(kid);
+        if (key == null) {
+            throw new InvalidKeyException("未知的密钥 ID: " + kid);
+        }
+        return key;
+    }
+
+    /**
+     * 计算公钥的 kid（SHA-256 前 16 字节的 Base64URL）
+     */
+    public static String keyId(PublicKey publicKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(publicKey.getEncoded());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16));
+        } catch (Exception e) {
+            throw new IllegalStateException("计算 kid 失败", e);
+        }
+    }
+
+    /**
+     * 私钥与公钥是否属于同一密钥对（比较 RSA 模数）
+     */
+    public static boolean isPair(PrivateKey privateKey, PublicKey publicKey) {
+        return privateKey instanceof RSAPrivateCrtKey priv
+                && publicKey instanceof RSAPublicKey pub
+                && priv.getModulus().equals(pub.getModulus());
+    }
+
+    public static PrivateKey parsePrivateKey(byte[] pem) throws Exception {
+        byte[] der = decodePem(pem, "PRIVATE KEY");
+        return KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(der));
+    }
+
+    public static PublicKey parsePublicKey(byte[] pem) throws Exception {
+        byte[] der = decodePem(pem, "PUBLIC KEY");
+        return KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(der));
+    }
+
+    private static byte[] decodePem(byte[] pem, String type) {
+        String content = new String(pem, StandardCharsets.UTF_8)
+                .replace("-----BEGIN " + type + "-----", "")
+                .replace("-----END " + type + "-----", "")
+                .replaceAll("\\s", "");
+        return Base64.getDecoder().decode(content);
+    }
+}
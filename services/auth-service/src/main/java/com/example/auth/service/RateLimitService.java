@@ -2,15 +2,22 @@ package com.example.auth.service;
 
 import com.example.api.common.ResultCode;
 import com.example.api.exception.BusinessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 限流服务：登录、验证邮箱、忘记/重置密码限流
+ * 使用 GCRA Lua 脚本（scripts/rate_limit_gcra.lua），一次 EVALSHA 原子地检查同一请求涉及的全部键（IP、用户、邮箱），
+ * 任一键超限则整体拒绝且不记账；每个键写入时都带过期时间
  */
 @Service
 public class RateLimitService {
@@ -22,6 +29,11 @@ public class RateLimitService {
     private static final String FORGOT_PASSWORD_EMAIL_PREFIX = "rate_limit:forgot_password:email:";
     private static final String RESET_PASSWORD_IP_PREFIX = "rate_limit:reset_password:ip:";
 
+    private static final Logger log = LoggerFactory.getLogger(RateLimitService.class);
+
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> GCRA_SCRIPT = RedisScript.of(new ClassPathResource("scripts/rate_limit_gcra.lua"), List.class);
+
     private final RedisTemplate<String, String> redisTemplate;
 
     @Value("${rate-limit.login.max-attempts-per-ip:100}")
@@ -54,64 +66,62 @@ public class RateLimitService {
     }
 
     public void checkRateLimit(String ipAddress, String userId) {
-        String ipKey = LOGIN_IP_PREFIX + ipAddress;
-        Long ipCount = redisTemplate.opsForValue().increment(ipKey);
-        if (ipCount != null && ipCount == 1) {
-            redisTemplate.expire(ipKey, ipWindowSeconds, TimeUnit.SECONDS);
-        }
-        if (ipCount != null && ipCount > maxAttemptsPerIp) {
-            throw new BusinessException(ResultCode.RATE_LIMIT_EXCEEDED);
-        }
+        List<Limit> limits = new ArrayList<>(2);
+        limits.add(new Limit(LOGIN_IP_PREFIX + ipAddress, maxAttemptsPerIp, ipWindowSeconds));
         if (userId != null && !userId.isEmpty()) {
-            String userKey = LOGIN_USER_PREFIX + userId;
-            Long userCount = redisTemplate.opsForValue().increment(userKey);
-            if (userCount != null && userCount == 1) {
-                redisTemplate.expire(userKey, userWindowSeconds, TimeUnit.SECONDS);
-            }
-            if (userCount != null && userCount > maxAttemptsPerUser) {
-                throw new BusinessException(ResultCode.RATE_LIMIT_EXCEEDED);
-            }
+            limits.add(new Limit(LOGIN_USER_PREFIX + userId, maxAttemptsPerUser, userWindowSeconds));
         }
+        acquire(limits);
     }
 
     public void checkRateLimitForVerifyEmail(String ipAddress) {
-        String key = VERIFY_EMAIL_IP_PREFIX + ipAddress;
-        Long count = redisTemplate.opsForValue().increment(key);
-        if (count != null && count == 1) {
-            redisTemplate.expire(key, verifyEmailIpWindowSeconds, TimeUnit.SECONDS);
-        }
-        if (count != null && count > verifyEmailMaxPerIp) {
-            throw new BusinessException(ResultCode.RATE_LIMIT_EXCEEDED);
-        }
+        acquire(List.of(new Limit(VERIFY_EMAIL_IP_PREFIX + ipAddress, verifyEmailMaxPerIp, verifyEmailIpWindowSeconds)));
     }
 
     public void checkRateLimitForForgotPassword(String ipAddress, String email) {
-        String ipKey = FORGOT_PASSWORD_IP_PREFIX + ipAddress;
-        Long ipCount = redisTemplate.opsForValue().increment(ipKey);
-        if (ipCount != null && ipCount == 1) {
-            redisTemplate.expire(ipKey, forgotPasswordIpWindowSeconds, TimeUnit.SECONDS);
-        }
-        if (ipCount != null && ipCount > forgotPasswordMaxPerIp) {
-            throw new BusinessException(ResultCode.RATE_LIMIT_EXCEEDED);
-        }
-        String emailKey = FORGOT_PASSWORD_EMAIL_PREFIX + (email != null ? email.toLowerCase() : "");
-        Long emailCount = redisTemplate.opsForValue().increment(emailKey);
-        if (emailCount != null && emailCount == 1) {
-            redisTemplate.expire(emailKey, forgotPasswordEmailWindowSeconds, TimeUnit.SECONDS);
-        }
-        if (emailCount != null && emailCount > forgotPasswordMaxPerEmail) {
-            throw new BusinessException(ResultCode.RATE_LIMIT_EXCEEDED);
-        }
+        acquire(List.of(
+                new Limit(FORGOT_PASSWORD_IP_PREFIX + ipAddress, forgotPasswordMaxPerIp, forgotPasswordIpWindowSeconds),
+                new Limit(FORGOT_PASSWORD_EMAIL_PREFIX + (email != null ? email.toLowerCase() : ""),
+                        forgotPasswordMaxPerEmail, forgotPasswordEmailWindowSeconds)));
     }
 
     public void checkRateLimitForResetPassword(String ipAddress) {
-        String key = RESET_PASSWORD_IP_PREFIX + ipAddress;
-        Long count = redisTemplate.opsForValue().increment(key);
-        if (count != null && count == 1) {
-            redisTemplate.expire(key, resetPasswordIpWindowSeconds, TimeUnit.SECONDS);
+        acquire(List.of(new Limit(RESET_PASSWORD_IP_PREFIX + ipAddress, resetPasswordMaxPerIp, resetPasswordIpWindowSeconds)));
+    }
+
+    /**
+     * 单次往返检查并记账全部限流键，任一超限抛出 RATE_LIMIT_EXCEEDED
+     */
+    private void acquire(List<Limit> limits) {
+        List<String> keys = new ArrayList<>(limits.size());
+        Object[] args = new Object[limits.size() * 2];
+        for (int i = 0; i < limits.size(); i++) {
+            Limit limit = limits.get(i);
+            long windowMillis = limit.windowSeconds() * 1000;
+            long intervalMillis = Math.max(1, windowMillis / Math.max(1, limit.maxAttempts()));
+            keys.add(limit.key());
+            args[2 * i] = String.valueOf(intervalMillis);
+            args[2 * i + 1] = String.valueOf(Math.max(0, windowMillis - intervalMillis));
         }
-        if (count != null && count > resetPasswordMaxPerIp) {
+        List<?> result = redisTemplate.execute(GCRA_SCRIPT, keys, args);
+        if (result != null && !result.isEmpty() && toLong(result.get(0)) == 0) {
+            if (log.isDebugEnabled()) {
+                log.debug("触发限流: key={}, retryAfterMs={}",
+                        keys.get((int) toLong(result.get(2)) - 1), toLong(result.get(1)));
+            }
             throw new BusinessException(ResultCode.RATE_LIMIT_EXCEEDED);
         }
     }
+
+    private static long toLong(Object value) {
+        return value instanceof Number n ? n.longValue() : Long.parseLong(String.valueOf(value));
+    }
+
+    /**
+     * 限流规则：GCRA，发放间隔 = 窗口/上限，突发容忍 = 窗口 - 发放间隔
+     * 空闲键最多连续放行 maxAttempts 次，之后每隔一个发放间隔恢复 1 次；
+     * 因此任意一个窗口长度内最多放行 2 * maxAttempts - 1 次（突发 + 窗口内恢复），持续速率为 maxAttempts/窗口
+     */
+    private record Limit(String key, int maxAttempts, long windowSeconds) {
+    }
 }
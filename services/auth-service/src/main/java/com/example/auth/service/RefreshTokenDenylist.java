@@ -0,0 +1,228 @@
+package com.example.auth.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refresh Token 吊销名单：按 jti 记录已轮换/吊销的 Refresh Token
+ * Redis 中按 Token 过期小时分桶存放（SET refresh_jti_denylist:{expHour}，成员为 UUID 的 16 字节 Base64URL），
+ * 桶在其中最晚的 Token 过期后自动删除；进程内布隆过滤器挡在前面，绝大多数未吊销的查询不访问 Redis。
+ * 其他实例的吊销按以下方式进入本地过滤器：
+ * - 吊销时广播到 CHANNEL，各实例收到即加入（RefreshTokenDenylistConfig 订阅）
+ * - 广播可能丢失（重连期间），每 sync-interval 增量拉取 ZSET refresh_jti_denylist:recent 中最近的吊销补齐
+ * - 增量同步连续失败、过滤器过期时，查询直接回源 Redis，不依赖可能缺项的过滤器
+ * - 布隆过滤器无法删除，每 rebuild-interval 从分桶全量重建一次以淘汰已过期的 Token
+ */
+@Component
+public class RefreshTokenDenylist {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenDenylist.class);
+
+    /** 吊销广播频道，消息体为编码后的 jti */
+    public static final String CHANNEL = "refresh_jti_denylist:revoked";
+
+    private static final String BUCKET_KEY_PREFIX = "refresh_jti_denylist:";
+    /** 最近吊销（score 为吊销时间毫秒），供增量同步补齐丢失的广播 */
+    private static final String RECENT_KEY = "refresh_jti_denylist:recent";
+    /** recent 中保留的时长，远大于同步间隔 */
+    private static final long RECENT_RETENTION_MILLIS = 600_000L;
+    private static final long HOUR_MILLIS = 3_600_000L;
+    /** 桶在其最后一个 Token 过期后额外保留的时间，覆盖实例间时钟偏差 */
+    private static final long BUCKET_GRACE_MILLIS = 60_000L;
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    @Value("${jwt.refresh-token-expiration:604800}")
+    private long refreshTokenExpiration;
+
+    @Value("${auth.denylist.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${auth.denylist.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Value("${auth.denylist.sync-interval-ms:5000}")
+    private long syncIntervalMillis;
+
+    /** null 表示尚未成功从 Redis 加载，此时所有查询直接回源 Redis */
+    private volatile BloomFilter filter;
+    /** 最近一次成功同步（全量或增量）覆盖到的吊销时间（毫秒），下次增量从此处（减去时钟偏差余量）开始 */
+    private volatile long syncedUntil;
+    /** 最近一次成功同步的本地时刻（System.nanoTime） */
+    private volatile long lastSyncNanos;
+    /** 重建期间的新过滤器，本实例的吊销同时写入，避免重建过程中丢失 */
+    private volatile BloomFilter rebuilding;
+
+    public RefreshTokenDenylist(@Qualifier("stringRedisTemplate") RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @PostConstruct
+    void init() {
+        rebuild();
+    }
+
+    /**
+     * jti 是否已吊销
+     *
+     * @param jti             Refresh Token 的 jti
+     * @param expiresAtMillis Token 过期时间，用于定位分桶
+     */
+    public boolean isRevoked(String jti, long expiresAtMillis) {
+        if (jti == null) {
+            return false;
+        }
+        String member = encode(jti);
+        BloomFilter current = filter;
+        if (current != null && !isStale() && !current.mightContain(member)) {
+            return false;
+        }
+        return Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(bucketKey(expiresAtMillis), member));
+    }
+
+    public void revoke(String jti, long expiresAtMillis) {
+        revoke(redisTemplate, jti, expiresAtMillis);
+    }
+
+    /**
+     * 在给定的 RedisOperations（可为 pipeline）中记录吊销，已过期的 Token 无需记录
+     */
+    void revoke(RedisOperations<String, String> ops, String jti, long expiresAtMillis) {
+        if (jti == null || expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        String member = encode(jti);
+        String key = bucketKey(expiresAtMillis);
+        ops.opsForSet().add(key, member);
+        ops.expireAt(key, new Date(bucketEnd(expiresAtMillis) + BUCKET_GRACE_MILLIS));
+        ops.opsForZSet().add(RECENT_KEY, member, System.currentTimeMillis());
+        ops.convertAndSend(CHANNEL, member);
+        remember(member);
+    }
+
+    /**
+     * 收到其他实例的吊销广播
+     */
+    public void onRevoked(String member) {
+        remember(member);
+    }
+
+    private void remember(String member) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(member);
+        }
+        BloomFilter next = rebuilding;
+        if (next != null) {
+            next.put(member);
+        }
+    }
+
+    /**
+     * 增量同步：拉取上次同步以来的吊销（补齐丢失的广播），并修剪 recent
+     */
+    @Scheduled(fixedDelayString = "${auth.denylist.sync-interval-ms:5000}",
+            initialDelayString = "${auth.denylist.sync-interval-ms:5000}")
+    public synchronized void sync() {
+        if (filter == null) {
+            rebuild();
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            Set<String> recent = redisTemplate.opsForZSet()
+                    .rangeByScore(RECENT_KEY, syncedUntil - BUCKET_GRACE_MILLIS, Double.POSITIVE_INFINITY);
+            if (recent != null) {
+                recent.forEach(this::remember);
+            }
+            redisTemplate.opsForZSet().removeRangeByScore(RECENT_KEY, 0, now - RECENT_RETENTION_MILLIS);
+            markSynced(now);
+        } catch (Exception e) {
+            log.warn("增量同步 Refresh Token 吊销名单失败，过滤器过期后查询将回源 Redis: error={}", e.getMessage());
+        }
+    }
+
+    /**
+     * 从 Redis 全量重建布隆过滤器：SSCAN 当前仍有效的全部分桶，淘汰已过期项；失败时保留旧过滤器
+     */
+    @Scheduled(fixedDelayString = "${auth.denylist.rebuild-interval-ms:3600000}",
+            initialDelayString = "${auth.denylist.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        try {
+            long startedAt = System.currentTimeMillis();
+            long nowHour = startedAt / HOUR_MILLIS;
+            long lastHour = nowHour + refreshTokenExpiration * 1000 / HOUR_MILLIS + 1;
+            BloomFilter rebuilt = BloomFilter.create(expectedInsertions, falsePositiveRate);
+            rebuilding = rebuilt;
+            long count = 0;
+            for (long hour = nowHour; hour <= lastHour; hour++) {
+                ScanOptions options = ScanOptions.scanOptions().count(1000).build();
+                try (Cursor<String> cursor = redisTemplate.opsForSet().scan(BUCKET_KEY_PREFIX + hour, options)) {
+                    while (cursor.hasNext()) {
+                        rebuilt.put(cursor.next());
+                        count++;
+                    }
+                }
+            }
+            if (count > expectedInsertions) {
+                log.warn("Refresh Token 吊销名单条目数 {} 超过布隆过滤器容量 {}，误判率将上升", count, expectedInsertions);
+            }
+            filter = rebuilt;
+            markSynced(startedAt);
+        } catch (Exception e) {
+            log.warn("重建 Refresh Token 吊销名单失败，继续使用当前过滤器", e);
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    private void markSynced(long coveredUntil) {
+        syncedUntil = coveredUntil;
+        lastSyncNanos = System.nanoTime();
+    }
+
+    /**
+     * 连续多个同步周期未成功时视为过期（可能缺少其他实例的吊销）
+     */
+    private boolean isStale() {
+        return System.nanoTime() - lastSyncNanos > TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis * 3);
+    }
+
+    private static String bucketKey(long expiresAtMillis) {
+        return BUCKET_KEY_PREFIX + (expiresAtMillis / HOUR_MILLIS);
+    }
+
+    private static long bucketEnd(long expiresAtMillis) {
+        return (expiresAtMillis / HOUR_MILLIS + 1) * HOUR_MILLIS;
+    }
+
+    /**
+     * UUID 形式的 jti 压缩为 16 字节 Base64URL（22 字符），其他格式原样保存
+     */
+    static String encode(String jti) {
+        try {
+            UUID uuid = UUID.fromString(jti);
+            ByteBuffer buffer = ByteBuffer.allocate(16);
+            buffer.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+        } catch (IllegalArgumentException e) {
+            return jti;
+        }
+    }
+}
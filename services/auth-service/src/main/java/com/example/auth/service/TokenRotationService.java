@@ -1,95 +1,225 @@
 package com.example.auth.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Service;
 
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Token 轮换服务：Refresh Token 存储、验证、轮换与重用检测
+ * 每个用户的 Refresh Token 存放在一个 Hash（refresh_tokens:{userId}，field 为 deviceId）中并带 TTL，
+ * 撤销全部 Token 只需读取该 Hash 后在一个 pipeline 中拉黑并删除，复杂度 O(设备数)，不再使用 KEYS。
+ * 旧版按设备拆分的字符串键（refresh_token:{userId}[:deviceId]）在验证时惰性迁移，也可通过 migrateLegacyKeys 批量迁移。
+ * 已轮换/吊销的 Token 按 jti 记入 RefreshTokenDenylist，用于重用检测。
  */
 @Service
 public class TokenRotationService {
 
-    private static final String REFRESH_TOKEN_KEY_PREFIX = "refresh_token:";
-    private static final String BLACKLIST_KEY_PREFIX = "blacklist:";
+    private static final Logger log = LoggerFactory.getLogger(TokenRotationService.class);
+
+    private static final String REFRESH_TOKEN_INDEX_PREFIX = "refresh_tokens:";
+    private static final String LEGACY_REFRESH_TOKEN_KEY_PREFIX = "refresh_token:";
+    private static final String DEFAULT_DEVICE_FIELD = "default";
 
     private final RedisTemplate<String, String> redisTemplate;
     private final JwtService jwtService;
+    private final RefreshTokenDenylist denylist;
 
     @Value("${jwt.refresh-token-expiration:604800}")
     private long refreshTokenExpiration;
 
     public TokenRotationService(
             @Qualifier("stringRedisTemplate") RedisTemplate<String, String> redisTemplate,
-            JwtService jwtService) {
+            JwtService jwtService,
+            RefreshTokenDenylist denylist) {
         this.redisTemplate = redisTemplate;
         this.jwtService = jwtService;
+        this.denylist = denylist;
     }
 
     public void storeRefreshToken(String userId, String deviceId, String refreshToken) {
-        String key = buildKey(userId, deviceId);
-        redisTemplate.opsForValue().set(key, refreshToken, refreshTokenExpiration, TimeUnit.SECONDS);
+        String key = indexKey(userId);
+        pipelined(ops -> {
+            ops.opsForHash().put(key, deviceField(deviceId), refreshToken);
+            ops.expire(key, refreshTokenExpiration, TimeUnit.SECONDS);
+        });
     }
 
+    /**
+     * 与当前存储的 Token 比对；轮换与吊销都会删除存储项，无需再查吊销名单
+     */
     public boolean validateRefreshToken(String userId, String deviceId, String refreshToken) {
-        if (isTokenBlacklisted(refreshToken)) {
-            return false;
+        Object stored = redisTemplate.opsForHash().get(indexKey(userId), deviceField(deviceId));
+        if (stored == null) {
+            stored = migrateLegacyKey(userId, deviceId);
         }
-        String key = buildKey(userId, deviceId);
-        String stored = redisTemplate.opsForValue().get(key);
         return stored != null && stored.equals(refreshToken);
     }
 
-    public void markTokenAsUsed(String userId, String deviceId, String oldRefreshToken) {
-        addToBlacklist(oldRefreshToken);
-        redisTemplate.delete(buildKey(userId, deviceId));
+    /**
+     * 轮换后吊销旧 Token
+     *
+     * @param oldTokenClaims 旧 Refresh Token 的 Claims
+     */
+    public void markTokenAsUsed(Claims oldTokenClaims) {
+        removeDevice(oldTokenClaims);
     }
 
     public void revokeToken(String refreshToken) {
-        addToBlacklist(refreshToken);
         try {
-            Claims claims = jwtService.parseToken(refreshToken);
-            String userId = claims.getSubject();
-            String deviceId = claims.get("deviceId", String.class);
-            redisTemplate.delete(buildKey(userId, deviceId));
+            removeDevice(jwtService.parseToken(refreshToken));
+        } catch (ExpiredJwtException e) {
+            // 已过期的 Token 无需进入吊销名单，仅清理存储
+            removeDevice(e.getClaims());
         } catch (Exception ignored) {
         }
     }
 
+    /**
+     * 撤销用户全部 Refresh Token：一次读取（Hash + 旧版默认键），一次 pipeline 拉黑并删除
+     */
     public void revokeAllByUserId(String userId) {
-        Set<String> keys = redisTemplate.keys(REFRESH_TOKEN_KEY_PREFIX + userId + "*");
-        if (keys != null) {
-            for (String key : keys) {
-                String token = redisTemplate.opsForValue().get(key);
-                if (token != null && !token.isEmpty()) {
-                    addToBlacklist(token);
+        String key = indexKey(userId);
+        String legacyKey = legacyKey(userId, null);
+        List<Object> results = pipelined(ops -> {
+            ops.opsForHash().entries(key);
+            ops.opsForValue().get(legacyKey);
+        });
+        List<String> tokens = new ArrayList<>();
+        if (!results.isEmpty() && results.get(0) instanceof Map<?, ?> entries) {
+            entries.values().forEach(v -> tokens.add(String.valueOf(v)));
+        }
+        if (results.size() > 1 && results.get(1) instanceof String legacyToken) {
+            tokens.add(legacyToken);
+        }
+        List<Claims> revoked = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            Claims claims = claimsOrNull(token);
+            if (claims != null) {
+                revoked.add(claims);
+            }
+        }
+        pipelined(ops -> {
+            for (Claims claims : revoked) {
+                denylist.revoke(ops, claims.getId(), expiresAt(claims));
+            }
+            ops.delete(List.of(key, legacyKey));
+        });
+    }
+
+    /**
+     * 该 Refresh Token 是否已被轮换或吊销（重用检测）
+     */
+    public boolean checkTokenReuse(Claims claims) {
+        return denylist.isRevoked(claims.getId(), expiresAt(claims));
+    }
+
+    /**
+     * 将旧版字符串键批量迁移到按用户的 Hash（SCAN 分批遍历，不阻塞 Redis），保留剩余 TTL
+     *
+     * @return 迁移的键数量
+     */
+    public long migrateLegacyKeys(int scanCount) {
+        long migrated = 0;
+        ScanOptions options = ScanOptions.scanOptions().match(LEGACY_REFRESH_TOKEN_KEY_PREFIX + "*").count(scanCount).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                String legacyKey = cursor.next();
+                String rest = legacyKey.substring(LEGACY_REFRESH_TOKEN_KEY_PREFIX.length());
+                int sep = rest.indexOf(':');
+                String userId = sep < 0 ? rest : rest.substring(0, sep);
+                String deviceId = sep < 0 ? null : rest.substring(sep + 1);
+                if (migrateLegacyKey(userId, deviceId) != null) {
+                    migrated++;
                 }
-                redisTemplate.delete(key);
             }
         }
+        return migrated;
+    }
+
+    /**
+     * 迁移单个旧版键：写入 Hash 并删除旧键，返回其中的 Token（不存在则返回 null）
+     */
+    private String migrateLegacyKey(String userId, String deviceId) {
+        String legacyKey = legacyKey(userId, deviceId);
+        String token = redisTemplate.opsForValue().get(legacyKey);
+        if (token == null) {
+            return null;
+        }
+        Long ttl = redisTemplate.getExpire(legacyKey, TimeUnit.SECONDS);
+        long ttlSeconds = ttl != null && ttl > 0 ? ttl : refreshTokenExpiration;
+        String key = indexKey(userId);
+        Long currentTtl = redisTemplate.getExpire(key, TimeUnit.SECONDS);
+        pipelined(ops -> {
+            ops.opsForHash().putIfAbsent(key, deviceField(deviceId), token);
+            ops.expire(key, Math.max(ttlSeconds, currentTtl != null ? currentTtl : 0), TimeUnit.SECONDS);
+            ops.delete(legacyKey);
+        });
+        log.debug("迁移旧版 Refresh Token 键: {}", legacyKey);
+        return token;
+    }
+
+    private void removeDevice(Claims claims) {
+        String userId = claims.getSubject();
+        String deviceId = claims.get("deviceId", String.class);
+        String key = indexKey(userId);
+        pipelined(ops -> {
+            denylist.revoke(ops, claims.getId(), expiresAt(claims));
+            ops.opsForHash().delete(key, deviceField(deviceId));
+            ops.delete(legacyKey(userId, deviceId));
+        });
     }
 
-    public boolean checkTokenReuse(String refreshToken) {
-        return isTokenBlacklisted(refreshToken);
+    private Claims claimsOrNull(String token) {
+        try {
+            return jwtService.parseToken(token);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static long expiresAt(Claims claims) {
+        return claims.getExpiration() != null ? claims.getExpiration().getTime() : 0;
+    }
+
+    private List<Object> pipelined(Consumer<RedisOperations<String, String>> commands) {
+        return redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                commands.accept((RedisOperations<String, String>) operations);
+                return null;
+            }
+        });
     }
 
-    private void addToBlacklist(String refreshToken) {
-        redisTemplate.opsForValue().set(BLACKLIST_KEY_PREFIX + refreshToken, "revoked", refreshTokenExpiration, TimeUnit.SECONDS);
+    private static String indexKey(String userId) {
+        return REFRESH_TOKEN_INDEX_PREFIX + userId;
     }
 
-    private boolean isTokenBlacklisted(String refreshToken) {
-        return Boolean.TRUE.equals(redisTemplate.hasKey(BLACKLIST_KEY_PREFIX + refreshToken));
+    private static String deviceField(String deviceId) {
+        return deviceId != null && !deviceId.isEmpty() ? deviceId : DEFAULT_DEVICE_FIELD;
     }
 
-    private static String buildKey(String userId, String deviceId) {
+    private static String legacyKey(String userId, String deviceId) {
         if (deviceId != null && !deviceId.isEmpty()) {
-            return REFRESH_TOKEN_KEY_PREFIX + userId + ":" + deviceId;
+            return LEGACY_REFRESH_TOKEN_KEY_PREFIX + userId + ":" + deviceId;
         }
-        return REFRESH_TOKEN_KEY_PREFIX + userId;
+        return LEGACY_REFRESH_TOKEN_KEY_PREFIX + userId;
     }
 }
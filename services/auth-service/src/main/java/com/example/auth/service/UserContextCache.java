@@ -0,0 +1,187 @@
+package com.example.auth.service;
+
+import com.example.auth.client.UserServiceInternalClient;
+import com.example.auth.client.dto.InternalUserContextResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 用户上下文两级缓存：进程内近缓存 + 可选 Redis 共享缓存，未命中时回源 user-service
+ * 由 user-service 发布的用户变更事件失效，TTL 仅作兜底
+ * 指标：auth.user.context.cache{result=local_hit|redis_hit|miss}、命中率、节省的内部调用次数
+ */
+@Slf4j
+@Service
+public class UserContextCache {
+
+    static final String REDIS_KEY_PREFIX = "user_ctx:";
+
+    private final UserServiceInternalClient userClient;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentHashMap<Long, Entry> local = new ConcurrentHashMap<>();
+    /** 每次失效递增；回源期间若发生失效则不回填，避免把旧数据写回缓存 */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter misses;
+    private final Counter savedCalls;
+
+    @Value("${auth.user-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${auth.user-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${auth.user-cache.redis-enabled:false}")
+    private boolean redisEnabled;
+
+    public UserContextCache(UserServiceInternalClient userClient,
+                            @Qualifier("stringRedisTemplate") RedisTemplate<String, String> redisTemplate,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry) {
+        this.userClient = userClient;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.localHits = requests(meterRegistry, "local_hit");
+        this.redisHits = requests(meterRegistry, "redis_hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.savedCalls = Counter.builder("auth.user.context.cache.saved.calls")
+                .description("因缓存命中而省去的 user-service 内部调用次数")
+                .register(meterRegistry);
+        Gauge.builder("auth.user.context.cache.hit.ratio", this, UserContextCache::hitRatio)
+                .register(meterRegistry);
+        Gauge.builder("auth.user.context.cache.size", local, ConcurrentHashMap::size)
+                .register(meterRegistry);
+    }
+
+    private static Counter requests(MeterRegistry registry, String result) {
+        return Counter.builder("auth.user.context.cache")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * 获取用户上下文（用户信息 + 角色编码），用户不存在时返回 null（不缓存）
+     */
+    public InternalUserContextResponse get(Long userId) {
+        Entry entry = local.get(userId);
+        if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+            localHits.increment();
+            savedCalls.increment();
+            return entry.value;
+        }
+        long gen = generation.get();
+        if (redisEnabled) {
+            InternalUserContextResponse shared = readRedis(userId);
+            if (shared != null) {
+                redisHits.increment();
+                savedCalls.increment();
+                putLocal(userId, shared, gen);
+                return shared;
+            }
+        }
+        misses.increment();
+        InternalUserContextResponse loaded = userClient.getUserContext(userId);
+        if (loaded != null) {
+            putLocal(userId, loaded, gen);
+            if (redisEnabled && generation.get() == gen) {
+                writeRedis(userId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * 失效单个用户
+     */
+    public void evict(Long userId) {
+        generation.incrementAndGet();
+        local.remove(userId);
+        if (redisEnabled) {
+            redisTemplate.delete(REDIS_KEY_PREFIX + userId);
+        }
+    }
+
+    /**
+     * 失效全部用户（角色定义变更等影响面不确定的场景）
+     */
+    public void evictAll() {
+        generation.incrementAndGet();
+        local.clear();
+        if (redisEnabled) {
+            ScanOptions options = ScanOptions.scanOptions().match(REDIS_KEY_PREFIX + "*").count(1000).build();
+            List<String> keys = new ArrayList<>();
+            try (Cursor<String> cursor = redisTemplate.scan(options)) {
+                cursor.forEachRemaining(keys::add);
+            }
+            if (!keys.isEmpty()) {
+                redisTemplate.delete(keys);
+            }
+        }
+    }
+
+    double hitRatio() {
+        double hits = localHits.count() + redisHits.count();
+        double total = hits + misses.count();
+        return total == 0 ? 0 : hits / total;
+    }
+
+    private void putLocal(Long userId, InternalUserContextResponse value, long gen) {
+        if (maxSize <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (local.size() >= maxSize) {
+            local.values().removeIf(e -> e.expiresAt <= now);
+            if (local.size() >= maxSize) {
+                return;
+            }
+        }
+        local.put(userId, new Entry(value, now + TimeUnit.SECONDS.toMillis(ttlSeconds)));
+        // 写入与失效并发时以失效为准
+        if (generation.get() != gen) {
+            local.remove(userId);
+        }
+    }
+
+    private InternalUserContextResponse readRedis(Long userId) {
+        try {
+            String json = redisTemplate.opsForValue().get(REDIS_KEY_PREFIX + userId);
+            return json != null ? objectMapper.readValue(json, InternalUserContextResponse.class) : null;
+        } catch (JsonProcessingException e) {
+            log.warn("用户上下文缓存反序列化失败，回源 user-service: userId={}", userId);
+            return null;
+        }
+    }
+
+    private void writeRedis(Long userId, InternalUserContextResponse value) {
+        try {
+            redisTemplate.opsForValue().set(REDIS_KEY_PREFIX + userId,
+                    objectMapper.writeValueAsString(value), ttlSeconds, TimeUnit.SECONDS);
+        } catch (JsonProcessingException e) {
+            log.warn("用户上下文缓存序列化失败: userId={}", userId);
+        }
+    }
+
+    private record Entry(InternalUserContextResponse value, long expiresAt) {
+    }
+}
@@ -0,0 +1,29 @@
+-- GCRA 限流：一次调用原子地检查多个限流键（IP、用户、邮箱）
+-- KEYS[i]            限流键
+-- ARGV[2i-1]         发放间隔（毫秒）= 窗口 / 上限
+-- ARGV[2i]           突发容忍（毫秒）= 窗口 - 发放间隔（标准 GCRA：空闲键最多连续放行 上限 次）
+-- 任一键超限则所有键都不记账；否则写回各键的理论到达时间（TAT），并以 PX 设置过期，键不会永久存在
+-- 返回 {允许(1/0), 需等待毫秒数, 超限键序号(从 1 开始，允许时为 0)}
+
+local t = redis.call('TIME')
+local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)
+
+local new_tats = {}
+for i = 1, #KEYS do
+    local interval = tonumber(ARGV[2 * i - 1])
+    local tolerance = tonumber(ARGV[2 * i])
+    local tat = tonumber(redis.call('GET', KEYS[i])) or now
+    if tat < now then
+        tat = now
+    end
+    local allow_at = tat - tolerance
+    if allow_at > now then
+        return {0, allow_at - now, i}
+    end
+    new_tats[i] = tat + interval
+end
+
+for i = 1, #KEYS do
+    redis.call('SET', KEYS[i], new_tats[i], 'PX', new_tats[i] - now)
+end
+return {1, 0, 0}
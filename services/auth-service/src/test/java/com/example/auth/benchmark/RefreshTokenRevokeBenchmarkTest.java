@@ -0,0 +1,96 @@
+package com.example.auth.benchmark;
+
+import com.example.auth.service.JwtService;
+import com.example.auth.service.RefreshTokenDenylist;
+import com.example.auth.service.TokenRotationService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * 撤销用户全部 Refresh Token 的耗时基准：KEYS 前缀匹配（旧实现）vs 按用户 Hash 索引
+ * 需要一个可丢弃的 Redis（会执行 FLUSHDB），先写入 100 万个无关键模拟生产键空间。
+ *
+ * 运行：mvn test -pl auth-service -am -Dtest=RefreshTokenRevokeBenchmarkTest -Dbenchmark=true \
+ *       -Dredis.host=localhost -Dredis.port=6379 -Dsurefire.failIfNoSpecifiedTests=false
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RefreshTokenRevokeBenchmarkTest {
+
+    private static final int BACKGROUND_KEYS = 1_000_000;
+    private static final int USERS = 200;
+    private static final int DEVICES_PER_USER = 3;
+
+    @Test
+    void compareRevokeAll() {
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+                System.getProperty("redis.host", "localhost"), Integer.getInteger("redis.port", 6379)));
+        factory.afterPropertiesSet();
+        try {
+            StringRedisTemplate redis = new StringRedisTemplate(factory);
+            redis.execute((RedisCallback<Object>) c -> {
+                c.serverCommands().flushDb();
+                return null;
+            });
+            populateBackground(redis);
+
+            TokenRotationService service = new TokenRotationService(redis, Mockito.mock(JwtService.class),
+                    Mockito.mock(RefreshTokenDenylist.class));
+            ReflectionTestUtils.setField(service, "refreshTokenExpiration", 604800L);
+            for (int u = 0; u < USERS; u++) {
+                for (int d = 0; d < DEVICES_PER_USER; d++) {
+                    redis.opsForValue().set("refresh_token:" + u + ":device-" + d, "legacy-" + u + "-" + d, 1, TimeUnit.DAYS);
+                    service.storeRefreshToken(String.valueOf(u), "device-" + d, "token-" + u + "-" + d);
+                }
+            }
+
+            long start = System.nanoTime();
+            for (int u = 0; u < USERS; u++) {
+                Set<String> keys = redis.keys("refresh_token:" + u + ":*");
+                for (String key : keys) {
+                    String token = redis.opsForValue().get(key);
+                    redis.opsForValue().set("blacklist:" + token, "revoked", 604800, TimeUnit.SECONDS);
+                    redis.delete(key);
+                }
+            }
+            double keysMs = (System.nanoTime() - start) / 1e6 / USERS;
+
+            start = System.nanoTime();
+            for (int u = 0; u < USERS; u++) {
+                service.revokeAllByUserId(String.valueOf(u));
+            }
+            double indexMs = (System.nanoTime() - start) / 1e6 / USERS;
+
+            assertFalse(service.validateRefreshToken("0", "device-0", "token-0-0"));
+            System.out.printf("revokeAll per user with %d keys in Redis: KEYS=%.2fms, hash-index=%.3fms (%.0fx)%n",
+                    BACKGROUND_KEYS, keysMs, indexMs, keysMs / indexMs);
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    private static void populateBackground(StringRedisTemplate redis) {
+        int batch = 10_000;
+        for (int i = 0; i < BACKGROUND_KEYS; i += batch) {
+            int from = i;
+            redis.executePipelined((RedisCallback<Object>) c -> {
+                for (int j = from; j < from + batch; j++) {
+                    c.stringCommands().set(("session:" + j).getBytes(StandardCharsets.UTF_8),
+                            "x".getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.auth.benchmark;
+
+import com.example.api.event.ProcessedEventStore;
+import com.example.api.event.UserCreatedEvent;
+import com.example.auth.event.UserEventListener;
+import com.example.auth.service.UserContextCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.Mockito;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用户创建事件消费吞吐基准（内嵌 Kafka）：逐条监听 + 逐条提交（旧实现）vs 批量监听 + 每批提交
+ * 已处理记录存储模拟一次 1ms 的网络往返，逐条模式每条两次，批量模式每批两次。
+ *
+ * 运行：mvn test -pl auth-service -am -Dtest=UserEventBatchThroughputBenchmarkTest -Dbenchmark=true \
+ *       -Dsurefire.failIfNoSpecifiedTests=false
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UserEventBatchThroughputBenchmarkTest {
+
+    private static final int PARTITIONS = 3;
+    private static final int EVENTS = 20_000;
+    private static final long STORE_ROUND_TRIP_MILLIS = 1;
+
+    private static EmbeddedKafkaBroker broker;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, PARTITIONS, "record-mode", "batch-mode");
+        broker.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @Test
+    void compareRecordAndBatchListeners() throws Exception {
+        produce("record-mode");
+        produce("batch-mode");
+
+        long recordMillis = consume("record-mode", false);
+        long batchMillis = consume("batch-mode", true);
+
+        System.out.printf("用户创建事件 %d 条（%d 分区）: 逐条 %d ms (%.0f/s), 批量 %d ms (%.0f/s)%n",
+                EVENTS, PARTITIONS, recordMillis, EVENTS * 1000.0 / recordMillis,
+                batchMillis, EVENTS * 1000.0 / batchMillis);
+        assertTrue(batchMillis < recordMillis, "批量监听应快于逐条监听");
+    }
+
+    private void produce(String topic) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        DefaultKafkaProducerFactory<String, UserCreatedEvent> factory = new DefaultKafkaProducerFactory<>(props);
+        KafkaTemplate<String, UserCreatedEvent> template = new KafkaTemplate<>(factory);
+        for (long i = 0; i < EVENTS; i++) {
+            template.send(topic, String.valueOf(i), UserCreatedEvent.builder()
+                    .userId(i).username("user" + i).source("admin-create").eventId(UUID.randomUUID().toString())
+                    .build());
+        }
+        template.flush();
+        factory.destroy();
+    }
+
+    private long consume(String topic, boolean batch) throws InterruptedException {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, topic + "-group");
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.example.*");
+
+        CountDownLatch consumed = new CountDownLatch(EVENTS);
+        UserEventListener listener = new UserEventListener(Mockito.mock(UserContextCache.class),
+                new SlowProcessedEventStore(), new SimpleMeterRegistry(), Mockito.mock(DeadLetterPublishingRecoverer.class));
+        ContainerProperties containerProps = new ContainerProperties(topic);
+        if (batch) {
+            containerProps.setAckMode(ContainerProperties.AckMode.BATCH);
+            containerProps.setMessageListener((BatchMessageListener<String, UserCreatedEvent>) records -> {
+                listener.handleUserCreatedBatch(records);
+                records.forEach(r -> consumed.countDown());
+            });
+        } else {
+            containerProps.setAckMode(ContainerProperties.AckMode.RECORD);
+            containerProps.setMessageListener((MessageListener<String, UserCreatedEvent>) record -> {
+                listener.handleUserCreatedBatch(List.<ConsumerRecord<String, UserCreatedEvent>>of(record));
+                consumed.countDown();
+            });
+        }
+        ConcurrentMessageListenerContainer<String, UserCreatedEvent> container =
+                new ConcurrentMessageListenerContainer<>(new DefaultKafkaConsumerFactory<>(props), containerProps);
+        container.setConcurrency(PARTITIONS);
+
+        long start = System.nanoTime();
+        container.start();
+        try {
+            assertTrue(consumed.await(5, TimeUnit.MINUTES), topic + " 消费超时");
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        } finally {
+            container.stop();
+        }
+    }
+
+    /**
+     * 模拟远程存储：每次调用一个固定往返延迟
+     */
+    private static class SlowProcessedEventStore implements ProcessedEventStore {
+
+        private final Set<String> processed = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public Set<String> findProcessed(Collection<String> eventIds) {
+            roundTrip();
+            Set<String> result = ConcurrentHashMap.newKeySet();
+            eventIds.stream().filter(processed::contains).forEach(result::add);
+            return result;
+        }
+
+        @Override
+        public void markProcessed(Collection<String> eventIds) {
+            roundTrip();
+            processed.addAll(eventIds);
+        }
+
+        private static void roundTrip() {
+            try {
+                Thread.sleep(STORE_ROUND_TRIP_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
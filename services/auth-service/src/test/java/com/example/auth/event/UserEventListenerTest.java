@@ -0,0 +1,133 @@
+package com.example.auth.event;
+
+import com.example.api.event.ProcessedEventStore;
+import com.example.api.event.UserCreatedEvent;
+import com.example.auth.service.UserContextCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * UserEventListener 批量消费单元测试
+ * 覆盖：批内与已处理记录去重、失败事件转发到重试主题且不阻塞后续事件、重试幂等与深度指标、DLT 计数
+ */
+@ExtendWith(MockitoExtension.class)
+class UserEventListenerTest {
+
+    @Mock
+    private UserContextCache userContextCache;
+
+    @Mock
+    private ProcessedEventStore processedEventStore;
+
+    @Mock
+    private DeadLetterPublishingRecoverer retryForwarder;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UserEventListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = spy(new UserEventListener(userContextCache, processedEventStore, meterRegistry, retryForwarder));
+    }
+
+    @Test
+    void handleUserCreatedBatch_skipsDuplicatesAndMarksNewEvents() {
+        when(processedEventStore.findProcessed(anyCollection())).thenReturn(Set.of("e1"));
+
+        listener.handleUserCreatedBatch(List.of(
+                record(0, event(1L, "e1")),
+                record(1, event(2L, "e2")),
+                record(2, event(2L, "e2")),
+                record(3, null),
+                record(4, event(3L, "e3"))));
+
+        verify(listener, times(2)).handleUserCreated(any());
+        assertEquals(List.of("e2", "e3"), markedIds());
+        assertEquals(5, meterRegistry.get("kafka.listener.batch.size").summary().totalAmount());
+        assertEquals(2, meterRegistry.get("kafka.listener.duplicates").counter().count());
+    }
+
+    @Test
+    void handleUserCreatedBatch_whenEventFails_forwardsToRetryAndContinues() {
+        when(processedEventStore.findProcessed(anyCollection())).thenReturn(Set.of());
+        IllegalStateException failure = new IllegalStateException("boom");
+        doCallRealMethod().doThrow(failure).doCallRealMethod().when(listener).handleUserCreated(any());
+        ConsumerRecord<String, UserCreatedEvent> failing = record(1, event(2L, "e2"));
+
+        listener.handleUserCreatedBatch(List.of(record(0, event(1L, "e1")), failing, record(2, event(3L, "e3"))));
+
+        verify(retryForwarder).accept(failing, failure);
+        assertEquals(List.of("e1", "e3"), markedIds());
+        assertEquals(1, meterRegistry.get("kafka.listener.retry.forwarded").counter().count());
+    }
+
+    @Test
+    void handleUserCreatedBatch_whenForwardFails_marksCompletedEventsAndRethrows() {
+        when(processedEventStore.findProcessed(anyCollection())).thenReturn(Set.of());
+        doCallRealMethod().doThrow(new IllegalStateException("boom")).when(listener).handleUserCreated(any());
+        doThrow(new KafkaException("retry topic unavailable")).when(retryForwarder).accept(any(), any());
+
+        assertThrows(KafkaException.class, () -> listener.handleUserCreatedBatch(List.of(
+                record(0, event(1L, "e1")),
+                record(1, event(2L, "e2")),
+                record(2, event(3L, "e3")))));
+
+        assertEquals(List.of("e1"), markedIds());
+    }
+
+    @Test
+    void handleUserCreatedRetry_processesOnceAndRecordsDepth() {
+        ConsumerRecord<String, UserCreatedEvent> retry = new ConsumerRecord<>(
+                "user-created-events-auth-retry-backoff-1", 0, 0, null, event(1L, "e1"));
+        retry.headers().add(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS, ByteBuffer.allocate(Integer.BYTES).putInt(3).array());
+        when(processedEventStore.findProcessed(List.of("e1"))).thenReturn(Set.of(), Set.of("e1"));
+
+        listener.handleUserCreatedRetry(retry);
+        listener.handleUserCreatedRetry(retry);
+
+        verify(listener, times(1)).handleUserCreated(any());
+        verify(processedEventStore).markProcessed(List.of("e1"));
+        assertEquals(3, meterRegistry.get("kafka.listener.retry.depth").summary().max());
+    }
+
+    @Test
+    void handleUserCreatedDlt_countsDeadLetters() {
+        listener.handleUserCreatedDlt(record(0, event(1L, "e1")), "boom");
+
+        assertEquals(1, meterRegistry.get("kafka.listener.dlt").counter().count());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> markedIds() {
+        ArgumentCaptor<Collection<String>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(processedEventStore).markProcessed(captor.capture());
+        return new ArrayList<>(captor.getValue());
+    }
+
+    private static ConsumerRecord<String, UserCreatedEvent> record(long offset, UserCreatedEvent event) {
+        return new ConsumerRecord<>("user-created-events", 0, offset, null, event);
+    }
+
+    private static UserCreatedEvent event(Long userId, String eventId) {
+        return UserCreatedEvent.builder().userId(userId).username("user" + userId).eventId(eventId).build();
+    }
+}
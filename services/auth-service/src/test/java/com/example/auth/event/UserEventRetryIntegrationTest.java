@@ -0,0 +1,153 @@
+package com.example.auth.event;
+
+import com.example.api.event.ProcessedEventStore;
+import com.example.api.event.UserChangedEvent;
+import com.example.api.event.UserCreatedEvent;
+import com.example.auth.config.KafkaConsumerConfig;
+import com.example.auth.service.UserContextCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 用户创建事件非阻塞重试集成测试（内嵌 Kafka）
+ * 覆盖：毒消息经重试主题退避重试后进入 DLT，同分区的正常事件不受阻塞；
+ * 用户变更事件按手动分配的分区消费，不使用消费组
+ */
+@SpringJUnitConfig
+@EmbeddedKafka(partitions = 1, topics = {"user-created-events", "user-changed-events"})
+@TestPropertySource(properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.kafka.consumer.group-id=retry-it",
+        "kafka.listener.user-events.concurrency=1",
+        "kafka.listener.user-events.retry.attempts=3",
+        "kafka.listener.user-events.retry.initial-delay-ms=100",
+        "kafka.listener.user-events.retry.max-delay-ms=200"
+})
+class UserEventRetryIntegrationTest {
+
+    private static final long POISON_USER_ID = 13L;
+
+    @Configuration
+    @Import({KafkaConsumerConfig.class, UserEventListener.class})
+    static class TestConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        TaskScheduler taskScheduler() {
+            return new ThreadPoolTaskScheduler();
+        }
+
+        @Bean
+        KafkaAdmin kafkaAdmin(EmbeddedKafkaBroker broker) {
+            return new KafkaAdmin(Map.of("bootstrap.servers", broker.getBrokersAsString()));
+        }
+    }
+
+    @MockBean
+    private UserContextCache userContextCache;
+
+    @MockBean
+    private ProcessedEventStore processedEventStore;
+
+    @SpyBean
+    private UserEventListener listener;
+
+    @Autowired
+    private KafkaTemplate<String, Object> retryKafkaTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private KafkaListenerEndpointRegistry listenerRegistry;
+
+    @Test
+    void poisonEventGoesToDltWithoutBlockingPartition() throws InterruptedException {
+        when(processedEventStore.findProcessed(anyCollection())).thenReturn(Set.of());
+        doThrow(new IllegalStateException("poison"))
+                .when(listener).handleUserCreated(argThat(e -> e != null && e.getUserId() == POISON_USER_ID));
+
+        retryKafkaTemplate.send("user-created-events", "13", event(POISON_USER_ID));
+        retryKafkaTemplate.send("user-created-events", "14", event(14L));
+
+        verify(listener, timeout(30_000)).handleUserCreated(argThat(e -> e.getUserId() == 14L));
+        verify(listener, timeout(30_000)).handleUserCreatedDlt(any(), any());
+        // 首次 + 重试主题 3 次
+        verify(listener, times(4)).handleUserCreated(argThat(e -> e.getUserId() == POISON_USER_ID));
+        assertEquals(1, awaitCounter("kafka.listener.dlt"));
+        assertEquals(3, meterRegistry.get("kafka.listener.retry.depth").summary().max());
+    }
+
+    @Test
+    void userChangedEventIsConsumedWithoutConsumerGroup() throws InterruptedException {
+        MessageListenerContainer container = listenerRegistry.getListenerContainers().stream()
+                .filter(c -> c.getContainerProperties().getTopicPartitions() != null)
+                .findFirst().orElseThrow();
+        assertNull(container.getGroupId());
+        assertEquals("user-changed-events", container.getContainerProperties().getTopicPartitions()[0].getTopic());
+
+        // 从 latest 开始消费，首次定位偏移量之前发送的事件会被跳过，重复发送直到被消费
+        UserChangedEvent changed = UserChangedEvent.builder()
+                .userId(7L).type(UserChangedEvent.ChangeType.UPDATED).eventId(UUID.randomUUID().toString()).build();
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (mockingDetails(userContextCache).getInvocations().isEmpty() && System.currentTimeMillis() < deadline) {
+            retryKafkaTemplate.send("user-changed-events", "7", changed);
+            Thread.sleep(500);
+        }
+        verify(userContextCache, atLeastOnce()).evict(7L);
+    }
+
+    /**
+     * 监听方法被调用后才计数，等待计数器出现
+     */
+    private double awaitCounter(String name) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            Counter counter = meterRegistry.find(name).counter();
+            if (counter != null && counter.count() > 0) {
+                return counter.count();
+            }
+            Thread.sleep(50);
+        }
+        return 0;
+    }
+
+    private static UserCreatedEvent event(Long userId) {
+        return UserCreatedEvent.builder()
+                .userId(userId)
+                .username("user" + userId)
+                .source("admin-create")
+                .eventId(UUID.randomUUID().toString())
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.auth.saga;
+
+import com.example.api.exception.BusinessException;
+import com.example.api.model.RegisterRequest;
+import com.example.auth.client.UserServiceInternalClient;
+import com.example.auth.client.dto.InternalCreateUserRequest;
+import com.example.auth.client.dto.InternalCreateUserResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * RegistrationSaga 单元测试
+ * 覆盖：创建用户携带 sagaId、未拿到 userId 时按 sagaId 补偿、邮箱冲突不误删、恢复时补偿执行中的创建
+ */
+@ExtendWith(MockitoExtension.class)
+class RegistrationSagaTest {
+
+    @Mock
+    private UserServiceInternalClient userClient;
+
+    @Mock
+    private SagaJournal journal;
+
+    private SagaOrchestrator orchestrator;
+    private RegistrationSaga saga;
+
+    @BeforeEach
+    void setUp() {
+        orchestrator = new SagaOrchestrator(journal, new SimpleMeterRegistry(), 1);
+        saga = new RegistrationSaga(userClient, orchestrator);
+        saga.registerDefinition();
+    }
+
+    @AfterEach
+    void tearDown() {
+        orchestrator.shutdown();
+    }
+
+    @Test
+    void createUser_passesSagaIdAsRegistrationId() {
+        ArgumentCaptor<InternalCreateUserRequest> request = ArgumentCaptor.forClass(InternalCreateUserRequest.class);
+        when(userClient.createUser(request.capture())).thenReturn(new InternalCreateUserResponse(7L));
+
+        saga.execute(register("New@Example.com"));
+
+        assertNotNull(request.getValue().getRegistrationId());
+        assertEquals("new@example.com", request.getValue().getEmail());
+    }
+
+    @Test
+    void createUserTimeout_compensatesByRegistrationId() {
+        ArgumentCaptor<InternalCreateUserRequest> request = ArgumentCaptor.forClass(InternalCreateUserRequest.class);
+        when(userClient.createUser(request.capture())).thenThrow(new ResourceAccessException("Read timed out"));
+
+        assertThrows(BusinessException.class, () -> saga.execute(register("user@example.com")));
+
+        verify(userClient).deleteUserByRegistration(request.getValue().getRegistrationId());
+        verify(userClient, never()).deleteUser(anyLong());
+    }
+
+    @Test
+    void emailConflict_doesNotDeleteExistingUser() {
+        when(userClient.createUser(any())).thenThrow(HttpClientErrorException.create(HttpStatus.CONFLICT, "Conflict",
+                null, null, null));
+
+        assertThrows(BusinessException.class, () -> saga.execute(register("taken@example.com")));
+
+        // 按 sagaId 删除：该注册未创建用户，user-service 侧为空操作
+        verify(userClient, never()).deleteUser(anyLong());
+        verify(userClient).deleteUserByRegistration(anyString());
+    }
+
+    @Test
+    void recover_compensatesCreateUserThatWasInFlight() {
+        SagaContext running = new SagaContext();
+        running.setSagaId("saga-1");
+        running.setSagaType(RegistrationSaga.SAGA_TYPE);
+        running.setStatus(SagaContext.Status.RUNNING);
+        running.setCurrentStep("createUser");
+        running.put("email", "user@example.com");
+        when(journal.findStale(anyLong(), anyInt())).thenReturn(List.of(running));
+        when(journal.tryClaim(eq("saga-1"), any())).thenReturn(true);
+        ReflectionTestUtils.setField(orchestrator, "recoveryBatchSize", 10);
+
+        assertEquals(1, orchestrator.recover());
+
+        verify(userClient).deleteUserByRegistration("saga-1");
+        assertEquals(SagaContext.Status.COMPENSATED, running.getStatus());
+    }
+
+    private static RegisterRequest register(String email) {
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail(email);
+        request.setPassword("Secret1!");
+        return request;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.auth.saga;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * SagaOrchestrator 单元测试
+ * 覆盖：同步步骤只执行一次并写日志、失败逆序补偿、远程步骤失败/执行中崩溃时补偿自身、异步步骤重试、
+ * 遗留 Saga 恢复、步骤耗时指标
+ */
+@ExtendWith(MockitoExtension.class)
+class SagaOrchestratorTest {
+
+    @Mock
+    private SagaJournal journal;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+    private final List<SagaContext.Status> journaledStatuses = Collections.synchronizedList(new ArrayList<>());
+    private SagaOrchestrator orchestrator;
+
+    @BeforeEach
+    void setUp() {
+        orchestrator = new SagaOrchestrator(journal, meterRegistry, 1);
+        ReflectionTestUtils.setField(orchestrator, "maxAttempts", 3);
+        ReflectionTestUtils.setField(orchestrator, "initialBackoffMillis", 1L);
+        ReflectionTestUtils.setField(orchestrator, "recoveryStaleMillis", 60_000L);
+        ReflectionTestUtils.setField(orchestrator, "recoveryBatchSize", 10);
+        lenient().doAnswer(inv -> journaledStatuses.add(inv.<SagaContext>getArgument(0).getStatus()))
+                .when(journal).save(any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        orchestrator.shutdown();
+    }
+
+    private SagaStep step(String name, int order) {
+        return new SagaStep(name, order, ctx -> {
+            calls.add(name);
+            return name + "-result";
+        }, ctx -> calls.add("undo-" + name));
+    }
+
+    @Test
+    void execute_runsEachSyncStepOnceAndReturnsLastResult() {
+        orchestrator.register(new SagaDefinition("demo", List.of(step("a", 1), step("b", 2))));
+
+        Object result = orchestrator.execute("demo", new SagaContext());
+
+        assertEquals("b-result", result);
+        assertEquals(List.of("a", "b"), calls);
+        assertEquals(List.of(SagaContext.Status.RUNNING, SagaContext.Status.RUNNING, SagaContext.Status.COMPLETED),
+                journaledStatuses);
+        assertEquals(1, meterRegistry.get("auth.saga.step").tags("step", "b", "outcome", "success").timer().count());
+    }
+
+    @Test
+    void execute_whenSyncStepFails_compensatesInReverseAndRethrows() {
+        SagaStep failing = new SagaStep("c", 3, ctx -> {
+            throw new IllegalStateException("boom");
+        }, ctx -> calls.add("undo-c"));
+        orchestrator.register(new SagaDefinition("demo", List.of(step("a", 1), step("b", 2), failing)));
+
+        assertThrows(IllegalStateException.class, () -> orchestrator.execute("demo", new SagaContext()));
+
+        assertEquals(List.of("a", "b", "undo-b", "undo-a"), calls);
+        assertEquals(SagaContext.Status.COMPENSATED, journaledStatuses.get(journaledStatuses.size() - 1));
+    }
+
+    @Test
+    void execute_whenRemoteStepFails_alsoCompensatesTheFailedStep() {
+        SagaStep remote = SagaStep.remote("c", 2, ctx -> {
+            throw new IllegalStateException("read timeout");
+        }, ctx -> calls.add("undo-c"));
+        orchestrator.register(new SagaDefinition("demo", List.of(step("a", 1), remote)));
+
+        assertThrows(IllegalStateException.class, () -> orchestrator.execute("demo", new SagaContext()));
+
+        assertEquals(List.of("a", "undo-c", "undo-a"), calls);
+    }
+
+    @Test
+    void execute_journalsCurrentStepBeforeRunningIt() {
+        List<String> journaledSteps = new ArrayList<>();
+        doAnswer(inv -> journaledSteps.add(inv.<SagaContext>getArgument(0).getCurrentStep())).when(journal).save(any());
+        orchestrator.register(new SagaDefinition("demo", List.of(step("a", 1), step("b", 2))));
+
+        orchestrator.execute("demo", new SagaContext());
+
+        assertEquals(Arrays.asList("a", "b", null), journaledSteps);
+    }
+
+    @Test
+    void execute_runsAsyncStepsAfterCommitWithRetries() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch sent = new CountDownLatch(1);
+        orchestrator.register(new SagaDefinition("demo", List.of(step("a", 1), SagaStep.async("email", 2, ctx -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("smtp down");
+            }
+            sent.countDown();
+            return null;
+        }))));
+
+        orchestrator.execute("demo", new SagaContext());
+
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+        verify(journal, timeout(5000).atLeastOnce()).save(argThat(c -> c.getStatus() == SagaContext.Status.COMPLETED));
+        assertEquals(3, attempts.get());
+        assertEquals(SagaContext.Status.ASYNC_PENDING, journaledStatuses.get(1));
+    }
+
+    @Test
+    void recover_compensatesRunningAndResumesAsyncPendingSagas() throws Exception {
+        CountDownLatch resumed = new CountDownLatch(1);
+        orchestrator.register(new SagaDefinition("demo", List.of(step("a", 1),
+                SagaStep.async("email", 2, ctx -> {
+                    resumed.countDown();
+                    return null;
+                }))));
+        SagaContext running = stale("s1", SagaContext.Status.RUNNING);
+        running.markStepCompleted("a");
+        SagaContext pending = stale("s2", SagaContext.Status.ASYNC_PENDING);
+        pending.markStepCompleted("a");
+        when(journal.findStale(60_000L, 10)).thenReturn(List.of(running, pending));
+        when(journal.tryClaim(anyString(), any())).thenReturn(true);
+
+        assertEquals(2, orchestrator.recover());
+
+        assertTrue(resumed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("undo-a"), calls);
+        assertEquals(SagaContext.Status.COMPENSATED, running.getStatus());
+    }
+
+    @Test
+    void recover_compensatesRemoteStepThatWasInFlight() {
+        orchestrator.register(new SagaDefinition("demo", List.of(step("a", 1),
+                SagaStep.remote("b", 2, ctx -> null, ctx -> calls.add("undo-b")), step("c", 3))));
+        SagaContext running = stale("s1", SagaContext.Status.RUNNING);
+        running.markStepCompleted("a");
+        running.setCurrentStep("b");
+        when(journal.findStale(60_000L, 10)).thenReturn(List.of(running));
+        when(journal.tryClaim(eq("s1"), any())).thenReturn(true);
+
+        assertEquals(1, orchestrator.recover());
+
+        assertEquals(List.of("undo-b", "undo-a"), calls);
+    }
+
+    @Test
+    void recover_skipsSagaClaimedByAnotherInstance() {
+        orchestrator.register(new SagaDefinition("demo", List.of(step("a", 1))));
+        SagaContext running = stale("s1", SagaContext.Status.RUNNING);
+        running.markStepCompleted("a");
+        when(journal.findStale(60_000L, 10)).thenReturn(List.of(running));
+        when(journal.tryClaim(eq("s1"), any())).thenReturn(false);
+
+        assertEquals(0, orchestrator.recover());
+        assertTrue(calls.isEmpty());
+    }
+
+    private static SagaContext stale(String sagaId, SagaContext.Status status) {
+        SagaContext context = new SagaContext();
+        context.setSagaId(sagaId);
+        context.setSagaType("demo");
+        context.setStatus(status);
+        return context;
+    }
+}
@@ -6,6 +6,8 @@ import com.example.auth.client.UserServiceInternalClient;
 import com.example.auth.client.dto.*;
 import com.example.auth.saga.RegistrationSaga;
 import com.example.api.model.*;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,6 +19,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.HttpClientErrorException;
 
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -48,6 +51,12 @@ class AuthServiceTest {
     @Mock
     private RegistrationSaga registrationSaga;
 
+    @Mock
+    private UserContextCache userContextCache;
+
+    @Mock
+    private AccessTokenRevoker accessTokenRevoker;
+
     @InjectMocks
     private AuthService authService;
 
@@ -121,7 +130,7 @@ class AuthServiceTest {
 
         BusinessException ex = assertThrows(BusinessException.class, () -> authService.login(request));
         assertEquals(ResultCode.INVALID_CREDENTIALS.getCode(), ex.getCode());
-        verify(jwtService, never()).generateAccessToken(anyString(), anyString(), anyList());
+        verify(jwtService, never()).generateAccessToken(anyString(), anyString(), any(), anyList());
     }
 
     @Test
@@ -159,18 +168,12 @@ class AuthServiceTest {
                 .userId(2L)
                 .email("ok@example.com")
                 .name("okuser")
+                .emailVerified(true)
                 .roles(List.of("USER"))
                 .build();
         when(userClient.validateUserOrNull(any(InternalAuthValidateRequest.class))).thenReturn(validated);
 
-        InternalUserInfoResponse userInfo = new InternalUserInfoResponse();
-        userInfo.setId(2L);
-        userInfo.setEmail("ok@example.com");
-        userInfo.setName("okuser");
-        userInfo.setEmailVerified(true);
-        when(userClient.getUser(2L)).thenReturn(userInfo);
-
-        when(jwtService.generateAccessToken(eq("2"), eq("okuser"), eq(List.of("USER"))))
+        when(jwtService.generateAccessToken(eq("2"), eq("okuser"), eq("ok@example.com"), eq(List.of("USER"))))
                 .thenReturn("access-token");
         when(jwtService.generateRefreshToken(eq("2"), isNull())).thenReturn("refresh-token");
         doNothing().when(tokenRotationService).storeRefreshToken(eq("2"), isNull(), eq("refresh-token"));
@@ -187,6 +190,31 @@ class AuthServiceTest {
         assertEquals("ok@example.com", response.getUser().getEmail());
         assertEquals("okuser", response.getUser().getUsername());
         assertTrue(response.getUser().getEmailVerified());
+        // 登录只需一次内部调用
+        verify(userClient, never()).getUser(anyLong());
+    }
+
+    @Test
+    void refreshToken_loadsUserAndRolesFromContextCache() {
+        Claims claims = Jwts.claims().subject("2").id("jti-1").add("type", "refresh")
+                .expiration(new Date(System.currentTimeMillis() + 60_000)).build();
+        when(jwtService.parseToken("old-refresh")).thenReturn(claims);
+        when(tokenRotationService.checkTokenReuse(claims)).thenReturn(false);
+        when(tokenRotationService.validateRefreshToken("2", null, "old-refresh")).thenReturn(true);
+        when(userContextCache.get(2L)).thenReturn(InternalUserContextResponse.builder()
+                .id(2L).email("ok@example.com").name("okuser").emailVerified(true).roles(List.of("ADMIN")).build());
+        when(jwtService.generateAccessToken("2", "okuser", "ok@example.com", List.of("ADMIN"))).thenReturn("access-token");
+        when(jwtService.generateRefreshToken("2", null)).thenReturn("new-refresh");
+
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken("old-refresh");
+        LoginResponse response = authService.refreshToken(request);
+
+        assertEquals("access-token", response.getAccessToken());
+        assertEquals("new-refresh", response.getRefreshToken());
+        verify(tokenRotationService).markTokenAsUsed(claims);
+        verify(tokenRotationService).storeRefreshToken("2", null, "new-refresh");
+        verifyNoInteractions(userClient);
     }
 
     @Test
@@ -199,19 +227,15 @@ class AuthServiceTest {
 
     @Test
     void getCurrentUser_whenUserNotFound_throwsUserNotFound() {
-        when(userClient.getUser(999L)).thenReturn(null);
+        when(userContextCache.get(999L)).thenReturn(null);
         BusinessException ex = assertThrows(BusinessException.class, () -> authService.getCurrentUser(999L));
         assertEquals(ResultCode.USER_NOT_FOUND.getCode(), ex.getCode());
     }
 
     @Test
     void getCurrentUser_whenSuccess_returnsUserInfo() {
-        InternalUserInfoResponse internal = new InternalUserInfoResponse();
-        internal.setId(3L);
-        internal.setEmail("current@example.com");
-        internal.setName("Current User");
-        internal.setEmailVerified(true);
-        when(userClient.getUser(3L)).thenReturn(internal);
+        when(userContextCache.get(3L)).thenReturn(InternalUserContextResponse.builder()
+                .id(3L).email("current@example.com").name("Current User").emailVerified(true).build());
 
         UserInfo user = authService.getCurrentUser(3L);
         assertNotNull(user);
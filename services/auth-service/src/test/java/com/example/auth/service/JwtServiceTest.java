@@ -0,0 +1,189 @@
+package com.example.auth.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JwtService / JwtKeyManager 单元测试
+ * 覆盖：kid 签发、按 kid 验签、密钥热加载与轮换、退役公钥、未知 kid、额外公钥路径的属性绑定（未配置/含空白项）、按用户撤销
+ */
+class JwtServiceTest {
+
+    @TempDir
+    Path keyDir;
+
+    private Path privateKeyPath;
+    private Path publicKeyPath;
+    private JwtKeyManager keyManager;
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        privateKeyPath = keyDir.resolve("private.pem");
+        publicKeyPath = keyDir.resolve("public.pem");
+        writeKeyPair(generateKeyPair());
+
+        keyManager = new JwtKeyManager(new FileSystemResource(privateKeyPath), new FileSystemResource(publicKeyPath),
+                "", new DefaultResourceLoader(), 604800);
+        keyManager.init();
+        jwtService = new JwtService(keyManager);
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 1800L);
+        ReflectionTestUtils.setField(jwtService, "refreshTokenExpiration", 604800L);
+        ReflectionTestUtils.setField(jwtService, "issuer", "https://auth.example.com");
+        ReflectionTestUtils.setField(jwtService, "audience", "api.example.com");
+        jwtService.initParser();
+    }
+
+    @Test
+    void shouldSignWithActiveKid() {
+        String token = jwtService.generateAccessToken("1", "alice", "alice@example.com", List.of("USER"));
+
+        Claims claims = jwtService.parseToken(token);
+        assertEquals("1", claims.getSubject());
+        assertEquals("alice@example.com", claims.get("email", String.class));
+        assertEquals(keyManager.current().getActiveKid(), kidOf(token));
+    }
+
+    @Test
+    void shouldNotReparseKeysWhenFilesUnchanged() {
+        JwtKeyRing before = keyManager.current();
+
+        keyManager.reloadIfChanged();
+
+        assertSame(before, keyManager.current());
+    }
+
+    @Test
+    void shouldRotateKeysAndKeepVerifyingOldTokens() throws Exception {
+        String oldToken = jwtService.generateRefreshToken("1", "device-1");
+        String oldKid = keyManager.current().getActiveKid();
+
+        writeKeyPair(generateKeyPair());
+        keyManager.reloadIfChanged();
+
+        String newToken = jwtService.generateRefreshToken("1", "device-1");
+        assertNotEquals(oldKid, kidOf(newToken));
+        assertEquals("1", jwtService.parseToken(newToken).getSubject());
+        assertEquals("1", jwtService.parseToken(oldToken).getSubject(), "退役公钥在 TTL 内仍可验证旧 Token");
+    }
+
+    @Test
+    void shouldKeepCurrentRingWhenKeyFilesDoNotMatch() throws Exception {
+        String activeKid = keyManager.current().getActiveKid();
+
+        // 只替换了私钥，公钥尚未更新
+        KeyPair next = generateKeyPair();
+        Files.writeString(privateKeyPath, pem("PRIVATE KEY", next.getPrivate().getEncoded()));
+        keyManager.reloadIfChanged();
+
+        assertEquals(activeKid, keyManager.current().getActiveKid());
+    }
+
+    @Test
+    void shouldRejectTokenWithUnknownKid() throws Exception {
+        KeyPair foreign = generateKeyPair();
+        String token = Jwts.builder()
+                .header().keyId("unknown-kid").and()
+                .subject("1")
+                .issuer("https://auth.example.com")
+                .audience().add("api.example.com").and()
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(foreign.getPrivate())
+                .compact();
+
+        assertThrows(JwtException.class, () -> jwtService.parseToken(token));
+    }
+
+    @Test
+    void shouldAcceptLegacyTokenWithoutKid() throws Exception {
+        String token = Jwts.builder()
+                .subject("1")
+                .issuer("https://auth.example.com")
+                .audience().add("api.example.com").and()
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(keyManager.current().getSigningKey())
+                .compact();
+
+        assertEquals("1", jwtService.parseToken(token).getSubject());
+    }
+
+    @Test
+    void shouldRejectCachedTokenIssuedBeforeUserRevocation() {
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheMaxSize", 100);
+        jwtService.initParser();
+        String token = jwtService.generateAccessToken("1", "alice", null, List.of("USER"));
+        String otherUser = jwtService.generateAccessToken("2", "bob", null, List.of("USER"));
+        assertEquals("1", jwtService.parseTokenCached(token).getSubject());
+
+        jwtService.revokeUser("1", System.currentTimeMillis() + 1000);
+
+        assertThrows(JwtException.class, () -> jwtService.parseTokenCached(token));
+        assertEquals("2", jwtService.parseTokenCached(otherUser).getSubject());
+    }
+
+    private String kidOf(String token) {
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+        return header.replaceAll(".*\"kid\":\"([^\"]+)\".*", "$1");
+    }
+
+    @Test
+    void shouldStartWithAdditionalPublicKeyPathsUnset() {
+        new ApplicationContextRunner()
+                .withUserConfiguration(JwtKeyManager.class)
+                .withPropertyValues("jwt.private-key-path=file:" + privateKeyPath, "jwt.public-key-path=file:" + publicKeyPath)
+                .run(context -> {
+                    assertNull(context.getStartupFailure());
+                    assertEquals(1, context.getBean(JwtKeyManager.class).current().getVerificationKeys().size());
+                });
+    }
+
+    @Test
+    void shouldLoadAdditionalPublicKeysAndIgnoreBlankEntries() throws Exception {
+        Path nextPublicKey = keyDir.resolve("next-public.pem");
+        Files.writeString(nextPublicKey, pem("PUBLIC KEY", generateKeyPair().getPublic().getEncoded()));
+
+        new ApplicationContextRunner()
+                .withUserConfiguration(JwtKeyManager.class)
+                .withPropertyValues("jwt.private-key-path=file:" + privateKeyPath, "jwt.public-key-path=file:" + publicKeyPath,
+                        "jwt.additional-public-key-paths= , file:" + nextPublicKey + ", ")
+                .run(context -> {
+                    assertNull(context.getStartupFailure());
+                    assertEquals(2, context.getBean(JwtKeyManager.class).current().getVerificationKeys().size());
+                });
+    }
+
+    private void writeKeyPair(KeyPair keyPair) throws Exception {
+        Files.writeString(privateKeyPath, pem("PRIVATE KEY", keyPair.getPrivate().getEncoded()));
+        Files.writeString(publicKeyPath, pem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+    }
+
+    private static KeyPair generateKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder(64, new byte[]{'\n'}).encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.auth.service;
+
+import com.example.api.common.ResultCode;
+import com.example.api.exception.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * RateLimitService 单元测试
+ * 验证：每次检查只执行一次脚本、涉及的键与 GCRA 参数、超限映射为 RATE_LIMIT_EXCEEDED
+ */
+@ExtendWith(MockitoExtension.class)
+class RateLimitServiceTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    private RateLimitService rateLimitService;
+
+    @BeforeEach
+    void setUp() {
+        rateLimitService = new RateLimitService(redisTemplate);
+        ReflectionTestUtils.setField(rateLimitService, "maxAttemptsPerIp", 100);
+        ReflectionTestUtils.setField(rateLimitService, "ipWindowSeconds", 3600L);
+        ReflectionTestUtils.setField(rateLimitService, "maxAttemptsPerUser", 5);
+        ReflectionTestUtils.setField(rateLimitService, "userWindowSeconds", 900L);
+        ReflectionTestUtils.setField(rateLimitService, "forgotPasswordMaxPerIp", 5);
+        ReflectionTestUtils.setField(rateLimitService, "forgotPasswordMaxPerEmail", 3);
+        ReflectionTestUtils.setField(rateLimitService, "forgotPasswordIpWindowSeconds", 3600L);
+        ReflectionTestUtils.setField(rateLimitService, "forgotPasswordEmailWindowSeconds", 3600L);
+    }
+
+    @Test
+    void checkRateLimit_evaluatesIpAndUserKeysInOneScriptCall() {
+        when(redisTemplate.execute(eq(RateLimitService.GCRA_SCRIPT), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, 0L, 0L));
+
+        rateLimitService.checkRateLimit("1.2.3.4", "42");
+
+        verify(redisTemplate, times(1)).execute(RateLimitService.GCRA_SCRIPT,
+                List.of("rate_limit:login:ip:1.2.3.4", "rate_limit:login:user:42"),
+                "36000", "3564000", "180000", "720000");
+        verifyNoMoreInteractions(redisTemplate);
+    }
+
+    @Test
+    void checkRateLimit_withoutUser_onlyChecksIp() {
+        when(redisTemplate.execute(eq(RateLimitService.GCRA_SCRIPT), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, 0L, 0L));
+
+        rateLimitService.checkRateLimit("1.2.3.4", null);
+
+        verify(redisTemplate).execute(RateLimitService.GCRA_SCRIPT,
+                List.of("rate_limit:login:ip:1.2.3.4"), "36000", "3564000");
+    }
+
+    @Test
+    void checkRateLimitForForgotPassword_lowercasesEmailKey() {
+        when(redisTemplate.execute(eq(RateLimitService.GCRA_SCRIPT), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, 0L, 0L));
+
+        rateLimitService.checkRateLimitForForgotPassword("1.2.3.4", "User@Example.com");
+
+        verify(redisTemplate).execute(RateLimitService.GCRA_SCRIPT,
+                List.of("rate_limit:forgot_password:ip:1.2.3.4", "rate_limit:forgot_password:email:user@example.com"),
+                "720000", "2880000", "1200000", "2400000");
+    }
+
+    @Test
+    void checkRateLimitForForgotPassword_whenAnyKeyDenied_throwsRateLimitExceeded() {
+        when(redisTemplate.execute(eq(RateLimitService.GCRA_SCRIPT), anyList(), any(Object[].class)))
+                .thenReturn(List.of(0L, 1200000L, 2L));
+
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> rateLimitService.checkRateLimitForForgotPassword("1.2.3.4", "user@example.com"));
+        assertEquals(ResultCode.RATE_LIMIT_EXCEEDED.getCode(), ex.getCode());
+    }
+}
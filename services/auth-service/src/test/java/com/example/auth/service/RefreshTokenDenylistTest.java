@@ -0,0 +1,174 @@
+package com.example.auth.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * RefreshTokenDenylist / BloomFilter 单元测试
+ * 覆盖：jti 压缩编码、布隆过滤器无漏判、未吊销查询不访问 Redis、按过期小时分桶、
+ * 吊销广播与增量同步加入其他实例的吊销、过滤器过期时回源 Redis
+ */
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenDenylistTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    private RefreshTokenDenylist denylist;
+
+    @BeforeEach
+    void setUp() {
+        denylist = new RefreshTokenDenylist(redisTemplate);
+        ReflectionTestUtils.setField(denylist, "refreshTokenExpiration", 7200L);
+        ReflectionTestUtils.setField(denylist, "expectedInsertions", 10_000L);
+        ReflectionTestUtils.setField(denylist, "falsePositiveRate", 0.001);
+        ReflectionTestUtils.setField(denylist, "syncIntervalMillis", 5_000L);
+        lenient().when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+    }
+
+    @Test
+    void shouldNotHitRedisForUnrevokedJti() {
+        String revoked = UUID.randomUUID().toString();
+        stubScan(List.of(RefreshTokenDenylist.encode(revoked)));
+        denylist.init();
+        clearInvocations(setOperations);
+
+        long exp = System.currentTimeMillis() + 60_000;
+        for (int i = 0; i < 1000; i++) {
+            denylist.isRevoked(UUID.randomUUID().toString(), exp);
+        }
+        int redisLookups = mockingDetails(setOperations).getInvocations().size();
+        assertTrue(redisLookups <= 5, "布隆过滤器应拦截绝大多数查询，实际回源 " + redisLookups);
+    }
+
+    @Test
+    void shouldConfirmRevokedJtiInExpiryBucket() {
+        stubScan(List.of());
+        denylist.init();
+        String jti = UUID.randomUUID().toString();
+        long exp = System.currentTimeMillis() + 60_000;
+        String bucket = "refresh_jti_denylist:" + (exp / 3_600_000L);
+
+        denylist.revoke(jti, exp);
+        when(setOperations.isMember(bucket, RefreshTokenDenylist.encode(jti))).thenReturn(true);
+
+        assertTrue(denylist.isRevoked(jti, exp));
+        verify(setOperations).add(bucket, RefreshTokenDenylist.encode(jti));
+        verify(redisTemplate).expireAt(eq(bucket), any(Date.class));
+        verify(zSetOperations).add(eq("refresh_jti_denylist:recent"), eq(RefreshTokenDenylist.encode(jti)), anyDouble());
+        verify(redisTemplate).convertAndSend(RefreshTokenDenylist.CHANNEL, RefreshTokenDenylist.encode(jti));
+    }
+
+    @Test
+    void shouldSeeRevocationBroadcastFromAnotherReplicaImmediately() {
+        stubScan(List.of());
+        denylist.init();
+        String jti = UUID.randomUUID().toString();
+        long exp = System.currentTimeMillis() + 60_000;
+        when(setOperations.isMember(anyString(), eq(RefreshTokenDenylist.encode(jti)))).thenReturn(true);
+
+        denylist.onRevoked(RefreshTokenDenylist.encode(jti));
+
+        assertTrue(denylist.isRevoked(jti, exp));
+    }
+
+    @Test
+    void incrementalSyncShouldPickUpMissedBroadcasts() {
+        stubScan(List.of());
+        denylist.init();
+        String jti = UUID.randomUUID().toString();
+        long exp = System.currentTimeMillis() + 60_000;
+        when(zSetOperations.rangeByScore(eq("refresh_jti_denylist:recent"), anyDouble(), anyDouble()))
+                .thenReturn(Set.of(RefreshTokenDenylist.encode(jti)));
+        when(setOperations.isMember(anyString(), eq(RefreshTokenDenylist.encode(jti)))).thenReturn(true);
+
+        denylist.sync();
+
+        assertTrue(denylist.isRevoked(jti, exp));
+        verify(zSetOperations).removeRangeByScore(eq("refresh_jti_denylist:recent"), eq(0.0), anyDouble());
+    }
+
+    @Test
+    void shouldFallBackToRedisWhenFilterIsStale() {
+        stubScan(List.of());
+        denylist.init();
+        ReflectionTestUtils.setField(denylist, "lastSyncNanos", System.nanoTime() - TimeUnit.SECONDS.toNanos(30));
+        String jti = UUID.randomUUID().toString();
+        when(setOperations.isMember(anyString(), eq(RefreshTokenDenylist.encode(jti)))).thenReturn(true);
+
+        assertTrue(denylist.isRevoked(jti, System.currentTimeMillis() + 60_000));
+    }
+
+    @Test
+    void shouldFallBackToRedisWhenNotSynced() {
+        when(setOperations.scan(anyString(), any(ScanOptions.class))).thenThrow(new IllegalStateException("down"));
+        denylist.init();
+        String jti = UUID.randomUUID().toString();
+        when(setOperations.isMember(anyString(), eq(RefreshTokenDenylist.encode(jti)))).thenReturn(true);
+
+        assertTrue(denylist.isRevoked(jti, System.currentTimeMillis() + 60_000));
+    }
+
+    @Test
+    void shouldEncodeUuidJtiIn22Chars() {
+        assertEquals(22, RefreshTokenDenylist.encode(UUID.randomUUID().toString()).length());
+        assertEquals("not-a-uuid", RefreshTokenDenylist.encode("not-a-uuid"));
+    }
+
+    @Test
+    void bloomFilterShouldHaveNoFalseNegativesAndLowFalsePositives() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("member-" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("member-" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "误判数 " + falsePositives);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubScan(List<String> members) {
+        when(setOperations.scan(anyString(), any(ScanOptions.class))).thenAnswer(inv -> {
+            Cursor<String> cursor = mock(Cursor.class);
+            Iterator<String> it = inv.getArgument(0, String.class).endsWith(String.valueOf(System.currentTimeMillis() / 3_600_000L))
+                    ? members.iterator() : List.<String>of().iterator();
+            when(cursor.hasNext()).thenAnswer(i -> it.hasNext());
+            lenient().when(cursor.next()).thenAnswer(i -> it.next());
+            return cursor;
+        });
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.auth.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * TokenRotationService 单元测试
+ * 覆盖：按用户 Hash 存取、旧版键惰性迁移、撤销全部不使用 KEYS、按 jti 吊销与重用检测
+ */
+@ExtendWith(MockitoExtension.class)
+class TokenRotationServiceTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private RedisOperations<String, String> pipeline;
+
+    @Mock
+    private HashOperations<String, Object, Object> pipelineHash;
+
+    @Mock
+    private ValueOperations<String, String> pipelineValue;
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private RefreshTokenDenylist denylist;
+
+    private TokenRotationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TokenRotationService(redisTemplate, jwtService, denylist);
+        ReflectionTestUtils.setField(service, "refreshTokenExpiration", 604800L);
+    }
+
+    /** 让 executePipelined 在 mock 的 pipeline 上执行回调，并依次返回给定结果 */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void runPipelinesOn(List<Object>... results) {
+        lenient().when(pipeline.opsForHash()).thenReturn((HashOperations) pipelineHash);
+        lenient().when(pipeline.opsForValue()).thenReturn(pipelineValue);
+        var stub = when(redisTemplate.executePipelined(any(SessionCallback.class)));
+        for (List<Object> result : results) {
+            stub = stub.thenAnswer(inv -> {
+                ((SessionCallback<Object>) inv.getArgument(0)).execute((RedisOperations) pipeline);
+                return result;
+            });
+        }
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void validateRefreshToken_readsFromUserHash() {
+        when(redisTemplate.opsForHash()).thenReturn((HashOperations) hashOperations);
+        when(hashOperations.get("refresh_tokens:42", "default")).thenReturn("t1");
+
+        assertTrue(service.validateRefreshToken("42", null, "t1"));
+        verify(redisTemplate, never()).keys(anyString());
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void validateRefreshToken_migratesLegacyKeyOnMiss() {
+        runPipelinesOn(List.of());
+        when(redisTemplate.opsForHash()).thenReturn((HashOperations) hashOperations);
+        when(hashOperations.get("refresh_tokens:42", "default")).thenReturn(null);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("refresh_token:42")).thenReturn("t1");
+        when(redisTemplate.getExpire("refresh_token:42", TimeUnit.SECONDS)).thenReturn(100L);
+        when(redisTemplate.getExpire("refresh_tokens:42", TimeUnit.SECONDS)).thenReturn(-2L);
+
+        assertTrue(service.validateRefreshToken("42", null, "t1"));
+        verify(pipelineHash).putIfAbsent("refresh_tokens:42", "default", "t1");
+        verify(pipeline).expire("refresh_tokens:42", 100L, TimeUnit.SECONDS);
+        verify(pipeline).delete("refresh_token:42");
+    }
+
+    @Test
+    void revokeAllByUserId_revokesEveryDeviceJtiInOnePipeline() {
+        Claims c1 = refreshClaims("jti-1", null);
+        Claims c2 = refreshClaims("jti-2", "phone");
+        when(jwtService.parseToken("t1")).thenReturn(c1);
+        when(jwtService.parseToken("t2")).thenReturn(c2);
+        when(jwtService.parseToken("legacy")).thenThrow(new JwtException("invalid"));
+        runPipelinesOn(List.of(Map.of("default", "t1", "phone", "t2"), "legacy"), List.of());
+
+        service.revokeAllByUserId("42");
+
+        verify(denylist).revoke(pipeline, "jti-1", c1.getExpiration().getTime());
+        verify(denylist).revoke(pipeline, "jti-2", c2.getExpiration().getTime());
+        ArgumentCaptor<List<String>> deleted = ArgumentCaptor.forClass(List.class);
+        verify(pipeline).delete(deleted.capture());
+        assertEquals(List.of("refresh_tokens:42", "refresh_token:42"), deleted.getValue());
+        verify(redisTemplate, never()).keys(anyString());
+        verify(redisTemplate, times(2)).executePipelined(any(SessionCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void markTokenAsUsed_revokesJtiAndRemovesDevice() {
+        Claims claims = refreshClaims("jti-1", "phone");
+        runPipelinesOn(List.of());
+
+        service.markTokenAsUsed(claims);
+
+        verify(denylist).revoke(pipeline, "jti-1", claims.getExpiration().getTime());
+        verify(pipelineHash).delete("refresh_tokens:42", "phone");
+        verify(redisTemplate, never()).hasKey(anyString());
+    }
+
+    @Test
+    void checkTokenReuse_looksUpJtiInDenylist() {
+        Claims claims = refreshClaims("jti-1", null);
+        when(denylist.isRevoked("jti-1", claims.getExpiration().getTime())).thenReturn(true);
+
+        assertTrue(service.checkTokenReuse(claims));
+    }
+
+    private static Claims refreshClaims(String jti, String deviceId) {
+        var builder = Jwts.claims().subject("42").id(jti).expiration(new Date(System.currentTimeMillis() + 60_000));
+        if (deviceId != null) {
+            builder.add("deviceId", deviceId);
+        }
+        return builder.build();
+    }
+}
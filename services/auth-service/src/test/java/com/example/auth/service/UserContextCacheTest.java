@@ -0,0 +1,139 @@
+package com.example.auth.service;
+
+import com.example.auth.client.UserServiceInternalClient;
+import com.example.auth.client.dto.InternalUserContextResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * UserContextCache 单元测试
+ * 覆盖：近缓存命中、事件失效、TTL 兜底、Redis 二级命中、不缓存不存在的用户、命中率指标
+ */
+@ExtendWith(MockitoExtension.class)
+class UserContextCacheTest {
+
+    @Mock
+    private UserServiceInternalClient userClient;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UserContextCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserContextCache(userClient, redisTemplate, objectMapper, meterRegistry);
+        ReflectionTestUtils.setField(cache, "maxSize", 100);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "redisEnabled", false);
+    }
+
+    private static InternalUserContextResponse context(long id) {
+        return InternalUserContextResponse.builder()
+                .id(id).email("u" + id + "@example.com").name("u" + id).emailVerified(true).roles(List.of("USER")).build();
+    }
+
+    @Test
+    void get_servesRepeatedReadsFromLocalCache() {
+        when(userClient.getUserContext(1L)).thenReturn(context(1));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("u1@example.com", cache.get(1L).getEmail());
+        }
+
+        verify(userClient, times(1)).getUserContext(1L);
+        assertEquals(2.0, meterRegistry.get("auth.user.context.cache.saved.calls").counter().count());
+        assertEquals(2.0 / 3, meterRegistry.get("auth.user.context.cache.hit.ratio").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void evict_forcesReload() {
+        when(userClient.getUserContext(1L)).thenReturn(context(1));
+        cache.get(1L);
+
+        cache.evict(1L);
+        cache.get(1L);
+
+        verify(userClient, times(2)).getUserContext(1L);
+    }
+
+    @Test
+    void evictAll_dropsEveryUser() {
+        when(userClient.getUserContext(anyLong())).thenAnswer(inv -> context(inv.getArgument(0)));
+        cache.get(1L);
+        cache.get(2L);
+
+        cache.evictAll();
+        cache.get(1L);
+        cache.get(2L);
+
+        verify(userClient, times(4)).getUserContext(anyLong());
+    }
+
+    @Test
+    void get_reloadsAfterTtl() {
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 0L);
+        when(userClient.getUserContext(1L)).thenReturn(context(1));
+
+        cache.get(1L);
+        cache.get(1L);
+
+        verify(userClient, times(2)).getUserContext(1L);
+    }
+
+    @Test
+    void get_doesNotCacheMissingUser() {
+        when(userClient.getUserContext(9L)).thenReturn(null);
+
+        assertNull(cache.get(9L));
+        assertNull(cache.get(9L));
+
+        verify(userClient, times(2)).getUserContext(9L);
+    }
+
+    @Test
+    void get_withRedisTier_usesSharedEntryBeforeCallingUserService() throws Exception {
+        ReflectionTestUtils.setField(cache, "redisEnabled", true);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("user_ctx:1")).thenReturn(objectMapper.writeValueAsString(context(1)));
+
+        assertEquals(List.of("USER"), cache.get(1L).getRoles());
+        cache.get(1L);
+
+        verifyNoInteractions(userClient);
+        verify(valueOperations, times(1)).get("user_ctx:1");
+        assertEquals(1.0, meterRegistry.get("auth.user.context.cache").tag("result", "redis_hit").counter().count());
+    }
+
+    @Test
+    void get_withRedisTier_writesLoadedContextWithTtl() {
+        ReflectionTestUtils.setField(cache, "redisEnabled", true);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(userClient.getUserContext(1L)).thenReturn(context(1));
+
+        cache.get(1L);
+
+        verify(valueOperations).set(eq("user_ctx:1"), contains("u1@example.com"), eq(60L), eq(TimeUnit.SECONDS));
+    }
+}
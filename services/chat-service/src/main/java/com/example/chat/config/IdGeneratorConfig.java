@@ -0,0 +1,37 @@
+package com.example.chat.config;
+
+import com.example.api.common.id.TimeOrderedIdGenerator;
+import com.example.api.common.id.WorkerIdLease;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 时间有序 ID 生成器配置
+ * 会话、消息主键使用时间有序 ID，避免随机 UUID 写入 InnoDB 主键时的页分裂
+ * 节点 ID：默认（id.worker-id=-1）从 id_worker_leases 表租用唯一节点号，失去租约后拒绝发号；
+ * 显式配置 id.worker-id 时由部署方保证各副本唯一，超出 0~1023 启动失败
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "id.worker-id", havingValue = "-1", matchIfMissing = true)
+    public WorkerIdLease workerIdLease(JdbcTemplate jdbcTemplate,
+                                       @Value("${id.lease.ttl-seconds:60}") long ttlSeconds) {
+        return WorkerIdLease.acquire(jdbcTemplate, ttlSeconds);
+    }
+
+    @Bean
+    public TimeOrderedIdGenerator timeOrderedIdGenerator(@Value("${id.worker-id:-1}") long workerId,
+                                                         ObjectProvider<WorkerIdLease> lease) {
+        if (workerId == -1) {
+            WorkerIdLease workerIdLease = lease.getObject();
+            return new TimeOrderedIdGenerator(workerIdLease.getWorkerId(), workerIdLease::isHeld);
+        }
+        return new TimeOrderedIdGenerator(workerId);
+    }
+}
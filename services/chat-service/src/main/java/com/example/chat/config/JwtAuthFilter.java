@@ -42,7 +42,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         try {
             String token = extractToken(request);
             if (StringUtils.hasText(token)) {
-                var claims = jwtValidationService.parseToken(token);
+                var claims = jwtValidationService.parseTokenCached(token);
                 String userId = claims.getSubject();
                 @SuppressWarnings("unchecked")
                 List<String> roles = claims.get("roles", List.class);
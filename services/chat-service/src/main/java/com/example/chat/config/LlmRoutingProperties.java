@@ -0,0 +1,59 @@
+package com.example.chat.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 多 Provider 路由配置
+ * 启用后，LLM_PROVIDER 对应的主节点与 endpoints 中的备用节点一起由 RoutingChatModel 调度
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "chat.routing")
+public class LlmRoutingProperties {
+
+    /** 是否启用多节点路由 */
+    private boolean enabled = false;
+
+    /** EWMA 平滑系数（0~1） */
+    private double ewmaAlpha = 0.3;
+
+    /** 错误率 EWMA 达到该值时视为不健康 */
+    private double maxErrorRate = 0.5;
+
+    /** 不健康节点的冷却时间，过后放行探测请求 */
+    private Duration cooldown = Duration.ofSeconds(30);
+
+    /** 对冲请求配置 */
+    private Hedge hedge = new Hedge();
+
+    /** 备用节点（OpenAI 兼容接口） */
+    private List<Endpoint> endpoints = new ArrayList<>();
+
+    /**
+     * 对冲请求配置
+     */
+    @Data
+    public static class Hedge {
+        /** 是否启用对冲 */
+        private boolean enabled = false;
+        /** 等待首 Token 的截止时间，超时后向次优节点发起对冲请求 */
+        private Duration delay = Duration.ofSeconds(2);
+    }
+
+    /**
+     * 备用节点配置
+     */
+    @Data
+    public static class Endpoint {
+        private String name;
+        private String baseUrl;
+        private String apiKey;
+        private String model;
+    }
+}
@@ -1,23 +1,26 @@
 package com.example.chat.config;
 
-import com.example.chat.tool.WebSearchToolCallback;
+import com.example.chat.llm.ModelEndpoint;
+import com.example.chat.llm.RoutingChatModel;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.openai.OpenAiChatModel;
 import org.springframework.ai.openai.OpenAiChatOptions;
 import org.springframework.ai.openai.api.OpenAiApi;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * OpenAI 兼容 Chat 模型配置（支持 OpenAI、DeepSeek 等）
  * 通过 LLM_PROVIDER 切换：openai | deepseek
  * 未配置 api-key 时，ChatServiceImpl 回退到 Mock 模式
- * 联网搜索：采用 Function Calling 方式（Perplexity/ChatGPT 主流实现），需配置 WEB_SEARCH_ENABLED 和 TAVILY_API_KEY
+ * 联网搜索：采用 Function Calling 方式（Perplexity/ChatGPT 主流实现），需配置 WEB_SEARCH_ENABLED 和 TAVILY_API_KEY；
+ * 工具由 ChatServiceImpl 按请求注册并并行执行，此处不再注册默认工具
+ * 多节点路由：chat.routing.enabled=true 时，主节点与 chat.routing.endpoints 一起由 RoutingChatModel 调度
  */
 @Configuration
 public class OpenAiChatConfig {
@@ -30,17 +33,36 @@ public class OpenAiChatConfig {
             @Value("${OPENAI_MODEL:gpt-4o-mini}") String openaiModel,
             @Value("${DEEPSEEK_MODEL:deepseek-chat}") String deepseekModel,
             @Value("${spring.ai.openai.chat.options.temperature:0.7}") double temperature,
-            @Autowired(required = false) WebSearchToolCallback webSearchToolCallback) {
+            LlmRoutingProperties routingProperties) {
         String model = "deepseek".equalsIgnoreCase(provider) ? deepseekModel : openaiModel;
-        var builder = OpenAiChatOptions.builder()
-                .model(model)
-                .temperature(temperature);
-        // 联网搜索：Function Calling 方式，LLM 在需要实时信息时调用 web_search 工具
-        if (webSearchToolCallback != null) {
-            builder.toolCallbacks(List.of(webSearchToolCallback.build()))
-                    .internalToolExecutionEnabled(true);
+        ChatModel primary = buildChatModel(openAiApi, model, temperature);
+        if (!routingProperties.isEnabled() || routingProperties.getEndpoints().isEmpty()) {
+            return primary;
+        }
+
+        long cooldownMillis = routingProperties.getCooldown().toMillis();
+        double alpha = routingProperties.getEwmaAlpha();
+        List<ModelEndpoint> endpoints = new ArrayList<>();
+        endpoints.add(new ModelEndpoint(provider, primary, alpha, cooldownMillis));
+        for (LlmRoutingProperties.Endpoint ep : routingProperties.getEndpoints()) {
+            OpenAiApi api = OpenAiApi.builder()
+                    .apiKey(ep.getApiKey())
+                    .baseUrl(ep.getBaseUrl())
+                    .build();
+            String epModel = ep.getModel() != null ? ep.getModel() : model;
+            String epName = ep.getName() != null ? ep.getName() : ep.getBaseUrl();
+            endpoints.add(new ModelEndpoint(epName, buildChatModel(api, epModel, temperature),
+                    alpha, cooldownMillis));
         }
-        OpenAiChatOptions options = builder.build();
+        return new RoutingChatModel(endpoints, routingProperties.getMaxErrorRate(),
+                routingProperties.getHedge().isEnabled() ? routingProperties.getHedge().getDelay() : null);
+    }
+
+    private ChatModel buildChatModel(OpenAiApi openAiApi, String model, double temperature) {
+        OpenAiChatOptions options = OpenAiChatOptions.builder()
+                .model(model)
+                .temperature(temperature)
+                .build();
         return OpenAiChatModel.builder()
                 .openAiApi(openAiApi)
                 .defaultOptions(options)
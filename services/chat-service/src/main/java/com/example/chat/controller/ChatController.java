@@ -1,5 +1,6 @@
 package com.example.chat.controller;
 
+import com.example.api.common.id.TimeOrderedIdGenerator;
 import com.example.chat.entity.Conversation;
 import com.example.chat.mapper.ConversationMapper;
 import com.example.chat.model.ChatRequest;
@@ -24,7 +25,6 @@ import java.io.IOException;
 import java.util.List;
 
 import static org.springframework.http.HttpStatus.FORBIDDEN;
-import java.util.UUID;
 import java.util.stream.Stream;
 
 /**
@@ -42,6 +42,7 @@ public class ChatController {
     private final ConversationPersistenceService persistenceService;
     private final ConversationMapper conversationMapper;
     private final ChatRateLimitService chatRateLimitService;
+    private final TimeOrderedIdGenerator idGenerator;
 
     /**
      * 流式 Chat 接口
@@ -70,7 +71,10 @@ public class ChatController {
         }
 
         // 先获取流（异常在设置响应头之前抛出，便于 GlobalExceptionHandler 返回 JSON 错误）
-        Stream<String> chunks = chatService.streamChat(effectiveUserId, request, conversationId != null ? conversationId : "");
+        // writer 同时接收工具调用事件；创建 writer 不会提交响应
+        SseStreamWriter writer = new SseStreamWriter(response.getOutputStream());
+        Stream<String> chunks = chatService.streamChat(effectiveUserId, request,
+                conversationId != null ? conversationId : "", writer);
 
         // 设置 SSE 响应头（Data Stream 协议要求）
         response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
@@ -80,10 +84,9 @@ public class ChatController {
         response.setHeader("Connection", "keep-alive");
         response.setHeader("X-Accel-Buffering", "no"); // 禁用 Nginx 缓冲
 
-        String messageId = "msg_" + UUID.randomUUID().toString().replace("-", "").substring(0, 16);
-        String textId = "text_" + UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+        String messageId = idGenerator.nextId("msg_");
+        String textId = idGenerator.nextId("text_");
 
-        SseStreamWriter writer = new SseStreamWriter(response.getOutputStream());
         writer.writeStream(messageId, textId, chunks, fullAssistantText -> {
             try {
                 return persistenceService.persistMessages(effectiveUserId, conversationId, userContent, fullAssistantText);
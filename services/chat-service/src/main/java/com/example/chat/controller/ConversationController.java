@@ -1,5 +1,6 @@
 package com.example.chat.controller;
 
+import com.example.api.common.id.TimeOrderedIdGenerator;
 import com.example.chat.entity.Conversation;
 import com.example.chat.entity.Message;
 import com.example.chat.mapper.ConversationMapper;
@@ -25,7 +26,6 @@ import jakarta.validation.Valid;
 
 import java.time.Instant;
 import java.util.List;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -43,6 +43,7 @@ public class ConversationController {
 
     private final ConversationMapper conversationMapper;
     private final MessageMapper messageMapper;
+    private final TimeOrderedIdGenerator idGenerator;
 
     /**
      * 获取当前用户的会话列表（按更新时间倒序）
@@ -70,7 +71,7 @@ public class ConversationController {
         String title = (request != null && request.getTitle() != null && !request.getTitle().isBlank())
                 ? request.getTitle().trim()
                 : DEFAULT_TITLE;
-        String id = "conv_" + UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+        String id = idGenerator.nextId("conv_");
         Conversation conv = new Conversation();
         conv.setId(id);
         conv.setUserId(effectiveUserId);
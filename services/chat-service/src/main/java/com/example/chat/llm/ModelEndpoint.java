@@ -0,0 +1,84 @@
+package com.example.chat.llm;
+
+import org.springframework.ai.chat.model.ChatModel;
+
+/**
+ * 路由目标：一个具名的 ChatModel 及其运行统计
+ * 维护首 Token 延迟（TTFT）与错误率的指数加权移动平均（EWMA），供 RoutingChatModel 排序
+ */
+public class ModelEndpoint {
+
+    private final String name;
+    private final ChatModel delegate;
+    private final double alpha;
+    private final long cooldownMillis;
+
+    /** TTFT 的 EWMA（毫秒），NaN 表示尚无样本 */
+    private double ttftMillis = Double.NaN;
+    /** 错误率的 EWMA（0~1） */
+    private double errorRate;
+    private long lastFailureAt;
+
+    /**
+     * @param alpha          EWMA 平滑系数（0~1，越大越偏向最近样本）
+     * @param cooldownMillis 被判定为不健康后，多久允许再次探测
+     */
+    public ModelEndpoint(String name, ChatModel delegate, double alpha, long cooldownMillis) {
+        this.name = name;
+        this.delegate = delegate;
+        this.alpha = alpha;
+        this.cooldownMillis = cooldownMillis;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ChatModel getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * 记录一次首 Token 延迟样本
+     */
+    public synchronized void recordLatency(long millis) {
+        ttftMillis = Double.isNaN(ttftMillis) ? millis : alpha * millis + (1 - alpha) * ttftMillis;
+    }
+
+    /**
+     * 记录一次成功请求
+     */
+    public synchronized void recordSuccess() {
+        errorRate = (1 - alpha) * errorRate;
+    }
+
+    /**
+     * 记录一次失败请求
+     */
+    public synchronized void recordFailure() {
+        errorRate = alpha + (1 - alpha) * errorRate;
+        lastFailureAt = System.currentTimeMillis();
+    }
+
+    public synchronized double getTtftMillis() {
+        return ttftMillis;
+    }
+
+    public synchronized double getErrorRate() {
+        return errorRate;
+    }
+
+    /**
+     * 错误率低于阈值即健康；超过阈值时，冷却期过后放行探测请求（半开）
+     */
+    public synchronized boolean isHealthy(double maxErrorRate) {
+        return errorRate < maxErrorRate || System.currentTimeMillis() - lastFailureAt >= cooldownMillis;
+    }
+
+    /**
+     * 路由得分（越小越优先），未探测过的节点得分为 0，保证新节点能获得流量
+     */
+    synchronized double score() {
+        return Double.isNaN(ttftMillis) ? 0 : ttftMillis;
+    }
+}
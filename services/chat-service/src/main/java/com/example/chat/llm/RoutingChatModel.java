@@ -0,0 +1,145 @@
+package com.example.chat.llm;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 多 Provider 路由 ChatModel
+ * 按 TTFT EWMA 选择最快的健康节点；流式请求在截止时间内未收到首 Token 时，
+ * 向次优节点发起对冲（hedged）请求，先出首 Token 者胜出，另一方被取消。
+ * 未输出任何内容前失败的请求会自动转移到下一个节点。
+ */
+public class RoutingChatModel implements ChatModel {
+
+    private static final Logger log = LoggerFactory.getLogger(RoutingChatModel.class);
+
+    private final List<ModelEndpoint> endpoints;
+    private final double maxErrorRate;
+    private final Duration hedgeDelay;
+
+    /**
+     * @param endpoints    候选节点（至少一个），顺序即初始优先级
+     * @param maxErrorRate 错误率 EWMA 达到该值视为不健康
+     * @param hedgeDelay   对冲等待时间，null 表示不对冲
+     */
+    public RoutingChatModel(List<ModelEndpoint> endpoints, double maxErrorRate, Duration hedgeDelay) {
+        if (endpoints == null || endpoints.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一个 ModelEndpoint");
+        }
+        this.endpoints = List.copyOf(endpoints);
+        this.maxErrorRate = maxErrorRate;
+        this.hedgeDelay = hedgeDelay;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        RuntimeException lastError = null;
+        for (ModelEndpoint endpoint : rank()) {
+            long start = System.nanoTime();
+            try {
+                ChatResponse response = endpoint.getDelegate().call(prompt);
+                endpoint.recordLatency(elapsedMillis(start));
+                endpoint.recordSuccess();
+                return response;
+            } catch (RuntimeException e) {
+                endpoint.recordFailure();
+                lastError = e;
+                log.warn("LLM 节点调用失败，尝试下一个节点: endpoint={}", endpoint.getName(), e);
+            }
+        }
+        throw lastError;
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return Flux.defer(() -> streamFrom(rank(), 0, prompt));
+    }
+
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return endpoints.get(0).getDelegate().getDefaultOptions();
+    }
+
+    /**
+     * 当前路由顺序：健康节点在前，同类中按 TTFT EWMA 升序
+     */
+    public List<ModelEndpoint> rank() {
+        List<ModelEndpoint> ranked = new ArrayList<>(endpoints);
+        ranked.sort(Comparator.comparing((ModelEndpoint e) -> !e.isHealthy(maxErrorRate))
+                .thenComparingDouble(ModelEndpoint::score));
+        return ranked;
+    }
+
+    private Flux<ChatResponse> streamFrom(List<ModelEndpoint> ranked, int index, Prompt prompt) {
+        ModelEndpoint primary = ranked.get(index);
+        int next = index + 1;
+        Flux<ChatResponse> attempt;
+        if (hedgeDelay != null && next < ranked.size()) {
+            ModelEndpoint backup = ranked.get(next);
+            next++;
+            // 主请求提前失败时立即触发备用请求，无需等满对冲时间
+            Sinks.Empty<Void> primaryFailed = Sinks.empty();
+            Flux<ChatResponse> first = instrument(primary, prompt)
+                    .doOnError(e -> primaryFailed.tryEmitEmpty());
+            Flux<ChatResponse> hedged = Mono.firstWithSignal(Mono.delay(hedgeDelay).then(), primaryFailed.asMono())
+                    .thenMany(Flux.defer(() -> {
+                        log.info("LLM 首 Token 超时，发起对冲请求: primary={}, backup={}", primary.getName(), backup.getName());
+                        return instrument(backup, prompt);
+                    }));
+            attempt = Flux.firstWithValue(first, hedged);
+        } else {
+            attempt = instrument(primary, prompt);
+        }
+
+        int fallbackIndex = next;
+        AtomicBoolean emitted = new AtomicBoolean();
+        return attempt
+                .doOnNext(r -> emitted.set(true))
+                .onErrorResume(e -> !emitted.get() && fallbackIndex < ranked.size(), e -> {
+                    log.warn("LLM 流式请求失败，转移到下一个节点: endpoint={}", ranked.get(fallbackIndex).getName(), e);
+                    return streamFrom(ranked, fallbackIndex, prompt);
+                });
+    }
+
+    /**
+     * 包装单节点流式请求：记录 TTFT、成功与失败；首 Token 前被取消（对冲落败）时，
+     * 以已等待时长作为延迟下界计入 EWMA
+     */
+    private Flux<ChatResponse> instrument(ModelEndpoint endpoint, Prompt prompt) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            AtomicBoolean firstToken = new AtomicBoolean();
+            return endpoint.getDelegate().stream(prompt)
+                    .doOnNext(r -> {
+                        if (firstToken.compareAndSet(false, true)) {
+                            endpoint.recordLatency(elapsedMillis(start));
+                        }
+                    })
+                    .doOnComplete(endpoint::recordSuccess)
+                    .doOnError(e -> endpoint.recordFailure())
+                    .doOnCancel(() -> {
+                        if (!firstToken.get()) {
+                            endpoint.recordLatency(elapsedMillis(start));
+                        }
+                    });
+        });
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
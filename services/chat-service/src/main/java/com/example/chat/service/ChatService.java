@@ -1,6 +1,7 @@
 package com.example.chat.service;
 
 import com.example.chat.model.ChatRequest;
+import com.example.chat.tool.ToolCallListener;
 
 import java.util.stream.Stream;
 
@@ -19,4 +20,15 @@ public interface ChatService {
      * @return 文本 chunk 流
      */
     Stream<String> streamChat(String userId, ChatRequest request, String conversationId);
+
+    /**
+     * 流式 Chat 调用，工具调用进度通过 listener 推送
+     *
+     * @param listener 工具调用监听器（工具调用与结果事件）
+     * @return 文本 chunk 流
+     */
+    default Stream<String> streamChat(String userId, ChatRequest request, String conversationId,
+            ToolCallListener listener) {
+        return streamChat(userId, request, conversationId);
+    }
 }
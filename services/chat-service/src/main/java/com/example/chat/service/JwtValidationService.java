@@ -1,9 +1,12 @@
 package com.example.chat.service;
 
+import com.example.api.common.security.VerifiedTokenCache;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
@@ -12,12 +15,10 @@ import java.io.InputStream;
 import java.security.KeyFactory;
 import java.security.PublicKey;
 import java.security.spec.X509EncodedKeySpec;
-import java.util.Collections;
-import java.util.List;
 
 /**
  * JWT 验证服务
- * 仅验证 Access Token，不生成 Token
+ * 仅验证 Access Token，不生成 Token；公钥与解析器启动时构建一次，验签结果按 Token 缓存至 exp
  */
 @Service
 public class JwtValidationService {
@@ -31,6 +32,26 @@ public class JwtValidationService {
     @Value("${jwt.audience:api.example.com}")
     private String audience;
 
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheMaxSize;
+
+    private JwtParser parser;
+    private VerifiedTokenCache<Claims> verifiedCache;
+
+    @PostConstruct
+    void init() {
+        parser = Jwts.parser()
+                .verifyWith(loadPublicKey())
+                .requireIssuer(issuer)
+                .requireAudience(audience)
+                .build();
+        // chat-service 不接入 Redis，收不到撤销广播：旧 Token 有效至 exp，与不缓存时一致
+        verifiedCache = new VerifiedTokenCache<>(verifiedCacheMaxSize, 0,
+                claims -> claims.getExpiration() != null ? claims.getExpiration().getTime() : null,
+                claims -> claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : null,
+                Claims::getSubject);
+    }
+
     /**
      * 解析并验证 Token
      *
@@ -39,13 +60,7 @@ public class JwtValidationService {
      */
     public Claims parseToken(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getPublicKey())
-                    .requireIssuer(issuer)
-                    .requireAudience(audience)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return parser.parseSignedClaims(token).getPayload();
         } catch (ExpiredJwtException e) {
             throw new JwtException("Token 已过期");
         } catch (JwtException e) {
@@ -53,6 +68,13 @@ public class JwtValidationService {
         }
     }
 
+    /**
+     * 解析并验证 Token，同一 Token 在 exp 之前只做一次验签（供认证过滤器使用）
+     */
+    public Claims parseTokenCached(String token) {
+        return verifiedCache.get(token, this::parseToken);
+    }
+
     /**
      * 从 Token 提取用户 ID（subject）
      */
@@ -61,7 +83,7 @@ public class JwtValidationService {
         return claims.getSubject();
     }
 
-    private PublicKey getPublicKey() {
+    private PublicKey loadPublicKey() {
         try (InputStream is = publicKeyResource.getInputStream()) {
             String keyContent = new String(is.readAllBytes());
             keyContent = keyContent.replace("-----BEGIN PUBLIC KEY-----", "")
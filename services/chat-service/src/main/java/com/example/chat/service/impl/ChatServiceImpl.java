@@ -5,6 +5,9 @@ import com.example.chat.mapper.MessageMapper;
 import com.example.chat.model.ChatRequest;
 import com.example.chat.model.UIMessagePart;
 import com.example.chat.service.ChatService;
+import com.example.chat.tool.ParallelToolExecutor;
+import com.example.chat.tool.ToolCallListener;
+import com.example.chat.tool.WebSearchToolCallback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.messages.AssistantMessage;
@@ -12,10 +15,14 @@ import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.tool.ToolCallback;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -25,12 +32,16 @@ import java.util.stream.Stream;
  * Chat 服务实现
  * 对接 Spring AI（OpenAI/Anthropic 等），支持流式响应
  * 当 ChatModel 不可用时（如测试环境）回退到 Mock 模式
+ * 工具调用由本服务执行（关闭模型内部执行）：同一轮的多个调用并行执行，进度经 ToolCallListener 推送
  */
 @Service
 public class ChatServiceImpl implements ChatService {
 
     private static final Logger log = LoggerFactory.getLogger(ChatServiceImpl.class);
 
+    /** 单次对话最多的工具调用轮数，防止 LLM 反复调用工具陷入循环 */
+    private static final int MAX_TOOL_ROUNDS = 5;
+
     @Value("${chat.system-prompt:You are a helpful assistant. When unsure, say so and suggest rephrasing.}")
     private String systemPrompt;
 
@@ -39,17 +50,29 @@ public class ChatServiceImpl implements ChatService {
     @Autowired(required = false)
     private ChatModel chatModel;
 
+    @Autowired(required = false)
+    private WebSearchToolCallback webSearchToolCallback;
+
+    @Autowired(required = false)
+    private ParallelToolExecutor toolExecutor;
+
     public ChatServiceImpl(MessageMapper messageMapper) {
         this.messageMapper = messageMapper;
     }
 
     @Override
     public Stream<String> streamChat(String userId, ChatRequest request, String conversationId) {
+        return streamChat(userId, request, conversationId, ToolCallListener.NOOP);
+    }
+
+    @Override
+    public Stream<String> streamChat(String userId, ChatRequest request, String conversationId,
+            ToolCallListener listener) {
         String userText = extractLastUserMessage(request);
         List<Message> history = loadHistory(conversationId);
 
         if (chatModel != null) {
-            return streamWithLlm(userText, history);
+            return streamWithLlm(userText, history, listener);
         }
         return streamMock(userText, history);
     }
@@ -57,20 +80,68 @@ public class ChatServiceImpl implements ChatService {
     /**
      * 使用 Spring AI 流式调用 LLM
      */
-    private Stream<String> streamWithLlm(String userText, List<Message> history) {
+    private Stream<String> streamWithLlm(String userText, List<Message> history, ToolCallListener listener) {
         List<org.springframework.ai.chat.messages.Message> messages = buildPromptMessages(userText, history);
+        return streamTurn(messages, resolveTools(), listener, 0).toStream();
+    }
 
-        Flux<String> contentFlux = chatModel.stream(new Prompt(messages))
+    /**
+     * 单轮流式调用：输出文本 chunk；若助手消息包含工具调用，则并行执行工具后携带结果进入下一轮
+     */
+    private Flux<String> streamTurn(List<org.springframework.ai.chat.messages.Message> messages,
+            List<ToolCallback> tools, ToolCallListener listener, int round) {
+        Prompt prompt = tools.isEmpty()
+                ? new Prompt(messages)
+                : new Prompt(messages, ToolCallingChatOptions.builder()
+                        .toolCallbacks(tools)
+                        .internalToolExecutionEnabled(false)
+                        .build());
+
+        StringBuilder text = new StringBuilder();
+        List<AssistantMessage.ToolCall> toolCalls = new ArrayList<>();
+        Flux<String> contentFlux = chatModel.stream(prompt)
                 .map(r -> {
                     if (r.getResult() != null && r.getResult().getOutput() != null) {
-                        String content = r.getResult().getOutput().getText();
+                        AssistantMessage output = r.getResult().getOutput();
+                        if (output.hasToolCalls()) {
+                            toolCalls.addAll(output.getToolCalls());
+                        }
+                        String content = output.getText();
                         return content != null ? content : "";
                     }
                     return "";
                 })
-                .filter(c -> !c.isEmpty());
+                .filter(c -> !c.isEmpty())
+                .doOnNext(text::append);
+
+        return contentFlux.concatWith(Flux.defer(() -> {
+            if (toolCalls.isEmpty()) {
+                return Flux.empty();
+            }
+            if (round >= MAX_TOOL_ROUNDS) {
+                log.warn("工具调用轮数达到上限，停止继续调用: rounds={}", round);
+                return Flux.empty();
+            }
+            List<org.springframework.ai.chat.messages.Message> next = new ArrayList<>(messages);
+            next.add(AssistantMessage.builder()
+                    .content(text.toString())
+                    .toolCalls(List.copyOf(toolCalls))
+                    .build());
+            // 工具执行为阻塞调用，切换到弹性线程池，避免占用模型响应的 I/O 线程
+            return Mono.fromCallable(() -> toolExecutor.execute(toolCalls, tools, listener))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMapMany(toolResponse -> {
+                        next.add(toolResponse);
+                        return streamTurn(next, tools, listener, round + 1);
+                    });
+        }));
+    }
 
-        return contentFlux.toStream();
+    private List<ToolCallback> resolveTools() {
+        if (webSearchToolCallback == null || toolExecutor == null) {
+            return List.of();
+        }
+        return List.of(webSearchToolCallback.build());
     }
 
     /**
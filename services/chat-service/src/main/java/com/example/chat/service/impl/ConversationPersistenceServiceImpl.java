@@ -1,5 +1,6 @@
 package com.example.chat.service.impl;
 
+import com.example.api.common.id.TimeOrderedIdGenerator;
 import com.example.chat.entity.Conversation;
 import com.example.chat.entity.Message;
 import com.example.chat.mapper.ConversationMapper;
@@ -10,7 +11,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
-import java.util.UUID;
 import java.util.List;
 
 /**
@@ -24,12 +24,15 @@ public class ConversationPersistenceServiceImpl implements ConversationPersisten
 
     private final ConversationMapper conversationMapper;
     private final MessageMapper messageMapper;
+    private final TimeOrderedIdGenerator idGenerator;
 
     public ConversationPersistenceServiceImpl(
             ConversationMapper conversationMapper,
-            MessageMapper messageMapper) {
+            MessageMapper messageMapper,
+            TimeOrderedIdGenerator idGenerator) {
         this.conversationMapper = conversationMapper;
         this.messageMapper = messageMapper;
+        this.idGenerator = idGenerator;
     }
 
     @Override
@@ -38,7 +41,7 @@ public class ConversationPersistenceServiceImpl implements ConversationPersisten
         Instant now = Instant.now();
         String effectiveConvId = conversationId != null && !conversationId.isBlank()
                 ? conversationId
-                : "conv_" + UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+                : idGenerator.nextId("conv_");
 
         // 在插入前估算历史 token（避免重复计入本轮消息）
         int historyTokens = estimateHistoryTokens(effectiveConvId);
@@ -57,8 +60,8 @@ public class ConversationPersistenceServiceImpl implements ConversationPersisten
             conversationMapper.update(conv);
         }
 
-        String userMsgId = "msg_" + UUID.randomUUID().toString().replace("-", "").substring(0, 16);
-        String assistantMsgId = "msg_" + UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+        String userMsgId = idGenerator.nextId("msg_");
+        String assistantMsgId = idGenerator.nextId("msg_");
 
         Message userMsg = new Message();
         userMsg.setId(userMsgId);
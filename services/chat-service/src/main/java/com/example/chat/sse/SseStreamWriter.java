@@ -1,10 +1,12 @@
 package com.example.chat.sse;
 
+import com.example.chat.tool.ToolCallListener;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -14,8 +16,9 @@ import java.util.stream.Stream;
 /**
  * SSE Data Stream 协议写入器
  * 按 Vercel AI SDK Stream Protocol 输出 SSE 事件
+ * 同时作为 ToolCallListener 输出工具调用事件；工具结果可能来自其他线程，写入已同步
  */
-public class SseStreamWriter {
+public class SseStreamWriter implements ToolCallListener {
 
     private static final String SSE_LINE_PREFIX = "data:";
     private static final String LINE_END = "\n\n";
@@ -69,6 +72,64 @@ public class SseStreamWriter {
         writeJson(m);
     }
 
+    /**
+     * 写入 tool-input-available 事件（工具调用参数已完整）
+     *
+     * @param input JSON 格式的调用参数；无法解析时按原始字符串输出
+     */
+    public void writeToolInputAvailable(String toolCallId, String toolName, String input) throws IOException {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("type", "tool-input-available");
+        m.put("toolCallId", toolCallId);
+        m.put("toolName", toolName);
+        m.put("input", parseJsonOrRaw(input));
+        writeJson(m);
+    }
+
+    /**
+     * 写入 tool-output-available 事件
+     */
+    public void writeToolOutputAvailable(String toolCallId, String output) throws IOException {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("type", "tool-output-available");
+        m.put("toolCallId", toolCallId);
+        m.put("output", output);
+        writeJson(m);
+    }
+
+    /**
+     * 写入 tool-output-error 事件
+     */
+    public void writeToolOutputError(String toolCallId, String errorText) throws IOException {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("type", "tool-output-error");
+        m.put("toolCallId", toolCallId);
+        m.put("errorText", errorText);
+        writeJson(m);
+    }
+
+    @Override
+    public void onToolCall(String toolCallId, String toolName, String arguments) {
+        try {
+            writeToolInputAvailable(toolCallId, toolName, arguments);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void onToolResult(String toolCallId, String toolName, String result, boolean error) {
+        try {
+            if (error) {
+                writeToolOutputError(toolCallId, result);
+            } else {
+                writeToolOutputAvailable(toolCallId, result);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * 写入 finish 事件
      */
@@ -154,7 +215,18 @@ public class SseStreamWriter {
         }
     }
 
-    private void writeRaw(String data) throws IOException {
+    private Object parseJsonOrRaw(String json) {
+        if (json == null || json.isBlank()) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            return json;
+        }
+    }
+
+    private synchronized void writeRaw(String data) throws IOException {
         outputStream.write((SSE_LINE_PREFIX + data + LINE_END).getBytes(StandardCharsets.UTF_8));
         outputStream.flush();
     }
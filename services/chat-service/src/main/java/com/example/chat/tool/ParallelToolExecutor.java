@@ -0,0 +1,212 @@
+package com.example.chat.tool;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 工具并行执行器
+ * 同一轮助手消息中的多个工具调用并发执行，线程数与排队数均有上限，队列满时拒绝并以错误结果回填；
+ * 每个调用从开始执行时起计超时，排队等待同样以 timeout 为上限；
+ * 结果按完成顺序通过 ToolCallListener 推送，最终按调用顺序组装为 ToolResponseMessage
+ */
+@Component
+public class ParallelToolExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelToolExecutor.class);
+
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+
+    public ParallelToolExecutor(
+            @Value("${chat.tools.max-concurrency:8}") int maxConcurrency,
+            @Value("${chat.tools.queue-capacity:64}") int queueCapacity,
+            @Value("${chat.tools.timeout:15s}") Duration timeout) {
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "chat-tool-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        this.timeout = timeout;
+    }
+
+    /**
+     * 并发执行一轮工具调用
+     *
+     * @param toolCalls LLM 返回的工具调用
+     * @param callbacks 可用工具
+     * @param listener  进度监听器
+     * @return 与 toolCalls 顺序一致的工具响应消息
+     */
+    public ToolResponseMessage execute(List<AssistantMessage.ToolCall> toolCalls, List<ToolCallback> callbacks,
+            ToolCallListener listener) {
+        Map<String, ToolCallback> byName = new HashMap<>();
+        for (ToolCallback callback : callbacks) {
+            byName.put(callback.getToolDefinition().name(), callback);
+        }
+
+        Map<String, String> results = new LinkedHashMap<>();
+        List<ToolTask> pending = new ArrayList<>();
+        BlockingQueue<ToolTask> completed = new LinkedBlockingQueue<>();
+        for (AssistantMessage.ToolCall call : toolCalls) {
+            results.put(call.id(), null);
+            listener.onToolCall(call.id(), call.name(), call.arguments());
+            ToolCallback callback = byName.get(call.name());
+            if (callback == null) {
+                complete(results, listener, call, "未知工具: " + call.name(), true);
+                continue;
+            }
+            ToolTask task = new ToolTask(call, callback, completed);
+            try {
+                executor.execute(task);
+                pending.add(task);
+            } catch (RejectedExecutionException e) {
+                log.warn("工具执行队列已满，拒绝调用: tool={}", call.name());
+                complete(results, listener, call, "工具执行繁忙，请稍后重试", true);
+            }
+        }
+
+        try {
+            while (!pending.isEmpty()) {
+                long now = System.nanoTime();
+                expire(pending, now, results, listener);
+                if (pending.isEmpty()) {
+                    break;
+                }
+                long nextDeadline = Long.MAX_VALUE;
+                for (ToolTask task : pending) {
+                    nextDeadline = Math.min(nextDeadline, task.deadline() - now);
+                }
+                ToolTask done = completed.poll(nextDeadline, TimeUnit.NANOSECONDS);
+                if (done != null && pending.remove(done)) {
+                    collect(done, results, listener);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (ToolTask task : pending) {
+                task.cancel(true);
+                complete(results, listener, task.call, "工具执行被中断", true);
+            }
+            executor.purge();
+        }
+
+        List<ToolResponseMessage.ToolResponse> responses = new ArrayList<>();
+        for (AssistantMessage.ToolCall call : toolCalls) {
+            responses.add(new ToolResponseMessage.ToolResponse(call.id(), call.name(), results.get(call.id())));
+        }
+        return ToolResponseMessage.builder().responses(responses).build();
+    }
+
+    /**
+     * 超时（执行超时或排队超时）的调用：取消并以错误结果回填，避免 LLM 因缺少响应而报错
+     */
+    private void expire(List<ToolTask> pending, long now, Map<String, String> results, ToolCallListener listener) {
+        boolean cancelled = false;
+        for (Iterator<ToolTask> it = pending.iterator(); it.hasNext(); ) {
+            ToolTask task = it.next();
+            if (task.isDone()) {
+                // 已完成但尚未从 completed 取出，直接收集
+                it.remove();
+                collect(task, results, listener);
+            } else if (task.deadline() - now <= 0) {
+                it.remove();
+                boolean started = task.startedAt != null;
+                task.cancel(true);
+                cancelled = true;
+                log.warn("工具{}: tool={}, timeout={}", started ? "执行超时" : "排队超时", task.call.name(), timeout);
+                complete(results, listener, task.call, started ? "工具执行超时" : "工具排队超时", true);
+            }
+        }
+        if (cancelled) {
+            // 移出队列中已取消的调用，释放排队名额
+            executor.purge();
+        }
+    }
+
+    private void collect(ToolTask task, Map<String, String> results, ToolCallListener listener) {
+        try {
+            complete(results, listener, task.call, task.get(), false);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            log.warn("工具执行失败: tool={}", task.call.name(), cause);
+            String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+            complete(results, listener, task.call, "工具执行失败: " + message, true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            complete(results, listener, task.call, "工具执行被中断", true);
+        }
+    }
+
+    private void complete(Map<String, String> results, ToolCallListener listener,
+            AssistantMessage.ToolCall call, String result, boolean error) {
+        results.put(call.id(), result);
+        listener.onToolResult(call.id(), call.name(), result, error);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 单个工具调用：记录提交与开始执行时间，超时从开始执行时起算；完成（含取消）后放入本轮的 completed 队列
+     */
+    private final class ToolTask extends FutureTask<String> {
+
+        private final AssistantMessage.ToolCall call;
+        private final BlockingQueue<ToolTask> completed;
+        private final long submittedAt = System.nanoTime();
+        private volatile Long startedAt;
+
+        ToolTask(AssistantMessage.ToolCall call, ToolCallback callback, BlockingQueue<ToolTask> completed) {
+            super(() -> callback.call(call.arguments()));
+            this.call = call;
+            this.completed = completed;
+        }
+
+        /**
+         * 开始执行前为排队截止时间，开始后为执行截止时间
+         */
+        long deadline() {
+            Long started = startedAt;
+            return (started != null ? started : submittedAt) + timeout.toNanos();
+        }
+
+        @Override
+        public void run() {
+            startedAt = System.nanoTime();
+            super.run();
+        }
+
+        @Override
+        protected void done() {
+            completed.add(this);
+        }
+    }
+}
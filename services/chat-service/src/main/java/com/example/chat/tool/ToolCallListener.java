@@ -0,0 +1,34 @@
+package com.example.chat.tool;
+
+/**
+ * 工具调用进度监听器
+ * 流式对话中 LLM 发起工具调用及工具返回结果时回调，用于向前端推送进度
+ */
+public interface ToolCallListener {
+
+    /** 不推送任何事件 */
+    ToolCallListener NOOP = new ToolCallListener() {
+        @Override
+        public void onToolCall(String toolCallId, String toolName, String arguments) {
+        }
+
+        @Override
+        public void onToolResult(String toolCallId, String toolName, String result, boolean error) {
+        }
+    };
+
+    /**
+     * LLM 发起工具调用（参数已完整）
+     *
+     * @param arguments JSON 格式的调用参数
+     */
+    void onToolCall(String toolCallId, String toolName, String arguments);
+
+    /**
+     * 工具执行完成（成功、失败或超时）
+     *
+     * @param result 成功时为工具输出，失败时为错误描述
+     * @param error  是否失败
+     */
+    void onToolResult(String toolCallId, String toolName, String result, boolean error);
+}
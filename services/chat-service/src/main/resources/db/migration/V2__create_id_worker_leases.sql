@@ -0,0 +1,8 @@
+-- V2__create_id_worker_leases.sql
+-- 时间有序 ID 节点号租约：每个实例启动时占用一个未过期的 worker_id，后台续约，关闭时释放
+
+CREATE TABLE IF NOT EXISTS id_worker_leases (
+    worker_id INT PRIMARY KEY,
+    owner VARCHAR(128) NOT NULL,
+    expires_at DATETIME(3) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
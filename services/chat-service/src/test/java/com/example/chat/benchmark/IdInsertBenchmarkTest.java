@@ -0,0 +1,78 @@
+package com.example.chat.benchmark;
+
+import com.example.api.common.id.TimeOrderedIdGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * 主键插入吞吐基准：随机 UUID 截断 ID vs 时间有序 ID
+ * 表结构与 message 表一致（VARCHAR(36) 主键），在 H2 文件库上按批插入，
+ * 结果仅用于相对比较；生产结论以 MySQL/InnoDB 实测为准。
+ *
+ * 运行：mvn test -pl chat-service -am -Dtest=IdInsertBenchmarkTest -Dbenchmark=true -Dsurefire.failIfNoSpecifiedTests=false
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class IdInsertBenchmarkTest {
+
+    private static final int ROWS = 200_000;
+    private static final int BATCH_SIZE = 1_000;
+    private static final int ROUNDS = 3;
+
+    @Test
+    void compareInsertThroughput() throws Exception {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(1);
+        Supplier<String> randomIds = () -> "msg_" + UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+        Supplier<String> orderedIds = () -> generator.nextId("msg_");
+
+        // 预热
+        run("warmup", randomIds);
+        run("warmup", orderedIds);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            double random = run("random-" + round, randomIds);
+            double ordered = run("ordered-" + round, orderedIds);
+            System.out.printf("round %d: random=%.0f rows/s, time-ordered=%.0f rows/s, speedup=%.2fx%n",
+                    round, random, ordered, ordered / random);
+        }
+    }
+
+    private double run(String name, Supplier<String> ids) throws SQLException {
+        String url = "jdbc:h2:file:./target/id-bench/" + name + ";MODE=MySQL";
+        try (Connection conn = DriverManager.getConnection(url, "sa", "")) {
+            try (Statement st = conn.createStatement()) {
+                st.execute("DROP TABLE IF EXISTS message_bench");
+                st.execute("CREATE TABLE message_bench (id VARCHAR(36) PRIMARY KEY, "
+                        + "conversation_id VARCHAR(36) NOT NULL, role VARCHAR(20) NOT NULL, "
+                        + "content TEXT NOT NULL, created_at TIMESTAMP NOT NULL)");
+            }
+            conn.setAutoCommit(false);
+            long start = System.nanoTime();
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO message_bench (id, conversation_id, role, content, created_at) "
+                            + "VALUES (?, 'conv_bench', 'user', 'hello', CURRENT_TIMESTAMP)")) {
+                for (int i = 1; i <= ROWS; i++) {
+                    ps.setString(1, ids.get());
+                    ps.addBatch();
+                    if (i % BATCH_SIZE == 0) {
+                        ps.executeBatch();
+                        conn.commit();
+                    }
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            try (Statement st = conn.createStatement()) {
+                st.execute("DROP TABLE message_bench");
+            }
+            conn.commit();
+            return ROWS / seconds;
+        }
+    }
+}
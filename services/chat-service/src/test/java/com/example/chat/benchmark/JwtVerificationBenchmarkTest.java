@@ -0,0 +1,88 @@
+package com.example.chat.benchmark;
+
+import com.example.api.common.security.VerifiedTokenCache;
+import com.example.chat.util.TestJwtHelper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * JWT 验签 CPU 开销基准：每请求完整验签（含每次读取 PEM 的旧实现）vs 已验签 Token 缓存
+ * 模拟前端在 30 分钟内重复发送少量 Access Token，按线程 CPU 时间统计每请求开销。
+ *
+ * 运行：mvn test -pl chat-service -am -Dtest=JwtVerificationBenchmarkTest -Dbenchmark=true -Dsurefire.failIfNoSpecifiedTests=false
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JwtVerificationBenchmarkTest {
+
+    private static final int REQUESTS = 20_000;
+    private static final int DISTINCT_TOKENS = 100;
+
+    @Test
+    void compareCpuPerRequest() throws Exception {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < DISTINCT_TOKENS; i++) {
+            tokens.add(TestJwtHelper.generateAccessToken(String.valueOf(i), "user" + i, List.of("USER")));
+        }
+        PublicKey publicKey = loadPublicKey();
+        JwtParser parser = Jwts.parser().verifyWith(publicKey).build();
+        VerifiedTokenCache<Claims> cache = new VerifiedTokenCache<>(10_000, 0,
+                c -> c.getExpiration().getTime(), c -> c.getIssuedAt().getTime(), Claims::getSubject);
+
+        Function<String, Claims> reloadEveryTime = t -> Jwts.parser().verifyWith(loadPublicKey()).build()
+                .parseSignedClaims(t).getPayload();
+        Function<String, Claims> fullVerify = t -> parser.parseSignedClaims(t).getPayload();
+        Function<String, Claims> cached = t -> cache.get(t, fullVerify);
+
+        // 预热
+        run(tokens, reloadEveryTime);
+        run(tokens, fullVerify);
+        run(tokens, cached);
+
+        double reload = run(tokens, reloadEveryTime);
+        double full = run(tokens, fullVerify);
+        double hit = run(tokens, cached);
+        System.out.printf("CPU/request: reload-pem=%.1fus, full-verify=%.1fus, cached=%.2fus, saved=%.1fus (%.0fx)%n",
+                reload, full, hit, full - hit, full / hit);
+    }
+
+    /**
+     * @return 每请求线程 CPU 时间（微秒）
+     */
+    private double run(List<String> tokens, Function<String, Claims> verifier) {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        long start = mx.getCurrentThreadCpuTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            if (verifier.apply(tokens.get(i % tokens.size())).getSubject() == null) {
+                throw new IllegalStateException();
+            }
+        }
+        return (mx.getCurrentThreadCpuTime() - start) / 1_000.0 / REQUESTS;
+    }
+
+    private static PublicKey loadPublicKey() {
+        try (InputStream is = new ClassPathResource("keys/public.pem").getInputStream()) {
+            String content = new String(is.readAllBytes())
+                    .replace("-----BEGIN PUBLIC KEY-----", "")
+                    .replace("-----END PUBLIC KEY-----", "")
+                    .replaceAll("\\s", "");
+            return KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(content)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
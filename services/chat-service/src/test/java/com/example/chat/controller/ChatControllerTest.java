@@ -111,7 +111,7 @@ class ChatControllerTest {
         ChatRequest request = createChatRequest("你好");
 
         doThrow(new RuntimeException("LLM 调用失败"))
-                .when(chatService).streamChat(anyString(), any(), anyString());
+                .when(chatService).streamChat(anyString(), any(), anyString(), any());
 
         mockMvc.perform(post("/api/chat")
                 .header("Authorization", "Bearer " + validAccessToken)
@@ -153,14 +153,14 @@ class ChatControllerTest {
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isUnauthorized());
 
-        verify(chatService, never()).streamChat(anyString(), any(), anyString());
+        verify(chatService, never()).streamChat(anyString(), any(), anyString(), any());
     }
 
     @Test
     void shouldReturn200WithSseStreamWhenValidJwt() throws Exception {
         ChatRequest request = createChatRequest("你好");
 
-        when(chatService.streamChat(anyString(), any(), anyString()))
+        when(chatService.streamChat(anyString(), any(), anyString(), any()))
                 .thenAnswer(invocation -> {
                     java.util.stream.Stream<String> stream = java.util.stream.Stream.of("你", "好", "！");
                     return stream;
@@ -200,7 +200,7 @@ class ChatControllerTest {
     void shouldEmitFinishWithUsageWhenPersistenceReturnsMetaWithUsage() throws Exception {
         ChatRequest request = createChatRequest("你好");
 
-        when(chatService.streamChat(anyString(), any(), anyString()))
+        when(chatService.streamChat(anyString(), any(), anyString(), any()))
                 .thenAnswer(invocation -> java.util.stream.Stream.of("你", "好", "！"));
         when(persistenceService.persistMessages(anyString(), any(), anyString(), anyString()))
                 .thenReturn(new ConversationMeta("conv_123", "测试标题",
@@ -226,7 +226,7 @@ class ChatControllerTest {
                 .content("{invalid json body"))
                 .andExpect(status().isBadRequest());
 
-        verify(chatService, never()).streamChat(anyString(), any(), anyString());
+        verify(chatService, never()).streamChat(anyString(), any(), anyString(), any());
     }
 
     @Test
@@ -238,7 +238,7 @@ class ChatControllerTest {
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isUnsupportedMediaType());
 
-        verify(chatService, never()).streamChat(anyString(), any(), anyString());
+        verify(chatService, never()).streamChat(anyString(), any(), anyString(), any());
     }
 
     @Test
@@ -256,7 +256,7 @@ class ChatControllerTest {
                 .andExpect(jsonPath("$.code").value(42901))
                 .andExpect(jsonPath("$.message", containsString("请求过于频繁")));
 
-        verify(chatService, never()).streamChat(anyString(), any(), anyString());
+        verify(chatService, never()).streamChat(anyString(), any(), anyString(), any());
     }
 
     @Test
@@ -279,7 +279,7 @@ class ChatControllerTest {
                 .andExpect(status().isForbidden())
                 .andExpect(jsonPath("$.code").value(40300));
 
-        verify(chatService, never()).streamChat(anyString(), any(), anyString());
+        verify(chatService, never()).streamChat(anyString(), any(), anyString(), any());
     }
 
     private ChatRequest createChatRequest(String text) {
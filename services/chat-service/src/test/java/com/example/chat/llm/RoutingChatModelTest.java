@@ -0,0 +1,155 @@
+package com.example.chat.llm;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RoutingChatModel 单元测试
+ * 验证：按 TTFT 路由、对冲请求、失败转移、不健康节点降级
+ */
+class RoutingChatModelTest {
+
+    @Test
+    void shouldRouteToFastestEndpointAfterWarmup() {
+        StubChatModel slow = new StubChatModel("slow", Duration.ofMillis(150), false);
+        StubChatModel fast = new StubChatModel("fast", Duration.ofMillis(10), false);
+        ModelEndpoint slowEp = new ModelEndpoint("slow", slow, 0.5, 30_000);
+        ModelEndpoint fastEp = new ModelEndpoint("fast", fast, 0.5, 30_000);
+        RoutingChatModel router = new RoutingChatModel(List.of(slowEp, fastEp), 0.5, null);
+
+        // 两个节点各探测一次后，应稳定路由到快节点
+        collect(router);
+        collect(router);
+        int fastBefore = fast.calls.get();
+        int slowBefore = slow.calls.get();
+        for (int i = 0; i < 3; i++) {
+            assertEquals("fast", collect(router));
+        }
+
+        assertEquals(fastBefore + 3, fast.calls.get());
+        assertEquals(slowBefore, slow.calls.get());
+    }
+
+    @Test
+    void shouldHedgeToBackupWhenFirstTokenIsLate() {
+        StubChatModel primary = new StubChatModel("primary", Duration.ofSeconds(5), false);
+        StubChatModel backup = new StubChatModel("backup", Duration.ofMillis(10), false);
+        RoutingChatModel router = new RoutingChatModel(List.of(
+                new ModelEndpoint("primary", primary, 0.3, 30_000),
+                new ModelEndpoint("backup", backup, 0.3, 30_000)), 0.5, Duration.ofMillis(100));
+
+        long start = System.nanoTime();
+        String text = collect(router);
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertEquals("backup", text);
+        assertTrue(elapsedMillis < 2_000, "对冲请求应在主节点超时前返回");
+        assertEquals(1, primary.cancellations.get(), "落败请求应被取消");
+    }
+
+    @Test
+    void shouldNotHedgeWhenPrimaryRespondsInTime() {
+        StubChatModel primary = new StubChatModel("primary", Duration.ofMillis(10), false);
+        StubChatModel backup = new StubChatModel("backup", Duration.ofMillis(10), false);
+        RoutingChatModel router = new RoutingChatModel(List.of(
+                new ModelEndpoint("primary", primary, 0.3, 30_000),
+                new ModelEndpoint("backup", backup, 0.3, 30_000)), 0.5, Duration.ofMillis(500));
+
+        assertEquals("primary", collect(router));
+        assertEquals(0, backup.calls.get());
+    }
+
+    @Test
+    void shouldFailOverWhenPrimaryFailsBeforeFirstToken() {
+        StubChatModel broken = new StubChatModel("broken", Duration.ZERO, true);
+        StubChatModel healthy = new StubChatModel("healthy", Duration.ofMillis(10), false);
+        ModelEndpoint brokenEp = new ModelEndpoint("broken", broken, 0.6, 30_000);
+        RoutingChatModel router = new RoutingChatModel(List.of(
+                brokenEp,
+                new ModelEndpoint("healthy", healthy, 0.6, 30_000)), 0.5, null);
+
+        assertEquals("healthy", collect(router));
+        assertFalse(brokenEp.isHealthy(0.5));
+
+        // 不健康节点在冷却期内被排到最后
+        assertEquals("healthy", router.rank().get(0).getName());
+        assertEquals(1, broken.calls.get());
+    }
+
+    @Test
+    void shouldFailOverForBlockingCall() {
+        StubChatModel broken = new StubChatModel("broken", Duration.ZERO, true);
+        StubChatModel healthy = new StubChatModel("healthy", Duration.ZERO, false);
+        RoutingChatModel router = new RoutingChatModel(List.of(
+                new ModelEndpoint("broken", broken, 0.3, 30_000),
+                new ModelEndpoint("healthy", healthy, 0.3, 30_000)), 0.5, null);
+
+        ChatResponse response = router.call(new Prompt("hi"));
+
+        assertEquals("healthy", response.getResult().getOutput().getText());
+    }
+
+    private String collect(RoutingChatModel router) {
+        return router.stream(new Prompt("hi"))
+                .map(r -> r.getResult().getOutput().getText())
+                .collectList()
+                .block(Duration.ofSeconds(10))
+                .stream()
+                .collect(Collectors.joining());
+    }
+
+    /**
+     * 本地桩模型：首 Token 前等待固定时长，可配置为直接失败
+     */
+    private static class StubChatModel implements ChatModel {
+        private final String reply;
+        private final Duration firstTokenDelay;
+        private final boolean fail;
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger cancellations = new AtomicInteger();
+
+        StubChatModel(String reply, Duration firstTokenDelay, boolean fail) {
+            this.reply = reply;
+            this.firstTokenDelay = firstTokenDelay;
+            this.fail = fail;
+        }
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            calls.incrementAndGet();
+            if (fail) {
+                throw new IllegalStateException(reply + " unavailable");
+            }
+            return response(reply);
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            return Flux.defer(() -> {
+                calls.incrementAndGet();
+                if (fail) {
+                    return Flux.<ChatResponse>error(new IllegalStateException(reply + " unavailable"));
+                }
+                return Flux.just(response(reply))
+                        .delaySequence(firstTokenDelay)
+                        .doOnCancel(cancellations::incrementAndGet);
+            });
+        }
+
+        private static ChatResponse response(String text) {
+            return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+        }
+    }
+}
@@ -4,11 +4,23 @@ import com.example.chat.mapper.MessageMapper;
 import com.example.chat.model.ChatRequest;
 import com.example.chat.model.UIMessagePart;
 import com.example.chat.service.impl.ChatServiceImpl;
+import com.example.chat.tool.ParallelToolExecutor;
+import com.example.chat.tool.ToolCallListener;
+import com.example.chat.tool.WebSearchToolCallback;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -137,6 +149,65 @@ class ChatServiceImplTest {
         chunks.forEach(chunk -> assertTrue(chunk.length() <= 1));
     }
 
+    @Test
+    void shouldExecuteToolCallsAndContinueStreaming() {
+        WebSearchService webSearchService = mock(WebSearchService.class);
+        when(webSearchService.search(anyString())).thenAnswer(inv -> "结果:" + inv.getArgument(0));
+        ParallelToolExecutor toolExecutor = new ParallelToolExecutor(2, 16, Duration.ofSeconds(5));
+        List<Prompt> prompts = new CopyOnWriteArrayList<>();
+        ChatModel chatModel = new ChatModel() {
+            @Override
+            public ChatResponse call(Prompt prompt) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Flux<ChatResponse> stream(Prompt prompt) {
+                prompts.add(prompt);
+                if (prompts.size() == 1) {
+                    AssistantMessage toolCallMessage = AssistantMessage.builder()
+                            .content("")
+                            .toolCalls(List.of(
+                                    new AssistantMessage.ToolCall("call_1", "function", "web_search", "{\"query\":\"北京\"}"),
+                                    new AssistantMessage.ToolCall("call_2", "function", "web_search", "{\"query\":\"上海\"}")))
+                            .build();
+                    return Flux.just(new ChatResponse(List.of(new Generation(toolCallMessage))));
+                }
+                return Flux.just("都是", "晴天").map(t -> new ChatResponse(List.of(new Generation(new AssistantMessage(t)))));
+            }
+        };
+        ReflectionTestUtils.setField(chatService, "chatModel", chatModel);
+        ReflectionTestUtils.setField(chatService, "webSearchToolCallback", new WebSearchToolCallback(webSearchService));
+        ReflectionTestUtils.setField(chatService, "toolExecutor", toolExecutor);
+        List<String> events = new CopyOnWriteArrayList<>();
+        ToolCallListener listener = new ToolCallListener() {
+            @Override
+            public void onToolCall(String toolCallId, String toolName, String arguments) {
+                events.add("call:" + toolCallId);
+            }
+
+            @Override
+            public void onToolResult(String toolCallId, String toolName, String result, boolean error) {
+                events.add("result:" + toolCallId);
+            }
+        };
+
+        try {
+            String fullText = chatService.streamChat("1", createChatRequest("天气如何"), "conv_1", listener)
+                    .collect(Collectors.joining());
+
+            assertEquals("都是晴天", fullText);
+            assertEquals(2, prompts.size());
+            assertTrue(events.containsAll(List.of("call:call_1", "call:call_2", "result:call_1", "result:call_2")));
+            var secondTurn = prompts.get(1).getInstructions();
+            ToolResponseMessage toolResponse = (ToolResponseMessage) secondTurn.get(secondTurn.size() - 1);
+            assertTrue(toolResponse.getResponses().get(0).responseData().contains("结果:北京"));
+            assertTrue(toolResponse.getResponses().get(1).responseData().contains("结果:上海"));
+        } finally {
+            toolExecutor.shutdown();
+        }
+    }
+
     private ChatRequest createChatRequest(String text) {
         ChatRequest request = new ChatRequest();
         request.setMessages(List.of(createUserMessage(text)));
@@ -15,7 +15,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * JwtValidationService 单元测试（TDD）
- * 验证：有效 Token 解析、过期 Token、无效 Token
+ * 验证：有效 Token 解析、过期 Token、无效 Token、验签结果缓存
  */
 @SpringBootTest
 @ActiveProfiles("test")
@@ -65,4 +65,27 @@ class JwtValidationServiceTest {
         assertThrows(JwtException.class, () ->
                 jwtValidationService.parseToken("not-a-jwt"));
     }
+
+    @Test
+    void shouldReturnCachedClaimsForSameToken() {
+        var first = jwtValidationService.parseTokenCached(validToken);
+        var second = jwtValidationService.parseTokenCached(validToken);
+
+        assertSame(first, second);
+        assertEquals("123", second.getSubject());
+    }
+
+    @Test
+    void shouldNotCacheInvalidToken() {
+        assertThrows(JwtException.class, () -> jwtValidationService.parseTokenCached("invalid.token.here"));
+        assertThrows(JwtException.class, () -> jwtValidationService.parseTokenCached("invalid.token.here"));
+    }
+
+    @Test
+    void shouldRejectExpiredTokenViaCache() {
+        String expired = TestJwtHelper.generateExpiredAccessToken("123", "testuser", List.of("USER"));
+
+        JwtException e = assertThrows(JwtException.class, () -> jwtValidationService.parseTokenCached(expired));
+        assertEquals("Token 已过期", e.getMessage());
+    }
 }
@@ -203,4 +203,19 @@ class SseStreamWriterTest {
         assertTrue(result.contains("\"conversationTitle\":\"测试标题\""));
         assertTrue(result.contains("\"usage\":{\"promptTokens\":10,\"completionTokens\":20,\"totalTokens\":30}"));
     }
+
+    @Test
+    void shouldEmitToolInputAndOutputEvents() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SseStreamWriter writer = new SseStreamWriter(out);
+
+        writer.onToolCall("call_1", "web_search", "{\"query\":\"天气\"}");
+        writer.onToolResult("call_1", "web_search", "晴", false);
+        writer.onToolResult("call_2", "web_search", "工具执行超时", true);
+
+        String result = out.toString(StandardCharsets.UTF_8);
+        assertTrue(result.contains("data:{\"type\":\"tool-input-available\",\"toolCallId\":\"call_1\",\"toolName\":\"web_search\",\"input\":{\"query\":\"天气\"}}"));
+        assertTrue(result.contains("data:{\"type\":\"tool-output-available\",\"toolCallId\":\"call_1\",\"output\":\"晴\"}"));
+        assertTrue(result.contains("data:{\"type\":\"tool-output-error\",\"toolCallId\":\"call_2\",\"errorText\":\"工具执行超时\"}"));
+    }
 }
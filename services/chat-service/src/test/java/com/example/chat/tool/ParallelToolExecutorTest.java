@@ -0,0 +1,160 @@
+package com.example.chat.tool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.function.FunctionToolCallback;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ParallelToolExecutor 单元测试
+ * 验证：同轮工具调用并发执行、单次调用超时（从开始执行时起算）、队列满拒绝、异常无消息时的错误结果、未知工具、事件推送
+ */
+class ParallelToolExecutorTest {
+
+    private ParallelToolExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void shouldRunToolCallsConcurrently() {
+        executor = new ParallelToolExecutor(4, 16, Duration.ofSeconds(5));
+        ToolCallback slowSearch = sleepingTool("web_search", 300);
+        List<AssistantMessage.ToolCall> calls = List.of(
+                toolCall("call_1", "web_search", "a"),
+                toolCall("call_2", "web_search", "b"),
+                toolCall("call_3", "web_search", "c"));
+
+        long start = System.nanoTime();
+        ToolResponseMessage response = executor.execute(calls, List.of(slowSearch), ToolCallListener.NOOP);
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertTrue(elapsedMillis < 800, "3 个 300ms 的调用应并发执行，实际耗时 " + elapsedMillis + "ms");
+        assertEquals(List.of("call_1", "call_2", "call_3"),
+                response.getResponses().stream().map(ToolResponseMessage.ToolResponse::id).toList());
+        assertTrue(response.getResponses().get(1).responseData().contains("b"));
+    }
+
+    @Test
+    void shouldReportTimeoutAsErrorResult() {
+        executor = new ParallelToolExecutor(2, 16, Duration.ofMillis(200));
+        RecordingListener listener = new RecordingListener();
+
+        ToolResponseMessage response = executor.execute(
+                List.of(toolCall("call_1", "web_search", "slow")),
+                List.of(sleepingTool("web_search", 5_000)), listener);
+
+        assertEquals("工具执行超时", response.getResponses().get(0).responseData());
+        assertEquals(List.of("call:call_1", "error:call_1"), listener.events);
+    }
+
+    @Test
+    void shouldStartTimeoutWhenCallBeginsRunning() {
+        executor = new ParallelToolExecutor(1, 16, Duration.ofMillis(400));
+
+        // 单线程串行执行，两次调用合计超过 timeout，但每次调用各自未超时
+        ToolResponseMessage response = executor.execute(
+                List.of(toolCall("call_1", "web_search", "a"), toolCall("call_2", "web_search", "b")),
+                List.of(sleepingTool("web_search", 250)), ToolCallListener.NOOP);
+
+        assertTrue(response.getResponses().get(0).responseData().contains("a"));
+        assertTrue(response.getResponses().get(1).responseData().contains("b"));
+    }
+
+    @Test
+    void shouldRejectCallsWhenQueueIsFull() {
+        executor = new ParallelToolExecutor(1, 1, Duration.ofSeconds(5));
+        RecordingListener listener = new RecordingListener();
+
+        ToolResponseMessage response = executor.execute(
+                List.of(toolCall("call_1", "web_search", "a"), toolCall("call_2", "web_search", "b"),
+                        toolCall("call_3", "web_search", "c")),
+                List.of(sleepingTool("web_search", 100)), listener);
+
+        assertEquals("工具执行繁忙，请稍后重试", response.getResponses().get(2).responseData());
+        assertTrue(response.getResponses().get(1).responseData().contains("b"));
+        assertTrue(listener.events.contains("error:call_3"));
+    }
+
+    @Test
+    void shouldFallBackToExceptionTypeWhenMessageIsNull() {
+        executor = new ParallelToolExecutor(2, 16, Duration.ofSeconds(1));
+        ToolCallback failing = FunctionToolCallback.<WebSearchToolCallback.WebSearchRequest, String>builder("web_search",
+                        req -> {
+                            throw new IllegalStateException();
+                        })
+                .inputType(WebSearchToolCallback.WebSearchRequest.class)
+                .build();
+
+        ToolResponseMessage response = executor.execute(
+                List.of(toolCall("call_1", "web_search", "a")), List.of(failing), ToolCallListener.NOOP);
+
+        String result = response.getResponses().get(0).responseData();
+        assertTrue(result.startsWith("工具执行失败: "), result);
+        assertFalse(result.endsWith("null"), result);
+    }
+
+    @Test
+    void shouldReportUnknownToolWithoutExecuting() {
+        executor = new ParallelToolExecutor(2, 16, Duration.ofSeconds(1));
+        RecordingListener listener = new RecordingListener();
+
+        ToolResponseMessage response = executor.execute(
+                List.of(toolCall("call_1", "not_exists", "x")), List.of(), listener);
+
+        assertTrue(response.getResponses().get(0).responseData().contains("未知工具"));
+        assertEquals(List.of("call:call_1", "error:call_1"), listener.events);
+    }
+
+    @Test
+    void shouldEmitCallAndResultEvents() {
+        executor = new ParallelToolExecutor(2, 16, Duration.ofSeconds(1));
+        RecordingListener listener = new RecordingListener();
+
+        executor.execute(List.of(toolCall("call_1", "web_search", "a")),
+                List.of(sleepingTool("web_search", 0)), listener);
+
+        assertEquals(List.of("call:call_1", "result:call_1"), listener.events);
+    }
+
+    private static AssistantMessage.ToolCall toolCall(String id, String name, String query) {
+        return new AssistantMessage.ToolCall(id, "function", name, "{\"query\":\"" + query + "\"}");
+    }
+
+    private static ToolCallback sleepingTool(String name, long sleepMillis) {
+        return FunctionToolCallback.<WebSearchToolCallback.WebSearchRequest, String>builder(name, req -> {
+                    try {
+                        Thread.sleep(sleepMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "result for " + req.query();
+                })
+                .inputType(WebSearchToolCallback.WebSearchRequest.class)
+                .build();
+    }
+
+    private static class RecordingListener implements ToolCallListener {
+        final List<String> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onToolCall(String toolCallId, String toolName, String arguments) {
+            events.add("call:" + toolCallId);
+        }
+
+        @Override
+        public void onToolResult(String toolCallId, String toolName, String result, boolean error) {
+            events.add((error ? "error:" : "result:") + toolCallId);
+        }
+    }
+}
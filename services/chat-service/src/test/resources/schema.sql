@@ -1,4 +1,4 @@
--- H2 测试环境建表脚本（与 Flyway V1 迁移结构一致）
+-- H2 测试环境建表脚本（与 Flyway V1~V2 迁移结构一致）
 CREATE TABLE IF NOT EXISTS conversation (
     id VARCHAR(36) PRIMARY KEY,
     user_id VARCHAR(64) NOT NULL,
@@ -14,3 +14,9 @@ CREATE TABLE IF NOT EXISTS message (
     content CLOB NOT NULL,
     created_at TIMESTAMP NOT NULL
 );
+
+CREATE TABLE IF NOT EXISTS id_worker_leases (
+    worker_id INT PRIMARY KEY,
+    owner VARCHAR(128) NOT NULL,
+    expires_at TIMESTAMP(3) NOT NULL
+);
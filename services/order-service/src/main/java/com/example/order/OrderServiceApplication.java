@@ -4,10 +4,12 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableDiscoveryClient  // 启用服务发现，注册到 Nacos
-@ComponentScan(basePackages = {"com.example.order", "com.example.api.exception"})  // 扫描全局异常处理器
+@EnableScheduling  // 启用定时任务（Outbox 中继轮询、已处理事件清理）
+@ComponentScan(basePackages = {"com.example.order", "com.example.api.exception", "com.example.api.common.outbox", "com.example.api.common.kafka"})  // 扫描全局异常处理器、事务性 Outbox、DLT 重放
 public class OrderServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(OrderServiceApplication.class, args);
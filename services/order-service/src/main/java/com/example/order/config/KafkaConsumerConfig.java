@@ -1,24 +1,20 @@
 package com.example.order.config;
 
+import com.example.api.event.EventListenerFactories;
 import com.example.api.event.UserCreatedEvent;
-import org.apache.kafka.clients.consumer.ConsumerConfig;
-import org.apache.kafka.common.serialization.StringDeserializer;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
-import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
-import org.springframework.kafka.listener.ContainerProperties;
-import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
-
-import java.util.HashMap;
-import java.util.Map;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 
 /**
  * Kafka 消费者配置
+ * 用户创建事件：批量监听、重试主题与 DLT 组件由 {@link EventListenerFactories} 创建
  */
 @EnableKafka
 @Configuration
@@ -30,29 +26,44 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.consumer.group-id:order-service-group}")
     private String groupId;
 
+    /** 监听并发数，建议等于主题分区数 */
+    @Value("${kafka.listener.user-events.concurrency:3}")
+    private int concurrency;
+
+    /** 单次 poll 最大记录数（即单批上限） */
+    @Value("${kafka.listener.user-events.max-poll-records:500}")
+    private int maxPollRecords;
+
+    private final MeterRegistry meterRegistry;
+
+    public KafkaConsumerConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @Bean
     public ConsumerFactory<String, UserCreatedEvent> consumerFactory() {
-        Map<String, Object> props = new HashMap<>();
-        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class.getName());
-        props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.example.*");
-        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, UserCreatedEvent.class.getName());
-        // 自动提交偏移量
-        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
-        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        return new DefaultKafkaConsumerFactory<>(props);
+        return EventListenerFactories.consumerFactory(bootstrapServers, groupId, UserCreatedEvent.class,
+                maxPollRecords, meterRegistry);
     }
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, UserCreatedEvent> kafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, UserCreatedEvent> factory =
-                new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(consumerFactory());
-        // 手动确认模式
-        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.RECORD);
-        return factory;
+        return EventListenerFactories.batchListenerFactory(consumerFactory(), concurrency);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, UserCreatedEvent> userEventsRetryListenerContainerFactory() {
+        return EventListenerFactories.retryListenerFactory(consumerFactory());
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> retryKafkaTemplate() {
+        return EventListenerFactories.retryKafkaTemplate(bootstrapServers);
+    }
+
+    @Bean
+    public DeadLetterPublishingRecoverer userEventsRetryForwarder(
+            @Value("${kafka.topics.user-created-retry:user-created-events-order-retry}") String retryTopic) {
+        return EventListenerFactories.retryForwarder(retryKafkaTemplate(), retryTopic);
     }
 }
@@ -2,17 +2,21 @@ package com.example.order.controller;
 
 import com.example.api.common.Result;
 import com.example.api.common.ResultCode;
+import com.example.api.event.OrderEvent;
 import com.example.api.exception.BusinessException;
 import com.example.api.model.CreateOrderRequest;
 import com.example.api.model.User;
 import com.example.api.service.UserService;
 import com.example.order.entity.OrderEntity;
+import com.example.order.event.OrderEventPublisher;
 import com.example.order.mapper.OrderMapper;
 import com.example.order.model.Order;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import org.apache.dubbo.config.annotation.DubboReference;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
@@ -34,6 +38,12 @@ public class OrderController {
     
     @Autowired
     private OrderMapper orderMapper;
+
+    @Autowired
+    private OrderEventPublisher orderEventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
     
     /**
      * 获取所有订单
@@ -71,6 +81,7 @@ public class OrderController {
     
     /**
      * 创建订单
+     * 远程校验用户在事务外完成，只有订单写入与 Outbox 事件在同一短事务中，RPC 期间不占用数据库连接
      */
     @PostMapping
     public Result<Order> createOrder(@Valid @RequestBody CreateOrderRequest request) {
@@ -90,7 +101,10 @@ public class OrderController {
         entity.setCreatedAt(now);
         entity.setUpdatedAt(now);
 
-        orderMapper.insert(entity);
+        transactionTemplate.executeWithoutResult(status -> {
+            orderMapper.insert(entity);
+            orderEventPublisher.publish(entity, OrderEvent.Type.CREATED);
+        });
         return Result.success("订单创建成功", convertToDto(entity));
     }
     
@@ -98,6 +112,7 @@ public class OrderController {
      * 更新订单状态
      */
     @PutMapping("/{id}/status")
+    @Transactional
     public Result<Order> updateOrderStatus(
             @PathVariable("id") Long id, 
             @RequestParam("status") @NotBlank(message = "订单状态不能为空") String status) {
@@ -114,6 +129,7 @@ public class OrderController {
         entity.setStatus(status);
         entity.setUpdatedAt(java.time.LocalDateTime.now());
         orderMapper.update(entity);
+        orderEventPublisher.publish(entity, OrderEvent.Type.STATUS_CHANGED);
         return Result.success("订单状态更新成功", convertToDto(entity));
     }
     
@@ -121,11 +137,14 @@ public class OrderController {
      * 删除订单
      */
     @DeleteMapping("/{id}")
+    @Transactional
     public Result<Void> deleteOrder(@PathVariable("id") Long id) {
-        if (!orderMapper.existsById(id)) {
+        OrderEntity entity = orderMapper.findById(id);
+        if (entity == null) {
             throw new BusinessException(ResultCode.ORDER_NOT_FOUND);
         }
         orderMapper.deleteById(id);
+        orderEventPublisher.publish(entity, OrderEvent.Type.DELETED);
         return Result.success();
     }
     
@@ -0,0 +1,36 @@
+package com.example.order.event;
+
+import com.example.api.event.ProcessedEventStore;
+import com.example.order.mapper.ProcessedEventMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 基于 processed_events 表的已处理事件记录，查询与标记各一条 SQL
+ */
+@Component
+@RequiredArgsConstructor
+public class DbProcessedEventStore implements ProcessedEventStore {
+
+    private final ProcessedEventMapper processedEventMapper;
+
+    @Override
+    public Set<String> findProcessed(Collection<String> eventIds) {
+        if (eventIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(processedEventMapper.findExisting(eventIds));
+    }
+
+    @Override
+    public void markProcessed(Collection<String> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        processedEventMapper.insertBatch(eventIds);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.order.event;
+
+import com.example.api.common.outbox.OutboxWriter;
+import com.example.api.event.OrderEvent;
+import com.example.order.entity.OrderEntity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 订单事件发布器
+ * 事件写入 Outbox（与订单变更同事务），由 OutboxRelay 批量投递到 Kafka
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderEventPublisher {
+
+    private static final String AGGREGATE_TYPE = "order";
+
+    private final OutboxWriter outboxWriter;
+
+    @Value("${kafka.topics.order-events:order-events}")
+    private String orderEventsTopic;
+
+    /**
+     * 发布订单生命周期事件，应在修改订单的同一事务中调用
+     *
+     * @param order 变更后的订单
+     * @param type  事件类型
+     */
+    public void publish(OrderEntity order, OrderEvent.Type type) {
+        OrderEvent event = OrderEvent.builder()
+                .orderId(order.getId())
+                .userId(order.getUserId())
+                .type(type)
+                .status(order.getStatus())
+                .amount(order.getPrice() != null && order.getQuantity() != null
+                        ? order.getPrice().multiply(BigDecimal.valueOf(order.getQuantity()))
+                        : null)
+                .occurredAt(LocalDateTime.now())
+                .eventId(UUID.randomUUID().toString())
+                .build();
+        outboxWriter.append(AGGREGATE_TYPE, order.getId(), orderEventsTopic, String.valueOf(order.getId()), event);
+        log.debug("订单事件已写入 Outbox: orderId={}, type={}, status={}", order.getId(), type, order.getStatus());
+    }
+}
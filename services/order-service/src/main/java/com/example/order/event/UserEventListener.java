@@ -1,31 +1,95 @@
 package com.example.order.event;
 
+import com.example.api.event.IdempotentEventConsumer;
+import com.example.api.event.ProcessedEventStore;
 import com.example.api.event.UserCreatedEvent;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * 用户事件监听器 - Order Service
- * 监听用户创建事件，初始化订单相关配置
+ * 批量监听用户创建事件（按 eventId 幂等），初始化订单相关配置，失败事件走非阻塞重试主题与 DLT
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class UserEventListener {
 
+    private static final String LISTENER = "user-created";
+
+    private final IdempotentEventConsumer<UserCreatedEvent> userCreatedConsumer;
+
+    public UserEventListener(ProcessedEventStore processedEventStore,
+                             MeterRegistry meterRegistry,
+                             DeadLetterPublishingRecoverer retryForwarder) {
+        this.userCreatedConsumer = new IdempotentEventConsumer<>(LISTENER, processedEventStore, meterRegistry,
+                retryForwarder, UserCreatedEvent::getEventId);
+    }
+
     /**
-     * 处理用户创建事件
-     * - 初始化用户订单账户
-     * - 设置默认购物配置
+     * 批量处理用户创建事件：按 eventId 去重（批内 + 已处理记录），逐条处理后批量标记
+     * 单条失败不阻塞分区：转发到重试主题后继续处理后续事件，由 {@link #handleUserCreatedRetry} 带退避重试
      */
     @KafkaListener(
             topics = "${kafka.topics.user-created:user-created-events}",
             groupId = "${spring.kafka.consumer.group-id:order-service-group}",
             containerFactory = "kafkaListenerContainerFactory"
     )
-    public void handleUserCreated(UserCreatedEvent event) {
+    public void handleUserCreatedBatch(List<ConsumerRecord<String, UserCreatedEvent>> records) {
+        userCreatedConsumer.consumeBatch(records, this::handleUserCreated);
+    }
+
+    /**
+     * 重试主题上的用户创建事件：失败按指数退避进入下一级重试主题，重试耗尽进入 DLT
+     * 各级重试主题各自独立消费，等待退避的记录不会阻塞主主题
+     */
+    @RetryableTopic(
+            attempts = "${kafka.listener.user-events.retry.attempts:4}",
+            backoff = @Backoff(
+                    delayExpression = "${kafka.listener.user-events.retry.initial-delay-ms:1000}",
+                    multiplierExpression = "${kafka.listener.user-events.retry.multiplier:2.0}",
+                    maxDelayExpression = "${kafka.listener.user-events.retry.max-delay-ms:60000}"),
+            retryTopicSuffix = "-backoff",
+            dltTopicSuffix = "-dlt",
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            kafkaTemplate = "retryKafkaTemplate",
+            listenerContainerFactory = "userEventsRetryListenerContainerFactory"
+    )
+    @KafkaListener(
+            topics = "${kafka.topics.user-created-retry:user-created-events-order-retry}",
+            groupId = "${spring.kafka.consumer.group-id:order-service-group}",
+            containerFactory = "userEventsRetryListenerContainerFactory"
+    )
+    public void handleUserCreatedRetry(ConsumerRecord<String, UserCreatedEvent> record) {
+        userCreatedConsumer.consumeRetry(record, this::handleUserCreated);
+    }
+
+    /**
+     * 重试耗尽的用户创建事件：记录并计数，待修复后通过 /actuator/dltreplay 重放
+     */
+    @DltHandler
+    public void handleUserCreatedDlt(ConsumerRecord<String, UserCreatedEvent> record,
+                                     @Header(name = KafkaHeaders.EXCEPTION_MESSAGE, required = false) String error) {
+        userCreatedConsumer.recordDeadLetter(record, error);
+    }
+
+    /**
+     * 处理用户创建事件
+     * - 初始化用户订单账户
+     * - 设置默认购物配置
+     */
+    void handleUserCreated(UserCreatedEvent event) {
         log.info("Order Service 收到用户创建事件: userId={}, username={}, eventId={}",
                 event.getUserId(), event.getUsername(), event.getEventId());
 
@@ -0,0 +1,54 @@
+package com.example.order.job;
+
+import com.example.order.mapper.ProcessedEventMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 已处理事件清理定时任务
+ * 每小时删除 processed_at 早于 processed-event-ttl-seconds 的记录（与 auth-service Redis 记录的 TTL 一致，
+ * 覆盖 Kafka 重投窗口），按 batch-size 分批删除，避免表无限增长
+ */
+@Component
+public class ProcessedEventCleanupJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessedEventCleanupJob.class);
+
+    private final ProcessedEventMapper processedEventMapper;
+    private final long ttlSeconds;
+    private final int batchSize;
+
+    public ProcessedEventCleanupJob(ProcessedEventMapper processedEventMapper,
+                                    @Value("${kafka.listener.processed-event-ttl-seconds:604800}") long ttlSeconds,
+                                    @Value("${kafka.listener.processed-event-cleanup-batch-size:5000}") int batchSize) {
+        this.processedEventMapper = processedEventMapper;
+        this.ttlSeconds = ttlSeconds;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 每小时第 15 分钟执行
+     */
+    @Scheduled(cron = "0 15 * * * ?")
+    public void cleanupProcessedEvents() {
+        try {
+            LocalDateTime before = LocalDateTime.now().minusSeconds(ttlSeconds);
+            int total = 0;
+            int deleted;
+            do {
+                deleted = processedEventMapper.deleteProcessedBefore(before, batchSize);
+                total += deleted;
+            } while (deleted >= batchSize);
+            if (total > 0) {
+                log.info("已处理事件清理完成，删除 {} 条", total);
+            }
+        } catch (Exception e) {
+            log.error("已处理事件清理失败", e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.order.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 已处理事件数据访问层（MyBatis Mapper）
+ */
+@Mapper
+public interface ProcessedEventMapper {
+
+    List<String> findExisting(@Param("eventIds") Collection<String> eventIds);
+
+    int insertBatch(@Param("eventIds") Collection<String> eventIds);
+
+    /**
+     * 删除 processed_at 早于 before 的记录，每次最多 limit 条（分批删除，避免长时间持有大量行锁）
+     */
+    int deleteProcessedBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
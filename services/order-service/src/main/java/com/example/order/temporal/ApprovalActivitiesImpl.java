@@ -1,11 +1,14 @@
 package com.example.order.temporal;
 
+import com.example.api.event.OrderEvent;
 import com.example.order.entity.OrderEntity;
+import com.example.order.event.OrderEventPublisher;
 import com.example.order.mapper.OrderMapper;
 import io.temporal.spring.boot.ActivityImpl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -24,6 +27,8 @@ public class ApprovalActivitiesImpl implements ApprovalActivities {
     private static final BigDecimal MANAGER_THRESHOLD = new BigDecimal("1000");
     
     private final OrderMapper orderMapper;
+    private final OrderEventPublisher orderEventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public List<String> determineApprovalChain(BigDecimal amount, String tenantId) {
@@ -55,7 +60,10 @@ public class ApprovalActivitiesImpl implements ApprovalActivities {
             // 更新订单状态 - 实际应用中可能需要额外的审批状态字段
             order.setStatus("APPROVAL_" + status);
             order.setUpdatedAt(LocalDateTime.now());
-            orderMapper.update(order);
+            transactionTemplate.executeWithoutResult(tx -> {
+                orderMapper.update(order);
+                orderEventPublisher.publish(order, OrderEvent.Type.STATUS_CHANGED);
+            });
             log.info("订单审批状态更新: orderId={}, status={}, approvedBy={}", orderId, status, approvedBy);
         }
     }
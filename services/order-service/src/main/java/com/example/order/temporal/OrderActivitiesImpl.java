@@ -1,18 +1,21 @@
 package com.example.order.temporal;
 
+import com.example.api.event.OrderEvent;
 import com.example.order.entity.OrderEntity;
+import com.example.order.event.OrderEventPublisher;
 import com.example.order.mapper.OrderMapper;
 import io.temporal.spring.boot.ActivityImpl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
  * 订单 Saga Activities 实现
- * 每个 Activity 是一个可补偿的操作
+ * 每个 Activity 是一个可补偿的操作；订单写入与订单事件（Outbox）在同一事务中完成
  */
 @Slf4j
 @Component
@@ -21,6 +24,8 @@ import java.time.LocalDateTime;
 public class OrderActivitiesImpl implements OrderActivities {
 
     private final OrderMapper orderMapper;
+    private final OrderEventPublisher orderEventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public Long createOrder(Long userId, Long productId, Integer quantity, 
@@ -42,7 +47,10 @@ public class OrderActivitiesImpl implements OrderActivities {
         order.setCreatedAt(now);
         order.setUpdatedAt(now);
         
-        orderMapper.insert(order);
+        transactionTemplate.executeWithoutResult(status -> {
+            orderMapper.insert(order);
+            orderEventPublisher.publish(order, OrderEvent.Type.CREATED);
+        });
         log.info("订单创建成功: orderId={}, userId={}, tenantId={}", order.getId(), userId, tenantId);
         
         return order.getId();
@@ -76,7 +84,7 @@ public class OrderActivitiesImpl implements OrderActivities {
         if (order != null) {
             order.setStatus("CONFIRMED");
             order.setUpdatedAt(LocalDateTime.now());
-            orderMapper.update(order);
+            updateAndPublish(order);
             log.info("订单确认成功: orderId={}", orderId);
         }
     }
@@ -89,7 +97,7 @@ public class OrderActivitiesImpl implements OrderActivities {
         if (order != null) {
             order.setStatus("CANCELLED");
             order.setUpdatedAt(LocalDateTime.now());
-            orderMapper.update(order);
+            updateAndPublish(order);
             log.info("订单取消(补偿): orderId={}", orderId);
         }
     }
@@ -111,4 +119,11 @@ public class OrderActivitiesImpl implements OrderActivities {
         // 实际应调用 UserClient
         // userClient.refundBalance(userId, amount);
     }
+
+    private void updateAndPublish(OrderEntity order) {
+        transactionTemplate.executeWithoutResult(status -> {
+            orderMapper.update(order);
+            orderEventPublisher.publish(order, OrderEvent.Type.STATUS_CHANGED);
+        });
+    }
 }
@@ -0,0 +1,8 @@
+-- V2__create_processed_events_table.sql
+-- 已处理事件记录（Kafka 消费按 eventId 幂等）
+
+CREATE TABLE IF NOT EXISTS processed_events (
+    event_id VARCHAR(64) PRIMARY KEY,
+    processed_at DATETIME NOT NULL,
+    INDEX idx_processed_events_processed_at (processed_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
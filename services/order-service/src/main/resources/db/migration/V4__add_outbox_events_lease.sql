@@ -0,0 +1,7 @@
+-- V4__add_outbox_events_lease.sql
+-- Outbox 租约：中继领取后写入 leased_until 即提交事务，等待 Kafka 确认期间不持有行锁
+-- (message_key, id) 索引用于领取时判断同 key 是否有更早的事件仍在租约中
+
+ALTER TABLE outbox_events
+    ADD COLUMN leased_until DATETIME(3) NULL,
+    ADD INDEX idx_outbox_events_key (message_key, id);
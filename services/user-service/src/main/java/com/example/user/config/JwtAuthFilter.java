@@ -9,7 +9,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
@@ -38,6 +37,7 @@ public class JwtAuthFilter extends OncePerRequestFilter implements Ordered {
 
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
+    private static final String USER_AGENT_HEADER = "User-Agent";
 
     private final JwtService jwtService;
 
@@ -51,7 +51,7 @@ public class JwtAuthFilter extends OncePerRequestFilter implements Ordered {
         try {
             String token = extractToken(request);
             if (StringUtils.hasText(token)) {
-                var claims = jwtService.parseToken(token);
+                var claims = jwtService.parseTokenCached(token);
                 String userId = claims.getSubject();
                 @SuppressWarnings("unchecked")
                 List<String> roles = claims.get("roles", List.class);
@@ -60,7 +60,8 @@ public class JwtAuthFilter extends OncePerRequestFilter implements Ordered {
                         : Collections.<SimpleGrantedAuthority>emptyList();
 
                 var auth = new UsernamePasswordAuthenticationToken(userId, null, authorities);
-                auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                auth.setDetails(new JwtAuthenticationDetails(claims.get("email", String.class),
+                        request.getRemoteAddr(), request.getHeader(USER_AGENT_HEADER)));
                 SecurityContextHolder.getContext().setAuthentication(auth);
             }
         } catch (JwtException e) {
@@ -0,0 +1,10 @@
+package com.example.user.config;
+
+/**
+ * JWT 认证附加信息（由 JwtAuthFilter 写入 Authentication#details）
+ * 审计日志直接取用操作者邮箱、来源 IP 与 User-Agent，无需回查用户表
+ *
+ * @param email 操作者邮箱（JWT email 声明，旧 Token 可能为空）
+ */
+public record JwtAuthenticationDetails(String email, String ipAddress, String userAgent) {
+}
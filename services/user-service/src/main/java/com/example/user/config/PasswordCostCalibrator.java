@@ -0,0 +1,46 @@
+package com.example.user.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * BCrypt 成本因子校准：启动时在本机实测哈希耗时，选取不超过目标耗时的最大成本因子
+ * 硬件升级后成本随之提高，配合登录时重新哈希逐步升级已存储的密码；
+ * 慢机器上不会低于调用方给出的下限（生产下限为 BASELINE_COST）
+ */
+@Slf4j
+public final class PasswordCostCalibrator {
+
+    /** 生产环境成本基线，校准只能在此之上提高 */
+    public static final int BASELINE_COST = 12;
+
+    private static final String SAMPLE_PASSWORD = "calibration-Passw0rd!";
+
+    private PasswordCostCalibrator() {
+    }
+
+    /**
+     * @param targetMillis 单次哈希目标耗时（毫秒）
+     * @param minCost      成本下限（即使超出目标耗时也不低于此值）
+     * @param maxCost      成本上限
+     */
+    public static int calibrate(long targetMillis, int minCost, int maxCost) {
+        // 预热，避免首次 JIT 编译计入测量
+        BCrypt.hashpw(SAMPLE_PASSWORD, BCrypt.gensalt(4));
+        int cost = minCost;
+        long elapsed = measure(cost);
+        // 成本每加 1 耗时翻倍，按当前耗时预估下一档是否仍在目标内
+        while (cost < maxCost && elapsed * 2 <= targetMillis) {
+            cost++;
+            elapsed = measure(cost);
+        }
+        log.info("BCrypt 成本因子校准完成: cost={}, elapsedMs={}, targetMs={}", cost, elapsed, targetMillis);
+        return cost;
+    }
+
+    private static long measure(int cost) {
+        long start = System.nanoTime();
+        BCrypt.hashpw(SAMPLE_PASSWORD, BCrypt.gensalt(cost));
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
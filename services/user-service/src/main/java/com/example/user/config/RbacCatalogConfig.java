@@ -0,0 +1,37 @@
+package com.example.user.config;
+
+import com.example.user.service.RbacCatalog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * RBAC 目录跨副本同步：订阅版本广播频道，收到更高版本时重建本地快照
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "user.rbac-catalog.pubsub-enabled", havingValue = "true", matchIfMissing = true)
+public class RbacCatalogConfig {
+
+    @Bean
+    public RedisMessageListenerContainer rbacCatalogListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                      RbacCatalog rbacCatalog) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            try {
+                rbacCatalog.onVersion(Long.parseLong(body));
+            } catch (RuntimeException e) {
+                log.warn("处理 RBAC 目录版本广播失败: message={}, error={}", body, e.getMessage());
+            }
+        }, new ChannelTopic(RbacCatalog.CHANNEL));
+        return container;
+    }
+}
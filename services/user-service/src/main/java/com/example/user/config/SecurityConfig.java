@@ -1,5 +1,6 @@
 package com.example.user.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -36,7 +37,9 @@ public class SecurityConfig {
     
     /**
      * 密码加密器 Bean
-     * 使用 BCrypt 算法，成本因子 12（推荐值）
+     * 使用 BCrypt 算法；password.hashing.cost 大于 0 时使用固定成本因子，
+     * 否则启动时按 target-millis 在本机校准（限制在 min-cost ~ max-cost 之间）；
+     * 校准只会在基线 12 之上提高成本，min-cost 配置低于基线时按基线处理
      * 
      * BCrypt 成本因子说明：
      * - 10: 快速，适合开发环境
@@ -44,8 +47,14 @@ public class SecurityConfig {
      * - 15+: 高安全性，但性能较慢
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(
+            @Value("${password.hashing.cost:12}") int cost,
+            @Value("${password.hashing.target-millis:250}") long targetMillis,
+            @Value("${password.hashing.min-cost:12}") int minCost,
+            @Value("${password.hashing.max-cost:14}") int maxCost) {
+        int floor = Math.max(minCost, PasswordCostCalibrator.BASELINE_COST);
+        int strength = cost > 0 ? cost : PasswordCostCalibrator.calibrate(targetMillis, floor, Math.max(floor, maxCost));
+        return new BCryptPasswordEncoder(strength);
     }
     
     /**
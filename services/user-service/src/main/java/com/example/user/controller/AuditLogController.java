@@ -0,0 +1,45 @@
+package com.example.user.controller;
+
+import com.example.api.common.PagedResult;
+import com.example.api.common.Result;
+import com.example.user.controller.dto.AuditLogDto;
+import com.example.user.service.AuditLogService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+/**
+ * 审计日志 API（与设计文档 2.7 一致）
+ * GET /api/audit-logs 游标分页查询；需 ADMIN 角色
+ */
+@RestController
+@RequestMapping("/api/audit-logs")
+@PreAuthorize("hasRole('ADMIN')")
+public class AuditLogController {
+
+    private final AuditLogService auditLogService;
+
+    public AuditLogController(AuditLogService auditLogService) {
+        this.auditLogService = auditLogService;
+    }
+
+    /**
+     * 按操作者/资源筛选审计日志，时间倒序；from/to 为 ISO 时间（缺省最近 30 天），翻页使用响应中的 nextCursor
+     */
+    @GetMapping
+    public Result<PagedResult<AuditLogDto>> getAuditLogs(
+            @RequestParam(name = "actorId", required = false) Long actorId,
+            @RequestParam(name = "resourceType", required = false) String resourceType,
+            @RequestParam(name = "resourceId", required = false) String resourceId,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        return Result.success(auditLogService.getAuditLogs(actorId, resourceType, resourceId, from, to, cursor, size));
+    }
+}
@@ -5,16 +5,26 @@ import com.example.api.common.Result;
 import com.example.user.controller.dto.CreateUserRequest;
 import com.example.user.controller.dto.UpdateUserRequest;
 import com.example.user.controller.dto.UserDetailDto;
+import com.example.user.controller.dto.UserImportResult;
+import com.example.user.service.UserBulkService;
+import com.example.user.service.UserCountService;
 import com.example.user.service.UserManagementService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.Locale;
 
 /**
  * 用户管理 API（与设计文档 2.4 一致）
- * 分页、软删除、恢复；需 ADMIN 角色
+ * 分页、软删除、恢复、批量导入/导出；需 ADMIN 角色
  */
 @RestController
 @RequestMapping("/api/users")
@@ -22,13 +32,16 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserManagementService userManagementService;
+    private final UserBulkService userBulkService;
 
-    public UserController(UserManagementService userManagementService) {
+    public UserController(UserManagementService userManagementService, UserBulkService userBulkService) {
         this.userManagementService = userManagementService;
+        this.userBulkService = userBulkService;
     }
 
     /**
      * 分页查询用户（可选筛选 email/name/role/deleted，排序见 1.3）
+     * 传 cursor（首页传空串）走游标分页，翻页使用响应中的 nextCursor；count=exact|estimate|none 控制总数计算
      */
     @GetMapping
     public Result<PagedResult<UserDetailDto>> getUsers(
@@ -38,11 +51,40 @@ public class UserController {
             @RequestParam(name = "name", required = false) String name,
             @RequestParam(name = "role", required = false) String role,
             @RequestParam(name = "deleted", required = false) Boolean deleted,
-            @RequestParam(name = "sort", required = false) String sort) {
-        PagedResult<UserDetailDto> paged = userManagementService.getUsersPage(page, size, email, name, role, deleted, sort);
+            @RequestParam(name = "sort", required = false) String sort,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "count", required = false) String count) {
+        PagedResult<UserDetailDto> paged = userManagementService.getUsersPage(page, size, email, name, role, deleted, sort,
+                cursor, UserCountService.Mode.from(count));
         return Result.success(paged);
     }
 
+    /**
+     * 批量导入用户：请求体为 CSV（text/csv，首行表头 name,email,phone,password,roles）或 NDJSON（application/x-ndjson）
+     * 流式读取，逐行返回失败原因；已成功的块不因后续失败回滚
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public Result<UserImportResult> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                HttpServletRequest request) throws IOException {
+        UserImportResult result = userBulkService.importUsers(request.getInputStream(), UserBulkService.Format.from(contentType));
+        return Result.success(result);
+    }
+
+    /**
+     * 流式导出用户（format=csv|ndjson，deleted=true 时包含已删除用户），不含密码
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(name = "format", defaultValue = "csv") String format,
+            @RequestParam(name = "deleted", defaultValue = "false") boolean deleted) {
+        UserBulkService.Format exportFormat = UserBulkService.Format.from(format);
+        String filename = "users." + exportFormat.name().toLowerCase(Locale.ROOT);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.mediaType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(out -> userBulkService.exportUsers(out, exportFormat, deleted));
+    }
+
     /**
      * 根据 ID 获取用户详情（含角色列表）
      */
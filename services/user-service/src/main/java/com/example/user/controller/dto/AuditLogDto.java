@@ -0,0 +1,23 @@
+package com.example.user.controller.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 审计日志 DTO
+ */
+@Data
+public class AuditLogDto {
+    private Long id;
+    private Long actorId;
+    private String actorEmail;
+    private String action;
+    private String resourceType;
+    private String resourceId;
+    private String oldValue;
+    private String newValue;
+    private String ipAddress;
+    private String userAgent;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,24 @@
+package com.example.user.controller.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导入结果：成功/失败行数及失败明细（明细最多保留 user.import.max-errors 条）
+ */
+@Data
+public class UserImportResult {
+    private long total;
+    private long created;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    /**
+     * 失败行：line 为该行在文件中的起始行号
+     */
+    public record RowError(long line, String email, String message) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.user.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量导入的一行用户（CSV 列 / NDJSON 字段：name, email, phone, password, roles）
+ * 校验规则同 {@link CreateUserRequest}；roles 为角色编码，导出文件中的其他列被忽略
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserImportRow {
+    @NotBlank(message = "用户名不能为空")
+    @Size(min = 2, max = 50)
+    private String name;
+
+    @NotBlank(message = "邮箱不能为空")
+    @Email(message = "邮箱格式不正确")
+    private String email;
+
+    @Size(max = 20)
+    private String phone;
+
+    @NotBlank(message = "密码不能为空")
+    @Size(min = 6, max = 50)
+    private String password;
+
+    private List<String> roles;
+}
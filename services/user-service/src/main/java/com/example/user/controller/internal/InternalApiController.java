@@ -1,17 +1,21 @@
 package com.example.user.controller.internal;
 
 import com.example.api.common.ResultCode;
+import com.example.api.event.UserChangedEvent;
 import com.example.api.event.UserCreatedEvent;
 import com.example.api.exception.BusinessException;
 import com.example.api.model.ForgotPasswordResponse;
 import com.example.user.controller.internal.dto.*;
+import com.example.user.entity.UserContextEntity;
 import com.example.user.entity.UserEntity;
 import com.example.user.event.UserEventPublisher;
-import com.example.user.mapper.RoleMapper;
 import com.example.user.mapper.UserMapper;
 import com.example.user.mapper.UserRoleMapper;
 import com.example.user.service.EmailVerificationService;
+import com.example.user.service.PasswordHashingService;
 import com.example.user.service.PasswordResetService;
+import com.example.user.service.RbacCatalog;
+import com.example.user.service.UserSearchIndexer;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -23,7 +27,7 @@ import org.springframework.web.bind.annotation.*;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 内部 API（供 auth-service 调用）
@@ -37,47 +41,56 @@ public class InternalApiController {
 
     private final UserMapper userMapper;
     private final UserRoleMapper userRoleMapper;
-    private final RoleMapper roleMapper;
     private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final EmailVerificationService emailVerificationService;
     private final PasswordResetService passwordResetService;
     private final Optional<UserEventPublisher> userEventPublisher;
+    private final RbacCatalog rbacCatalog;
+    private final UserSearchIndexer userSearchIndexer;
 
     /**
-     * 校验用户（登录时）：验证邮箱+密码，返回 userId、email、name、roles
+     * 校验用户（登录时）：验证邮箱+密码，返回 userId、email、name、emailVerified、roles（登录只需这一次调用）
      */
     @PostMapping("/auth/validate")
-    public ResponseEntity<InternalAuthValidateResponse> validateUser(@Valid @RequestBody InternalAuthValidateRequest request) {
+    public CompletableFuture<ResponseEntity<InternalAuthValidateResponse>> validateUser(@Valid @RequestBody InternalAuthValidateRequest request) {
         String email = request.getEmail().trim().toLowerCase();
         UserEntity user = userMapper.findByEmail(email);
         if (user == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
         }
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-        List<Long> roleIds = userRoleMapper.findRoleIdsByUserId(user.getId());
-        List<String> roles = roleIds.stream()
-                .map(roleMapper::findById)
-                .filter(r -> r != null)
-                .map(r -> r.getCode())
-                .collect(Collectors.toList());
-        InternalAuthValidateResponse body = InternalAuthValidateResponse.builder()
-                .userId(user.getId())
-                .email(user.getEmail())
-                .name(user.getName() != null ? user.getName() : user.getEmail())
-                .roles(roles)
-                .build();
-        return ResponseEntity.ok(body);
+        // BCrypt 在密码哈希线程池执行，请求线程随即释放
+        return passwordHashingService.matches(request.getPassword(), user.getPassword()).thenApply(matched -> {
+            if (!matched) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).<InternalAuthValidateResponse>build();
+            }
+            passwordHashingService.rehashIfNeeded(user.getId(), request.getPassword(), user.getPassword());
+            List<String> roles = rbacCatalog.getRoleCodes(userRoleMapper.findRoleIdsByUserId(user.getId()));
+            InternalAuthValidateResponse body = InternalAuthValidateResponse.builder()
+                    .userId(user.getId())
+                    .email(user.getEmail())
+                    .name(user.getName() != null ? user.getName() : user.getEmail())
+                    .emailVerified(user.getEmailVerified())
+                    .roles(roles)
+                    .build();
+            return ResponseEntity.ok(body);
+        });
     }
 
     /**
      * 创建用户（注册时）：user-service 哈希密码并入库
+     * 携带 registrationId 时幂等：同一注册 Saga 重复请求返回已创建的用户
      */
     @PostMapping("/users")
     @Transactional
     public ResponseEntity<InternalCreateUserResponse> createUser(@Valid @RequestBody InternalCreateUserRequest request) {
         String email = request.getEmail().trim().toLowerCase();
+        if (request.getRegistrationId() != null) {
+            Long existingId = userMapper.findIdByRegistrationId(request.getRegistrationId());
+            if (existingId != null) {
+                return ResponseEntity.ok(new InternalCreateUserResponse(existingId));
+            }
+        }
         if (userMapper.existsByEmailWithDeleted(email, true)) {
             throw new BusinessException(ResultCode.EMAIL_ALREADY_EXISTS, "邮箱已存在: " + email);
         }
@@ -91,7 +104,9 @@ public class InternalApiController {
         entity.setCreatedAt(now);
         entity.setUpdatedAt(now);
         entity.setDeletedAt(null);
+        entity.setRegistrationId(request.getRegistrationId());
         userMapper.insert(entity);
+        userSearchIndexer.index(entity);
         
         // 发布用户创建事件 (Phase 2 事件驱动)
         userEventPublisher.ifPresent(pub -> pub.publishUserCreated(entity.getId(), entity.getName(), entity.getEmail(), "registration"));
@@ -112,6 +127,7 @@ public class InternalApiController {
         user.setEmailVerifiedAt(LocalDateTime.now());
         user.setUpdatedAt(LocalDateTime.now());
         userMapper.update(user);
+        userEventPublisher.ifPresent(pub -> pub.publishUserChanged(id, UserChangedEvent.ChangeType.UPDATED));
         return ResponseEntity.ok().build();
     }
 
@@ -119,20 +135,23 @@ public class InternalApiController {
      * 更新密码（重置：仅 newPassword；修改：currentPassword + newPassword）
      */
     @PatchMapping("/users/{id}/password")
-    public ResponseEntity<Void> updatePassword(@PathVariable("id") Long id, @Valid @RequestBody InternalUpdatePasswordRequest request) {
+    public CompletableFuture<ResponseEntity<Void>> updatePassword(@PathVariable("id") Long id, @Valid @RequestBody InternalUpdatePasswordRequest request) {
         UserEntity user = userMapper.findById(id);
         if (user == null) {
-            return ResponseEntity.notFound().build();
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
         }
-        if (request.getCurrentPassword() != null && !request.getCurrentPassword().isEmpty()) {
-            if (!passwordEncoder.matches(request.getCurrentPassword(), user.getPassword())) {
+        CompletableFuture<Boolean> currentMatches = request.getCurrentPassword() != null && !request.getCurrentPassword().isEmpty()
+                ? passwordHashingService.matches(request.getCurrentPassword(), user.getPassword())
+                : CompletableFuture.completedFuture(true);
+        return currentMatches.thenCompose(matched -> {
+            if (!matched) {
                 throw new BusinessException(ResultCode.PASSWORD_ERROR);
             }
-        }
-        String encodedNew = passwordEncoder.encode(request.getNewPassword());
-        var now = LocalDateTime.now();
-        userMapper.updatePassword(id, encodedNew, now);
-        return ResponseEntity.ok().build();
+            return passwordHashingService.encode(request.getNewPassword());
+        }).thenApply(encodedNew -> {
+            userMapper.updatePassword(id, encodedNew, LocalDateTime.now());
+            return ResponseEntity.ok().<Void>build();
+        });
     }
 
     /**
@@ -176,13 +195,27 @@ public class InternalApiController {
         if (user == null) {
             return ResponseEntity.notFound().build();
         }
-        List<Long> roleIds = userRoleMapper.findRoleIdsByUserId(id);
-        List<String> roles = roleIds.stream()
-                .map(roleMapper::findById)
-                .filter(r -> r != null)
-                .map(r -> r.getCode())
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(new InternalUserRolesResponse(roles));
+        return ResponseEntity.ok(new InternalUserRolesResponse(rbacCatalog.getRoleCodes(userRoleMapper.findRoleIdsByUserId(id))));
+    }
+
+    /**
+     * 获取用户上下文（用户信息 + 角色编码，单次查询；供 refresh Token 时一次拉取）
+     */
+    @GetMapping("/users/{id}/context")
+    public ResponseEntity<InternalUserContextResponse> getUserContext(@PathVariable("id") Long id) {
+        UserContextEntity context = userMapper.findContextById(id);
+        if (context == null) {
+            return ResponseEntity.notFound().build();
+        }
+        InternalUserContextResponse body = InternalUserContextResponse.builder()
+                .id(context.getId())
+                .email(context.getEmail())
+                .name(context.getName())
+                .emailVerified(context.getEmailVerified())
+                .createdAt(context.getCreatedAt())
+                .roles(context.getRoleCodes())
+                .build();
+        return ResponseEntity.ok(body);
     }
 
     /**
@@ -190,7 +223,7 @@ public class InternalApiController {
      */
     @PostMapping("/email-verification/send")
     public ResponseEntity<Void> sendEmailVerification(@Valid @RequestBody InternalEmailVerificationSendRequest request) {
-        emailVerificationService.generateAndSendVerificationEmail(request.getUserId(), request.getEmail());
+        emailVerificationService.requestVerificationEmail(request.getUserId(), request.getEmail());
         return ResponseEntity.noContent().build();
     }
 
@@ -212,6 +245,7 @@ public class InternalApiController {
     @PostMapping("/email-verification/verify")
     public ResponseEntity<InternalUserInfoResponse> verifyEmail(@Valid @RequestBody InternalEmailVerificationVerifyRequest request) {
         UserEntity user = emailVerificationService.verifyEmail(request.getToken());
+        userEventPublisher.ifPresent(pub -> pub.publishUserChanged(user.getId(), UserChangedEvent.ChangeType.UPDATED));
         InternalUserInfoResponse body = InternalUserInfoResponse.builder()
                 .id(user.getId())
                 .email(user.getEmail())
@@ -252,6 +286,22 @@ public class InternalApiController {
         }
         // 硬删除（注册失败补偿，不需要软删除）
         userMapper.deleteById(id);
+        userEventPublisher.ifPresent(pub -> pub.publishUserChanged(id, UserChangedEvent.ChangeType.DELETED));
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * 按注册 Saga ID 删除用户（注册 Saga 未拿到 userId 即失败或崩溃时的补偿）
+     * 幂等：该注册未创建用户（如邮箱冲突）或已删除时同样返回 204
+     */
+    @DeleteMapping("/users/by-registration/{registrationId}")
+    @Transactional
+    public ResponseEntity<Void> deleteUserByRegistration(@PathVariable("registrationId") String registrationId) {
+        Long id = userMapper.findIdByRegistrationId(registrationId);
+        if (id != null) {
+            userMapper.deleteById(id);
+            userEventPublisher.ifPresent(pub -> pub.publishUserChanged(id, UserChangedEvent.ChangeType.DELETED));
+        }
         return ResponseEntity.noContent().build();
     }
 }
@@ -8,7 +8,7 @@ import lombok.NoArgsConstructor;
 import java.util.List;
 
 /**
- * 内部 API：校验用户成功后的响应（userId、email、name、roles）
+ * 内部 API：校验用户成功后的响应（userId、email、name、emailVerified、roles）
  */
 @Data
 @Builder
@@ -18,5 +18,6 @@ public class InternalAuthValidateResponse {
     private Long userId;
     private String email;
     private String name;
+    private Boolean emailVerified;
     private List<String> roles;
 }
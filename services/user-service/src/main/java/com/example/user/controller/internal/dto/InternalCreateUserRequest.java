@@ -21,4 +21,8 @@ public class InternalCreateUserRequest {
     @NotBlank(message = "密码不能为空")
     @Size(min = 6, max = 100)
     private String password;
+
+    /** 注册 Saga ID（可选）：同一 ID 重复请求返回已创建的用户，补偿时据此删除 */
+    @Size(max = 36)
+    private String registrationId;
 }
@@ -0,0 +1,27 @@
+package com.example.user.controller.internal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 内部 API：用户上下文（用户信息 + 角色编码，单次查询，供 auth-service 登录/refresh 签发 Token）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InternalUserContextResponse {
+    private Long id;
+    private String email;
+    private String name;
+    private Boolean emailVerified;
+    private LocalDateTime createdAt;
+    @Builder.Default
+    private List<String> roles = new ArrayList<>();
+}
@@ -0,0 +1,14 @@
+package com.example.user.entity;
+
+import lombok.Data;
+
+/**
+ * 审计日志表分区（information_schema.PARTITIONS）
+ * description 为分区上界：RANGE COLUMNS 下形如 '2026-11-01 00:00:00'，最后一个分区为 MAXVALUE
+ */
+@Data
+public class AuditLogPartitionEntity {
+
+    private String name;
+    private String description;
+}
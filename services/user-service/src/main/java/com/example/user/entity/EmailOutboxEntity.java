@@ -0,0 +1,26 @@
+package com.example.user.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 邮件 Outbox 实体
+ * 仅记录邮件类型与收件人，邮件内容（含 token 链接）在发送时生成
+ */
+@Data
+public class EmailOutboxEntity {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private Long id;
+    private String emailType;
+    private String recipient;
+    private Long userId;
+    private String status;
+    private Integer attempts;
+    private String lastError;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,13 @@
+package com.example.user.entity;
+
+import lombok.Data;
+
+/**
+ * 角色-权限关联行，用于加载 RBAC 目录快照
+ */
+@Data
+public class RolePermissionEntity {
+
+    private Long roleId;
+    private Long permissionId;
+}
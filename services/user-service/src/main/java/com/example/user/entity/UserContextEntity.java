@@ -0,0 +1,26 @@
+package com.example.user.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 用户上下文（MyBatis 查询结果）
+ * 用户基本信息与角色编码由一条 JOIN 查询得到，供签发 Token 使用
+ */
+@Data
+public class UserContextEntity {
+
+    private Long id;
+    private String name;
+    private String email;
+    private Boolean emailVerified;
+    private LocalDateTime createdAt;
+
+    /**
+     * 角色编码（已排除软删除的角色）
+     */
+    private List<String> roleCodes = new ArrayList<>();
+}
@@ -41,6 +41,11 @@ public class UserEntity {
      */
     private LocalDateTime deletedAt;
 
+    /**
+     * 创建该用户的注册 Saga ID（仅内部注册接口写入，用于幂等与补偿）
+     */
+    private String registrationId;
+
     /**
      * 转换为 DTO（不包含密码字段）
      *
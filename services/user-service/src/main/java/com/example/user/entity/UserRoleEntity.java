@@ -0,0 +1,13 @@
+package com.example.user.entity;
+
+import lombok.Data;
+
+/**
+ * 用户-角色关联行，用于按用户批量加载角色（角色详情从 RBAC 目录快照读取）
+ */
+@Data
+public class UserRoleEntity {
+
+    private Long userId;
+    private Long roleId;
+}
@@ -0,0 +1,18 @@
+package com.example.user.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 用户搜索 n-gram 索引行：field 为 email / name，gram 为规范化后的二元组
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSearchGramEntity {
+
+    private Long userId;
+    private String field;
+    private String gram;
+}
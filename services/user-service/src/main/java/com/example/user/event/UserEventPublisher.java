@@ -1,21 +1,22 @@
 package com.example.user.event;
 
+import com.example.api.common.outbox.OutboxWriter;
+import com.example.api.event.UserChangedEvent;
 import com.example.api.event.UserCreatedEvent;
+import com.example.user.entity.UserEntity;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 
 /**
  * 用户事件发布器
- * 负责将用户相关事件发布到 Kafka
+ * 事件写入 Outbox（与调用方事务同提交/回滚），由 OutboxRelay 批量投递到 Kafka
  * 仅在 spring.kafka.enabled=true 时加载（默认启用）
  */
 @Slf4j
@@ -24,11 +25,16 @@ import java.util.concurrent.CompletableFuture;
 @ConditionalOnProperty(name = "spring.kafka.enabled", havingValue = "true", matchIfMissing = true)
 public class UserEventPublisher {
 
-    private final KafkaTemplate<String, UserCreatedEvent> kafkaTemplate;
+    private static final String AGGREGATE_TYPE = "user";
+
+    private final OutboxWriter outboxWriter;
 
     @Value("${kafka.topics.user-created:user-created-events}")
     private String userCreatedTopic;
 
+    @Value("${kafka.topics.user-changed:user-changed-events}")
+    private String userChangedTopic;
+
     /**
      * 发布用户创建事件
      *
@@ -57,21 +63,52 @@ public class UserEventPublisher {
      */
     public void publishUserCreated(UserCreatedEvent event) {
         String key = String.valueOf(event.getUserId());
-        
-        CompletableFuture<SendResult<String, UserCreatedEvent>> future = 
-                kafkaTemplate.send(userCreatedTopic, key, event);
+        outboxWriter.append(AGGREGATE_TYPE, event.getUserId(), userCreatedTopic, key, event);
+        log.debug("用户创建事件已写入 Outbox: userId={}, eventId={}", event.getUserId(), event.getEventId());
+    }
+
+    /**
+     * 批量发布用户创建事件（批量导入按块调用，一次批量写入 Outbox）
+     *
+     * @param users  已创建的用户
+     * @param source 事件来源
+     */
+    public void publishUsersCreated(List<UserEntity> users, String source) {
+        if (users.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        outboxWriter.appendAll(AGGREGATE_TYPE, userCreatedTopic, users.stream()
+                .map(user -> new OutboxWriter.Message(user.getId(), String.valueOf(user.getId()), UserCreatedEvent.builder()
+                        .userId(user.getId())
+                        .username(user.getName())
+                        .email(user.getEmail())
+                        .createdAt(now)
+                        .source(source)
+                        .eventId(UUID.randomUUID().toString())
+                        .build()))
+                .toList());
+        log.debug("用户创建事件已批量写入 Outbox: count={}", users.size());
+    }
+
+    /**
+     * 发布用户变更事件（更新、角色变更、删除）
+     * Outbox 行在事务提交后才对中继可见，消费方不会在提交前回源读到旧数据并写入缓存
+     *
+     * @param userId 用户ID，角色定义变更时为 null（影响全部用户）
+     * @param type   变更类型
+     */
+    public void publishUserChanged(Long userId, UserChangedEvent.ChangeType type) {
+        UserChangedEvent event = UserChangedEvent.builder()
+                .userId(userId)
+                .type(type)
+                .occurredAt(LocalDateTime.now())
+                .eventId(UUID.randomUUID().toString())
+                .build();
 
-        future.whenComplete((result, ex) -> {
-            if (ex == null) {
-                log.info("用户创建事件发布成功: userId={}, topic={}, partition={}, offset={}",
-                        event.getUserId(),
-                        result.getRecordMetadata().topic(),
-                        result.getRecordMetadata().partition(),
-                        result.getRecordMetadata().offset());
-            } else {
-                log.error("用户创建事件发布失败: userId={}, error={}", 
-                        event.getUserId(), ex.getMessage(), ex);
-            }
-        });
+        // 按用户分区保证同一用户事件有序；全量失效事件使用固定 key
+        String key = userId != null ? String.valueOf(userId) : "*";
+        outboxWriter.append(AGGREGATE_TYPE, userId, userChangedTopic, key, event);
+        log.debug("用户变更事件已写入 Outbox: userId={}, type={}", userId, type);
     }
 }
@@ -0,0 +1,121 @@
+package com.example.user.job;
+
+import com.example.user.entity.AuditLogPartitionEntity;
+import com.example.user.mapper.AuditLogMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * 审计日志分区维护定时任务（启动时及每日 02:30）
+ * - 从 pmax 拆分出未来 months-ahead 个月的月度分区 pYYYYMM，保证新日志落在按月分区内
+ * - 上界早于保留期（retention-months，0 为不清理）的分区整体 DROP，代替逐行 DELETE
+ * 多副本并发执行时 DDL 由 MySQL 串行化，后执行者因分区已存在/已删除失败，记录后跳过
+ */
+@Component
+public class AuditLogPartitionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogPartitionJob.class);
+
+    static final String MAX_PARTITION = "pmax";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final AuditLogMapper auditLogMapper;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public AuditLogPartitionJob(AuditLogMapper auditLogMapper,
+                                @Value("${audit.partition.months-ahead:3}") int monthsAhead,
+                                @Value("${audit.partition.retention-months:12}") int retentionMonths) {
+        this.auditLogMapper = auditLogMapper;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    @Scheduled(cron = "${audit.partition.cron:0 30 2 * * ?}")
+    public void maintainPartitions() {
+        try {
+            maintain(LocalDate.now());
+        } catch (Exception e) {
+            log.error("审计日志分区维护失败", e);
+        }
+    }
+
+    void maintain(LocalDate today) {
+        List<AuditLogPartitionEntity> partitions = auditLogMapper.findPartitions();
+        if (partitions.isEmpty() || !MAX_PARTITION.equals(partitions.get(partitions.size() - 1).getName())) {
+            log.warn("audit_logs 未按月分区（缺少 {} 分区），跳过分区维护", MAX_PARTITION);
+            return;
+        }
+        createAhead(partitions, YearMonth.from(today), YearMonth.from(today).plusMonths(monthsAhead));
+        if (retentionMonths > 0) {
+            dropExpired(partitions, YearMonth.from(today).minusMonths(retentionMonths).atDay(1));
+        }
+    }
+
+    /**
+     * 从最高的月度分区之后（仅有 pmax 时从当月）逐月拆分，直至覆盖 lastMonth
+     */
+    private void createAhead(List<AuditLogPartitionEntity> partitions, YearMonth currentMonth, YearMonth lastMonth) {
+        LocalDate highest = null;
+        for (AuditLogPartitionEntity partition : partitions) {
+            LocalDate upper = upperBound(partition);
+            if (upper != null) highest = upper;
+        }
+        YearMonth month = highest != null ? YearMonth.from(highest) : currentMonth;
+        for (; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            String name = month.format(PARTITION_NAME);
+            try {
+                auditLogMapper.addPartition(name, month.plusMonths(1).atDay(1).toString());
+                log.info("审计日志分区已创建: partition={}", name);
+            } catch (Exception e) {
+                log.warn("审计日志分区创建失败（可能已由其他副本创建）: partition={}, error={}", name, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * 删除上界不晚于 cutoff 的分区（分区内日志均早于 cutoff）
+     */
+    private void dropExpired(List<AuditLogPartitionEntity> partitions, LocalDate cutoff) {
+        for (AuditLogPartitionEntity partition : partitions) {
+            LocalDate upper = upperBound(partition);
+            if (upper == null || upper.isAfter(cutoff)) {
+                continue;
+            }
+            try {
+                auditLogMapper.dropPartition(partition.getName());
+                log.info("审计日志分区已删除（超出保留期）: partition={}, before={}", partition.getName(), upper);
+            } catch (Exception e) {
+                log.warn("审计日志分区删除失败: partition={}, error={}", partition.getName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 分区上界日期；MAXVALUE 返回 null
+     */
+    static LocalDate upperBound(AuditLogPartitionEntity partition) {
+        String description = partition.getDescription();
+        if (description == null || "MAXVALUE".equalsIgnoreCase(description)) {
+            return null;
+        }
+        String value = description.replace("'", "").trim();
+        return LocalDate.parse(value.length() > 10 ? value.substring(0, 10) : value);
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.user.job;
+
+import com.example.user.entity.EmailOutboxEntity;
+import com.example.user.mapper.EmailOutboxMapper;
+import com.example.user.service.EmailOutboxService;
+import com.example.user.service.EmailSender;
+import com.example.user.service.EmailVerificationService;
+import com.example.user.service.OutgoingEmail;
+import com.example.user.service.PasswordResetService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 邮件 Outbox 发送器：定期领取一批到期邮件，在独立线程池中生成内容并通过共享 Resend 客户端发送
+ * - 领取：FOR UPDATE SKIP LOCKED 锁定后把 next_attempt_at 推后一个租约即提交，发送期间不持有行锁与连接；
+ *   进程崩溃时租约到期后自动重新可领（至少一次）
+ * - 限流：全局按 max-per-second 匀速发放发送时隙；遇 429 暂停 rate-limit-pause-ms，受影响邮件原样重排，不计入重试次数
+ * - 重试：网络异常与 5xx 按指数退避重试，达到 max-attempts 或 400/422 永久失败时标记 FAILED 保留排查
+ * 指标：email.outbox.sent、email.outbox.skipped、email.outbox.retried、email.outbox.failed、
+ * email.outbox.rate_limited、email.outbox.lag（登记到发送成功的延迟）、executor.*{name=email.dispatch}
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final Set<String> EMAIL_TYPES = Set.of(EmailOutboxService.EMAIL_VERIFICATION,
+            EmailOutboxService.PASSWORD_RESET, EmailOutboxService.PASSWORD_RESET_CONFIRMATION);
+
+    private final EmailOutboxMapper emailOutboxMapper;
+    private final EmailSender emailSender;
+    private final EmailVerificationService emailVerificationService;
+    private final PasswordResetService passwordResetService;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBaseMillis;
+    private final long retryMaxMillis;
+    private final long leaseMillis;
+    private final long rateLimitPauseMillis;
+    private final long sendIntervalNanos;
+    private final Counter sent;
+    private final Counter skipped;
+    private final Counter retried;
+    private final Counter failed;
+    private final Counter rateLimited;
+    private final Timer lag;
+
+    /** 下一个可用发送时隙（System.nanoTime） */
+    private long nextSendSlot = System.nanoTime();
+    /** 遇到 429 后暂停到此时刻（System.nanoTime） */
+    private volatile long pausedUntil = System.nanoTime();
+
+    public EmailOutboxDispatcher(EmailOutboxMapper emailOutboxMapper,
+                                 EmailSender emailSender,
+                                 EmailVerificationService emailVerificationService,
+                                 PasswordResetService passwordResetService,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${email.dispatch.batch-size:20}") int batchSize,
+                                 @Value("${email.dispatch.pool-size:4}") int poolSize,
+                                 @Value("${email.dispatch.max-per-second:2}") double maxPerSecond,
+                                 @Value("${email.dispatch.max-attempts:8}") int maxAttempts,
+                                 @Value("${email.dispatch.retry-base-ms:5000}") long retryBaseMillis,
+                                 @Value("${email.dispatch.retry-max-ms:600000}") long retryMaxMillis,
+                                 @Value("${email.dispatch.lease-ms:300000}") long leaseMillis,
+                                 @Value("${email.dispatch.rate-limit-pause-ms:1000}") long rateLimitPauseMillis) {
+        this.emailOutboxMapper = emailOutboxMapper;
+        this.emailSender = emailSender;
+        this.emailVerificationService = emailVerificationService;
+        this.passwordResetService = passwordResetService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBaseMillis = retryBaseMillis;
+        this.retryMaxMillis = retryMaxMillis;
+        this.leaseMillis = leaseMillis;
+        this.rateLimitPauseMillis = rateLimitPauseMillis;
+        this.sendIntervalNanos = maxPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / maxPerSecond) : 0L;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "email-dispatch-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        new ExecutorServiceMetrics(executor, "email.dispatch", List.of()).bindTo(meterRegistry);
+        this.sent = Counter.builder("email.outbox.sent").register(meterRegistry);
+        this.skipped = Counter.builder("email.outbox.skipped")
+                .description("无需发送的邮件数（用户不存在/已验证或开发环境）")
+                .register(meterRegistry);
+        this.retried = Counter.builder("email.outbox.retried").register(meterRegistry);
+        this.failed = Counter.builder("email.outbox.failed").register(meterRegistry);
+        this.rateLimited = Counter.builder("email.outbox.rate_limited").register(meterRegistry);
+        this.lag = Timer.builder("email.outbox.lag").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${email.dispatch.poll-interval-ms:500}")
+    public void dispatch() {
+        try {
+            dispatchBatch();
+        } catch (RuntimeException e) {
+            log.error("邮件 Outbox 发送失败: error={}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 领取并发送一批邮件，等待本批全部处理完再返回（下一次轮询不会与本批重叠）
+     *
+     * @return 本批领取的邮件数
+     */
+    int dispatchBatch() {
+        if (pausedUntil - System.nanoTime() > 0) {
+            return 0;
+        }
+        List<EmailOutboxEntity> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutboxEntity> due = emailOutboxMapper.lockDue(now, batchSize);
+            if (!due.isEmpty()) {
+                emailOutboxMapper.lease(due.stream().map(EmailOutboxEntity::getId).toList(), now.plus(Duration.ofMillis(leaseMillis)));
+            }
+            return due;
+        });
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        CompletableFuture.allOf(batch.stream()
+                .map(entry -> CompletableFuture.runAsync(() -> deliver(entry), executor))
+                .toArray(CompletableFuture[]::new)).join();
+        return batch.size();
+    }
+
+    private void deliver(EmailOutboxEntity entry) {
+        if (!EMAIL_TYPES.contains(entry.getEmailType())) {
+            fail(entry, "未知邮件类型: " + entry.getEmailType(), true);
+            return;
+        }
+        try {
+            OutgoingEmail email = compose(entry);
+            if (email == null) {
+                skipped.increment();
+            } else {
+                awaitSendSlot();
+                emailSender.send(entry.getRecipient(), email.subject(), email.html());
+                sent.increment();
+                lag.record(Duration.between(entry.getCreatedAt(), LocalDateTime.now()));
+            }
+            emailOutboxMapper.deleteById(entry.getId());
+        } catch (EmailSender.EmailSendException e) {
+            if (e.isRateLimited()) {
+                pausedUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(rateLimitPauseMillis);
+                rateLimited.increment();
+                emailOutboxMapper.reschedule(entry.getId(), entry.getAttempts(),
+                        LocalDateTime.now().plus(Duration.ofMillis(rateLimitPauseMillis)), truncate(e.getMessage()));
+                log.warn("邮件服务限流，暂停发送 {}ms: id={}", rateLimitPauseMillis, entry.getId());
+            } else {
+                fail(entry, e.getMessage(), e.isPermanent());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            fail(entry, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName(), false);
+        }
+    }
+
+    private OutgoingEmail compose(EmailOutboxEntity entry) {
+        return switch (entry.getEmailType()) {
+            case EmailOutboxService.EMAIL_VERIFICATION ->
+                    emailVerificationService.composeVerificationEmail(entry.getUserId(), entry.getRecipient());
+            case EmailOutboxService.PASSWORD_RESET -> passwordResetService.composeResetEmail(entry.getRecipient());
+            case EmailOutboxService.PASSWORD_RESET_CONFIRMATION ->
+                    passwordResetService.composeResetConfirmationEmail(entry.getRecipient());
+            default -> throw new IllegalStateException("未知邮件类型: " + entry.getEmailType());
+        };
+    }
+
+    /**
+     * 按 max-per-second 匀速发放发送时隙（多线程共享），并遵守 429 暂停
+     */
+    private void awaitSendSlot() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long start = Math.max(now, nextSendSlot);
+            if (pausedUntil - start > 0) {
+                start = pausedUntil;
+            }
+            nextSendSlot = start + sendIntervalNanos;
+            waitNanos = start - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private void fail(EmailOutboxEntity entry, String error, boolean permanent) {
+        int attempts = entry.getAttempts() + 1;
+        if (permanent || attempts >= maxAttempts) {
+            emailOutboxMapper.markFailed(entry.getId(), attempts, truncate(error));
+            failed.increment();
+            log.error("邮件发送最终失败: id={}, type={}, attempts={}, error={}", entry.getId(), entry.getEmailType(), attempts, error);
+            return;
+        }
+        emailOutboxMapper.reschedule(entry.getId(), attempts, LocalDateTime.now().plus(Duration.ofMillis(backoffMillis(attempts))),
+                truncate(error));
+        retried.increment();
+        log.warn("邮件发送失败，等待重试: id={}, type={}, attempts={}, error={}", entry.getId(), entry.getEmailType(), attempts, error);
+    }
+
+    /**
+     * 第 n 次失败后的退避时间：retry-base-ms * 2^(n-1)，上限 retry-max-ms
+     */
+    long backoffMillis(int attempts) {
+        int shift = Math.min(attempts - 1, 30);
+        return Math.min(retryMaxMillis, retryBaseMillis << shift);
+    }
+
+    private static String truncate(String error) {
+        if (error == null) return null;
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
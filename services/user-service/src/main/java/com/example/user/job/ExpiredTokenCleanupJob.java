@@ -0,0 +1,47 @@
+package com.example.user.job;
+
+import com.example.user.mapper.EmailVerificationTokenMapper;
+import com.example.user.mapper.PasswordResetTokenMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 过期 Token 清理定时任务（MySQL 存储）
+ * 每日 03:00 删除邮箱验证与密码重置两张表中 expires_at < NOW() 的记录，避免表膨胀
+ * Redis 存储的 token 由 TTL 自动过期，无需清理
+ */
+@Component
+public class ExpiredTokenCleanupJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiredTokenCleanupJob.class);
+
+    private final EmailVerificationTokenMapper verificationTokenMapper;
+    private final PasswordResetTokenMapper passwordResetTokenMapper;
+
+    public ExpiredTokenCleanupJob(EmailVerificationTokenMapper verificationTokenMapper,
+                                  PasswordResetTokenMapper passwordResetTokenMapper) {
+        this.verificationTokenMapper = verificationTokenMapper;
+        this.passwordResetTokenMapper = passwordResetTokenMapper;
+    }
+
+    /**
+     * 每日 03:00 执行过期 Token 清理
+     */
+    @Scheduled(cron = "0 0 3 * * ?")
+    public void cleanupExpiredTokens() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int verification = verificationTokenMapper.deleteExpiredBefore(now);
+            int passwordReset = passwordResetTokenMapper.deleteExpiredBefore(now);
+            if (verification + passwordReset > 0) {
+                log.info("过期 Token 清理完成，删除邮箱验证 {} 条、密码重置 {} 条", verification, passwordReset);
+            }
+        } catch (Exception e) {
+            log.error("过期 Token 清理失败", e);
+        }
+    }
+}
@@ -1,22 +1,46 @@
 package com.example.user.mapper;
 
 import com.example.user.entity.AuditLogEntity;
+import com.example.user.entity.AuditLogPartitionEntity;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * 审计日志 Mapper
- * 与设计文档 2.7 一致
+ * 与设计文档 2.7 一致；表按 created_at 月度分区（V11）
  */
 @Mapper
 public interface AuditLogMapper {
 
     int insert(AuditLogEntity auditLog);
 
-    List<AuditLogEntity> findPage(@Param("actorId") Long actorId, @Param("resourceType") String resourceType,
-                                  @Param("offset") long offset, @Param("size") int size);
+    /**
+     * 多行批量写入（异步审计写入器按批刷盘）
+     */
+    int insertBatch(@Param("logs") List<AuditLogEntity> logs);
 
-    long count(@Param("actorId") Long actorId, @Param("resourceType") String resourceType);
+    /**
+     * 游标分页：[from, to) 时间范围内按 (created_at, id) 降序，cursorId 非空时从游标之后开始
+     * 时间范围用于分区裁剪
+     */
+    List<AuditLogEntity> findPageAfter(@Param("actorId") Long actorId, @Param("resourceType") String resourceType,
+                                       @Param("resourceId") String resourceId,
+                                       @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                       @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt, @Param("cursorId") Long cursorId,
+                                       @Param("size") int size);
+
+    /**
+     * 当前分区（按上界升序）；表未分区时返回空列表
+     */
+    List<AuditLogPartitionEntity> findPartitions();
+
+    /**
+     * 从 pmax 拆出新的月度分区（pmax 中无该月数据时仅修改元数据）
+     */
+    int addPartition(@Param("name") String name, @Param("lessThan") String lessThan);
+
+    int dropPartition(@Param("name") String name);
 }
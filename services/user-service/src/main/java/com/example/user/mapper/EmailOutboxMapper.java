@@ -0,0 +1,53 @@
+package com.example.user.mapper;
+
+import com.example.user.entity.EmailOutboxEntity;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 邮件 Outbox 数据访问层
+ */
+@Mapper
+public interface EmailOutboxMapper {
+
+    /**
+     * 插入待发送邮件
+     */
+    int insert(EmailOutboxEntity entity);
+
+    /**
+     * 锁定一批到期的待发送邮件（FOR UPDATE SKIP LOCKED，多实例互不阻塞）
+     */
+    List<EmailOutboxEntity> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * 领取：将 next_attempt_at 推后到租约到期时间，发送期间不会被其他实例重复领取
+     */
+    int lease(@Param("ids") List<Long> ids, @Param("until") LocalDateTime until);
+
+    /**
+     * 发送成功或无需发送后删除
+     */
+    int deleteById(Long id);
+
+    /**
+     * 重新排期（失败重试或遇到限流）
+     */
+    int reschedule(@Param("id") Long id,
+                   @Param("attempts") int attempts,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("lastError") String lastError);
+
+    /**
+     * 标记为最终失败，保留记录供排查
+     */
+    int markFailed(@Param("id") Long id, @Param("attempts") int attempts, @Param("lastError") String lastError);
+
+    /**
+     * 按 ID 查询（仅用于测试）
+     */
+    EmailOutboxEntity findById(Long id);
+}
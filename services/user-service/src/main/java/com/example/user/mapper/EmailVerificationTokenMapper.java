@@ -3,6 +3,8 @@ package com.example.user.mapper;
 import com.example.user.entity.EmailVerificationTokenEntity;
 import org.apache.ibatis.annotations.Mapper;
 
+import java.time.LocalDateTime;
+
 /**
  * 邮箱验证 Token 数据访问层
  */
@@ -34,6 +36,14 @@ public interface EmailVerificationTokenMapper {
      */
     int deleteByUserId(Long userId);
 
+    /**
+     * 删除指定时间之前过期的记录（用于定时清理）
+     *
+     * @param before 过期时间早于此时间的记录将被删除
+     * @return 删除的记录数
+     */
+    int deleteExpiredBefore(LocalDateTime before);
+
     /**
      * 删除所有（仅用于测试）
      */
@@ -21,6 +21,13 @@ public interface RoleMapper {
 
     List<RoleEntity> findAll(@Param("includeDeleted") boolean includeDeleted);
 
+    /**
+     * 分页查询角色（orderBy 须来自排序白名单，默认按 id）
+     */
+    List<RoleEntity> findPage(@Param("includeDeleted") boolean includeDeleted,
+                              @Param("offset") long offset, @Param("size") int size,
+                              @Param("orderBy") String orderBy);
+
     long count(@Param("includeDeleted") boolean includeDeleted);
 
     boolean existsByCode(String code);
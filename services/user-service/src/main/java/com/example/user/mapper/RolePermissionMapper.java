@@ -1,5 +1,6 @@
 package com.example.user.mapper;
 
+import com.example.user.entity.RolePermissionEntity;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
@@ -13,6 +14,11 @@ public interface RolePermissionMapper {
 
     List<Long> findPermissionIdsByRoleId(Long roleId);
 
+    /**
+     * 全部角色-权限关联（RBAC 目录快照加载用）
+     */
+    List<RolePermissionEntity> findAll();
+
     int insert(@Param("roleId") Long roleId, @Param("permissionId") Long permissionId, @Param("createdAt") java.time.LocalDateTime createdAt);
 
     int deleteByRoleId(Long roleId);
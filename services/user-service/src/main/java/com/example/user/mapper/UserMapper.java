@@ -1,10 +1,12 @@
 package com.example.user.mapper;
 
+import com.example.user.entity.UserContextEntity;
 import com.example.user.entity.UserEntity;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -45,9 +47,11 @@ public interface UserMapper {
 
     /**
      * 分页查询用户（可选筛选、排序）
+     * emailGrams / nameGrams 为搜索词的 n-gram（见 UserSearchIndexer），非空时先走 n-gram 索引缩小候选
      */
     List<UserEntity> findPage(@Param("email") String email, @Param("name") String name,
                              @Param("roleCode") String roleCode, @Param("includeDeleted") Boolean includeDeleted,
+                             @Param("emailGrams") List<String> emailGrams, @Param("nameGrams") List<String> nameGrams,
                              @Param("offset") long offset, @Param("size") int size,
                              @Param("orderBy") String orderBy);
 
@@ -60,7 +64,27 @@ public interface UserMapper {
      * 统计分页筛选后的用户数量
      */
     long countPage(@Param("email") String email, @Param("name") String name,
-                   @Param("roleCode") String roleCode, @Param("includeDeleted") Boolean includeDeleted);
+                   @Param("roleCode") String roleCode, @Param("includeDeleted") Boolean includeDeleted,
+                   @Param("emailGrams") List<String> emailGrams, @Param("nameGrams") List<String> nameGrams);
+
+    /**
+     * 游标分页查询用户：按 (sortColumn, id) 取游标之后的 size 条；cursorId 为 null 时从头开始
+     * sortColumn 须来自排序白名单
+     */
+    List<UserEntity> findPageAfter(@Param("email") String email, @Param("name") String name,
+                                   @Param("roleCode") String roleCode, @Param("includeDeleted") Boolean includeDeleted,
+                                   @Param("emailGrams") List<String> emailGrams, @Param("nameGrams") List<String> nameGrams,
+                                   @Param("sortColumn") String sortColumn, @Param("desc") boolean desc,
+                                   @Param("cursorValue") Object cursorValue, @Param("cursorId") Long cursorId,
+                                   @Param("size") int size);
+
+    /**
+     * 统计分页筛选后的用户数量，最多数到 cap
+     */
+    long countPageCapped(@Param("email") String email, @Param("name") String name,
+                         @Param("roleCode") String roleCode, @Param("includeDeleted") Boolean includeDeleted,
+                         @Param("emailGrams") List<String> emailGrams, @Param("nameGrams") List<String> nameGrams,
+                         @Param("cap") int cap);
 
     /**
      * 检查邮箱是否存在（仅未删除用户）
@@ -72,11 +96,21 @@ public interface UserMapper {
      */
     boolean existsByEmailWithDeleted(@Param("email") String email, @Param("excludeDeleted") boolean excludeDeleted);
 
+    /**
+     * 批量查询已存在的邮箱（含已删除用户，email 唯一约束覆盖已删除行）
+     */
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
     /**
      * 检查手机号是否存在
      */
     boolean existsByPhone(String phone);
 
+    /**
+     * 单次查询用户信息及角色编码（供内部 API 签发 Token）
+     */
+    UserContextEntity findContextById(Long id);
+
     /**
      * 检查 ID 是否存在
      */
@@ -87,6 +121,17 @@ public interface UserMapper {
      */
     int insert(UserEntity user);
 
+    /**
+     * 多行批量插入用户（批量导入），自增 id 回填到各实体
+     */
+    int insertBatch(@Param("users") List<UserEntity> users);
+
+    /**
+     * 按 id 升序分批读取用户（批量导出），不含密码
+     */
+    List<UserEntity> findBatchAfterId(@Param("includeDeleted") boolean includeDeleted, @Param("afterId") long afterId,
+                                      @Param("size") int size);
+
     /**
      * 更新用户
      */
@@ -102,11 +147,24 @@ public interface UserMapper {
      */
     int updatePassword(@Param("userId") Long userId, @Param("encodedPassword") String encodedPassword, @Param("updatedAt") java.time.LocalDateTime updatedAt);
 
+    /**
+     * 以新成本因子重新哈希密码（登录成功时透明升级）
+     * 仅当库中哈希仍为 expectedPassword 时更新，避免覆盖并发的密码修改
+     *
+     * @return 更新的行数
+     */
+    int rehashPassword(@Param("userId") Long userId, @Param("expectedPassword") String expectedPassword, @Param("encodedPassword") String encodedPassword);
+
     /**
      * 根据 ID 物理删除用户
      */
     int deleteById(Long id);
 
+    /**
+     * 按注册 Saga ID 查询用户 ID（含已删除用户）
+     */
+    Long findIdByRegistrationId(@Param("registrationId") String registrationId);
+
     /**
      * 软删除用户（设置 deleted_at）
      */
@@ -1,8 +1,10 @@
 package com.example.user.mapper;
 
+import com.example.user.entity.UserRoleEntity;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -13,8 +15,23 @@ public interface UserRoleMapper {
 
     List<Long> findRoleIdsByUserId(Long userId);
 
+    /**
+     * 查询用户的角色编码（JOIN roles，排除已删除角色）
+     */
+    List<String> findRoleCodesByUserId(Long userId);
+
+    /**
+     * 批量查询多个用户的角色关联，按 user_id、role_id 排序（角色是否有效由调用方按 RBAC 目录判断）
+     */
+    List<UserRoleEntity> findRolesByUserIds(@Param("userIds") Collection<Long> userIds);
+
     int insert(@Param("userId") Long userId, @Param("roleId") Long roleId, @Param("createdAt") java.time.LocalDateTime createdAt);
 
+    /**
+     * 多行批量插入用户-角色关联（批量导入）
+     */
+    int insertBatch(@Param("rows") List<UserRoleEntity> rows, @Param("createdAt") java.time.LocalDateTime createdAt);
+
     int deleteByUserId(Long userId);
 
     int deleteByUserIdAndRoleId(@Param("userId") Long userId, @Param("roleId") Long roleId);
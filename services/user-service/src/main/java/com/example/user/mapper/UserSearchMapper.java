@@ -0,0 +1,25 @@
+package com.example.user.mapper;
+
+import com.example.user.entity.UserEntity;
+import com.example.user.entity.UserSearchGramEntity;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 用户搜索 n-gram 索引 Mapper（user_search_ngrams）
+ */
+@Mapper
+public interface UserSearchMapper {
+
+    int insertBatch(@Param("grams") List<UserSearchGramEntity> grams);
+
+    int deleteByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 尚未建立索引的用户（按 id 升序，仅 id/name/email），用于存量回填
+     */
+    List<UserEntity> findUnindexedUsers(@Param("afterId") long afterId, @Param("limit") int limit);
+}
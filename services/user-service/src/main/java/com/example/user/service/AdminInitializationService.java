@@ -40,6 +40,7 @@ public class AdminInitializationService {
     private final UserRoleMapper userRoleMapper;
     private final PasswordEncoder passwordEncoder;
     private final Optional<UserEventPublisher> userEventPublisher;
+    private final UserSearchIndexer userSearchIndexer;
 
     /**
      * 应用启动时初始化 admin 账号
@@ -89,6 +90,7 @@ public class AdminInitializationService {
             adminUser.setDeletedAt(null);
 
             userMapper.insert(adminUser);
+            userSearchIndexer.index(adminUser);
 
             // 分配 ADMIN 角色
             userRoleMapper.insert(adminUser.getId(), adminRole.getId(), now);
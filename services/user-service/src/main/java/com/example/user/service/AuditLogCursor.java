@@ -0,0 +1,31 @@
+package com.example.user.service;
+
+import com.example.api.common.ResultCode;
+import com.example.api.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 审计日志游标：最后一条记录的 (created_at, id) + 查询窗口下界（Base64URL 编码，对客户端不透明）
+ * 携带窗口下界，保证翻页期间默认时间窗口不随当前时间漂移
+ */
+record AuditLogCursor(LocalDateTime createdAt, long id, LocalDateTime from) {
+
+    String encode() {
+        String raw = createdAt + "," + id + "," + from;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static AuditLogCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(",", 3);
+            if (parts.length != 3) throw new IllegalArgumentException(raw);
+            return new AuditLogCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]), LocalDateTime.parse(parts[2]));
+        } catch (RuntimeException e) {
+            throw new BusinessException(ResultCode.BAD_REQUEST.getCode(), "无效的分页游标");
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.user.service;
+
+import com.example.api.common.PagedResult;
+import com.example.api.common.ResultCode;
+import com.example.api.exception.BusinessException;
+import com.example.user.controller.dto.AuditLogDto;
+import com.example.user.entity.AuditLogEntity;
+import com.example.user.mapper.AuditLogMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 审计日志查询（与设计文档 2.7 一致）
+ * 按 (created_at, id) 降序游标分页，始终带 created_at 时间窗口以裁剪月度分区；不计算总数（total=-1）
+ */
+@Service
+public class AuditLogService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final AuditLogMapper auditLogMapper;
+
+    @Value("${audit.query.default-window-days:30}")
+    private int defaultWindowDays;
+
+    public AuditLogService(AuditLogMapper auditLogMapper) {
+        this.auditLogMapper = auditLogMapper;
+    }
+
+    /**
+     * 查询审计日志
+     * from/to 为 [from, to) 时间窗口，缺省为最近 default-window-days 天；cursor 为空时从最新一条开始，整页时返回 nextCursor
+     */
+    public PagedResult<AuditLogDto> getAuditLogs(Long actorId, String resourceType, String resourceId,
+                                                 LocalDateTime from, LocalDateTime to, String cursor, int size) {
+        int safeSize = Math.min(Math.max(1, size), MAX_PAGE_SIZE);
+        AuditLogCursor after = cursor == null || cursor.isEmpty() ? null : AuditLogCursor.decode(cursor);
+        LocalDateTime windowTo = to != null ? to : LocalDateTime.now();
+        LocalDateTime windowFrom = from != null ? from
+                : after != null ? after.from() : windowTo.minusDays(defaultWindowDays);
+        if (!windowFrom.isBefore(windowTo)) {
+            throw new BusinessException(ResultCode.BAD_REQUEST.getCode(), "时间范围无效：from 须早于 to");
+        }
+
+        List<AuditLogEntity> list = auditLogMapper.findPageAfter(actorId, resourceType, resourceId, windowFrom, windowTo,
+                after != null ? after.createdAt() : null, after != null ? after.id() : null, safeSize);
+        PagedResult<AuditLogDto> result = PagedResult.of(list.stream().map(AuditLogService::toDto).toList(), -1, 1, safeSize);
+        if (list.size() == safeSize) {
+            AuditLogEntity last = list.get(list.size() - 1);
+            result.setNextCursor(new AuditLogCursor(last.getCreatedAt(), last.getId(), windowFrom).encode());
+        }
+        return result;
+    }
+
+    private static AuditLogDto toDto(AuditLogEntity e) {
+        AuditLogDto dto = new AuditLogDto();
+        dto.setId(e.getId());
+        dto.setActorId(e.getActorId());
+        dto.setActorEmail(e.getActorEmail());
+        dto.setAction(e.getAction());
+        dto.setResourceType(e.getResourceType());
+        dto.setResourceId(e.getResourceId());
+        dto.setOldValue(e.getOldValue());
+        dto.setNewValue(e.getNewValue());
+        dto.setIpAddress(e.getIpAddress());
+        dto.setUserAgent(e.getUserAgent());
+        dto.setCreatedAt(e.getCreatedAt());
+        return dto;
+    }
+}
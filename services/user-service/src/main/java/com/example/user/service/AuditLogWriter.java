@@ -0,0 +1,182 @@
+package com.example.user.service;
+
+import com.example.user.entity.AuditLogEntity;
+import com.example.user.mapper.AuditLogMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 审计日志写入器
+ * - 敏感操作（audit.writer.sync-actions，支持 "role.*" 前缀）在业务事务内同步写入，与业务数据同生共死
+ * - 其余操作在事务提交后进入有界队列，由后台线程按批多行写入；队列满时退化为调用线程直接写入，不丢日志
+ * - 关闭时停止后台线程并刷出队列中剩余的日志
+ * 指标：audit.log.queue.size、audit.log.batch.size、audit.log.queue.full、audit.log.write.failed
+ */
+@Slf4j
+@Service
+public class AuditLogWriter {
+
+    private final AuditLogMapper auditLogMapper;
+    private final BlockingQueue<AuditLogEntity> queue;
+    private final Set<String> syncActions;
+    private final int maxBatchSize;
+    private final long flushIntervalMillis;
+    private final Thread flusher;
+    private final DistributionSummary batchSize;
+    private final Counter queueFull;
+    private final Counter writeFailed;
+    private volatile boolean running = true;
+
+    public AuditLogWriter(AuditLogMapper auditLogMapper,
+                          MeterRegistry meterRegistry,
+                          @Value("${audit.writer.queue-capacity:10000}") int queueCapacity,
+                          @Value("${audit.writer.max-batch-size:200}") int maxBatchSize,
+                          @Value("${audit.writer.flush-interval-ms:200}") long flushIntervalMillis,
+                          @Value("${audit.writer.sync-actions:user.deleted,role.deleted,role.permissions.updated}") Set<String> syncActions) {
+        this.auditLogMapper = auditLogMapper;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.syncActions = Set.copyOf(syncActions);
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        meterRegistry.gauge("audit.log.queue.size", queue, BlockingQueue::size);
+        this.batchSize = DistributionSummary.builder("audit.log.batch.size").register(meterRegistry);
+        this.queueFull = Counter.builder("audit.log.queue.full")
+                .description("队列满时退化为同步写入的审计日志数")
+                .register(meterRegistry);
+        this.writeFailed = Counter.builder("audit.log.write.failed")
+                .description("异步批量写入失败丢弃的审计日志数")
+                .register(meterRegistry);
+        this.flusher = new Thread(this::runFlusher, "audit-log-writer");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * 写入一条审计日志：敏感操作同步写入，其余在事务提交后异步批量写入（回滚的事务不记录）
+     */
+    public void write(AuditLogEntity entry) {
+        if (isSync(entry.getAction())) {
+            auditLogMapper.insert(entry);
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entry);
+                }
+            });
+        } else {
+            enqueue(entry);
+        }
+    }
+
+    /**
+     * 批量写入（批量导入按块调用）：同步操作在事务内一次多行插入，其余提交后整体入队
+     */
+    public void writeAll(List<AuditLogEntity> entries) {
+        List<AuditLogEntity> sync = new ArrayList<>();
+        List<AuditLogEntity> async = new ArrayList<>();
+        for (AuditLogEntity entry : entries) {
+            (isSync(entry.getAction()) ? sync : async).add(entry);
+        }
+        if (!sync.isEmpty()) {
+            auditLogMapper.insertBatch(sync);
+        }
+        if (async.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    async.forEach(AuditLogWriter.this::enqueue);
+                }
+            });
+        } else {
+            async.forEach(this::enqueue);
+        }
+    }
+
+    boolean isSync(String action) {
+        for (String pattern : syncActions) {
+            if (pattern.endsWith(".*") ? action.startsWith(pattern.substring(0, pattern.length() - 1)) : pattern.equals(action)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void enqueue(AuditLogEntity entry) {
+        if (running) {
+            if (queue.offer(entry)) {
+                return;
+            }
+            queueFull.increment();
+        }
+        try {
+            auditLogMapper.insert(entry);
+        } catch (RuntimeException e) {
+            writeFailed.increment();
+            log.error("审计日志写入失败: action={}, resource={}/{}, error={}",
+                    entry.getAction(), entry.getResourceType(), entry.getResourceId(), e.getMessage(), e);
+        }
+    }
+
+    private void runFlusher() {
+        List<AuditLogEntity> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                AuditLogEntity first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    private void flush(List<AuditLogEntity> batch) {
+        try {
+            auditLogMapper.insertBatch(batch);
+            batchSize.record(batch.size());
+        } catch (RuntimeException e) {
+            writeFailed.increment(batch.size());
+            log.error("审计日志批量写入失败: size={}, error={}", batch.size(), e.getMessage(), e);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * 停止后台线程后在当前线程刷出剩余日志（此时数据源仍可用）
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        // 不中断后台线程，避免打断进行中的 JDBC 写入；poll 最多等待一个刷盘间隔即退出
+        flusher.join(flushIntervalMillis + TimeUnit.SECONDS.toMillis(5));
+        List<AuditLogEntity> batch = new ArrayList<>(maxBatchSize);
+        while (queue.drainTo(batch, maxBatchSize) > 0) {
+            flush(batch);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.user.service;
+
+import com.example.user.entity.EmailOutboxEntity;
+import com.example.user.mapper.EmailOutboxMapper;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * 邮件 Outbox 登记服务
+ * 业务方法只在自身事务内插入一行待发邮件（随业务回滚一并撤销），不在请求线程内调用外部邮件 API；
+ * 由 EmailOutboxDispatcher 异步生成内容并发送
+ */
+@Service
+public class EmailOutboxService {
+
+    public static final String EMAIL_VERIFICATION = "EMAIL_VERIFICATION";
+    public static final String PASSWORD_RESET = "PASSWORD_RESET";
+    public static final String PASSWORD_RESET_CONFIRMATION = "PASSWORD_RESET_CONFIRMATION";
+
+    private final EmailOutboxMapper emailOutboxMapper;
+
+    public EmailOutboxService(EmailOutboxMapper emailOutboxMapper) {
+        this.emailOutboxMapper = emailOutboxMapper;
+    }
+
+    /**
+     * 登记待发送邮件
+     *
+     * @param emailType 邮件类型
+     * @param recipient 收件邮箱
+     * @param userId    用户 ID（可为空，发送时按邮箱查找）
+     */
+    public void enqueue(String emailType, String recipient, Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        EmailOutboxEntity entity = new EmailOutboxEntity();
+        entity.setEmailType(emailType);
+        entity.setRecipient(recipient);
+        entity.setUserId(userId);
+        entity.setNextAttemptAt(now);
+        entity.setCreatedAt(now);
+        emailOutboxMapper.insert(entity);
+    }
+}
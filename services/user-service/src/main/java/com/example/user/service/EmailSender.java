@@ -0,0 +1,100 @@
+package com.example.user.service;
+
+import com.resend.Resend;
+import com.resend.services.emails.model.CreateEmailOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 邮件发送器：进程内共享一个 Resend 客户端（复用其连接池），不再每封邮件新建客户端
+ * 发送失败抛出 EmailSendException，携带 HTTP 状态码供调用方区分限流、永久失败与可重试失败
+ */
+@Component
+public class EmailSender {
+
+    /** Resend SDK 非 2xx 响应的异常消息格式："Failed to send email: {code} {body}" */
+    private static final Pattern STATUS_PATTERN = Pattern.compile("Failed to send email: (\\d{3})");
+
+    private final Resend resend;
+    private final String from;
+
+    public EmailSender(@Value("${resend.api-key:}") String apiKey,
+                       @Value("${resend.from:onboarding@resend.dev}") String from) {
+        this.resend = apiKey == null || apiKey.isBlank() ? null : new Resend(apiKey);
+        this.from = from;
+    }
+
+    /**
+     * 是否已配置 RESEND_API_KEY（未配置时为开发环境，邮件只记录日志）
+     */
+    public boolean isConfigured() {
+        return resend != null;
+    }
+
+    /**
+     * 同步发送一封邮件
+     *
+     * @throws EmailSendException 未配置或发送失败
+     */
+    public void send(String to, String subject, String html) {
+        if (resend == null) {
+            throw new EmailSendException(-1, "RESEND_API_KEY 未配置");
+        }
+        CreateEmailOptions params = CreateEmailOptions.builder()
+                .from(from)
+                .to(to)
+                .subject(subject)
+                .html(html)
+                .build();
+        try {
+            resend.emails().send(params);
+        } catch (Exception e) {
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            throw new EmailSendException(statusOf(message), message, e);
+        }
+    }
+
+    static int statusOf(String message) {
+        Matcher matcher = STATUS_PATTERN.matcher(message);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    /**
+     * 邮件发送失败；status 为 HTTP 状态码，网络异常等无响应时为 -1
+     */
+    public static class EmailSendException extends RuntimeException {
+
+        private final int status;
+
+        public EmailSendException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        public EmailSendException(int status, String message, Throwable cause) {
+            super(message, cause);
+            this.status = status;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * 429：触发服务商限流，应暂停发送后重试
+         */
+        public boolean isRateLimited() {
+            return status == 429;
+        }
+
+        /**
+         * 400/422：请求本身无效（如收件地址非法），重试不会成功
+         */
+        public boolean isPermanent() {
+            return status == 400 || status == 422;
+        }
+    }
+}
@@ -2,9 +2,7 @@ package com.example.user.service;
 
 import com.example.api.common.ResultCode;
 import com.example.api.exception.BusinessException;
-import com.example.user.entity.EmailVerificationTokenEntity;
 import com.example.user.entity.UserEntity;
-import com.example.user.mapper.EmailVerificationTokenMapper;
 import com.example.user.mapper.UserMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,21 +12,20 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.resend.Resend;
-import com.resend.services.emails.model.CreateEmailOptions;
-
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Base64;
 import java.util.concurrent.TimeUnit;
 
 /**
  * 邮箱验证服务
- * 负责生成验证 token、发送验证邮件、验证 token
+ * 负责生成验证 token、登记验证邮件、验证 token
+ * 邮件经邮件 Outbox 异步发送，请求线程不调用外部邮件 API
  */
 @Service
 public class EmailVerificationService {
@@ -42,66 +39,71 @@ public class EmailVerificationService {
     private static final String RESEND_RATE_LIMIT_KEY_PREFIX = "rate_limit:resend_verification:user:";
 
     private final UserMapper userMapper;
-    private final EmailVerificationTokenMapper tokenMapper;
+    private final OneTimeTokenStore tokenStore;
     private final RedisTemplate<String, String> redisTemplate;
+    private final EmailOutboxService emailOutboxService;
 
     public EmailVerificationService(
             UserMapper userMapper,
-            EmailVerificationTokenMapper tokenMapper,
-            @Qualifier("redisTemplate") RedisTemplate<String, String> redisTemplate) {
+            OneTimeTokenStore tokenStore,
+            @Qualifier("redisTemplate") RedisTemplate<String, String> redisTemplate,
+            EmailOutboxService emailOutboxService) {
         this.userMapper = userMapper;
-        this.tokenMapper = tokenMapper;
+        this.tokenStore = tokenStore;
         this.redisTemplate = redisTemplate;
+        this.emailOutboxService = emailOutboxService;
     }
 
     @Value("${resend.api-key:}")
     private String resendApiKey;
 
-    @Value("${resend.from:onboarding@resend.dev}")
-    private String resendFrom;
-
     @Value("${resend.verification-link-base:http://localhost:5573}")
     private String verificationLinkBase;
 
     /**
-     * 生成并发送验证邮件
+     * 登记验证邮件（随调用方事务写入邮件 Outbox，token 与链接在异步发送时生成）
      *
      * @param userId 用户 ID
      * @param email  用户邮箱
      */
+    public void requestVerificationEmail(Long userId, String email) {
+        emailOutboxService.enqueue(EmailOutboxService.EMAIL_VERIFICATION, email, userId);
+    }
+
+    /**
+     * 生成验证 token 与邮件内容（由 EmailOutboxDispatcher 在发送前调用）
+     * 用户不存在或已验证时无需发送；开发环境（RESEND_API_KEY 为空）只记录链接
+     *
+     * @param userId 用户 ID（为空时按邮箱查找）
+     * @param email  用户邮箱
+     * @return 邮件内容，无需发送时返回 null
+     */
     @Transactional
-    public void generateAndSendVerificationEmail(Long userId, String email) {
-        // 1. 删除该用户已有的旧 token
-        tokenMapper.deleteByUserId(userId);
+    public OutgoingEmail composeVerificationEmail(Long userId, String email) {
+        UserEntity user = userId != null ? userMapper.findById(userId) : userMapper.findByEmail(email);
+        if (user == null || Boolean.TRUE.equals(user.getEmailVerified())) {
+            return null;
+        }
 
-        // 2. 生成 cryptographically secure 随机 token（64 字符 Base64URL）
+        // 1. 生成 cryptographically secure 随机 token（64 字符 Base64URL）
         String token = generateSecureToken();
 
-        // 3. 计算 SHA-256 哈希
-        String tokenHash = sha256(token);
-
-        // 4. 存储到 DB
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime expiresAt = now.plusHours(TOKEN_EXPIRY_HOURS);
+        // 2. 仅存储 SHA-256 哈希，同时作废该用户已有的旧 token
+        tokenStore.issue(OneTimeTokenStore.Purpose.EMAIL_VERIFICATION, user.getId(), sha256(token),
+                Duration.ofHours(TOKEN_EXPIRY_HOURS));
 
-        EmailVerificationTokenEntity entity = new EmailVerificationTokenEntity();
-        entity.setUserId(userId);
-        entity.setTokenHash(tokenHash);
-        entity.setExpiresAt(expiresAt);
-        entity.setCreatedAt(now);
-        tokenMapper.insert(entity);
-
-        // 5. 构建验证链接（仅从配置读取，防 Host Header Injection；含 email 供前端 resend 使用）
+        // 3. 构建验证链接（仅从配置读取，防 Host Header Injection；含 email 供前端 resend 使用）
         String encodedEmail = URLEncoder.encode(email, StandardCharsets.UTF_8);
         String verificationUrl = verificationLinkBase + "/verify-email?token=" + token + "&email=" + encodedEmail;
 
-        // 6. 发送邮件或记录日志
+        // 4. 开发环境只记录日志
         if (resendApiKey == null || resendApiKey.isBlank()) {
             log.info("[开发环境] 验证链接（RESEND_API_KEY 为空，未发送邮件）: {}", verificationUrl);
             TestTokenStore.put(email, token);
-        } else {
-            sendVerificationEmail(email, verificationUrl);
+            return null;
         }
+        return new OutgoingEmail("请验证您的邮箱",
+                "<p>请点击以下链接验证您的邮箱：</p><p><a href=\"" + verificationUrl + "\">" + verificationUrl + "</a></p><p>链接 24 小时内有效。</p>");
     }
 
     /**
@@ -112,21 +114,14 @@ public class EmailVerificationService {
      */
     @Transactional
     public UserEntity verifyEmail(String token) {
-        String tokenHash = sha256(token);
-
-        EmailVerificationTokenEntity tokenEntity = tokenMapper.findByTokenHash(tokenHash);
-        if (tokenEntity == null) {
+        // 原子地一次性消费；不存在、已过期或已被使用均视为无效
+        Long userId = tokenStore.consume(OneTimeTokenStore.Purpose.EMAIL_VERIFICATION, sha256(token));
+        if (userId == null) {
             throw new BusinessException(ResultCode.TOKEN_INVALID);
         }
 
-        if (LocalDateTime.now().isAfter(tokenEntity.getExpiresAt())) {
-            tokenMapper.deleteById(tokenEntity.getId());
-            throw new BusinessException(ResultCode.TOKEN_EXPIRED);
-        }
-
-        UserEntity user = userMapper.findById(tokenEntity.getUserId());
+        UserEntity user = userMapper.findById(userId);
         if (user == null) {
-            tokenMapper.deleteById(tokenEntity.getId());
             throw new BusinessException(ResultCode.USER_NOT_FOUND);
         }
 
@@ -136,9 +131,6 @@ public class EmailVerificationService {
         user.setUpdatedAt(LocalDateTime.now());
         userMapper.update(user);
 
-        // 删除已使用的 token
-        tokenMapper.deleteById(tokenEntity.getId());
-
         return user;
     }
 
@@ -159,18 +151,8 @@ public class EmailVerificationService {
             throw new BusinessException(ResultCode.RATE_LIMIT_EXCEEDED);
         }
 
-        // 2. 查找用户（不存在也返回成功，用户枚举防护）
-        UserEntity user = userMapper.findByEmail(email);
-        if (user == null) {
-            return;
-        }
-
-        if (Boolean.TRUE.equals(user.getEmailVerified())) {
-            return;
-        }
-
-        // 3. 重新发送
-        generateAndSendVerificationEmail(user.getId(), email);
+        // 2. 登记邮件；用户是否存在、是否已验证在发送时判断，请求路径与用户是否存在无关（用户枚举防护）
+        emailOutboxService.enqueue(EmailOutboxService.EMAIL_VERIFICATION, email, null);
     }
 
     private String generateSecureToken() {
@@ -195,35 +177,4 @@ public class EmailVerificationService {
             throw new IllegalStateException("SHA-256 不可用", e);
         }
     }
-
-    private void sendVerificationEmail(String to, String verificationUrl) {
-        try {
-            // 验证 API Key 是否配置
-            if (resendApiKey == null || resendApiKey.isBlank()) {
-                log.error("RESEND_API_KEY 未配置，无法发送验证邮件");
-                throw new BusinessException(ResultCode.REMOTE_SERVICE_ERROR, "邮件服务未配置");
-            }
-
-            Resend resend = new Resend(resendApiKey);
-
-            CreateEmailOptions params = CreateEmailOptions.builder()
-                    .from(resendFrom)
-                    .to(to)
-                    .subject("请验证您的邮箱")
-                    .html("<p>请点击以下链接验证您的邮箱：</p><p><a href=\"" + verificationUrl + "\">" + verificationUrl + "</a></p><p>链接 24 小时内有效。</p>")
-                    .build();
-
-            resend.emails().send(params);
-            log.info("验证邮件已发送: to={}, from={}", to, resendFrom);
-        } catch (BusinessException e) {
-            // 业务异常直接抛出
-            throw e;
-        } catch (Exception e) {
-            // 记录完整的异常信息，包括堆栈跟踪
-            log.error("发送验证邮件失败: to={}, from={}, error={}, message={}", 
-                    to, resendFrom, e.getClass().getSimpleName(), e.getMessage(), e);
-            throw new BusinessException(ResultCode.REMOTE_SERVICE_ERROR, 
-                    "发送验证邮件失败: " + (e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName()));
-        }
-    }
 }
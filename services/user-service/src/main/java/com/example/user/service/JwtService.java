@@ -1,10 +1,14 @@
 package com.example.user.service;
 
+import com.example.api.common.security.RevokedTokenException;
+import com.example.api.common.security.VerifiedTokenCache;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
@@ -23,7 +27,7 @@ import java.util.UUID;
 
 /**
  * JWT 服务类
- * 负责生成和解析 JWT Token
+ * 负责生成和解析 JWT Token；密钥与解析器启动时构建一次，验签结果按 Token 缓存至 exp
  */
 @Service
 public class JwtService {
@@ -45,6 +49,27 @@ public class JwtService {
     
     @Value("${jwt.audience:api.example.com}")
     private String audience;
+
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheMaxSize;
+
+    private PrivateKey privateKey;
+    private JwtParser parser;
+    private VerifiedTokenCache<Claims> verifiedCache;
+
+    @PostConstruct
+    void init() {
+        privateKey = loadPrivateKey();
+        parser = Jwts.parser()
+                .verifyWith(loadPublicKey())
+                .requireIssuer(issuer)
+                .requireAudience(audience)
+                .build();
+        verifiedCache = new VerifiedTokenCache<>(verifiedCacheMaxSize, accessTokenExpiration * 1000,
+                claims -> claims.getExpiration() != null ? claims.getExpiration().getTime() : null,
+                claims -> claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : null,
+                Claims::getSubject);
+    }
     
     /**
      * 生成 Access Token
@@ -72,7 +97,7 @@ public class JwtService {
                 .audience().add(audience).and() // aud claim
                 .issuedAt(now)     // iat claim
                 .expiration(expiryDate) // exp claim
-                .signWith(getPrivateKey())
+                .signWith(privateKey)
                 .compact();
     }
     
@@ -101,7 +126,7 @@ public class JwtService {
                 .audience().add(audience).and()
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getPrivateKey())
+                .signWith(privateKey)
                 .compact();
     }
     
@@ -115,13 +140,7 @@ public class JwtService {
      */
     public Claims parseToken(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getPublicKey())
-                    .requireIssuer(issuer)
-                    .requireAudience(audience)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return parser.parseSignedClaims(token).getPayload();
         } catch (ExpiredJwtException e) {
             throw new ExpiredJwtException(e.getHeader(), e.getClaims(), "Token 已过期");
         } catch (JwtException e) {
@@ -129,11 +148,30 @@ public class JwtService {
         }
     }
     
+    /**
+     * 解析并验证 Token，同一 Token 在 exp 之前只做一次验签（供认证过滤器使用）
+     * 签发早于该用户撤销时间的 Token 视为无效
+     */
+    public Claims parseTokenCached(String token) {
+        try {
+            return verifiedCache.get(token, this::parseToken);
+        } catch (RevokedTokenException e) {
+            throw new JwtException(e.getMessage());
+        }
+    }
+
+    /**
+     * 使某用户在 revokedAtMillis 之前签发的 Access Token 在本实例失效（收到 auth-service 的撤销广播时调用）
+     */
+    public void revokeUser(String userId, long revokedAtMillis) {
+        verifiedCache.revokeSubject(userId, revokedAtMillis);
+    }
+    
     /**
      * 从资源文件加载私钥
      * 使用 InputStream 读取，支持 jar 包环境
      */
-    private PrivateKey getPrivateKey() {
+    private PrivateKey loadPrivateKey() {
         try (InputStream inputStream = privateKeyResource.getInputStream()) {
             byte[] keyBytes = inputStream.readAllBytes();
             
@@ -156,7 +194,7 @@ public class JwtService {
      * 从资源文件加载公钥
      * 使用 InputStream 读取，支持 jar 包环境
      */
-    private PublicKey getPublicKey() {
+    private PublicKey loadPublicKey() {
         try (InputStream inputStream = publicKeyResource.getInputStream()) {
             byte[] keyBytes = inputStream.readAllBytes();
             
@@ -0,0 +1,85 @@
+package com.example.user.service;
+
+import com.example.user.entity.EmailVerificationTokenEntity;
+import com.example.user.entity.PasswordResetTokenEntity;
+import com.example.user.mapper.EmailVerificationTokenMapper;
+import com.example.user.mapper.PasswordResetTokenMapper;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * 基于 MySQL 表（email_verification_tokens / password_reset_tokens）的一次性 Token 存储
+ * 消费以 DELETE 影响行数判定归属，并发消费同一 token 只有一方成功；过期记录由 ExpiredTokenCleanupJob 定期清理
+ */
+@Component
+public class MySqlOneTimeTokenStore implements OneTimeTokenStore {
+
+    private final EmailVerificationTokenMapper verificationTokenMapper;
+    private final PasswordResetTokenMapper passwordResetTokenMapper;
+
+    public MySqlOneTimeTokenStore(EmailVerificationTokenMapper verificationTokenMapper,
+                                  PasswordResetTokenMapper passwordResetTokenMapper) {
+        this.verificationTokenMapper = verificationTokenMapper;
+        this.passwordResetTokenMapper = passwordResetTokenMapper;
+    }
+
+    @Override
+    public void issue(Purpose purpose, Long userId, String tokenHash, Duration ttl) {
+        LocalDateTime now = LocalDateTime.now();
+        revoke(purpose, userId);
+        if (purpose == Purpose.EMAIL_VERIFICATION) {
+            EmailVerificationTokenEntity entity = new EmailVerificationTokenEntity();
+            entity.setUserId(userId);
+            entity.setTokenHash(tokenHash);
+            entity.setExpiresAt(now.plus(ttl));
+            entity.setCreatedAt(now);
+            verificationTokenMapper.insert(entity);
+        } else {
+            PasswordResetTokenEntity entity = new PasswordResetTokenEntity();
+            entity.setUserId(userId);
+            entity.setTokenHash(tokenHash);
+            entity.setExpiresAt(now.plus(ttl));
+            entity.setCreatedAt(now);
+            passwordResetTokenMapper.insert(entity);
+        }
+    }
+
+    @Override
+    public Long consume(Purpose purpose, String tokenHash) {
+        Long id;
+        Long userId;
+        LocalDateTime expiresAt;
+        if (purpose == Purpose.EMAIL_VERIFICATION) {
+            EmailVerificationTokenEntity entity = verificationTokenMapper.findByTokenHash(tokenHash);
+            if (entity == null) return null;
+            id = entity.getId();
+            userId = entity.getUserId();
+            expiresAt = entity.getExpiresAt();
+        } else {
+            PasswordResetTokenEntity entity = passwordResetTokenMapper.findByTokenHash(tokenHash);
+            if (entity == null) return null;
+            id = entity.getId();
+            userId = entity.getUserId();
+            expiresAt = entity.getExpiresAt();
+        }
+        // 过期 token 同样删除；删除未命中说明已被并发消费
+        int deleted = purpose == Purpose.EMAIL_VERIFICATION
+                ? verificationTokenMapper.deleteById(id)
+                : passwordResetTokenMapper.deleteById(id);
+        if (deleted == 0 || LocalDateTime.now().isAfter(expiresAt)) {
+            return null;
+        }
+        return userId;
+    }
+
+    @Override
+    public void revoke(Purpose purpose, Long userId) {
+        if (purpose == Purpose.EMAIL_VERIFICATION) {
+            verificationTokenMapper.deleteByUserId(userId);
+        } else {
+            passwordResetTokenMapper.deleteByUserId(userId);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.user.service;
+
+import java.time.Duration;
+
+/**
+ * 一次性 Token 存储（邮箱验证、密码重置）
+ * 只保存 token 的 SHA-256 哈希；每个用户每种用途同时只有一个有效 token，消费为原子的一次性操作
+ * 实现：RedisOneTimeTokenStore（默认，原生 TTL 过期）、MySqlOneTimeTokenStore（token.store.type=mysql 或作为回落）
+ */
+public interface OneTimeTokenStore {
+
+    /**
+     * Token 用途
+     */
+    enum Purpose {
+        EMAIL_VERIFICATION("email_verification"),
+        PASSWORD_RESET("password_reset");
+
+        private final String key;
+
+        Purpose(String key) {
+            this.key = key;
+        }
+
+        public String key() {
+            return key;
+        }
+    }
+
+    /**
+     * 签发 token：作废该用户同用途的旧 token 后保存新 token
+     *
+     * @param purpose   用途
+     * @param userId    用户 ID
+     * @param tokenHash token 的 SHA-256 哈希
+     * @param ttl       有效期
+     */
+    void issue(Purpose purpose, Long userId, String tokenHash, Duration ttl);
+
+    /**
+     * 消费 token：存在且未过期时删除并返回用户 ID；并发消费同一 token 只有一方成功
+     *
+     * @return 用户 ID；token 不存在、已过期或已被消费时返回 null
+     */
+    Long consume(Purpose purpose, String tokenHash);
+
+    /**
+     * 作废该用户同用途的全部 token
+     */
+    void revoke(Purpose purpose, Long userId);
+}
@@ -0,0 +1,7 @@
+package com.example.user.service;
+
+/**
+ * 待发送邮件内容（由 EmailOutboxDispatcher 在发送时生成）
+ */
+public record OutgoingEmail(String subject, String html) {
+}
@@ -0,0 +1,112 @@
+package com.example.user.service;
+
+import com.example.api.common.ResultCode;
+import com.example.api.exception.BusinessException;
+import com.example.user.mapper.UserMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 密码哈希服务：BCrypt 计算在独立的有界线程池中执行，不占用 Tomcat 请求线程
+ * 线程池与队列满时立即拒绝（RATE_LIMIT_EXCEEDED → 429），撞库洪峰不会拖垮其他接口
+ * 指标：executor.*{name=password.hashing}（队列长度、活跃线程等）、password.hashing.rejected、password.hashing.rehashed
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final UserMapper userMapper;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+    private final Counter rehashed;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  UserMapper userMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${password.hashing.pool-size:4}") int poolSize,
+                                  @Value("${password.hashing.queue-capacity:64}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        this.userMapper = userMapper;
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, queue, r -> {
+            Thread t = new Thread(r, "password-hashing-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "password.hashing", List.of()).bindTo(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected")
+                .description("线程池满载被拒绝的密码哈希请求数")
+                .register(meterRegistry);
+        this.rehashed = Counter.builder("password.hashing.rehashed")
+                .description("登录时按新成本因子重新哈希的密码数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 异步校验密码，线程池满载时抛出 BusinessException(RATE_LIMIT_EXCEEDED)
+     */
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * 异步哈希密码，线程池满载时抛出 BusinessException(RATE_LIMIT_EXCEEDED)
+     */
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * 登录成功后，若已存储哈希的成本因子低于当前配置，则后台重新哈希
+     * 尽力而为：线程池繁忙时跳过，下次登录再升级
+     */
+    public void rehashIfNeeded(Long userId, String rawPassword, String encodedPassword) {
+        if (!passwordEncoder.upgradeEncoding(encodedPassword)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                String upgraded = passwordEncoder.encode(rawPassword);
+                if (userMapper.rehashPassword(userId, encodedPassword, upgraded) > 0) {
+                    rehashed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("密码哈希线程池繁忙，跳过重新哈希: userId={}", userId);
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new BusinessException(ResultCode.RATE_LIMIT_EXCEEDED, "密码处理繁忙，请稍后再试");
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
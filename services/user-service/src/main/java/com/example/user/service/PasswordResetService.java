@@ -3,9 +3,7 @@ package com.example.user.service;
 import com.example.api.common.ResultCode;
 import com.example.api.exception.BusinessException;
 import com.example.api.model.ForgotPasswordResponse;
-import com.example.user.entity.PasswordResetTokenEntity;
 import com.example.user.entity.UserEntity;
-import com.example.user.mapper.PasswordResetTokenMapper;
 import com.example.user.mapper.UserMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,12 +17,13 @@ import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Base64;
 
 /**
  * 密码重置服务
- * 负责忘记密码、重置密码、发送重置邮件
+ * 负责忘记密码、重置密码、生成重置邮件（经邮件 Outbox 异步发送）
  * 遵循 OWASP 安全实践：用户枚举防护、响应时间一致性、Token 单次使用
  */
 @Service
@@ -36,16 +35,14 @@ public class PasswordResetService {
     private static final String SUCCESS_MESSAGE = "如果该邮箱已注册，您将收到重置链接";
 
     private final UserMapper userMapper;
-    private final PasswordResetTokenMapper tokenMapper;
+    private final OneTimeTokenStore tokenStore;
     private final PasswordEncoder passwordEncoder;
     private final PasswordPolicyService passwordPolicyService;
+    private final EmailOutboxService emailOutboxService;
 
     @Value("${resend.api-key:}")
     private String resendApiKey;
 
-    @Value("${resend.from:onboarding@resend.dev}")
-    private String resendFrom;
-
     @Value("${resend.verification-link-base:http://localhost:5573}")
     private String verificationLinkBase;
 
@@ -54,60 +51,80 @@ public class PasswordResetService {
 
     public PasswordResetService(
             UserMapper userMapper,
-            PasswordResetTokenMapper tokenMapper,
+            OneTimeTokenStore tokenStore,
             PasswordEncoder passwordEncoder,
-            PasswordPolicyService passwordPolicyService) {
+            PasswordPolicyService passwordPolicyService,
+            EmailOutboxService emailOutboxService) {
         this.userMapper = userMapper;
-        this.tokenMapper = tokenMapper;
+        this.tokenStore = tokenStore;
         this.passwordEncoder = passwordEncoder;
         this.passwordPolicyService = passwordPolicyService;
+        this.emailOutboxService = emailOutboxService;
     }
 
     /**
      * 忘记密码
      * 用户枚举防护：无论邮箱是否存在均返回 200 + 相同成功消息
-     * 响应时间一致性：无论邮箱是否存在执行相同逻辑路径
+     * 响应时间一致性：请求线程只登记一行邮件 Outbox，不查询用户、不生成 token、不调用邮件 API，
+     * 邮箱存在与否执行完全相同的路径；用户查找与 token 生成由 EmailOutboxDispatcher 异步完成
      *
      * @param email 用户邮箱（已 trim、toLowerCase 标准化）
      * @return 统一成功响应
      */
-    @Transactional
     public ForgotPasswordResponse forgotPassword(String email) {
         String normalizedEmail = email.trim().toLowerCase();
-        UserEntity user = userMapper.findByEmail(normalizedEmail);
-
-        if (user != null) {
-            // 删除该用户已有的旧 token
-            tokenMapper.deleteByUserId(user.getId());
+        emailOutboxService.enqueue(EmailOutboxService.PASSWORD_RESET, normalizedEmail, null);
+        return ForgotPasswordResponse.builder()
+                .message(SUCCESS_MESSAGE)
+                .build();
+    }
 
-            // 生成 cryptographically secure 随机 token（64 字符 Base64URL）
-            String token = generateSecureToken();
-            String tokenHash = sha256(token);
+    /**
+     * 生成重置 token 与邮件内容（由 EmailOutboxDispatcher 在发送前调用）
+     * 邮箱未注册时无需发送；开发环境（RESEND_API_KEY 为空）只记录链接
+     *
+     * @param email 用户邮箱（已标准化）
+     * @return 邮件内容，无需发送时返回 null
+     */
+    @Transactional
+    public OutgoingEmail composeResetEmail(String email) {
+        UserEntity user = userMapper.findByEmail(email);
+        if (user == null) {
+            return null;
+        }
 
-            LocalDateTime now = LocalDateTime.now();
-            LocalDateTime expiresAt = now.plusMinutes(tokenExpiryMinutes);
+        // 生成 cryptographically secure 随机 token（64 字符 Base64URL），仅存储 SHA-256 哈希并作废旧 token
+        String token = generateSecureToken();
+        tokenStore.issue(OneTimeTokenStore.Purpose.PASSWORD_RESET, user.getId(), sha256(token),
+                Duration.ofMinutes(tokenExpiryMinutes));
 
-            PasswordResetTokenEntity entity = new PasswordResetTokenEntity();
-            entity.setUserId(user.getId());
-            entity.setTokenHash(tokenHash);
-            entity.setExpiresAt(expiresAt);
-            entity.setCreatedAt(now);
-            tokenMapper.insert(entity);
+        String encodedEmail = URLEncoder.encode(email, StandardCharsets.UTF_8);
+        String resetUrl = verificationLinkBase + "/reset-password?token=" + token + "&email=" + encodedEmail;
 
-            String encodedEmail = URLEncoder.encode(normalizedEmail, StandardCharsets.UTF_8);
-            String resetUrl = verificationLinkBase + "/reset-password?token=" + token + "&email=" + encodedEmail;
+        if (resendApiKey == null || resendApiKey.isBlank()) {
+            log.info("[开发环境] 密码重置链接（RESEND_API_KEY 为空，未发送邮件）: {}", resetUrl);
+            TestTokenStore.putPasswordReset(email, token);
+            return null;
+        }
+        String expiryText = tokenExpiryMinutes <= 60
+                ? "此链接 " + tokenExpiryMinutes + " 分钟内有效"
+                : "此链接 " + (tokenExpiryMinutes / 60) + " 小时内有效";
+        return new OutgoingEmail("重置您的密码",
+                "<p>请点击以下链接重置您的密码：</p><p><a href=\"" + resetUrl + "\">" + resetUrl + "</a></p><p>" + expiryText + "。</p>");
+    }
 
-            if (resendApiKey == null || resendApiKey.isBlank()) {
-                log.info("[开发环境] 密码重置链接（RESEND_API_KEY 为空，未发送邮件）: {}", resetUrl);
-                TestTokenStore.putPasswordReset(normalizedEmail, token);
-            } else {
-                sendResetEmail(normalizedEmail, resetUrl);
-            }
+    /**
+     * 生成密码已重置确认邮件内容（不含新密码）；开发环境只记录日志
+     *
+     * @param email 用户邮箱
+     * @return 邮件内容，无需发送时返回 null
+     */
+    public OutgoingEmail composeResetConfirmationEmail(String email) {
+        if (resendApiKey == null || resendApiKey.isBlank()) {
+            log.info("[开发环境] 密码已重置（RESEND_API_KEY 为空，未发送确认邮件）: {}", maskEmail(email));
+            return null;
         }
-        // 用户不存在也返回成功（用户枚举防护）
-        return ForgotPasswordResponse.builder()
-                .message(SUCCESS_MESSAGE)
-                .build();
+        return new OutgoingEmail("您的密码已重置", "<p>您的密码已成功重置。</p><p>若非本人操作，请立即联系支持。</p>");
     }
 
     /**
@@ -119,46 +136,31 @@ public class PasswordResetService {
      */
     @Transactional
     public void resetPassword(String token, String newPassword) {
-        String tokenHash = sha256(token);
-
-        PasswordResetTokenEntity tokenEntity = tokenMapper.findByTokenHash(tokenHash);
-        if (tokenEntity == null) {
-            throw new BusinessException(ResultCode.PASSWORD_RESET_TOKEN_INVALID);
+        // 密码策略校验（先于消费 token，策略不符时 token 仍可再次使用）
+        PasswordPolicyService.PasswordValidationResult validationResult =
+                passwordPolicyService.validatePassword(newPassword);
+        if (!validationResult.isValid()) {
+            throw new BusinessException(ResultCode.PASSWORD_POLICY_VIOLATION, validationResult.getErrorMessage());
         }
 
-        if (LocalDateTime.now().isAfter(tokenEntity.getExpiresAt())) {
-            tokenMapper.deleteById(tokenEntity.getId());
+        Long userId = tokenStore.consume(OneTimeTokenStore.Purpose.PASSWORD_RESET, sha256(token));
+        if (userId == null) {
             throw new BusinessException(ResultCode.PASSWORD_RESET_TOKEN_INVALID);
         }
 
-        UserEntity user = userMapper.findById(tokenEntity.getUserId());
+        UserEntity user = userMapper.findById(userId);
         if (user == null) {
-            tokenMapper.deleteById(tokenEntity.getId());
             throw new BusinessException(ResultCode.USER_NOT_FOUND);
         }
 
-        // 密码策略校验
-        PasswordPolicyService.PasswordValidationResult validationResult =
-                passwordPolicyService.validatePassword(newPassword);
-        if (!validationResult.isValid()) {
-            throw new BusinessException(ResultCode.PASSWORD_POLICY_VIOLATION, validationResult.getErrorMessage());
-        }
-
         // 更新密码
         LocalDateTime now = LocalDateTime.now();
         userMapper.updatePassword(user.getId(), passwordEncoder.encode(newPassword), now);
 
-        // 删除已使用的 token
-        tokenMapper.deleteById(tokenEntity.getId());
-
         // 注意：Refresh Token 撤销由 auth-service 在重置密码流程中执行
 
-        // 发送确认邮件（不含新密码）
-        if (resendApiKey != null && !resendApiKey.isBlank()) {
-            sendPasswordResetConfirmationEmail(user.getEmail());
-        } else {
-            log.info("[开发环境] 密码已重置（RESEND_API_KEY 为空，未发送确认邮件）: {}", maskEmail(user.getEmail()));
-        }
+        // 登记确认邮件（不含新密码），随事务提交后异步发送
+        emailOutboxService.enqueue(EmailOutboxService.PASSWORD_RESET_CONFIRMATION, user.getEmail(), user.getId());
     }
 
     /**
@@ -170,20 +172,10 @@ public class PasswordResetService {
      */
     @Transactional
     public Long validateTokenAndConsume(String token) {
-        String tokenHash = sha256(token);
-
-        PasswordResetTokenEntity tokenEntity = tokenMapper.findByTokenHash(tokenHash);
-        if (tokenEntity == null) {
-            throw new BusinessException(ResultCode.PASSWORD_RESET_TOKEN_INVALID);
-        }
-
-        if (LocalDateTime.now().isAfter(tokenEntity.getExpiresAt())) {
-            tokenMapper.deleteById(tokenEntity.getId());
+        Long userId = tokenStore.consume(OneTimeTokenStore.Purpose.PASSWORD_RESET, sha256(token));
+        if (userId == null) {
             throw new BusinessException(ResultCode.PASSWORD_RESET_TOKEN_INVALID);
         }
-
-        Long userId = tokenEntity.getUserId();
-        tokenMapper.deleteById(tokenEntity.getId());
         return userId;
     }
 
@@ -210,46 +202,6 @@ public class PasswordResetService {
         }
     }
 
-    private void sendResetEmail(String to, String resetUrl) {
-        try {
-            com.resend.Resend resend = new com.resend.Resend(resendApiKey);
-            String expiryText = tokenExpiryMinutes <= 60
-                    ? "此链接 " + tokenExpiryMinutes + " 分钟内有效"
-                    : "此链接 " + (tokenExpiryMinutes / 60) + " 小时内有效";
-
-            com.resend.services.emails.model.CreateEmailOptions params =
-                    com.resend.services.emails.model.CreateEmailOptions.builder()
-                            .from(resendFrom)
-                            .to(to)
-                            .subject("重置您的密码")
-                            .html("<p>请点击以下链接重置您的密码：</p><p><a href=\"" + resetUrl + "\">" + resetUrl + "</a></p><p>" + expiryText + "。</p>")
-                            .build();
-
-            resend.emails().send(params);
-        } catch (Exception e) {
-            log.error("发送密码重置邮件失败: {}", e.getMessage());
-            // 不抛出异常，用户枚举防护：失败也返回 200
-        }
-    }
-
-    private void sendPasswordResetConfirmationEmail(String to) {
-        try {
-            com.resend.Resend resend = new com.resend.Resend(resendApiKey);
-
-            com.resend.services.emails.model.CreateEmailOptions params =
-                    com.resend.services.emails.model.CreateEmailOptions.builder()
-                            .from(resendFrom)
-                            .to(to)
-                            .subject("您的密码已重置")
-                            .html("<p>您的密码已成功重置。</p><p>若非本人操作，请立即联系支持。</p>")
-                            .build();
-
-            resend.emails().send(params);
-        } catch (Exception e) {
-            log.error("发送密码重置确认邮件失败: {}", e.getMessage());
-        }
-    }
-
     private String maskEmail(String email) {
         if (email == null || email.isEmpty()) return "***";
         int atIndex = email.indexOf('@');
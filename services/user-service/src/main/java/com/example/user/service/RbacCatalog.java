@@ -0,0 +1,237 @@
+package com.example.user.service;
+
+import com.example.user.entity.PermissionEntity;
+import com.example.user.entity.RoleEntity;
+import com.example.user.entity.RolePermissionEntity;
+import com.example.user.mapper.PermissionMapper;
+import com.example.user.mapper.RoleMapper;
+import com.example.user.mapper.RolePermissionMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * RBAC 目录：角色、权限及角色-权限关联的不可变内存快照（表很小且极少变更）
+ * 登录、拉取角色、用户/角色详情的角色与权限查找均为 Map 读取，不再逐行查库
+ * 角色/权限写操作提交后调用 {@link #invalidate()}：递增 Redis 版本号并广播，各副本收到更高版本即重建快照；
+ * 定时比对版本号兜底丢失的广播
+ */
+@Slf4j
+@Component
+public class RbacCatalog {
+
+    static final String VERSION_KEY = "rbac:catalog:version";
+    public static final String CHANNEL = "rbac:catalog";
+
+    private final RoleMapper roleMapper;
+    private final PermissionMapper permissionMapper;
+    private final RolePermissionMapper rolePermissionMapper;
+    private final ObjectProvider<RedisTemplate<String, String>> redisTemplate;
+
+    private volatile Snapshot snapshot;
+
+    public RbacCatalog(RoleMapper roleMapper,
+                       PermissionMapper permissionMapper,
+                       RolePermissionMapper rolePermissionMapper,
+                       ObjectProvider<RedisTemplate<String, String>> redisTemplate) {
+        this.roleMapper = roleMapper;
+        this.permissionMapper = permissionMapper;
+        this.rolePermissionMapper = rolePermissionMapper;
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 快照：roles 含已软删除的角色（角色分页可包含已删除角色），live 判断用 {@link #findRole}
+     */
+    public record Snapshot(long version,
+                           Map<Long, RoleEntity> roles,
+                           Map<Long, PermissionEntity> permissions,
+                           Map<Long, List<Long>> permissionIdsByRole) {
+    }
+
+    /**
+     * 当前快照（首次访问时加载）
+     */
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = load(readVersion());
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 未删除的角色，不存在或已删除返回 null
+     */
+    public RoleEntity findRole(Long roleId) {
+        RoleEntity role = snapshot().roles().get(roleId);
+        return role != null && role.getDeletedAt() == null ? role : null;
+    }
+
+    /**
+     * 按编码查找未删除的角色，不存在返回 null（角色表很小，直接遍历快照）
+     */
+    public RoleEntity findRoleByCode(String code) {
+        return snapshot().roles().values().stream()
+                .filter(role -> role.getDeletedAt() == null && role.getCode().equals(code))
+                .findFirst()
+                .orElse(null);
+    }
+
+    public PermissionEntity findPermission(Long permissionId) {
+        return snapshot().permissions().get(permissionId);
+    }
+
+    public List<PermissionEntity> getPermissions() {
+        return snapshot().permissions().values().stream()
+                .sorted(Comparator.comparing(PermissionEntity::getId))
+                .toList();
+    }
+
+    /**
+     * 角色的权限（按权限 ID 升序）
+     */
+    public List<PermissionEntity> getRolePermissions(Long roleId) {
+        Snapshot current = snapshot();
+        return current.permissionIdsByRole().getOrDefault(roleId, List.of()).stream()
+                .map(current.permissions()::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * 角色 ID 转角色编码：跳过已删除角色，按角色 ID 升序
+     */
+    public List<String> getRoleCodes(Collection<Long> roleIds) {
+        return roleIds.stream()
+                .sorted()
+                .map(this::findRole)
+                .filter(Objects::nonNull)
+                .map(RoleEntity::getCode)
+                .toList();
+    }
+
+    /**
+     * 角色/权限已变更：事务提交后递增版本号、重建本地快照并通知其他副本（无事务时立即执行）
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpAndReload();
+                }
+            });
+        } else {
+            bumpAndReload();
+        }
+    }
+
+    /**
+     * 收到版本广播：版本高于本地快照时重建
+     */
+    public void onVersion(long version) {
+        Snapshot current = snapshot;
+        if (current == null || version > current.version()) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null || version > current.version()) {
+                    load(version);
+                }
+            }
+        }
+    }
+
+    /**
+     * 兜底：定期比对 Redis 版本号，补偿丢失的广播
+     */
+    @Scheduled(fixedDelayString = "${user.rbac-catalog.version-check-interval-ms:30000}")
+    public void checkVersion() {
+        if (snapshot == null) {
+            return;
+        }
+        long version = readVersion();
+        if (version > 0) {
+            onVersion(version);
+        }
+    }
+
+    private synchronized void bumpAndReload() {
+        long version = snapshot != null ? snapshot.version() + 1 : 1;
+        RedisTemplate<String, String> redis = redisTemplate.getIfAvailable();
+        if (redis != null) {
+            try {
+                Long next = redis.opsForValue().increment(VERSION_KEY);
+                if (next != null) {
+                    version = next;
+                }
+            } catch (RuntimeException e) {
+                log.warn("RBAC 目录版本号递增失败，仅重建本地快照: error={}", e.getMessage());
+                redis = null;
+            }
+        }
+        load(version);
+        if (redis != null) {
+            try {
+                redis.convertAndSend(CHANNEL, String.valueOf(version));
+            } catch (RuntimeException e) {
+                log.warn("RBAC 目录版本广播失败，其他副本将在定时校验时刷新: version={}, error={}", version, e.getMessage());
+            }
+        }
+    }
+
+    private long readVersion() {
+        RedisTemplate<String, String> redis = redisTemplate.getIfAvailable();
+        if (redis == null) {
+            return 0;
+        }
+        try {
+            String value = redis.opsForValue().get(VERSION_KEY);
+            return value != null ? Long.parseLong(value) : 0;
+        } catch (RuntimeException e) {
+            log.warn("读取 RBAC 目录版本号失败: error={}", e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 版本号先于查库确定，保证快照内容不旧于该版本
+     */
+    private synchronized Snapshot load(long version) {
+        Map<Long, RoleEntity> roles = new HashMap<>();
+        for (RoleEntity role : roleMapper.findAll(true)) {
+            roles.put(role.getId(), role);
+        }
+        Map<Long, PermissionEntity> permissions = new HashMap<>();
+        for (PermissionEntity permission : permissionMapper.findAll()) {
+            permissions.put(permission.getId(), permission);
+        }
+        Map<Long, List<Long>> permissionIdsByRole = new HashMap<>();
+        for (RolePermissionEntity row : rolePermissionMapper.findAll()) {
+            permissionIdsByRole.computeIfAbsent(row.getRoleId(), k -> new ArrayList<>()).add(row.getPermissionId());
+        }
+        permissionIdsByRole.replaceAll((roleId, ids) -> List.copyOf(ids));
+
+        Snapshot loaded = new Snapshot(version, Map.copyOf(roles), Map.copyOf(permissions), Map.copyOf(permissionIdsByRole));
+        snapshot = loaded;
+        log.info("RBAC 目录快照已加载: version={}, roles={}, permissions={}", version, roles.size(), permissions.size());
+        return loaded;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.user.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 基于 Redis 的一次性 Token 存储（token.store.type=redis，默认）
+ * - token:{用途:tokenHash}:owner → userId，token:{用途:userId}:user → 当前 tokenHash，两者同一 TTL，过期由 Redis 原生淘汰
+ * - 每个键单独作为 hash tag，集群模式下均匀分布到各槽位；每个 Lua 脚本只访问一个键，不跨槽位
+ * - 用户键是"当前有效 token"的唯一依据：消费先原子地取走 token 键（一次性），再在用户槽位确认并删除用户键，
+ *   被新签发替换或已作废的 token 即使旧 token 键残留也无法通过确认
+ * - mysql-fallback=true 时：Redis 未命中回查 MySQL（兼容切换前签发的 token），Redis 不可用时签发与消费回落 MySQL
+ */
+@Primary
+@Component
+@ConditionalOnProperty(name = "token.store.type", havingValue = "redis", matchIfMissing = true)
+public class RedisOneTimeTokenStore implements OneTimeTokenStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisOneTimeTokenStore.class);
+
+    /**
+     * KEYS[1]=用户键；ARGV[1]=新 tokenHash ARGV[2]=TTL 毫秒；返回被替换的旧 tokenHash（无则 nil）
+     */
+    static final RedisScript<String> SWAP_SCRIPT = new DefaultRedisScript<>("""
+            local old = redis.call('GET', KEYS[1])
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            return old
+            """, String.class);
+
+    /**
+     * KEYS[1]=token 键（消费）或用户键（作废）；读取并删除，返回原值，不存在返回 nil
+     */
+    static final RedisScript<String> TAKE_SCRIPT = new DefaultRedisScript<>("""
+            local uid = redis.call('GET', KEYS[1])
+            if uid then redis.call('DEL', KEYS[1]) end
+            return uid
+            """, String.class);
+
+    /**
+     * KEYS[1]=用户键；ARGV[1]=tokenHash；仍为当前 token 时删除并返回 1，否则返回 0
+     */
+    static final RedisScript<Long> CONFIRM_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                redis.call('DEL', KEYS[1])
+                return 1
+            end
+            return 0
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final MySqlOneTimeTokenStore mysqlStore;
+    private final boolean mysqlFallback;
+
+    public RedisOneTimeTokenStore(@Qualifier("redisTemplate") RedisTemplate<String, String> redisTemplate,
+                                  MySqlOneTimeTokenStore mysqlStore,
+                                  @Value("${token.store.mysql-fallback:true}") boolean mysqlFallback) {
+        this.redisTemplate = redisTemplate;
+        this.mysqlStore = mysqlStore;
+        this.mysqlFallback = mysqlFallback;
+    }
+
+    @Override
+    public void issue(Purpose purpose, Long userId, String tokenHash, Duration ttl) {
+        String ttlMillis = String.valueOf(ttl.toMillis());
+        try {
+            // 先写 token 键再切换用户键：中途失败时新 token 未成为当前 token，旧 token 仍然有效
+            redisTemplate.opsForValue().set(tokenKey(purpose, tokenHash), userId.toString(), ttl);
+            String old = redisTemplate.execute(SWAP_SCRIPT, List.of(userKey(purpose, userId)), tokenHash, ttlMillis);
+            if (old != null && !old.equals(tokenHash)) {
+                // 旧 token 已无法通过确认，删除仅为及时释放内存
+                redisTemplate.delete(tokenKey(purpose, old));
+            }
+        } catch (DataAccessException e) {
+            if (!mysqlFallback) throw e;
+            log.warn("Redis 不可用，token 签发回落 MySQL: purpose={}, userId={}, error={}", purpose, userId, e.getMessage());
+            mysqlStore.issue(purpose, userId, tokenHash, ttl);
+            return;
+        }
+        if (mysqlFallback) {
+            // 作废切换前或 Redis 故障期间在 MySQL 签发的旧 token，保证同一时刻只有一个有效 token
+            mysqlStore.revoke(purpose, userId);
+        }
+    }
+
+    @Override
+    public Long consume(Purpose purpose, String tokenHash) {
+        try {
+            String userId = redisTemplate.execute(TAKE_SCRIPT, List.of(tokenKey(purpose, tokenHash)));
+            if (userId != null) {
+                Long confirmed = redisTemplate.execute(CONFIRM_SCRIPT, List.of(userKey(purpose, userId)), tokenHash);
+                return confirmed != null && confirmed == 1L ? Long.valueOf(userId) : null;
+            }
+        } catch (DataAccessException e) {
+            if (!mysqlFallback) throw e;
+            log.warn("Redis 不可用，token 消费回落 MySQL: purpose={}, error={}", purpose, e.getMessage());
+            return mysqlStore.consume(purpose, tokenHash);
+        }
+        return mysqlFallback ? mysqlStore.consume(purpose, tokenHash) : null;
+    }
+
+    @Override
+    public void revoke(Purpose purpose, Long userId) {
+        String old = redisTemplate.execute(TAKE_SCRIPT, List.of(userKey(purpose, userId)));
+        if (old != null) {
+            redisTemplate.delete(tokenKey(purpose, old));
+        }
+        if (mysqlFallback) {
+            mysqlStore.revoke(purpose, userId);
+        }
+    }
+
+    static String tokenKey(Purpose purpose, String tokenHash) {
+        return "token:{" + purpose.key() + ":" + tokenHash + "}:owner";
+    }
+
+    static String userKey(Purpose purpose, Long userId) {
+        return userKey(purpose, userId.toString());
+    }
+
+    private static String userKey(Purpose purpose, String userId) {
+        return "token:{" + purpose.key() + ":" + userId + "}:user";
+    }
+}
@@ -0,0 +1,371 @@
+package com.example.user.service;
+
+import com.example.api.common.ResultCode;
+import com.example.api.exception.BusinessException;
+import com.example.user.controller.dto.UserImportResult;
+import com.example.user.controller.dto.UserImportRow;
+import com.example.user.entity.RoleEntity;
+import com.example.user.entity.UserEntity;
+import com.example.user.entity.UserRoleEntity;
+import com.example.user.mapper.UserMapper;
+import com.example.user.mapper.UserRoleMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 用户批量导入/导出（CSV 或 NDJSON，流式读写，内存占用与批大小成正比）
+ * 导入按 batch-size 分块：块内校验与去重 → 一次查询已存在邮箱 → 独立线程池并行哈希密码 →
+ * 单事务多行插入用户与角色关联，审计日志与创建事件按批写入；单行失败不影响其他行，块写入失败则整块记为失败
+ * 导出按 id 游标分批读取并逐批写出，不含密码
+ * 指标：executor.*{name=user.import.hashing}
+ */
+@Slf4j
+@Service
+public class UserBulkService {
+
+    static final List<String> EXPORT_COLUMNS = List.of("id", "name", "email", "phone", "emailVerified", "createdAt", "deletedAt", "roles");
+
+    public enum Format {
+        CSV("text/csv"), NDJSON("application/x-ndjson");
+
+        private final String mediaType;
+
+        Format(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public String mediaType() {
+            return mediaType;
+        }
+
+        /**
+         * 解析格式名（csv/ndjson）或 Content-Type
+         */
+        public static Format from(String value) {
+            if (value != null) {
+                String v = value.trim().toLowerCase(Locale.ROOT);
+                for (Format format : values()) {
+                    if (v.equals(format.name().toLowerCase(Locale.ROOT)) || v.startsWith(format.mediaType)) {
+                        return format;
+                    }
+                }
+            }
+            throw new BusinessException(ResultCode.BAD_REQUEST.getCode(), "不支持的格式: " + value + "（支持 csv、ndjson）");
+        }
+    }
+
+    /**
+     * 解析后的一行：row 与 error 二选一
+     */
+    private record ParsedRow(long line, UserImportRow row, String error) {
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+        ParsedRow next() throws IOException;
+    }
+
+    private record Candidate(long line, UserImportRow row, List<Long> roleIds) {
+    }
+
+    record ExportRow(Long id, String name, String email, String phone, Boolean emailVerified,
+                     LocalDateTime createdAt, LocalDateTime deletedAt, List<String> roles) {
+    }
+
+    private final UserManagementService userManagementService;
+    private final UserMapper userMapper;
+    private final UserRoleMapper userRoleMapper;
+    private final RbacCatalog rbacCatalog;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor hashingExecutor;
+    private final int batchSize;
+    private final int maxErrors;
+
+    public UserBulkService(UserManagementService userManagementService,
+                           UserMapper userMapper,
+                           UserRoleMapper userRoleMapper,
+                           RbacCatalog rbacCatalog,
+                           PasswordEncoder passwordEncoder,
+                           Validator validator,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${user.import.hashing-pool-size:4}") int hashingPoolSize,
+                           @Value("${user.import.batch-size:500}") int batchSize,
+                           @Value("${user.import.max-errors:100}") int maxErrors) {
+        this.userManagementService = userManagementService;
+        this.userMapper = userMapper;
+        this.userRoleMapper = userRoleMapper;
+        this.rbacCatalog = rbacCatalog;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        // 与登录使用的 password.hashing 线程池隔离，导入不会挤占登录；队列容纳一整块，满时在调用线程执行
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.hashingExecutor = new ThreadPoolExecutor(hashingPoolSize, hashingPoolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, batchSize)), r -> {
+            Thread t = new Thread(r, "user-import-hashing-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        new ExecutorServiceMetrics(hashingExecutor, "user.import.hashing", List.of()).bindTo(meterRegistry);
+    }
+
+    // ========== 导入 ==========
+
+    /**
+     * 流式导入用户；CSV 首行为表头（至少含 name、email、password 列，roles 以 ; 分隔角色编码）
+     */
+    public UserImportResult importUsers(InputStream in, Format format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RowSource source = format == Format.CSV ? csvSource(reader) : ndjsonSource(reader);
+        UserImportResult result = new UserImportResult();
+        List<ParsedRow> chunk = new ArrayList<>(batchSize);
+        ParsedRow row;
+        while ((row = source.next()) != null) {
+            chunk.add(row);
+            if (chunk.size() == batchSize) {
+                importChunk(chunk, result);
+                chunk.clear();
+            }
+        }
+        importChunk(chunk, result);
+        log.info("用户批量导入完成: format={}, total={}, created={}, failed={}",
+                format, result.getTotal(), result.getCreated(), result.getFailed());
+        return result;
+    }
+
+    private RowSource csvSource(BufferedReader reader) throws IOException {
+        UserCsv.RecordReader csv = new UserCsv.RecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return () -> null;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim();
+            if (i == 0 && name.startsWith("\uFEFF")) name = name.substring(1);
+            columns.put(name.toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("name", "email", "password")) {
+            if (!columns.containsKey(required)) {
+                throw new BusinessException(ResultCode.BAD_REQUEST.getCode(), "CSV 表头缺少列: " + required);
+            }
+        }
+        boolean[] ended = {false};
+        return () -> {
+            if (ended[0]) return null;
+            List<String> fields;
+            try {
+                fields = csv.next();
+            } catch (IllegalArgumentException e) {
+                ended[0] = true;
+                return new ParsedRow(csv.line(), null, e.getMessage());
+            }
+            if (fields == null) return null;
+            UserImportRow row = new UserImportRow();
+            row.setName(column(fields, columns, "name"));
+            row.setEmail(column(fields, columns, "email"));
+            row.setPhone(column(fields, columns, "phone"));
+            row.setPassword(column(fields, columns, "password"));
+            String roles = column(fields, columns, "roles");
+            row.setRoles(roles != null ? Arrays.stream(roles.split(";")).map(String::trim).filter(s -> !s.isEmpty()).toList() : null);
+            return new ParsedRow(csv.line(), row, null);
+        };
+    }
+
+    private static String column(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) return null;
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : UserCsv.unescapeFormula(value);
+    }
+
+    private RowSource ndjsonSource(BufferedReader reader) {
+        long[] lineNr = {0};
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNr[0]++;
+            } while (line != null && line.isBlank());
+            if (line == null) return null;
+            try {
+                return new ParsedRow(lineNr[0], objectMapper.readValue(line, UserImportRow.class), null);
+            } catch (JsonProcessingException e) {
+                return new ParsedRow(lineNr[0], null, "JSON 格式错误: " + e.getOriginalMessage());
+            }
+        };
+    }
+
+    private void importChunk(List<ParsedRow> chunk, UserImportResult result) {
+        if (chunk.isEmpty()) return;
+        result.setTotal(result.getTotal() + chunk.size());
+
+        List<Candidate> candidates = new ArrayList<>(chunk.size());
+        Set<String> emails = new HashSet<>();
+        for (ParsedRow parsed : chunk) {
+            if (parsed.error() != null) {
+                fail(result, parsed.line(), null, parsed.error());
+                continue;
+            }
+            UserImportRow row = parsed.row();
+            Set<ConstraintViolation<UserImportRow>> violations = validator.validate(row);
+            if (!violations.isEmpty()) {
+                ConstraintViolation<UserImportRow> v = violations.iterator().next();
+                fail(result, parsed.line(), row.getEmail(), v.getPropertyPath() + ": " + v.getMessage());
+                continue;
+            }
+            List<Long> roleIds = new ArrayList<>();
+            String unknownRole = null;
+            for (String code : row.getRoles() != null ? row.getRoles() : List.<String>of()) {
+                RoleEntity role = rbacCatalog.findRoleByCode(code);
+                if (role == null) {
+                    unknownRole = code;
+                    break;
+                }
+                if (!roleIds.contains(role.getId())) roleIds.add(role.getId());
+            }
+            if (unknownRole != null) {
+                fail(result, parsed.line(), row.getEmail(), "角色不存在: " + unknownRole);
+                continue;
+            }
+            // MySQL 邮箱列不区分大小写，按小写去重
+            if (!emails.add(row.getEmail().toLowerCase(Locale.ROOT))) {
+                fail(result, parsed.line(), row.getEmail(), "文件中邮箱重复");
+                continue;
+            }
+            candidates.add(new Candidate(parsed.line(), row, roleIds));
+        }
+        if (candidates.isEmpty()) return;
+
+        Set<String> existing = new HashSet<>();
+        for (String email : userMapper.findExistingEmails(candidates.stream().map(c -> c.row().getEmail()).toList())) {
+            existing.add(email.toLowerCase(Locale.ROOT));
+        }
+        candidates.removeIf(c -> {
+            if (!existing.contains(c.row().getEmail().toLowerCase(Locale.ROOT))) return false;
+            fail(result, c.line(), c.row().getEmail(), "邮箱已存在");
+            return true;
+        });
+        if (candidates.isEmpty()) return;
+
+        List<CompletableFuture<String>> hashes = candidates.stream()
+                .map(c -> CompletableFuture.supplyAsync(() -> passwordEncoder.encode(c.row().getPassword()), hashingExecutor))
+                .toList();
+        LocalDateTime now = LocalDateTime.now();
+        List<UserManagementService.NewUser> users = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            UserImportRow row = candidates.get(i).row();
+            UserEntity entity = new UserEntity();
+            entity.setName(row.getName());
+            entity.setEmail(row.getEmail());
+            entity.setPhone(row.getPhone());
+            entity.setPassword(hashes.get(i).join());
+            entity.setEmailVerified(false);
+            entity.setCreatedAt(now);
+            entity.setUpdatedAt(now);
+            users.add(new UserManagementService.NewUser(entity, candidates.get(i).roleIds()));
+        }
+        try {
+            userManagementService.createUsersBatch(users);
+            result.setCreated(result.getCreated() + users.size());
+        } catch (DataAccessException e) {
+            // 并发导入同一邮箱等导致整块回滚：块内各行记为失败，可修正后重新导入
+            log.warn("用户批量导入块写入失败: rows={}, firstLine={}, error={}", users.size(), candidates.get(0).line(), e.getMessage());
+            for (Candidate c : candidates) {
+                fail(result, c.line(), c.row().getEmail(), "写入失败，请重新导入该行");
+            }
+        }
+    }
+
+    private void fail(UserImportResult result, long line, String email, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxErrors) {
+            result.getErrors().add(new UserImportResult.RowError(line, email, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    // ========== 导出 ==========
+
+    /**
+     * 流式导出用户（按 id 升序分批读取、逐批写出并 flush）
+     */
+    public void exportUsers(OutputStream out, Format format, boolean includeDeleted) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(UserCsv.line(EXPORT_COLUMNS));
+        }
+        long afterId = 0;
+        List<UserEntity> batch;
+        do {
+            batch = userMapper.findBatchAfterId(includeDeleted, afterId, batchSize);
+            if (batch.isEmpty()) break;
+            Map<Long, List<Long>> roleIdsByUser = new HashMap<>();
+            for (UserRoleEntity ur : userRoleMapper.findRolesByUserIds(batch.stream().map(UserEntity::getId).toList())) {
+                roleIdsByUser.computeIfAbsent(ur.getUserId(), k -> new ArrayList<>()).add(ur.getRoleId());
+            }
+            for (UserEntity user : batch) {
+                ExportRow row = new ExportRow(user.getId(), user.getName(), user.getEmail(), user.getPhone(), user.getEmailVerified(),
+                        user.getCreatedAt(), user.getDeletedAt(), rbacCatalog.getRoleCodes(roleIdsByUser.getOrDefault(user.getId(), List.of())));
+                writer.write(format == Format.CSV ? csvLine(row) : objectMapper.writeValueAsString(row) + "\n");
+            }
+            writer.flush();
+            afterId = batch.get(batch.size() - 1).getId();
+        } while (batch.size() == batchSize);
+        writer.flush();
+    }
+
+    private static String csvLine(ExportRow row) {
+        return UserCsv.line(Arrays.asList(
+                String.valueOf(row.id()), row.name(), row.email(), row.phone(), String.valueOf(Boolean.TRUE.equals(row.emailVerified())),
+                row.createdAt() != null ? row.createdAt().toString() : null,
+                row.deletedAt() != null ? row.deletedAt().toString() : null,
+                String.join(";", row.roles())));
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        hashingExecutor.shutdown();
+        hashingExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
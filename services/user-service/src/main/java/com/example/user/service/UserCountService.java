@@ -0,0 +1,91 @@
+package com.example.user.service;
+
+import com.example.api.common.ResultCode;
+import com.example.api.exception.BusinessException;
+import com.example.user.mapper.UserMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 用户列表计数：与分页查询并发执行（独立有界线程池，满载时在调用线程执行）
+ * 计数方式：exact 精确计数；estimate 最多数到 cap 行，超出时 total 为下限并标记为估算；none 不计数
+ * 指标：executor.*{name=user.count}
+ */
+@Service
+public class UserCountService {
+
+    public enum Mode {
+        EXACT, ESTIMATE, NONE;
+
+        public static Mode from(String value) {
+            if (value == null || value.isBlank()) return EXACT;
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BusinessException(ResultCode.BAD_REQUEST.getCode(), "不支持的计数方式: " + value);
+            }
+        }
+    }
+
+    /**
+     * @param total 用户数（NONE 时为 -1）
+     * @param estimated total 是否为估算下限
+     */
+    public record Count(long total, boolean estimated) {
+    }
+
+    private final UserMapper userMapper;
+    private final ThreadPoolExecutor executor;
+
+    @Value("${user.list.count.estimate-cap:10000}")
+    private int estimateCap;
+
+    public UserCountService(UserMapper userMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${user.list.count.pool-size:4}") int poolSize,
+                            @Value("${user.list.count.queue-capacity:32}") int queueCapacity) {
+        this.userMapper = userMapper;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+            Thread t = new Thread(r, "user-count-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        new ExecutorServiceMetrics(executor, "user.count", List.of()).bindTo(meterRegistry);
+    }
+
+    /**
+     * 异步计数（调用方随后执行分页查询，两条 SQL 并发）
+     */
+    public CompletableFuture<Count> countAsync(Mode mode, String email, String name, String roleCode, Boolean includeDeleted,
+                                               List<String> emailGrams, List<String> nameGrams) {
+        if (mode == Mode.NONE) {
+            return CompletableFuture.completedFuture(new Count(-1, false));
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            if (mode == Mode.EXACT) {
+                return new Count(userMapper.countPage(email, name, roleCode, includeDeleted, emailGrams, nameGrams), false);
+            }
+            long counted = userMapper.countPageCapped(email, name, roleCode, includeDeleted, emailGrams, nameGrams, estimateCap);
+            return new Count(counted, counted >= estimateCap);
+        }, executor);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.user.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 用户导入导出的 CSV 读写（RFC 4180：逗号分隔，双引号包裹含逗号/引号/换行的字段，引号以 "" 转义）
+ * 导出时对以 = + - @ 开头的文本加 ' 前缀，防止表格软件当作公式执行；导入时去掉该前缀
+ */
+final class UserCsv {
+
+    private static final String FORMULA_PREFIXES = "=+-@";
+
+    private UserCsv() {
+    }
+
+    /**
+     * 逐条读取记录，内存占用与单条记录大小成正比
+     */
+    static final class RecordReader {
+
+        private final Reader in;
+        private long lineNr = 1;
+        private long recordLine;
+        private int pushedBack = -2;
+
+        RecordReader(Reader in) {
+            this.in = in;
+        }
+
+        /**
+         * 下一条记录的字段，文件结束返回 null；引号未闭合时抛出 IllegalArgumentException
+         */
+        List<String> next() throws IOException {
+            int c = read();
+            while (c == '\n' || c == '\r') {
+                c = read();
+            }
+            if (c == -1) {
+                return null;
+            }
+            recordLine = lineNr;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IllegalArgumentException("第 " + recordLine + " 行起的引号未闭合");
+                    }
+                    if (c == '"') {
+                        int n = read();
+                        if (n != '"') {
+                            quoted = false;
+                            c = n;
+                            continue;
+                        }
+                    }
+                    field.append((char) c);
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == '\r' || c == -1) {
+                    if (c == '\r') {
+                        int n = read();
+                        if (n != '\n') pushedBack = n;
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        /**
+         * 最近一条记录的起始行号
+         */
+        long line() {
+            return recordLine;
+        }
+
+        private int read() throws IOException {
+            int c;
+            if (pushedBack != -2) {
+                c = pushedBack;
+                pushedBack = -2;
+            } else {
+                c = in.read();
+            }
+            if (c == '\n') lineNr++;
+            return c;
+        }
+    }
+
+    /**
+     * 一行 CSV（含换行符）
+     */
+    static String line(List<String> fields) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(escape(fields.get(i)));
+        }
+        return sb.append('\n').toString();
+    }
+
+    static String escape(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        if (FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    /**
+     * 去掉导出时添加的公式防护前缀
+     */
+    static String unescapeFormula(String value) {
+        if (value != null && value.length() > 1 && value.charAt(0) == '\'' && FORMULA_PREFIXES.indexOf(value.charAt(1)) >= 0) {
+            return value.substring(1);
+        }
+        return value;
+    }
+}
@@ -3,6 +3,8 @@ package com.example.user.service;
 import com.example.api.common.PagedResult;
 import com.example.api.exception.BusinessException;
 import com.example.api.common.ResultCode;
+import com.example.api.event.UserChangedEvent.ChangeType;
+import com.example.user.config.JwtAuthenticationDetails;
 import com.example.user.controller.dto.*;
 import com.example.user.entity.*;
 import com.example.user.event.UserEventPublisher;
@@ -19,9 +21,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 /**
@@ -33,16 +38,19 @@ import java.util.stream.Collectors;
 public class UserManagementService {
 
     private static final int AUDIT_VALUE_MAX_LENGTH = 1000;
+    private static final int USER_AGENT_MAX_LENGTH = 500;
 
     private final UserMapper userMapper;
     private final RoleMapper roleMapper;
-    private final PermissionMapper permissionMapper;
     private final UserRoleMapper userRoleMapper;
     private final RolePermissionMapper rolePermissionMapper;
-    private final AuditLogMapper auditLogMapper;
+    private final AuditLogWriter auditLogWriter;
     private final PasswordEncoder passwordEncoder;
     private final ObjectMapper objectMapper;
     private final Optional<UserEventPublisher> userEventPublisher;
+    private final RbacCatalog rbacCatalog;
+    private final UserCountService userCountService;
+    private final UserSearchIndexer userSearchIndexer;
 
     private static final int MAX_PAGE_SIZE = 100;
     private static final List<String> USER_SORT_WHITELIST = List.of("createdAt", "email", "name");
@@ -51,16 +59,82 @@ public class UserManagementService {
     // ========== 用户管理 ==========
 
     public PagedResult<UserDetailDto> getUsersPage(int page, int size, String email, String name, String roleCode, Boolean includeDeleted, String sort) {
+        return getUsersPage(page, size, email, name, roleCode, includeDeleted, sort, null, UserCountService.Mode.EXACT);
+    }
+
+    /**
+     * 分页查询用户
+     * cursor 非 null 时按 (排序字段, id) 游标分页（空串为第一页，忽略 page）；整页时返回 nextCursor
+     * 计数按 countMode 执行，并与分页查询并发
+     */
+    public PagedResult<UserDetailDto> getUsersPage(int page, int size, String email, String name, String roleCode, Boolean includeDeleted,
+                                                   String sort, String cursor, UserCountService.Mode countMode) {
         int safeSize = Math.min(Math.max(1, size), MAX_PAGE_SIZE);
         int safePage = Math.max(1, page);
-        long offset = (long) (safePage - 1) * safeSize;
-        String orderBy = toOrderBy(sort, USER_SORT_WHITELIST, "u");
-        if (orderBy == null) orderBy = "u.created_at DESC";
+        UserSort userSort = UserSort.parse(sort);
+
+        List<String> emailGrams = userSearchIndexer.queryGrams(email);
+        List<String> nameGrams = userSearchIndexer.queryGrams(name);
+
+        CompletableFuture<UserCountService.Count> count = userCountService.countAsync(countMode, email, name, roleCode, includeDeleted,
+                emailGrams, nameGrams);
+        List<UserEntity> list;
+        if (cursor != null) {
+            UserPageCursor after = cursor.isEmpty() ? null : UserPageCursor.decode(cursor);
+            if (after != null && (!after.sortField().equals(userSort.field()) || after.desc() != userSort.desc()))
+                throw new BusinessException(ResultCode.BAD_REQUEST.getCode(), "分页游标与排序不匹配");
+            list = userMapper.findPageAfter(email, name, roleCode, includeDeleted, emailGrams, nameGrams, userSort.column(), userSort.desc(),
+                    after != null ? after.sqlValue() : null, after != null ? after.id() : null, safeSize);
+        } else {
+            long offset = (long) (safePage - 1) * safeSize;
+            list = userMapper.findPage(email, name, roleCode, includeDeleted, emailGrams, nameGrams, offset, safeSize, userSort.orderBy());
+        }
 
-        List<UserEntity> list = userMapper.findPage(email, name, roleCode, includeDeleted, offset, safeSize, orderBy);
-        long total = userMapper.countPage(email, name, roleCode, includeDeleted);
-        List<UserDetailDto> items = list.stream().map(this::toUserDetailDto).collect(Collectors.toList());
-        return PagedResult.of(items, total, safePage, safeSize);
+        UserCountService.Count total;
+        try {
+            total = count.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+        PagedResult<UserDetailDto> result = PagedResult.of(toUserDetailDtos(list), total.total(), safePage, safeSize);
+        if (total.estimated()) result.setTotalEstimated(true);
+        if (list.size() == safeSize) {
+            UserEntity last = list.get(list.size() - 1);
+            String value = userSort.valueOf(last);
+            if (value != null) result.setNextCursor(new UserPageCursor(userSort.field(), userSort.desc(), last.getId(), value).encode());
+        }
+        return result;
+    }
+
+    /**
+     * 用户列表排序（白名单字段，默认 createdAt 降序），id 作为同值时的稳定次序
+     */
+    private record UserSort(String field, boolean desc) {
+
+        static UserSort parse(String sort) {
+            if (sort == null || sort.isBlank()) return new UserSort("createdAt", true);
+            String[] parts = sort.split(",");
+            String field = parts[0].trim();
+            if (!USER_SORT_WHITELIST.contains(field)) return new UserSort("createdAt", true);
+            return new UserSort(field, !(parts.length > 1 && "asc".equalsIgnoreCase(parts[1].trim())));
+        }
+
+        String column() {
+            return "createdAt".equals(field) ? "u.created_at" : "u." + field;
+        }
+
+        String orderBy() {
+            String dir = desc ? "DESC" : "ASC";
+            return column() + " " + dir + ", u.id " + dir;
+        }
+
+        String valueOf(UserEntity e) {
+            return switch (field) {
+                case "email" -> e.getEmail();
+                case "name" -> e.getName();
+                default -> e.getCreatedAt() != null ? e.getCreatedAt().toString() : null;
+            };
+        }
     }
 
     public UserDetailDto getUserById(Long id) {
@@ -84,9 +158,10 @@ public class UserManagementService {
         entity.setUpdatedAt(now);
         entity.setDeletedAt(null);
         userMapper.insert(entity);
+        userSearchIndexer.index(entity);
         if (request.getRoleIds() != null && !request.getRoleIds().isEmpty()) {
             for (Long roleId : request.getRoleIds()) {
-                if (roleMapper.findById(roleId) != null)
+                if (rbacCatalog.findRole(roleId) != null)
                     userRoleMapper.insert(entity.getId(), roleId, now);
             }
         }
@@ -99,6 +174,38 @@ public class UserManagementService {
         return toUserDetailDto(created);
     }
 
+    /**
+     * 批量导入的待创建用户：密码已哈希，roleIds 已按 RBAC 目录校验
+     */
+    public record NewUser(UserEntity entity, List<Long> roleIds) {}
+
+    /**
+     * 批量创建用户（批量导入按块调用，调用方负责校验、去重与密码哈希）
+     * 用户与角色关联多行插入，搜索索引、审计日志与创建事件按批写入；任一失败整块回滚
+     */
+    @Transactional
+    public void createUsersBatch(List<NewUser> users) {
+        if (users.isEmpty()) return;
+        List<UserEntity> entities = users.stream().map(NewUser::entity).toList();
+        userMapper.insertBatch(entities);
+        userSearchIndexer.index(entities);
+        List<UserRoleEntity> userRoles = new ArrayList<>();
+        for (NewUser user : users) {
+            for (Long roleId : user.roleIds()) {
+                UserRoleEntity row = new UserRoleEntity();
+                row.setUserId(user.entity().getId());
+                row.setRoleId(roleId);
+                userRoles.add(row);
+            }
+        }
+        if (!userRoles.isEmpty()) userRoleMapper.insertBatch(userRoles, entities.get(0).getCreatedAt());
+        Actor actor = getCurrentActor();
+        auditLogWriter.writeAll(entities.stream()
+                .map(e -> buildAudit(actor, "user.created", "user", String.valueOf(e.getId()), null, userSnapshot(e)))
+                .toList());
+        userEventPublisher.ifPresent(pub -> pub.publishUsersCreated(entities, "admin-create"));
+    }
+
     @Transactional
     public UserDetailDto updateUser(Long id, UpdateUserRequest request) {
         UserEntity entity = userMapper.findByIdExcludingDeleted(id);
@@ -111,16 +218,19 @@ public class UserManagementService {
         entity.setPhone(request.getPhone());
         entity.setUpdatedAt(LocalDateTime.now());
         userMapper.update(entity);
+        userSearchIndexer.index(entity);
         if (request.getRoleIds() != null) {
             userRoleMapper.deleteByUserId(id);
             var now = LocalDateTime.now();
             for (Long roleId : request.getRoleIds()) {
-                if (roleMapper.findById(roleId) != null)
+                if (rbacCatalog.findRole(roleId) != null)
                     userRoleMapper.insert(id, roleId, now);
             }
         }
         UserEntity updated = userMapper.findById(id);
         writeAudit("user.updated", "user", String.valueOf(id), oldSnapshot, userSnapshot(updated));
+        ChangeType changeType = request.getRoleIds() != null ? ChangeType.ROLES_CHANGED : ChangeType.UPDATED;
+        userEventPublisher.ifPresent(pub -> pub.publishUserChanged(id, changeType));
         return toUserDetailDto(updated);
     }
 
@@ -132,6 +242,7 @@ public class UserManagementService {
         var now = LocalDateTime.now();
         userMapper.softDeleteById(id, now);
         writeAudit("user.deleted", "user", String.valueOf(id), oldSnapshot, null);
+        userEventPublisher.ifPresent(pub -> pub.publishUserChanged(id, ChangeType.DELETED));
     }
 
     @Transactional
@@ -142,6 +253,7 @@ public class UserManagementService {
         userMapper.restoreById(id);
         UserEntity restored = userMapper.findById(id);
         writeAudit("user.restored", "user", String.valueOf(id), null, userSnapshot(restored));
+        userEventPublisher.ifPresent(pub -> pub.publishUserChanged(id, ChangeType.UPDATED));
     }
 
     // ========== 角色管理 ==========
@@ -149,14 +261,14 @@ public class UserManagementService {
     public PagedResult<RoleDetailDto> getRolesPage(int page, int size, Boolean includeDeleted, String sort) {
         int safeSize = Math.min(Math.max(1, size), MAX_PAGE_SIZE);
         int safePage = Math.max(1, page);
+        long offset = (long) (safePage - 1) * safeSize;
         boolean inc = includeDeleted != null && includeDeleted;
-        List<RoleEntity> list = roleMapper.findAll(inc);
+        String orderBy = toOrderBy(sort, ROLE_SORT_WHITELIST, null);
+
+        // 角色分页下推到 SQL；权限从 RBAC 目录读取，整页不再逐个查询权限
+        List<RoleEntity> list = roleMapper.findPage(inc, offset, safeSize, orderBy);
         long total = roleMapper.count(inc);
-        int from = (safePage - 1) * safeSize;
-        int to = Math.min(from + safeSize, list.size());
-        List<RoleDetailDto> items = (from < list.size())
-                ? list.subList(from, to).stream().map(this::toRoleDetailDto).collect(Collectors.toList())
-                : new ArrayList<>();
+        List<RoleDetailDto> items = list.stream().map(this::toRoleDetailDto).collect(Collectors.toList());
         return PagedResult.of(items, total, safePage, safeSize);
     }
 
@@ -179,15 +291,21 @@ public class UserManagementService {
         entity.setUpdatedAt(now);
         entity.setDeletedAt(null);
         roleMapper.insert(entity);
+        List<PermissionEntity> permissions = new ArrayList<>();
         if (request.getPermissionIds() != null && !request.getPermissionIds().isEmpty()) {
             for (Long permId : request.getPermissionIds()) {
-                if (permissionMapper.findById(permId) != null)
+                PermissionEntity permission = rbacCatalog.findPermission(permId);
+                if (permission != null) {
                     rolePermissionMapper.insert(entity.getId(), permId, now);
+                    permissions.add(permission);
+                }
             }
         }
         RoleEntity created = roleMapper.findById(entity.getId());
         writeAudit("role.created", "role", String.valueOf(created.getId()), null, roleSnapshot(created));
-        return toRoleDetailDto(created);
+        rbacCatalog.invalidate();
+        // 快照在提交后才重建，响应直接使用本次写入的权限
+        return toRoleDetailDto(created, permissions);
     }
 
     @Transactional
@@ -204,6 +322,8 @@ public class UserManagementService {
         roleMapper.update(entity);
         RoleEntity updated = roleMapper.findById(id);
         writeAudit("role.updated", "role", String.valueOf(id), null, roleSnapshot(updated));
+        rbacCatalog.invalidate();
+        notifyAllUsersRolesChanged();
         return toRoleDetailDto(updated);
     }
 
@@ -214,6 +334,8 @@ public class UserManagementService {
         String oldSnapshot = roleSnapshot(entity);
         roleMapper.softDelete(id, LocalDateTime.now());
         writeAudit("role.deleted", "role", String.valueOf(id), oldSnapshot, null);
+        rbacCatalog.invalidate();
+        notifyAllUsersRolesChanged();
     }
 
     @Transactional
@@ -224,6 +346,8 @@ public class UserManagementService {
         roleMapper.restore(id);
         RoleEntity restored = roleMapper.findById(id);
         writeAudit("role.restored", "role", String.valueOf(id), null, roleSnapshot(restored));
+        rbacCatalog.invalidate();
+        notifyAllUsersRolesChanged();
     }
 
     @Transactional
@@ -234,7 +358,7 @@ public class UserManagementService {
         if (permissionIds != null && !permissionIds.isEmpty()) {
             var now = LocalDateTime.now();
             for (Long permId : permissionIds) {
-                if (permissionMapper.findById(permId) != null)
+                if (rbacCatalog.findPermission(permId) != null)
                     rolePermissionMapper.insert(roleId, permId, now);
             }
         }
@@ -249,17 +373,43 @@ public class UserManagementService {
             newValue = "permissionIds=" + (permissionIds != null ? permissionIds : List.of());
         }
         writeAudit("role.permissions.updated", "role", String.valueOf(roleId), null, newValue);
+        rbacCatalog.invalidate();
     }
 
     // ========== 权限管理 ==========
 
     public List<PermissionDto> getPermissions() {
-        return permissionMapper.findAll().stream().map(this::toPermissionDto).collect(Collectors.toList());
+        return rbacCatalog.getPermissions().stream().map(this::toPermissionDto).collect(Collectors.toList());
     }
 
     // ========== 内部辅助 ==========
 
     private UserDetailDto toUserDetailDto(UserEntity e) {
+        return toUserDetailDtos(List.of(e)).get(0);
+    }
+
+    /**
+     * 批量转换：一次 IN 查询加载整页用户的角色关联，角色详情从 RBAC 目录读取，在内存中按用户分组
+     */
+    private List<UserDetailDto> toUserDetailDtos(List<UserEntity> users) {
+        if (users.isEmpty()) return new ArrayList<>();
+        Map<Long, List<RoleSummaryDto>> rolesByUser = new HashMap<>();
+        List<Long> userIds = users.stream().map(UserEntity::getId).collect(Collectors.toList());
+        for (UserRoleEntity row : userRoleMapper.findRolesByUserIds(userIds)) {
+            RoleEntity role = rbacCatalog.findRole(row.getRoleId());
+            if (role == null) continue;
+            RoleSummaryDto s = new RoleSummaryDto();
+            s.setId(role.getId());
+            s.setCode(role.getCode());
+            s.setName(role.getName());
+            rolesByUser.computeIfAbsent(row.getUserId(), k -> new ArrayList<>()).add(s);
+        }
+        return users.stream()
+                .map(u -> toUserDetailDto(u, rolesByUser.getOrDefault(u.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+
+    private UserDetailDto toUserDetailDto(UserEntity e, List<RoleSummaryDto> roles) {
         UserDetailDto dto = new UserDetailDto();
         dto.setId(e.getId());
         dto.setName(e.getName());
@@ -269,23 +419,15 @@ public class UserManagementService {
         dto.setCreatedAt(e.getCreatedAt());
         dto.setUpdatedAt(e.getUpdatedAt());
         dto.setDeletedAt(e.getDeletedAt());
-        List<Long> roleIds = userRoleMapper.findRoleIdsByUserId(e.getId());
-        List<RoleSummaryDto> roles = roleIds.stream()
-                .map(roleMapper::findById)
-                .filter(r -> r != null)
-                .map(r -> {
-                    RoleSummaryDto s = new RoleSummaryDto();
-                    s.setId(r.getId());
-                    s.setCode(r.getCode());
-                    s.setName(r.getName());
-                    return s;
-                })
-                .collect(Collectors.toList());
         dto.setRoles(roles);
         return dto;
     }
 
     private RoleDetailDto toRoleDetailDto(RoleEntity e) {
+        return toRoleDetailDto(e, rbacCatalog.getRolePermissions(e.getId()));
+    }
+
+    private RoleDetailDto toRoleDetailDto(RoleEntity e, List<PermissionEntity> permissions) {
         RoleDetailDto dto = new RoleDetailDto();
         dto.setId(e.getId());
         dto.setName(e.getName());
@@ -294,13 +436,7 @@ public class UserManagementService {
         dto.setCreatedAt(e.getCreatedAt());
         dto.setUpdatedAt(e.getUpdatedAt());
         dto.setDeletedAt(e.getDeletedAt());
-        List<Long> permIds = rolePermissionMapper.findPermissionIdsByRoleId(e.getId());
-        List<PermissionDto> perms = permIds.stream()
-                .map(permissionMapper::findById)
-                .filter(p -> p != null)
-                .map(this::toPermissionDto)
-                .collect(Collectors.toList());
-        dto.setPermissions(perms);
+        dto.setPermissions(permissions.stream().map(this::toPermissionDto).collect(Collectors.toList()));
         return dto;
     }
 
@@ -319,15 +455,18 @@ public class UserManagementService {
         if (parts.length < 1) return null;
         String field = parts[0].trim();
         String dir = parts.length > 1 && "asc".equalsIgnoreCase(parts[1].trim()) ? "ASC" : "DESC";
-        String dbField = "createdAt".equals(field) ? "created_at" : "email".equals(field) ? "email" : "name".equals(field) ? "name" : null;
+        String dbField = "createdAt".equals(field) ? "created_at" : "email".equals(field) ? "email" : "name".equals(field) ? "name" : "code".equals(field) ? "code" : null;
         if (dbField == null || !whitelist.contains(field)) return null;
         return (prefix != null ? prefix + "." : "") + dbField + " " + dir;
     }
 
     // ========== 审计日志（设计文档 2.7：谁在何时对何资源做了何操作，敏感字段不写入） ==========
 
-    private record Actor(long userId, String email) {}
+    private record Actor(long userId, String email, String ipAddress, String userAgent) {}
 
+    /**
+     * 操作者取自 JWT（subject 为用户 ID，邮箱/IP/User-Agent 见 JwtAuthenticationDetails），不再回查用户表
+     */
     private Actor getCurrentActor() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth == null || auth.getPrincipal() == null) return null;
@@ -339,16 +478,29 @@ public class UserManagementService {
         }
         try {
             long userId = Long.parseLong(principalName);
-            UserEntity user = userMapper.findById(userId);
-            if (user != null) return new Actor(userId, user.getEmail());
+            if (auth.getDetails() instanceof JwtAuthenticationDetails details) {
+                return new Actor(userId, details.email(), details.ipAddress(), details.userAgent());
+            }
+            return new Actor(userId, null, null, null);
         } catch (NumberFormatException ignored) {
             // 非数字 principal（如匿名）忽略
         }
         return null;
     }
 
+    /**
+     * 角色编码随用户上下文缓存，角色定义变更时通知全部用户失效（userId 为 null）
+     */
+    private void notifyAllUsersRolesChanged() {
+        userEventPublisher.ifPresent(pub -> pub.publishUserChanged(null, ChangeType.ROLES_CHANGED));
+    }
+
     private void writeAudit(String action, String resourceType, String resourceId, String oldValue, String newValue) {
-        Actor actor = getCurrentActor();
+        auditLogWriter.write(buildAudit(getCurrentActor(), action, resourceType, resourceId, oldValue, newValue));
+    }
+
+    private static AuditLogEntity buildAudit(Actor actor, String action, String resourceType, String resourceId,
+                                             String oldValue, String newValue) {
         String jsonOld = truncate(oldValue, AUDIT_VALUE_MAX_LENGTH);
         String jsonNew = truncate(newValue, AUDIT_VALUE_MAX_LENGTH);
         AuditLogEntity log = new AuditLogEntity();
@@ -359,10 +511,10 @@ public class UserManagementService {
         log.setResourceId(resourceId);
         log.setOldValue(jsonOld);
         log.setNewValue(jsonNew);
-        log.setIpAddress(null);
-        log.setUserAgent(null);
+        log.setIpAddress(actor != null ? actor.ipAddress() : null);
+        log.setUserAgent(actor != null ? truncate(actor.userAgent(), USER_AGENT_MAX_LENGTH) : null);
         log.setCreatedAt(LocalDateTime.now());
-        auditLogMapper.insert(log);
+        return log;
     }
 
     private static String truncate(String s, int maxLen) {
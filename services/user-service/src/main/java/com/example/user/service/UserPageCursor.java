@@ -0,0 +1,38 @@
+package com.example.user.service;
+
+import com.example.api.common.ResultCode;
+import com.example.api.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 用户列表游标：最后一条记录的排序字段值 + id（Base64URL 编码，对客户端不透明）
+ * 游标绑定排序字段与方向，换排序后旧游标失效
+ */
+record UserPageCursor(String sortField, boolean desc, long id, String value) {
+
+    String encode() {
+        String raw = sortField + "," + (desc ? "desc" : "asc") + "," + id + "," + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static UserPageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(",", 4);
+            if (parts.length != 4) throw new IllegalArgumentException(raw);
+            return new UserPageCursor(parts[0], "desc".equals(parts[1]), Long.parseLong(parts[2]), parts[3]);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(ResultCode.BAD_REQUEST.getCode(), "无效的分页游标");
+        }
+    }
+
+    /**
+     * 游标值转为 SQL 参数（created_at 还原为时间类型）
+     */
+    Object sqlValue() {
+        return "createdAt".equals(sortField) ? LocalDateTime.parse(value) : value;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.user.service;
+
+import com.example.user.entity.UserEntity;
+import com.example.user.entity.UserSearchGramEntity;
+import com.example.user.mapper.UserSearchMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * 用户搜索索引：将 email / name 拆成二元组（按码点，兼容分解 + 去除变音符号 + 小写）写入 user_search_ngrams
+ * 管理端中缀搜索先按二元组在索引中求交集，再用 LIKE 校验连续性，避免全表扫描
+ * 折叠规则向 utf8mb4_unicode_ci 看齐（"jose" 能匹配 "José"），否则二元组会先于 LIKE 把这类结果过滤掉
+ * 二元组兼顾中日韩姓名（常见两字）；不足两个字符的搜索词无法走索引，退化为 LIKE 扫描
+ * 启动时回填存量用户，回填完成前搜索仍走 LIKE，结果不缺失；回填每批一个事务（删除 + INSERT IGNORE），
+ * 多副本同时回填（如迁移清空索引表后）互不报错，失败时按间隔重试直到完成
+ */
+@Slf4j
+@Service
+public class UserSearchIndexer {
+
+    static final int GRAM_SIZE = 2;
+    static final String FIELD_EMAIL = "email";
+    static final String FIELD_NAME = "name";
+
+    private static final Pattern NONSPACING_MARKS = Pattern.compile("\\p{Mn}+");
+    /** 无法通过 Unicode 分解去掉变音、但 utf8mb4_unicode_ci 视为等价的字母 */
+    private static final Map<Character, String> LETTER_FOLDS = Map.of(
+            'ß', "ss", 'æ', "ae", 'œ', "oe", 'ø', "o", 'đ', "d", 'ł', "l", 'ı', "i");
+
+    private final UserSearchMapper userSearchMapper;
+    private final TransactionTemplate transactionTemplate;
+    /** 启动回填与定时重试不并发执行 */
+    private final AtomicBoolean backfilling = new AtomicBoolean();
+
+    @Value("${user.search.backfill-batch-size:500}")
+    private int backfillBatchSize;
+
+    private volatile boolean ready;
+
+    public UserSearchIndexer(UserSearchMapper userSearchMapper, PlatformTransactionManager transactionManager) {
+        this.userSearchMapper = userSearchMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 写入或重建用户的搜索索引（与用户写操作同事务调用）
+     */
+    public void index(UserEntity user) {
+        index(List.of(user));
+    }
+
+    /**
+     * 搜索词的二元组；索引未就绪或搜索词过短时返回空列表（调用方仅用 LIKE）
+     */
+    public List<String> queryGrams(String term) {
+        // 含 LIKE 通配符时 n-gram 无法等价表达，仅用 LIKE
+        if (!ready || term == null || term.indexOf('%') >= 0 || term.indexOf('_') >= 0) {
+            return List.of();
+        }
+        return grams(term);
+    }
+
+    /**
+     * 回填尚未建立索引的存量用户，完成后搜索切换到索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!backfilling.compareAndSet(false, true)) {
+            return;
+        }
+        long afterId = 0;
+        int indexed = 0;
+        try {
+            List<UserEntity> batch;
+            do {
+                batch = userSearchMapper.findUnindexedUsers(afterId, backfillBatchSize);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                List<UserEntity> users = batch;
+                transactionTemplate.executeWithoutResult(status -> index(users));
+                indexed += batch.size();
+                afterId = batch.get(batch.size() - 1).getId();
+            } while (batch.size() == backfillBatchSize);
+            ready = true;
+            if (indexed > 0) {
+                log.info("用户搜索索引回填完成: users={}", indexed);
+            }
+        } catch (RuntimeException e) {
+            log.error("用户搜索索引回填失败，稍后重试，期间搜索使用 LIKE 扫描: indexed={}, error={}", indexed, e.getMessage(), e);
+        } finally {
+            backfilling.set(false);
+        }
+    }
+
+    /**
+     * 回填失败（如多副本并发回填时死锁）后定时重试，已建立索引的用户不会重复处理
+     */
+    @Scheduled(fixedDelayString = "${user.search.backfill-retry-interval-ms:60000}",
+            initialDelayString = "${user.search.backfill-retry-interval-ms:60000}")
+    public void retryBackfill() {
+        if (!ready) {
+            backfill();
+        }
+    }
+
+    /**
+     * 批量写入或重建搜索索引（批量导入、回填按批调用）
+     */
+    public void index(Collection<UserEntity> users) {
+        List<Long> userIds = new ArrayList<>(users.size());
+        List<UserSearchGramEntity> rows = new ArrayList<>();
+        for (UserEntity user : users) {
+            userIds.add(user.getId());
+            for (String gram : grams(user.getEmail())) {
+                rows.add(new UserSearchGramEntity(user.getId(), FIELD_EMAIL, gram));
+            }
+            for (String gram : grams(user.getName())) {
+                rows.add(new UserSearchGramEntity(user.getId(), FIELD_NAME, gram));
+            }
+        }
+        userSearchMapper.deleteByUserIds(userIds);
+        if (!rows.isEmpty()) {
+            userSearchMapper.insertBatch(rows);
+        }
+    }
+
+    /**
+     * 规范化后按码点切分的去重二元组（索引与查询共用，保证两侧折叠一致）
+     */
+    static List<String> grams(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        int[] codePoints = fold(text).codePoints().toArray();
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= codePoints.length; i++) {
+            grams.add(new String(codePoints, i, GRAM_SIZE));
+        }
+        return List.copyOf(grams);
+    }
+
+    /**
+     * NFKD 分解 → 去除非间距变音符号 → NFC 重组（恢复韩文音节等）→ 小写 → 特殊字母折叠
+     */
+    static String fold(String text) {
+        String decomposed = Normalizer.normalize(text.trim(), Normalizer.Form.NFKD);
+        String stripped = NONSPACING_MARKS.matcher(decomposed).replaceAll("");
+        String lower = Normalizer.normalize(stripped, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+        StringBuilder folded = new StringBuilder(lower.length());
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            String replacement = LETTER_FOLDS.get(c);
+            if (replacement != null) {
+                folded.append(replacement);
+            } else {
+                folded.append(c);
+            }
+        }
+        return folded.toString();
+    }
+}
@@ -0,0 +1,12 @@
+-- V10__create_user_search_ngrams.sql
+-- 管理端用户中缀搜索索引：email / name 规范化后的二元组（由 UserSearchIndexer 维护，启动时回填存量用户）
+-- gram 使用 utf8mb4_bin，与应用侧 NFKC + 小写规范化保持一致，避免不区分大小写的排序规则合并不同二元组
+
+CREATE TABLE IF NOT EXISTS user_search_ngrams (
+    gram VARCHAR(8) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL,
+    field VARCHAR(10) NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (gram, field, user_id),
+    INDEX idx_user_search_ngrams_user_id (user_id),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
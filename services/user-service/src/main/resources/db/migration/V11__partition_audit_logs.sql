@@ -0,0 +1,23 @@
+-- V11__partition_audit_logs.sql
+-- 审计日志按月 RANGE 分区：查询按 created_at 范围裁剪分区，保留期外的整月分区直接 DROP，不再逐行删除
+-- 分区键必须包含在主键中，主键改为 (id, created_at)；索引按 (过滤列, created_at, id) 服务游标分页
+-- 后续月份分区由 AuditLogPartitionJob 从 pmax 拆分滚动创建
+
+ALTER TABLE audit_logs
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at),
+    DROP INDEX idx_audit_logs_actor_id,
+    DROP INDEX idx_audit_logs_resource,
+    DROP INDEX idx_audit_logs_created_at,
+    ADD INDEX idx_audit_logs_actor_created (actor_id, created_at, id),
+    ADD INDEX idx_audit_logs_resource_created (resource_type, resource_id, created_at, id),
+    ADD INDEX idx_audit_logs_created (created_at, id);
+
+ALTER TABLE audit_logs
+    PARTITION BY RANGE COLUMNS (created_at) (
+        PARTITION p_history VALUES LESS THAN ('2026-10-01'),
+        PARTITION p202610 VALUES LESS THAN ('2026-11-01'),
+        PARTITION p202611 VALUES LESS THAN ('2026-12-01'),
+        PARTITION p202612 VALUES LESS THAN ('2027-01-01'),
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
@@ -0,0 +1,16 @@
+-- V12__create_email_outbox.sql
+-- 邮件 Outbox：请求线程只在事务内登记待发邮件，由 EmailOutboxDispatcher 异步发送后删除
+-- 只记录邮件类型与收件人，链接与 token 在发送时生成，表中不落明文 token
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    email_type VARCHAR(40) NOT NULL COMMENT 'EMAIL_VERIFICATION / PASSWORD_RESET / PASSWORD_RESET_CONFIRMATION',
+    recipient VARCHAR(255) NOT NULL,
+    user_id BIGINT NULL,
+    status VARCHAR(16) NOT NULL DEFAULT 'PENDING' COMMENT 'PENDING 待发送 / FAILED 重试耗尽或永久失败',
+    attempts INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(500) NULL,
+    next_attempt_at DATETIME(3) NOT NULL COMMENT '下次可发送时间；领取时推后一个租约，进程崩溃后自动重新可领',
+    created_at DATETIME(3) NOT NULL,
+    INDEX idx_email_outbox_due (status, next_attempt_at, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,6 @@
+-- V13__add_users_registration_id.sql
+-- 注册 Saga ID：创建用户时记录，重试幂等；Saga 未拿到 userId 即失败/崩溃时按此补偿删除，
+-- 避免按邮箱删除误删同邮箱的其他注册
+
+ALTER TABLE users ADD COLUMN registration_id VARCHAR(36) NULL;
+CREATE UNIQUE INDEX uk_users_registration_id ON users (registration_id);
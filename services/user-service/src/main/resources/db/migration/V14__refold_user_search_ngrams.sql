@@ -0,0 +1,5 @@
+-- V14__refold_user_search_ngrams.sql
+-- 二元组改为去除变音符号后再切分（与 utf8mb4_unicode_ci 的 LIKE 校验一致，"jose" 可匹配 "José"）
+-- 清空旧索引，由 UserSearchIndexer 启动回填重建；回填完成前搜索走 LIKE，结果不缺失
+
+DELETE FROM user_search_ngrams;
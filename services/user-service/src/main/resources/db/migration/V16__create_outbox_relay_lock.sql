@@ -0,0 +1,9 @@
+-- V16__create_outbox_relay_lock.sql
+-- Outbox 领取锁：各实例的中继在领取事务开头锁定唯一一行，领取串行执行，
+-- 保证判断同 message_key 是否有更早事件在租约中时能看到其他实例已提交的租约
+
+CREATE TABLE IF NOT EXISTS outbox_relay_lock (
+    id INT PRIMARY KEY
+) ENGINE=InnoDB;
+
+INSERT IGNORE INTO outbox_relay_lock (id) VALUES (1);
@@ -0,0 +1,13 @@
+-- V8__create_outbox_events_table.sql
+-- 事务性 Outbox：领域事件与业务数据同事务写入，由 OutboxRelay 批量投递到 Kafka 后删除
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    aggregate_type VARCHAR(50) NOT NULL,
+    aggregate_id VARCHAR(64),
+    event_type VARCHAR(100) NOT NULL,
+    topic VARCHAR(200) NOT NULL,
+    message_key VARCHAR(200),
+    payload MEDIUMTEXT NOT NULL,
+    created_at DATETIME(3) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,5 @@
+-- V9__add_users_keyset_indexes.sql
+-- 管理端用户列表游标分页：按 (排序字段, id) 定位，避免深分页 OFFSET 扫描与 filesort
+
+CREATE INDEX idx_users_created_at_id ON users (created_at, id);
+CREATE INDEX idx_users_name_id ON users (name, id);
@@ -22,6 +22,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * - 使用 BCrypt 算法（成本因子 12）
  * - 相同密码加密结果不同（盐值随机）
  * - 不同密码不能匹配
+ * - 启动校准不会低于基线成本 12
  */
 @SpringBootTest(classes = SecurityConfig.class)
 @TestPropertySource(properties = {
@@ -32,7 +33,9 @@ import static org.junit.jupiter.api.Assertions.*;
     "dubbo.application.name=test",
     "dubbo.registry.address=N/A",
     // 禁用 Redis 自动配置（此测试不需要 Redis）
-    "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration"
+    "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration",
+    // 固定成本因子（默认配置为启动时校准）
+    "password.hashing.cost=12"
 })
 class SecurityConfigTest {
 
@@ -149,4 +152,14 @@ class SecurityConfigTest {
         assertTrue(passwordEncoder.matches(longPassword, encoded), 
                 "长密码编码后应能匹配");
     }
+
+    @Test
+    void shouldNotCalibrateBelowBaselineCost() {
+        SecurityConfig config = new SecurityConfig(jwtAuthFilter, internalApiSecretFilter);
+
+        // 目标耗时 0ms、下限配置为 4：校准仍不得低于基线 12
+        String encoded = config.passwordEncoder(0, 0, 4, 14).encode("testPassword123");
+
+        assertTrue(encoded.startsWith("$2a$12$"), "校准结果不应低于基线成本 12: " + encoded);
+    }
 }
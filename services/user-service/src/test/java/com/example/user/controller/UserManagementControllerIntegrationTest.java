@@ -1,5 +1,6 @@
 package com.example.user.controller;
 
+import com.example.user.config.JwtAuthenticationDetails;
 import com.example.user.entity.AuditLogEntity;
 import com.example.user.mapper.AuditLogMapper;
 import com.example.user.mapper.UserMapper;
@@ -10,17 +11,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
 import org.springframework.transaction.annotation.Transactional;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -64,7 +69,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
     "spring.sql.init.data-locations=classpath:data.sql",
     "resend.api-key=",
     "rate-limit.verify-email.max-attempts-per-ip=20",
-    "rate-limit.forgot-password.max-attempts-per-ip=20"
+    "rate-limit.forgot-password.max-attempts-per-ip=20",
+    "audit.writer.sync-actions=user.*,role.*"
 })
 class UserManagementControllerIntegrationTest {
 
@@ -136,7 +142,7 @@ class UserManagementControllerIntegrationTest {
      */
     @Test
     void postUser_shouldWriteAuditLog() throws Exception {
-        // 先插入操作人（actor），请求时用 with(user(actorId)) 使 Service 能解析出当前操作人
+        // 先插入操作人（actor），请求时用 with(actor(actorId, email)) 模拟 JWT 认证，使 Service 能解析出当前操作人
         java.time.LocalDateTime now = java.time.LocalDateTime.now();
         com.example.user.entity.UserEntity actor = new com.example.user.entity.UserEntity();
         actor.setName("Admin");
@@ -154,7 +160,7 @@ class UserManagementControllerIntegrationTest {
         req.setEmail("created@audit-test.com");
         req.setPassword("Password123!");
         String resBody = mockMvc.perform(post("/api/users")
-                        .with(user(String.valueOf(actorId)).roles("ADMIN"))
+                        .with(actor(actorId, "admin@audit-test.com"))
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(req)))
                 .andExpect(status().isCreated())
@@ -163,7 +169,7 @@ class UserManagementControllerIntegrationTest {
                 .getContentAsString();
         long createdId = objectMapper.readTree(resBody).get("data").get("id").asLong();
 
-        java.util.List<AuditLogEntity> logs = auditLogMapper.findPage(null, "user", 0, 10);
+        java.util.List<AuditLogEntity> logs = auditLogMapper.findPageAfter(null, "user", null, now.minusDays(1), now.plusDays(1), null, null, 10);
         org.hamcrest.MatcherAssert.assertThat("应至少有一条审计记录", logs.size(), org.hamcrest.Matchers.greaterThanOrEqualTo(1));
         AuditLogEntity createdLog = logs.stream()
                 .filter(l -> "user.created".equals(l.getAction()) && String.valueOf(createdId).equals(l.getResourceId()))
@@ -281,7 +287,7 @@ class UserManagementControllerIntegrationTest {
         // data.sql 中角色 2 (USER) 无 role_permissions；绑定权限 [1, 3]
         String body = objectMapper.writeValueAsString(java.util.Map.of("permissionIds", java.util.List.of(1L, 3L)));
         mockMvc.perform(put("/api/roles/2/permissions")
-                        .with(user(String.valueOf(actorId)).roles("ADMIN"))
+                        .with(actor(actorId, "admin@perm-test.com"))
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(body))
                 .andExpect(status().isOk())
@@ -294,7 +300,7 @@ class UserManagementControllerIntegrationTest {
                 .andExpect(jsonPath("$.data.permissions.length()").value(2));
 
         // 验证审计日志有 role.permissions.updated
-        java.util.List<AuditLogEntity> logs = auditLogMapper.findPage(null, "role", 0, 10);
+        java.util.List<AuditLogEntity> logs = auditLogMapper.findPageAfter(null, "role", null, now.minusDays(1), now.plusDays(1), null, null, 10);
         AuditLogEntity permLog = logs.stream()
                 .filter(l -> "role.permissions.updated".equals(l.getAction()) && "2".equals(l.getResourceId()))
                 .findFirst()
@@ -327,4 +333,14 @@ class UserManagementControllerIntegrationTest {
         mockMvc.perform(get("/api/users").param("page", "1").param("size", "20"))
                 .andExpect(status().isUnauthorized());
     }
+
+    /**
+     * 模拟 JwtAuthFilter 的认证结果：principal 为用户 ID，details 携带 JWT 中的 email
+     */
+    private static RequestPostProcessor actor(long actorId, String email) {
+        UsernamePasswordAuthenticationToken auth = UsernamePasswordAuthenticationToken.authenticated(
+                String.valueOf(actorId), null, java.util.List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        auth.setDetails(new JwtAuthenticationDetails(email, "127.0.0.1", "integration-test"));
+        return authentication(auth);
+    }
 }
@@ -0,0 +1,92 @@
+package com.example.user.job;
+
+import com.example.user.entity.AuditLogPartitionEntity;
+import com.example.user.mapper.AuditLogMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * AuditLogPartitionJob 单元测试
+ * 覆盖：滚动创建未来月度分区、按保留期删除整月分区、未分区时跳过、并发创建冲突时停止
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditLogPartitionJobTest {
+
+    @Mock
+    private AuditLogMapper auditLogMapper;
+
+    @Test
+    void maintain_createsMonthsAheadAfterHighestPartition() {
+        when(auditLogMapper.findPartitions()).thenReturn(List.of(
+                partition("p_history", "'2026-10-01 00:00:00'"),
+                partition("p202610", "'2026-11-01 00:00:00'"),
+                partition("p202611", "'2026-12-01 00:00:00'"),
+                partition("pmax", "MAXVALUE")));
+
+        new AuditLogPartitionJob(auditLogMapper, 3, 12).maintain(LocalDate.of(2026, 11, 15));
+
+        InOrder inOrder = inOrder(auditLogMapper);
+        inOrder.verify(auditLogMapper).addPartition("p202612", "2027-01-01");
+        inOrder.verify(auditLogMapper).addPartition("p202701", "2027-02-01");
+        inOrder.verify(auditLogMapper).addPartition("p202702", "2027-03-01");
+        verify(auditLogMapper, times(3)).addPartition(anyString(), anyString());
+        verify(auditLogMapper, never()).dropPartition(anyString());
+    }
+
+    @Test
+    void maintain_dropsPartitionsOlderThanRetention() {
+        when(auditLogMapper.findPartitions()).thenReturn(List.of(
+                partition("p_history", "'2026-10-01'"),
+                partition("p202610", "'2026-11-01'"),
+                partition("p202611", "'2026-12-01'"),
+                partition("p202612", "'2027-01-01'"),
+                partition("pmax", "MAXVALUE")));
+
+        new AuditLogPartitionJob(auditLogMapper, 0, 1).maintain(LocalDate.of(2026, 12, 3));
+
+        // 保留 1 个月：截止 2026-11-01，上界不晚于截止日的分区删除
+        verify(auditLogMapper).dropPartition("p_history");
+        verify(auditLogMapper).dropPartition("p202610");
+        verify(auditLogMapper, never()).dropPartition("p202611");
+        verify(auditLogMapper, never()).dropPartition("pmax");
+        verify(auditLogMapper, never()).addPartition(anyString(), anyString());
+    }
+
+    @Test
+    void maintain_skipsUnpartitionedTable() {
+        when(auditLogMapper.findPartitions()).thenReturn(List.of());
+
+        new AuditLogPartitionJob(auditLogMapper, 3, 12).maintain(LocalDate.of(2026, 11, 15));
+
+        verify(auditLogMapper, never()).addPartition(anyString(), anyString());
+        verify(auditLogMapper, never()).dropPartition(anyString());
+    }
+
+    @Test
+    void maintain_stopsCreatingWhenAnotherReplicaWon() {
+        when(auditLogMapper.findPartitions()).thenReturn(List.of(
+                partition("p202611", "'2026-12-01 00:00:00'"),
+                partition("pmax", "MAXVALUE")));
+        when(auditLogMapper.addPartition("p202612", "2027-01-01")).thenThrow(new RuntimeException("Duplicate partition name p202612"));
+
+        new AuditLogPartitionJob(auditLogMapper, 3, 0).maintain(LocalDate.of(2026, 11, 15));
+
+        verify(auditLogMapper, times(1)).addPartition(anyString(), anyString());
+    }
+
+    private static AuditLogPartitionEntity partition(String name, String description) {
+        AuditLogPartitionEntity partition = new AuditLogPartitionEntity();
+        partition.setName(name);
+        partition.setDescription(description);
+        return partition;
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.user.job;
+
+import com.example.user.entity.EmailOutboxEntity;
+import com.example.user.mapper.EmailOutboxMapper;
+import com.example.user.service.EmailOutboxService;
+import com.example.user.service.EmailSender;
+import com.example.user.service.EmailVerificationService;
+import com.example.user.service.OutgoingEmail;
+import com.example.user.service.PasswordResetService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.annotation.MapperScan;
+import org.mybatis.spring.boot.autoconfigure.MybatisAutoConfiguration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 邮件 Outbox 发送器测试（H2 + 真实 MyBatis Mapper，邮件发送与内容生成为 Mock）
+ * 覆盖：发送后删除、无需发送时删除、失败重试与最终失败、永久失败、429 暂停且不计重试次数
+ */
+@SpringBootTest(classes = {EmailOutboxService.class, EmailOutboxDispatcherTest.TestConfig.class})
+@ImportAutoConfiguration({
+        DataSourceAutoConfiguration.class,
+        DataSourceTransactionManagerAutoConfiguration.class,
+        JdbcTemplateAutoConfiguration.class,
+        SqlInitializationAutoConfiguration.class,
+        MybatisAutoConfiguration.class
+})
+@TestPropertySource(properties = {
+        "spring.cloud.nacos.discovery.enabled=false",
+        "spring.cloud.nacos.config.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:emailoutbox;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.sql.init.mode=always"
+})
+class EmailOutboxDispatcherTest {
+
+    @Configuration
+    @MapperScan("com.example.user.mapper")
+    static class TestConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private EmailOutboxMapper emailOutboxMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final EmailSender emailSender = mock(EmailSender.class);
+    private final EmailVerificationService emailVerificationService = mock(EmailVerificationService.class);
+    private final PasswordResetService passwordResetService = mock(PasswordResetService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EmailOutboxDispatcher dispatcher;
+
+    /**
+     * retryBaseMillis=0：失败后立即可再次领取，便于逐次驱动重试
+     */
+    private EmailOutboxDispatcher dispatcher(long rateLimitPauseMillis) {
+        dispatcher = new EmailOutboxDispatcher(emailOutboxMapper, emailSender, emailVerificationService, passwordResetService,
+                transactionManager, meterRegistry, 10, 2, 0, 3, 0, 60000, 300000, rateLimitPauseMillis);
+        return dispatcher;
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+        jdbcTemplate.update("DELETE FROM email_outbox");
+    }
+
+    @Test
+    void dispatchBatch_sendsComposedEmailsAndDeletesRows() {
+        when(passwordResetService.composeResetEmail("reset@outbox.com")).thenReturn(new OutgoingEmail("重置您的密码", "<p>reset</p>"));
+        when(emailVerificationService.composeVerificationEmail(7L, "verify@outbox.com")).thenReturn(null);
+        emailOutboxService.enqueue(EmailOutboxService.PASSWORD_RESET, "reset@outbox.com", null);
+        emailOutboxService.enqueue(EmailOutboxService.EMAIL_VERIFICATION, "verify@outbox.com", 7L);
+
+        assertEquals(2, dispatcher(1000).dispatchBatch());
+
+        verify(emailSender).send("reset@outbox.com", "重置您的密码", "<p>reset</p>");
+        verifyNoMoreInteractions(emailSender);
+        assertEquals(0, countRows());
+        assertEquals(1, meterRegistry.counter("email.outbox.sent").count());
+        assertEquals(1, meterRegistry.counter("email.outbox.skipped").count());
+        assertEquals(0, dispatcher.dispatchBatch());
+    }
+
+    @Test
+    void dispatchBatch_retriesTransientFailuresThenMarksFailed() {
+        when(passwordResetService.composeResetConfirmationEmail("retry@outbox.com")).thenReturn(new OutgoingEmail("s", "h"));
+        doThrow(new EmailSender.EmailSendException(503, "Failed to send email: 503 unavailable"))
+                .when(emailSender).send(eq("retry@outbox.com"), any(), any());
+        emailOutboxService.enqueue(EmailOutboxService.PASSWORD_RESET_CONFIRMATION, "retry@outbox.com", 1L);
+        Long id = jdbcTemplate.queryForObject("SELECT id FROM email_outbox", Long.class);
+
+        dispatcher(1000).dispatchBatch();
+        EmailOutboxEntity retrying = emailOutboxMapper.findById(id);
+        assertEquals(EmailOutboxEntity.STATUS_PENDING, retrying.getStatus());
+        assertEquals(1, retrying.getAttempts());
+        assertTrue(retrying.getLastError().contains("503"));
+
+        dispatcher.dispatchBatch();
+        dispatcher.dispatchBatch();
+        EmailOutboxEntity failed = emailOutboxMapper.findById(id);
+        assertEquals(EmailOutboxEntity.STATUS_FAILED, failed.getStatus());
+        assertEquals(3, failed.getAttempts());
+        assertEquals(0, dispatcher.dispatchBatch());
+        verify(emailSender, times(3)).send(eq("retry@outbox.com"), any(), any());
+    }
+
+    @Test
+    void dispatchBatch_marksPermanentFailuresWithoutRetry() {
+        when(passwordResetService.composeResetEmail("bad@outbox.com")).thenReturn(new OutgoingEmail("s", "h"));
+        doThrow(new EmailSender.EmailSendException(422, "Failed to send email: 422 invalid `to` field"))
+                .when(emailSender).send(eq("bad@outbox.com"), any(), any());
+        emailOutboxService.enqueue(EmailOutboxService.PASSWORD_RESET, "bad@outbox.com", null);
+        emailOutboxService.enqueue("UNKNOWN", "unknown@outbox.com", null);
+
+        dispatcher(1000).dispatchBatch();
+
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM email_outbox WHERE status = 'FAILED' AND attempts = 1", Integer.class));
+        verify(emailSender, times(1)).send(any(), any(), any());
+    }
+
+    @Test
+    void dispatchBatch_pausesOnRateLimitWithoutCountingAttempt() {
+        when(passwordResetService.composeResetEmail("limited@outbox.com")).thenReturn(new OutgoingEmail("s", "h"));
+        doThrow(new EmailSender.EmailSendException(429, "Failed to send email: 429 rate_limit_exceeded"))
+                .when(emailSender).send(eq("limited@outbox.com"), any(), any());
+        emailOutboxService.enqueue(EmailOutboxService.PASSWORD_RESET, "limited@outbox.com", null);
+
+        assertEquals(1, dispatcher(60000).dispatchBatch());
+
+        EmailOutboxEntity row = jdbcTemplate.query("SELECT id FROM email_outbox", rs -> {
+            rs.next();
+            return emailOutboxMapper.findById(rs.getLong(1));
+        });
+        assertEquals(EmailOutboxEntity.STATUS_PENDING, row.getStatus());
+        assertEquals(0, row.getAttempts());
+        assertTrue(row.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(30)));
+        assertEquals(1, meterRegistry.counter("email.outbox.rate_limited").count());
+        // 暂停期间不再领取
+        emailOutboxService.enqueue(EmailOutboxService.PASSWORD_RESET, "other@outbox.com", null);
+        assertEquals(0, dispatcher.dispatchBatch());
+    }
+
+    @Test
+    void backoffMillis_growsExponentiallyUpToCap() {
+        EmailOutboxDispatcher backoff = new EmailOutboxDispatcher(emailOutboxMapper, emailSender, emailVerificationService,
+                passwordResetService, transactionManager, meterRegistry, 10, 1, 2, 8, 5000, 60000, 300000, 1000);
+        dispatcher = backoff;
+        assertEquals(5000, backoff.backoffMillis(1));
+        assertEquals(20000, backoff.backoffMillis(3));
+        assertEquals(60000, backoff.backoffMillis(5));
+        assertEquals(60000, backoff.backoffMillis(40));
+    }
+
+    private int countRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM email_outbox", Integer.class);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.user.service;
+
+import com.example.api.common.PagedResult;
+import com.example.api.exception.BusinessException;
+import com.example.user.controller.dto.AuditLogDto;
+import com.example.user.entity.AuditLogEntity;
+import com.example.user.mapper.AuditLogMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.mybatis.spring.annotation.MapperScan;
+import org.mybatis.spring.boot.autoconfigure.MybatisAutoConfiguration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 审计日志游标分页测试（H2 + 真实 MyBatis Mapper）
+ * 覆盖：(created_at, id) 降序翻页不重不漏、同一时间戳的多条记录、筛选条件与时间窗口
+ */
+@SpringBootTest(classes = {AuditLogService.class, AuditLogServiceTest.TestConfig.class})
+@ImportAutoConfiguration({
+        DataSourceAutoConfiguration.class,
+        SqlInitializationAutoConfiguration.class,
+        MybatisAutoConfiguration.class
+})
+@TestPropertySource(properties = {
+        "spring.cloud.nacos.discovery.enabled=false",
+        "spring.cloud.nacos.config.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:auditlog;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.sql.init.mode=always"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AuditLogServiceTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.now().withNano(0).minusDays(1);
+
+    @Configuration
+    @MapperScan("com.example.user.mapper")
+    static class TestConfig {
+    }
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @Autowired
+    private AuditLogMapper auditLogMapper;
+
+    @BeforeAll
+    void seed() {
+        List<AuditLogEntity> logs = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            // 每两条共享同一时间戳，验证 id 作为同值次序
+            logs.add(entry(i % 2 == 0 ? 1L : 2L, "user", String.valueOf(i), BASE.plusMinutes(i / 2)));
+        }
+        logs.add(entry(1L, "role", "1", BASE.minusDays(60)));
+        auditLogMapper.insertBatch(logs);
+    }
+
+    @Test
+    void getAuditLogs_pagesByCursorWithoutGapsOrDuplicates() {
+        List<AuditLogDto> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            PagedResult<AuditLogDto> page = auditLogService.getAuditLogs(null, "user", null, null, null, cursor, 10);
+            assertEquals(-1, page.getTotal());
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(25, all.size());
+        assertEquals(25, all.stream().map(AuditLogDto::getId).distinct().count());
+        for (int i = 1; i < all.size(); i++) {
+            AuditLogDto prev = all.get(i - 1);
+            AuditLogDto cur = all.get(i);
+            assertTrue(prev.getCreatedAt().isAfter(cur.getCreatedAt())
+                    || (prev.getCreatedAt().equals(cur.getCreatedAt()) && prev.getId() > cur.getId()));
+        }
+    }
+
+    @Test
+    void getAuditLogs_filtersByActorAndWindow() {
+        PagedResult<AuditLogDto> byActor = auditLogService.getAuditLogs(2L, null, null, null, null, null, 100);
+        assertEquals(12, byActor.getItems().size());
+        assertNull(byActor.getNextCursor());
+
+        // 默认 30 天窗口不包含 60 天前的记录，显式窗口可查到
+        assertTrue(auditLogService.getAuditLogs(1L, "role", null, null, null, null, 10).getItems().isEmpty());
+        assertEquals(1, auditLogService.getAuditLogs(1L, "role", null, BASE.minusDays(90), null, null, 10).getItems().size());
+    }
+
+    @Test
+    void getAuditLogs_rejectsInvalidWindowAndCursor() {
+        assertThrows(BusinessException.class,
+                () -> auditLogService.getAuditLogs(null, null, null, BASE, BASE.minusDays(1), null, 10));
+        assertThrows(BusinessException.class,
+                () -> auditLogService.getAuditLogs(null, null, null, null, null, "not-a-cursor", 10));
+    }
+
+    private static AuditLogEntity entry(Long actorId, String resourceType, String resourceId, LocalDateTime createdAt) {
+        AuditLogEntity entry = new AuditLogEntity();
+        entry.setActorId(actorId);
+        entry.setAction(resourceType + ".updated");
+        entry.setResourceType(resourceType);
+        entry.setResourceId(resourceId);
+        entry.setCreatedAt(createdAt);
+        return entry;
+    }
+}
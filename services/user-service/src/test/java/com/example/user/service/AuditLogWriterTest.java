@@ -0,0 +1,150 @@
+package com.example.user.service;
+
+import com.example.user.entity.AuditLogEntity;
+import com.example.user.mapper.AuditLogMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * AuditLogWriter 单元测试
+ * 覆盖：敏感操作同步写入、事务提交后才入队、按批多行写入、队列满退化为同步写入、关闭时刷出剩余日志
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditLogWriterTest {
+
+    @Mock
+    private AuditLogMapper auditLogMapper;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AuditLogWriter writer;
+
+    private AuditLogWriter writer(int capacity, long flushIntervalMillis) {
+        writer = new AuditLogWriter(auditLogMapper, meterRegistry, capacity, 50, flushIntervalMillis,
+                Set.of("user.deleted", "role.*"));
+        return writer;
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        writer.shutdown();
+    }
+
+    @Test
+    void write_sensitiveActionInsertsSynchronously() {
+        writer(10, 10);
+
+        writer.write(entry("user.deleted"));
+        writer.write(entry("role.permissions.updated"));
+
+        verify(auditLogMapper, times(2)).insert(any());
+        assertTrue(writer.isSync("role.created"));
+        assertFalse(writer.isSync("user.created"));
+    }
+
+    @Test
+    void write_batchesAsyncEntriesIntoMultiRowInserts() throws InterruptedException {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch written = new CountDownLatch(120);
+        doAnswer(inv -> {
+            List<AuditLogEntity> logs = inv.getArgument(0);
+            batchSizes.add(logs.size());
+            logs.forEach(l -> written.countDown());
+            return logs.size();
+        }).when(auditLogMapper).insertBatch(anyList());
+        writer(1000, 50);
+
+        for (int i = 0; i < 120; i++) {
+            writer.write(entry("user.updated"));
+        }
+
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 50));
+        assertTrue(batchSizes.size() < 120);
+        verify(auditLogMapper, never()).insert(any());
+    }
+
+    @Test
+    void write_insideTransactionEnqueuesOnlyAfterCommit() throws InterruptedException {
+        writer(10, 10_000);
+        TransactionSynchronizationManager.initSynchronization();
+
+        writer.write(entry("user.updated"));
+        writer.shutdown();
+        verify(auditLogMapper, never()).insertBatch(anyList());
+        verify(auditLogMapper, never()).insert(any());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        // 已关闭：直接写入
+        verify(auditLogMapper).insert(any());
+    }
+
+    @Test
+    void write_fallsBackToDirectInsertWhenQueueIsFull() {
+        // 后台线程卡在批量写入中，队列无法腾出空间
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 1;
+        }).when(auditLogMapper).insertBatch(anyList());
+        writer(1, 10);
+
+        try {
+            writer.write(entry("user.updated"));
+            writer.write(entry("user.updated"));
+            writer.write(entry("user.updated"));
+
+            verify(auditLogMapper, atLeastOnce()).insert(any());
+            assertTrue(meterRegistry.get("audit.log.queue.full").counter().count() >= 1);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void shutdown_flushesQueuedEntries() throws InterruptedException {
+        // 批次列表写入后会被复用清空，按调用时的大小计数
+        AtomicInteger written = new AtomicInteger();
+        doAnswer(inv -> {
+            List<AuditLogEntity> logs = inv.getArgument(0);
+            written.addAndGet(logs.size());
+            return logs.size();
+        }).when(auditLogMapper).insertBatch(anyList());
+        writer(100, 10_000);
+        for (int i = 0; i < 3; i++) {
+            writer.write(entry("user.updated"));
+        }
+
+        writer.shutdown();
+
+        assertEquals(3, written.get());
+    }
+
+    private static AuditLogEntity entry(String action) {
+        AuditLogEntity entry = new AuditLogEntity();
+        entry.setAction(action);
+        entry.setResourceType("user");
+        entry.setResourceId("1");
+        return entry;
+    }
+}
@@ -274,4 +274,18 @@ class JwtServiceTest {
         assertNotNull(claims, "解析后的 Claims 不应为 null");
         assertEquals(testUserId, claims.getSubject(), "Subject (userId) 应匹配");
     }
+
+    @Test
+    void shouldRejectCachedTokenIssuedBeforeUserRevocation() {
+        assertNotNull(jwtService, "JwtService Bean 应存在");
+
+        // 使用独立的用户 ID，撤销记录不影响共享上下文中的其他测试
+        String token = jwtService.generateAccessToken("revoked-user", testUsername, testRoles);
+        assertEquals("revoked-user", jwtService.parseTokenCached(token).getSubject());
+
+        jwtService.revokeUser("revoked-user", System.currentTimeMillis() + 1000);
+
+        assertThrows(JwtException.class, () -> jwtService.parseTokenCached(token),
+                "撤销前签发的 Token（即使已缓存）应被拒绝");
+    }
 }
@@ -0,0 +1,87 @@
+package com.example.user.service;
+
+import com.example.user.entity.UserEntity;
+import com.example.user.mapper.UserMapper;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.annotation.MapperScan;
+import org.mybatis.spring.boot.autoconfigure.MybatisAutoConfiguration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MySqlOneTimeTokenStore 测试（H2 + 真实 MyBatis Mapper）
+ * 覆盖：一次性消费、重新签发作废旧 token、过期 token 无效且被删除、按用途隔离
+ */
+@SpringBootTest(classes = {MySqlOneTimeTokenStore.class, MySqlOneTimeTokenStoreTest.TestConfig.class})
+@ImportAutoConfiguration({
+        DataSourceAutoConfiguration.class,
+        DataSourceTransactionManagerAutoConfiguration.class,
+        SqlInitializationAutoConfiguration.class,
+        MybatisAutoConfiguration.class
+})
+@TestPropertySource(properties = {
+        "spring.cloud.nacos.discovery.enabled=false",
+        "spring.cloud.nacos.config.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:tokenstore;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.sql.init.mode=always"
+})
+class MySqlOneTimeTokenStoreTest {
+
+    @Configuration
+    @MapperScan("com.example.user.mapper")
+    static class TestConfig {
+    }
+
+    @Autowired
+    private MySqlOneTimeTokenStore store;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Test
+    void consume_succeedsOnceAndReissueRevokesPreviousToken() {
+        Long userId = createUser("once@token-store.com");
+        store.issue(OneTimeTokenStore.Purpose.PASSWORD_RESET, userId, "hash-1", Duration.ofMinutes(30));
+        store.issue(OneTimeTokenStore.Purpose.PASSWORD_RESET, userId, "hash-2", Duration.ofMinutes(30));
+
+        assertNull(store.consume(OneTimeTokenStore.Purpose.PASSWORD_RESET, "hash-1"));
+        assertNull(store.consume(OneTimeTokenStore.Purpose.EMAIL_VERIFICATION, "hash-2"));
+        assertEquals(userId, store.consume(OneTimeTokenStore.Purpose.PASSWORD_RESET, "hash-2"));
+        assertNull(store.consume(OneTimeTokenStore.Purpose.PASSWORD_RESET, "hash-2"));
+    }
+
+    @Test
+    void consume_expiredTokenIsInvalidAndRemoved() {
+        Long userId = createUser("expired@token-store.com");
+        store.issue(OneTimeTokenStore.Purpose.EMAIL_VERIFICATION, userId, "expired-hash", Duration.ofSeconds(-1));
+
+        assertNull(store.consume(OneTimeTokenStore.Purpose.EMAIL_VERIFICATION, "expired-hash"));
+        store.issue(OneTimeTokenStore.Purpose.EMAIL_VERIFICATION, userId, "fresh-hash", Duration.ofHours(24));
+        store.revoke(OneTimeTokenStore.Purpose.EMAIL_VERIFICATION, userId);
+        assertNull(store.consume(OneTimeTokenStore.Purpose.EMAIL_VERIFICATION, "fresh-hash"));
+    }
+
+    private Long createUser(String email) {
+        UserEntity user = new UserEntity();
+        user.setName("token");
+        user.setEmail(email);
+        user.setPassword("x");
+        user.setEmailVerified(false);
+        user.setCreatedAt(LocalDateTime.now());
+        user.setUpdatedAt(LocalDateTime.now());
+        userMapper.insert(user);
+        return user.getId();
+    }
+}
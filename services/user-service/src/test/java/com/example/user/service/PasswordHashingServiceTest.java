@@ -0,0 +1,104 @@
+package com.example.user.service;
+
+import com.example.api.common.ResultCode;
+import com.example.api.exception.BusinessException;
+import com.example.user.config.PasswordCostCalibrator;
+import com.example.user.mapper.UserMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * PasswordHashingService 单元测试
+ * 覆盖：在哈希线程池执行、满载快速拒绝、成本因子升级时登录重新哈希、成本校准边界
+ */
+@ExtendWith(MockitoExtension.class)
+class PasswordHashingServiceTest {
+
+    @Mock
+    private UserMapper userMapper;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.shutdown();
+    }
+
+    @Test
+    void matchesAndEncode_runOnHashingPool() throws Exception {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+        service = new PasswordHashingService(encoder, userMapper, meterRegistry, 2, 4);
+
+        String encoded = service.encode("Secret1!").get();
+        assertTrue(service.matches("Secret1!", encoded).get());
+        assertFalse(service.matches("wrong", encoded).get());
+        String thread = CompletableFuture.supplyAsync(Thread::currentThread).thenApply(Thread::getName).get();
+        assertNotEquals(thread, service.matches("Secret1!", encoded).thenApply(ok -> Thread.currentThread().getName()).get());
+    }
+
+    @Test
+    void matches_whenPoolAndQueueFull_rejectsImmediately() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = mock(PasswordEncoder.class);
+        when(blocking.matches(any(), any())).thenAnswer(inv -> {
+            release.await();
+            return true;
+        });
+        service = new PasswordHashingService(blocking, userMapper, meterRegistry, 1, 1);
+
+        CompletableFuture<Boolean> running = service.matches("a", "x");
+        CompletableFuture<Boolean> queued = service.matches("b", "x");
+        BusinessException ex = assertThrows(BusinessException.class, () -> service.matches("c", "x"));
+        assertEquals(ResultCode.RATE_LIMIT_EXCEEDED.getCode(), ex.getCode());
+        assertEquals(1.0, meterRegistry.get("password.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertTrue(running.get());
+        assertTrue(queued.get());
+    }
+
+    @Test
+    void rehashIfNeeded_upgradesWeakerHashWithCompareAndSet() throws Exception {
+        String weak = new BCryptPasswordEncoder(4).encode("Secret1!");
+        service = new PasswordHashingService(new BCryptPasswordEncoder(5), userMapper, meterRegistry, 1, 4);
+        when(userMapper.rehashPassword(eq(7L), eq(weak), startsWith("$2a$05$"))).thenReturn(1);
+
+        service.rehashIfNeeded(7L, "Secret1!", weak);
+        service.shutdown();
+
+        verify(userMapper).rehashPassword(eq(7L), eq(weak), startsWith("$2a$05$"));
+        assertEquals(1.0, meterRegistry.get("password.hashing.rehashed").counter().count());
+    }
+
+    @Test
+    void rehashIfNeeded_skipsCurrentCost() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+        service = new PasswordHashingService(encoder, userMapper, meterRegistry, 1, 4);
+
+        service.rehashIfNeeded(7L, "Secret1!", encoder.encode("Secret1!"));
+
+        verifyNoInteractions(userMapper);
+    }
+
+    @Test
+    void calibrate_staysWithinBounds() {
+        service = new PasswordHashingService(new BCryptPasswordEncoder(4), userMapper, meterRegistry, 1, 1);
+
+        assertEquals(4, PasswordCostCalibrator.calibrate(0, 4, 6));
+        assertEquals(6, PasswordCostCalibrator.calibrate(60_000, 4, 6));
+    }
+}
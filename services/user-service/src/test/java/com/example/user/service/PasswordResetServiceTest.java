@@ -0,0 +1,90 @@
+package com.example.user.service;
+
+import com.example.api.common.ResultCode;
+import com.example.api.exception.BusinessException;
+import com.example.api.model.ForgotPasswordResponse;
+import com.example.user.entity.UserEntity;
+import com.example.user.mapper.UserMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * PasswordResetService 单元测试
+ * 覆盖：忘记密码只登记邮件 Outbox（不查用户、不生成 token，邮箱存在与否路径一致）、发送时生成 token 与链接、token 一次性消费
+ */
+@ExtendWith(MockitoExtension.class)
+class PasswordResetServiceTest {
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private OneTimeTokenStore tokenStore;
+
+    @Mock
+    private EmailOutboxService emailOutboxService;
+
+    @InjectMocks
+    private PasswordResetService service;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "resendApiKey", "re_test");
+        ReflectionTestUtils.setField(service, "verificationLinkBase", "https://app.example.com");
+        ReflectionTestUtils.setField(service, "tokenExpiryMinutes", 30);
+    }
+
+    @Test
+    void forgotPassword_onlyEnqueuesRegardlessOfAccountExistence() {
+        ForgotPasswordResponse response = service.forgotPassword("  User@Example.COM ");
+
+        assertNotNull(response.getMessage());
+        verify(emailOutboxService).enqueue(EmailOutboxService.PASSWORD_RESET, "user@example.com", null);
+        verifyNoInteractions(userMapper, tokenStore);
+    }
+
+    @Test
+    void composeResetEmail_mintsTokenAtSendTime() {
+        UserEntity user = new UserEntity();
+        user.setId(5L);
+        user.setEmail("user@example.com");
+        when(userMapper.findByEmail("user@example.com")).thenReturn(user);
+
+        OutgoingEmail email = service.composeResetEmail("user@example.com");
+
+        ArgumentCaptor<String> tokenHash = ArgumentCaptor.forClass(String.class);
+        verify(tokenStore).issue(eq(OneTimeTokenStore.Purpose.PASSWORD_RESET), eq(5L), tokenHash.capture(), eq(Duration.ofMinutes(30)));
+        assertEquals(64, tokenHash.getValue().length());
+        assertTrue(email.html().contains("https://app.example.com/reset-password?token="));
+        assertTrue(email.html().contains("30 分钟内有效"));
+        assertFalse(email.html().contains(tokenHash.getValue()));
+    }
+
+    @Test
+    void composeResetEmail_unknownEmail_returnsNull() {
+        assertNull(service.composeResetEmail("nobody@example.com"));
+        verifyNoInteractions(tokenStore);
+    }
+
+    @Test
+    void validateTokenAndConsume_consumesHashedTokenOnce() {
+        when(tokenStore.consume(eq(OneTimeTokenStore.Purpose.PASSWORD_RESET), anyString())).thenReturn(5L).thenReturn(null);
+
+        assertEquals(5L, service.validateTokenAndConsume("raw-token"));
+        BusinessException reused = assertThrows(BusinessException.class, () -> service.validateTokenAndConsume("raw-token"));
+        assertEquals(ResultCode.PASSWORD_RESET_TOKEN_INVALID.getCode(), reused.getCode());
+        verify(tokenStore, never()).consume(any(), eq("raw-token"));
+    }
+}
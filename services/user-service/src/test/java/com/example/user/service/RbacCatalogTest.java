@@ -0,0 +1,124 @@
+package com.example.user.service;
+
+import com.example.user.entity.PermissionEntity;
+import com.example.user.entity.RoleEntity;
+import com.example.user.entity.RolePermissionEntity;
+import com.example.user.mapper.PermissionMapper;
+import com.example.user.mapper.RoleMapper;
+import com.example.user.mapper.RolePermissionMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * RbacCatalog 单元测试
+ * 覆盖：快照只加载一次、已删除角色过滤、写后递增版本并广播、仅更高版本的广播触发重建
+ */
+@ExtendWith(MockitoExtension.class)
+class RbacCatalogTest {
+
+    @Mock
+    private RoleMapper roleMapper;
+    @Mock
+    private PermissionMapper permissionMapper;
+    @Mock
+    private RolePermissionMapper rolePermissionMapper;
+    @Mock
+    private ObjectProvider<RedisTemplate<String, String>> redisProvider;
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private RbacCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisProvider.getIfAvailable()).thenReturn(redisTemplate);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(roleMapper.findAll(true)).thenReturn(List.of(role(1L, "ADMIN", null), role(2L, "USER", null),
+                role(3L, "LEGACY", LocalDateTime.now())));
+        when(permissionMapper.findAll()).thenReturn(List.of(permission(1L), permission(2L)));
+        when(rolePermissionMapper.findAll()).thenReturn(List.of(link(1L, 2L), link(1L, 1L), link(1L, 99L)));
+        catalog = new RbacCatalog(roleMapper, permissionMapper, rolePermissionMapper, redisProvider);
+    }
+
+    @Test
+    void lookups_areServedFromSingleSnapshot() {
+        when(valueOperations.get(RbacCatalog.VERSION_KEY)).thenReturn("7");
+
+        assertEquals(List.of("ADMIN", "USER"), catalog.getRoleCodes(List.of(3L, 2L, 1L)));
+        assertNull(catalog.findRole(3L));
+        assertEquals(List.of(2L, 1L), catalog.getRolePermissions(1L).stream().map(PermissionEntity::getId).toList());
+        assertEquals(List.of(1L, 2L), catalog.getPermissions().stream().map(PermissionEntity::getId).toList());
+        assertEquals(7, catalog.snapshot().version());
+
+        verify(roleMapper, times(1)).findAll(true);
+    }
+
+    @Test
+    void invalidate_bumpsVersionReloadsAndPublishes() {
+        catalog.snapshot();
+        when(valueOperations.increment(RbacCatalog.VERSION_KEY)).thenReturn(3L);
+
+        catalog.invalidate();
+
+        assertEquals(3, catalog.snapshot().version());
+        verify(roleMapper, times(2)).findAll(true);
+        verify(redisTemplate).convertAndSend(RbacCatalog.CHANNEL, "3");
+    }
+
+    @Test
+    void onVersion_reloadsOnlyForNewerVersion() {
+        when(valueOperations.get(RbacCatalog.VERSION_KEY)).thenReturn("5");
+        catalog.snapshot();
+
+        catalog.onVersion(5);
+        verify(roleMapper, times(1)).findAll(true);
+
+        catalog.onVersion(6);
+        verify(roleMapper, times(2)).findAll(true);
+        assertEquals(6, catalog.snapshot().version());
+    }
+
+    @Test
+    void snapshot_loadsWithoutRedis() {
+        when(redisProvider.getIfAvailable()).thenReturn(null);
+
+        assertEquals(0, catalog.snapshot().version());
+        assertNotNull(catalog.findRole(1L));
+    }
+
+    private static RoleEntity role(Long id, String code, LocalDateTime deletedAt) {
+        RoleEntity role = new RoleEntity();
+        role.setId(id);
+        role.setCode(code);
+        role.setName(code);
+        role.setDeletedAt(deletedAt);
+        return role;
+    }
+
+    private static PermissionEntity permission(Long id) {
+        PermissionEntity permission = new PermissionEntity();
+        permission.setId(id);
+        return permission;
+    }
+
+    private static RolePermissionEntity link(Long roleId, Long permissionId) {
+        RolePermissionEntity link = new RolePermissionEntity();
+        link.setRoleId(roleId);
+        link.setPermissionId(permissionId);
+        return link;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.user.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * RedisOneTimeTokenStore 单元测试
+ * 覆盖：按用户/按 token 的 hash tag 键名、签发替换旧 token、消费需用户键确认（被替换的 token 失效）、
+ * 消费未命中回落 MySQL、Redis 不可用时回落、关闭回落
+ */
+@ExtendWith(MockitoExtension.class)
+class RedisOneTimeTokenStoreTest {
+
+    private static final OneTimeTokenStore.Purpose RESET = OneTimeTokenStore.Purpose.PASSWORD_RESET;
+    private static final String USER_KEY = "token:{password_reset:5}:user";
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private MySqlOneTimeTokenStore mysqlStore;
+
+    @Test
+    void keys_useOwnHashTagPerUserAndPerToken() {
+        assertEquals("token:{password_reset:5}:user", RedisOneTimeTokenStore.userKey(RESET, 5L));
+        assertEquals("token:{password_reset:abc}:owner", RedisOneTimeTokenStore.tokenKey(RESET, "abc"));
+    }
+
+    @Test
+    void issue_writesTokenThenSwapsUserKeyAndDropsOldToken() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.execute(RedisOneTimeTokenStore.SWAP_SCRIPT, List.of(USER_KEY), "hash", "1800000"))
+                .thenReturn("old");
+        RedisOneTimeTokenStore store = new RedisOneTimeTokenStore(redisTemplate, mysqlStore, true);
+
+        store.issue(RESET, 5L, "hash", Duration.ofMinutes(30));
+
+        InOrder order = inOrder(valueOperations, redisTemplate);
+        order.verify(valueOperations).set("token:{password_reset:hash}:owner", "5", Duration.ofMinutes(30));
+        order.verify(redisTemplate).execute(RedisOneTimeTokenStore.SWAP_SCRIPT, List.of(USER_KEY), "hash", "1800000");
+        order.verify(redisTemplate).delete("token:{password_reset:old}:owner");
+        verify(mysqlStore).revoke(RESET, 5L);
+        verify(mysqlStore, never()).issue(any(), any(), any(), any());
+    }
+
+    @Test
+    void consume_returnsUserIdWhenStillCurrentWithoutTouchingMySql() {
+        when(redisTemplate.execute(RedisOneTimeTokenStore.TAKE_SCRIPT, List.of("token:{password_reset:hash}:owner")))
+                .thenReturn("5");
+        when(redisTemplate.execute(RedisOneTimeTokenStore.CONFIRM_SCRIPT, List.of(USER_KEY), "hash")).thenReturn(1L);
+        RedisOneTimeTokenStore store = new RedisOneTimeTokenStore(redisTemplate, mysqlStore, true);
+
+        assertEquals(5L, store.consume(RESET, "hash"));
+        verifyNoInteractions(mysqlStore);
+    }
+
+    @Test
+    void consume_rejectsTokenSupersededByNewerIssue() {
+        when(redisTemplate.execute(RedisOneTimeTokenStore.TAKE_SCRIPT, List.of("token:{password_reset:stale}:owner")))
+                .thenReturn("5");
+        when(redisTemplate.execute(RedisOneTimeTokenStore.CONFIRM_SCRIPT, List.of(USER_KEY), "stale")).thenReturn(0L);
+        RedisOneTimeTokenStore store = new RedisOneTimeTokenStore(redisTemplate, mysqlStore, true);
+
+        assertNull(store.consume(RESET, "stale"));
+        verifyNoInteractions(mysqlStore);
+    }
+
+    @Test
+    void revoke_dropsUserKeyAndCurrentToken() {
+        when(redisTemplate.execute(RedisOneTimeTokenStore.TAKE_SCRIPT, List.of(USER_KEY))).thenReturn("hash");
+        RedisOneTimeTokenStore store = new RedisOneTimeTokenStore(redisTemplate, mysqlStore, false);
+
+        store.revoke(RESET, 5L);
+
+        verify(redisTemplate).delete("token:{password_reset:hash}:owner");
+        verifyNoInteractions(mysqlStore);
+    }
+
+    @Test
+    void consume_missFallsBackToMySqlOnlyWhenEnabled() {
+        when(mysqlStore.consume(RESET, "legacy")).thenReturn(9L);
+
+        assertEquals(9L, new RedisOneTimeTokenStore(redisTemplate, mysqlStore, true).consume(RESET, "legacy"));
+        assertNull(new RedisOneTimeTokenStore(redisTemplate, mysqlStore, false).consume(RESET, "legacy"));
+        verify(mysqlStore, times(1)).consume(RESET, "legacy");
+    }
+
+    @Test
+    void redisUnavailable_fallsBackToMySqlOrRethrows() {
+        RedisConnectionFailureException down = new RedisConnectionFailureException("down");
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        doThrow(down).when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+        when(redisTemplate.execute(any(), anyList(), any(Object[].class))).thenThrow(down);
+        when(mysqlStore.consume(RESET, "hash")).thenReturn(5L);
+        RedisOneTimeTokenStore store = new RedisOneTimeTokenStore(redisTemplate, mysqlStore, true);
+
+        store.issue(RESET, 5L, "hash", Duration.ofMinutes(30));
+        assertEquals(5L, store.consume(RESET, "hash"));
+        verify(mysqlStore).issue(RESET, 5L, "hash", Duration.ofMinutes(30));
+
+        RedisOneTimeTokenStore strict = new RedisOneTimeTokenStore(redisTemplate, mysqlStore, false);
+        assertThrows(RedisConnectionFailureException.class, () -> strict.consume(RESET, "hash"));
+    }
+}
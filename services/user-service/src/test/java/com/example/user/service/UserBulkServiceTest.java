@@ -0,0 +1,180 @@
+package com.example.user.service;
+
+import com.example.user.controller.dto.UserImportResult;
+import com.example.user.entity.UserEntity;
+import com.example.user.mapper.UserMapper;
+import com.example.user.mapper.UserRoleMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.annotation.MapperScan;
+import org.mybatis.spring.boot.autoconfigure.MybatisAutoConfiguration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 用户批量导入/导出测试（H2 + 真实 MyBatis Mapper）
+ * 覆盖：跨块导入、逐行错误（校验/重复/角色不存在/已存在/格式错误）、角色与密码哈希、CSV 与 NDJSON 导出
+ */
+@SpringBootTest(classes = {UserBulkService.class, UserManagementService.class, RbacCatalog.class, UserCountService.class,
+        UserSearchIndexer.class, AuditLogWriter.class, UserBulkServiceTest.TestConfig.class})
+@ImportAutoConfiguration({
+        DataSourceAutoConfiguration.class,
+        DataSourceTransactionManagerAutoConfiguration.class,
+        SqlInitializationAutoConfiguration.class,
+        MybatisAutoConfiguration.class,
+        JacksonAutoConfiguration.class,
+        ValidationAutoConfiguration.class
+})
+@TestPropertySource(properties = {
+        "spring.cloud.nacos.discovery.enabled=false",
+        "spring.cloud.nacos.config.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:userbulk;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.data-locations=classpath:data.sql",
+        "user.import.batch-size=3"
+})
+class UserBulkServiceTest {
+
+    @Configuration
+    @MapperScan("com.example.user.mapper")
+    static class TestConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder(4);
+        }
+    }
+
+    @Autowired
+    private UserBulkService userBulkService;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private UserRoleMapper userRoleMapper;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void importUsers_csvCreatesValidRowsAcrossChunksAndReportsFailures() throws Exception {
+        String csv = """
+                name,email,phone,password,roles
+                Alice,alice@bulk-csv.com,,Password1,USER
+                Dave,ALICE@bulk-csv.com,,Password4,
+                Carol,not-an-email,,Password3,
+                "Bob, Jr.",bob@bulk-csv.com,13800000000,Password2,ADMIN;USER
+                Erin,erin@bulk-csv.com,,Password5,NOPE
+                Frank,frank@bulk-csv.com,,Password6,
+                """;
+        UserImportResult first = userBulkService.importUsers(stream(csv), UserBulkService.Format.CSV);
+
+        assertEquals(6, first.getTotal());
+        assertEquals(3, first.getCreated());
+        assertEquals(3, first.getFailed());
+        Map<Long, String> errors = first.getErrors().stream()
+                .collect(Collectors.toMap(UserImportResult.RowError::line, UserImportResult.RowError::message));
+        assertEquals("文件中邮箱重复", errors.get(3L));
+        assertTrue(errors.get(4L).startsWith("email"));
+        assertEquals("角色不存在: NOPE", errors.get(6L));
+
+        UserEntity bob = userMapper.findByEmail("bob@bulk-csv.com");
+        assertEquals("Bob, Jr.", bob.getName());
+        assertEquals("13800000000", bob.getPhone());
+        assertTrue(passwordEncoder.matches("Password2", bob.getPassword()));
+        assertEquals(List.of(1L, 2L), userRoleMapper.findRoleIdsByUserId(bob.getId()).stream().sorted().toList());
+
+        // 再次导入：已存在的邮箱逐行失败
+        UserImportResult second = userBulkService.importUsers(stream(csv), UserBulkService.Format.CSV);
+        assertEquals(0, second.getCreated());
+        assertTrue(second.getErrors().stream().anyMatch(e -> e.line() == 2 && "邮箱已存在".equals(e.message())));
+    }
+
+    @Test
+    void importUsers_ndjsonReportsMalformedLines() throws Exception {
+        String ndjson = """
+                {"name":"Grace","email":"grace@bulk-json.com","password":"Password1","roles":["USER"]}
+
+                {"name":"Heidi","email":
+                {"name":"Ivan","email":"ivan@bulk-json.com","password":"Password2","id":99}
+                """;
+        UserImportResult result = userBulkService.importUsers(stream(ndjson), UserBulkService.Format.NDJSON);
+
+        assertEquals(3, result.getTotal());
+        assertEquals(2, result.getCreated());
+        assertEquals(1, result.getFailed());
+        assertEquals(3, result.getErrors().get(0).line());
+        assertNotNull(userMapper.findByEmail("ivan@bulk-json.com"));
+    }
+
+    @Test
+    void exportUsers_streamsCsvAndNdjsonWithoutPasswords() throws Exception {
+        userBulkService.importUsers(stream("""
+                name,email,password,roles
+                =Mallory,mallory@bulk-export.com,Password1,USER
+                Niaj,niaj@bulk-export.com,Password2,
+                Olivia,olivia@bulk-export.com,Password3,
+                Peggy,peggy@bulk-export.com,Password4,
+                """), UserBulkService.Format.CSV);
+        long users = userMapper.count(false);
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        userBulkService.exportUsers(csv, UserBulkService.Format.CSV, false);
+        List<String> lines = csv.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(String.join(",", UserBulkService.EXPORT_COLUMNS), lines.get(0));
+        assertEquals(users, lines.size() - 1);
+        String mallory = lines.stream().filter(l -> l.contains("mallory@bulk-export.com")).findFirst().orElseThrow();
+        assertTrue(mallory.contains(",'=Mallory,"));
+        assertTrue(mallory.endsWith(",USER"));
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        userBulkService.exportUsers(ndjson, UserBulkService.Format.NDJSON, false);
+        List<String> rows = ndjson.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(users, rows.size());
+        for (String row : rows) {
+            JsonNode node = objectMapper.readTree(row);
+            assertFalse(node.has("password"));
+            if ("mallory@bulk-export.com".equals(node.get("email").asText())) {
+                assertEquals("=Mallory", node.get("name").asText());
+                assertEquals("USER", node.get("roles").get(0).asText());
+            }
+        }
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
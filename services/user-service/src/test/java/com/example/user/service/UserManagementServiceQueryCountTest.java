@@ -0,0 +1,276 @@
+package com.example.user.service;
+
+import com.example.api.common.PagedResult;
+import com.example.user.controller.dto.PermissionDto;
+import com.example.user.controller.dto.RoleDetailDto;
+import com.example.user.controller.dto.UserDetailDto;
+import com.example.user.entity.UserEntity;
+import com.example.user.mapper.UserMapper;
+import com.example.user.mapper.UserRoleMapper;
+import com.example.api.exception.BusinessException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.mybatis.spring.annotation.MapperScan;
+import org.mybatis.spring.boot.autoconfigure.MybatisAutoConfiguration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 用户列表查询次数回归测试（H2 + 真实 MyBatis Mapper）
+ * 每页 SQL 条数固定（分页 + 计数 + 批量加载角色关联），与每页条数无关，防止 N+1 回归
+ */
+@SpringBootTest(classes = {UserManagementService.class, RbacCatalog.class, UserCountService.class, UserSearchIndexer.class, AuditLogWriter.class,
+        UserManagementServiceQueryCountTest.TestConfig.class})
+@ImportAutoConfiguration({
+        DataSourceAutoConfiguration.class,
+        DataSourceTransactionManagerAutoConfiguration.class,
+        SqlInitializationAutoConfiguration.class,
+        MybatisAutoConfiguration.class,
+        JacksonAutoConfiguration.class
+})
+@TestPropertySource(properties = {
+        "spring.cloud.nacos.discovery.enabled=false",
+        "spring.cloud.nacos.config.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:querycount;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.data-locations=classpath:data.sql",
+        "user.list.count.estimate-cap=50"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserManagementServiceQueryCountTest {
+
+    private static final int USERS = 60;
+
+    @Configuration
+    @MapperScan("com.example.user.mapper")
+    static class TestConfig {
+
+        @Bean
+        StatementCounter statementCounter() {
+            return new StatementCounter();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    /**
+     * 统计 MyBatis 实际准备的 SQL 语句数
+     */
+    @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+    static class StatementCounter implements Interceptor {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            count.incrementAndGet();
+            return invocation.proceed();
+        }
+
+        int reset() {
+            return count.getAndSet(0);
+        }
+    }
+
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserManagementService userManagementService;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private UserRoleMapper userRoleMapper;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private RbacCatalog rbacCatalog;
+
+    @Autowired
+    private UserSearchIndexer userSearchIndexer;
+
+    @BeforeAll
+    void seedUsers() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < USERS; i++) {
+            UserEntity user = new UserEntity();
+            user.setName("query-count-" + i);
+            user.setEmail("query-count-" + i + "@example.com");
+            user.setPassword("x");
+            user.setEmailVerified(false);
+            user.setCreatedAt(now.minusSeconds(i));
+            user.setUpdatedAt(now);
+            userMapper.insert(user);
+            userRoleMapper.insert(user.getId(), 2L, now);
+            if (i % 2 == 0) {
+                userRoleMapper.insert(user.getId(), 1L, now);
+            }
+        }
+        // 直接写库的用户由回填建立搜索索引
+        userSearchIndexer.backfill();
+        // 预热 RBAC 目录快照，之后角色查找不再查库
+        rbacCatalog.snapshot();
+    }
+
+    @Test
+    void getUsersPage_issuesSameStatementCountForAnyPageSize() {
+        statementCounter.reset();
+        PagedResult<UserDetailDto> small = userManagementService.getUsersPage(1, 5, "query-count", null, null, false, null);
+        int smallCount = statementCounter.reset();
+
+        PagedResult<UserDetailDto> large = userManagementService.getUsersPage(1, 50, "query-count", null, null, false, null);
+        int largeCount = statementCounter.reset();
+
+        assertEquals(5, small.getItems().size());
+        assertEquals(50, large.getItems().size());
+        // 分页查询 + 计数 + 批量加载角色
+        assertEquals(3, smallCount);
+        assertEquals(smallCount, largeCount);
+        assertTrue(large.getItems().stream().allMatch(u -> !u.getRoles().isEmpty()));
+        assertTrue(large.getItems().stream().anyMatch(u -> u.getRoles().size() == 2));
+    }
+
+    @Test
+    void getUserById_loadsRolesInOneStatement() {
+        Long id = userManagementService.getUsersPage(1, 1, "query-count-0@", null, null, false, null)
+                .getItems().get(0).getId();
+        statementCounter.reset();
+
+        UserDetailDto user = userManagementService.getUserById(id);
+
+        assertEquals(2, statementCounter.reset());
+        assertEquals(2, user.getRoles().size());
+        assertEquals("ADMIN", user.getRoles().get(0).getCode());
+    }
+
+    @Test
+    void getRoleById_readsPermissionsFromCatalog() {
+        statementCounter.reset();
+
+        RoleDetailDto role = userManagementService.getRoleById(1L);
+
+        assertEquals(1, statementCounter.reset());
+        assertTrue(role.getPermissions().size() >= 4);
+    }
+
+    @Test
+    void getRolesPage_paginatesInSqlWithoutPerRoleQueries() {
+        statementCounter.reset();
+
+        PagedResult<RoleDetailDto> page = userManagementService.getRolesPage(2, 1, false, "code,asc");
+
+        // 分页查询 + 计数
+        assertEquals(2, statementCounter.reset());
+        assertEquals(2, page.getTotal());
+        assertEquals("USER", page.getItems().get(0).getCode());
+    }
+
+    @Test
+    void setRolePermissions_rebuildsCatalog() {
+        userManagementService.setRolePermissions(2L, List.of(5L, 1L));
+
+        assertEquals(List.of(1L, 5L), userManagementService.getRoleById(2L).getPermissions().stream()
+                .map(PermissionDto::getId).sorted().toList());
+    }
+
+    @Test
+    void getUsersPage_cursorWalksAllUsersInOffsetOrder() {
+        List<Long> offsetOrder = userManagementService.getUsersPage(1, 100, "query-count", null, null, false, "name,asc")
+                .getItems().stream().map(UserDetailDto::getId).toList();
+
+        List<Long> cursorOrder = new ArrayList<>();
+        String cursor = "";
+        while (cursor != null) {
+            PagedResult<UserDetailDto> page = userManagementService.getUsersPage(1, 25, "query-count", null, null, false,
+                    "name,asc", cursor, UserCountService.Mode.NONE);
+            assertEquals(-1, page.getTotal());
+            page.getItems().forEach(u -> cursorOrder.add(u.getId()));
+            cursor = page.getNextCursor();
+        }
+
+        assertEquals(USERS, cursorOrder.size());
+        assertEquals(USERS, new HashSet<>(cursorOrder).size());
+        assertEquals(offsetOrder, cursorOrder);
+    }
+
+    @Test
+    void getUsersPage_estimateStopsCountingAtCap() {
+        PagedResult<UserDetailDto> page = userManagementService.getUsersPage(1, 10, "query-count", null, null, false,
+                null, "", UserCountService.Mode.ESTIMATE);
+
+        assertEquals(50, page.getTotal());
+        assertEquals(Boolean.TRUE, page.getTotalEstimated());
+        assertNotNull(page.getNextCursor());
+    }
+
+    @Test
+    void getUsersPage_rejectsCursorFromDifferentSort() {
+        String cursor = userManagementService.getUsersPage(1, 5, "query-count", null, null, false,
+                "email,asc", "", UserCountService.Mode.NONE).getNextCursor();
+
+        assertThrows(BusinessException.class, () -> userManagementService.getUsersPage(1, 5, "query-count", null, null, false,
+                "createdAt,desc", cursor, UserCountService.Mode.NONE));
+    }
+
+    @Test
+    void getUsersPage_infixSearchUsesNgramIndex() {
+        List<String> emails = userManagementService.getUsersPage(1, 100, "count-1", null, null, false, "email,asc")
+                .getItems().stream().map(UserDetailDto::getEmail).toList();
+
+        // query-count-1 与 query-count-10 ~ 19
+        assertEquals(11, emails.size());
+        assertTrue(emails.stream().allMatch(e -> e.contains("count-1")));
+    }
+
+    @Test
+    void getUsersPage_matchesCjkNameInfix() {
+        UserEntity user = new UserEntity();
+        user.setName("张小明");
+        user.setEmail("zhang.xiaoming@example.com");
+        user.setPassword("x");
+        user.setEmailVerified(false);
+        user.setCreatedAt(LocalDateTime.now());
+        user.setUpdatedAt(LocalDateTime.now());
+        userMapper.insert(user);
+        userSearchIndexer.index(user);
+
+        assertEquals(List.of(user.getId()), userManagementService.getUsersPage(1, 10, null, "小明", null, false, null)
+                .getItems().stream().map(UserDetailDto::getId).toList());
+        assertTrue(userManagementService.getUsersPage(1, 10, null, "明张", null, false, null).getItems().isEmpty());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.user.service;
+
+import com.example.user.entity.UserEntity;
+import com.example.user.mapper.UserSearchMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DeadlockLoserDataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * UserSearchIndexer 单元测试
+ * 覆盖：兼容分解 + 小写规范化、去除变音符号（与 utf8mb4_unicode_ci 一致）、按码点切分（CJK 与代理对）、去重、回填完成前及含通配符时不走索引、回填按批事务提交且失败后重试
+ */
+@ExtendWith(MockitoExtension.class)
+class UserSearchIndexerTest {
+
+    @Mock
+    private UserSearchMapper userSearchMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void grams_normalizesWidthAndCase() {
+        assertEquals(List.of("ab", "bc"), UserSearchIndexer.grams(" ＡＢc "));
+    }
+
+    @Test
+    void grams_foldsDiacriticsLikeUnicodeCiCollation() {
+        assertEquals(UserSearchIndexer.grams("jose"), UserSearchIndexer.grams("José"));
+        assertEquals(UserSearchIndexer.grams("muller"), UserSearchIndexer.grams("MÜLLER"));
+        assertEquals(UserSearchIndexer.grams("strasse"), UserSearchIndexer.grams("Straße"));
+        assertEquals(UserSearchIndexer.grams("lodz"), UserSearchIndexer.grams("Łódź"));
+        // 分解后重组：韩文音节、日文假名（浊点按 unicode_ci 视为等价）
+        assertEquals(List.of("한국"), UserSearchIndexer.grams("한국"));
+        assertEquals(UserSearchIndexer.grams("かき"), UserSearchIndexer.grams("がぎ"));
+    }
+
+    @Test
+    void grams_splitsByCodePointAndDeduplicates() {
+        assertEquals(List.of("张小", "小明"), UserSearchIndexer.grams("张小明"));
+        assertEquals(List.of("𠀀a"), UserSearchIndexer.grams("𠀀a"));
+        assertEquals(List.of("aa"), UserSearchIndexer.grams("aaaa"));
+        assertTrue(UserSearchIndexer.grams("明").isEmpty());
+    }
+
+    @Test
+    void queryGrams_fallsBackToLikeUntilBackfilledOrWithWildcards() {
+        UserSearchIndexer indexer = new UserSearchIndexer(userSearchMapper, transactionManager);
+        assertTrue(indexer.queryGrams("alice").isEmpty());
+
+        when(userSearchMapper.findUnindexedUsers(eq(0L), anyInt())).thenReturn(List.of());
+        indexer.backfill();
+
+        assertEquals(List.of("al", "li", "ic", "ce"), indexer.queryGrams("alice"));
+        assertTrue(indexer.queryGrams("a%ce").isEmpty());
+    }
+
+    @Test
+    void backfill_commitsEachBatchAndRetriesAfterFailure() {
+        UserSearchIndexer indexer = new UserSearchIndexer(userSearchMapper, transactionManager);
+        UserEntity user = new UserEntity();
+        user.setId(1L);
+        user.setName("alice");
+        user.setEmail("alice@example.com");
+        when(userSearchMapper.findUnindexedUsers(eq(0L), anyInt())).thenReturn(List.of(user));
+        when(userSearchMapper.insertBatch(anyList()))
+                .thenThrow(new DeadlockLoserDataAccessException("deadlock", null))
+                .thenReturn(1);
+
+        indexer.backfill();
+        assertTrue(indexer.queryGrams("alice").isEmpty());
+        verify(transactionManager).rollback(any());
+
+        indexer.retryBackfill();
+        assertFalse(indexer.queryGrams("alice").isEmpty());
+        verify(transactionManager).commit(any());
+    }
+}
@@ -1,4 +1,4 @@
--- H2 测试用 schema（与 Flyway V1~V6 结构一致）
+-- H2 测试用 schema（与 Flyway V1~V14 结构一致）
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     name VARCHAR(50) NOT NULL,
@@ -9,8 +9,21 @@ CREATE TABLE IF NOT EXISTS users (
     email_verified_at TIMESTAMP NULL,
     created_at TIMESTAMP,
     updated_at TIMESTAMP,
-    deleted_at TIMESTAMP NULL
+    deleted_at TIMESTAMP NULL,
+    registration_id VARCHAR(36) NULL
+);
+CREATE INDEX IF NOT EXISTS idx_users_created_at_id ON users(created_at, id);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_users_registration_id ON users(registration_id);
+CREATE INDEX IF NOT EXISTS idx_users_name_id ON users(name, id);
+
+CREATE TABLE IF NOT EXISTS user_search_ngrams (
+    gram VARCHAR(8) NOT NULL,
+    field VARCHAR(10) NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (gram, field, user_id),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
+CREATE INDEX IF NOT EXISTS idx_user_search_ngrams_user_id ON user_search_ngrams(user_id);
 
 CREATE TABLE IF NOT EXISTS roles (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -50,8 +63,9 @@ CREATE TABLE IF NOT EXISTS role_permissions (
     FOREIGN KEY (permission_id) REFERENCES permissions(id) ON DELETE CASCADE
 );
 
+-- 审计日志：H2 不分区，主键与索引同 V11
 CREATE TABLE IF NOT EXISTS audit_logs (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT AUTO_INCREMENT,
     actor_id BIGINT,
     actor_email VARCHAR(100),
     action VARCHAR(100) NOT NULL,
@@ -61,8 +75,12 @@ CREATE TABLE IF NOT EXISTS audit_logs (
     new_value VARCHAR(1000),
     ip_address VARCHAR(45),
     user_agent VARCHAR(500),
-    created_at TIMESTAMP NOT NULL
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, created_at)
 );
+CREATE INDEX IF NOT EXISTS idx_audit_logs_actor_created ON audit_logs (actor_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_audit_logs_resource_created ON audit_logs (resource_type, resource_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_audit_logs_created ON audit_logs (created_at, id);
 
 CREATE TABLE IF NOT EXISTS email_verification_tokens (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -81,3 +99,37 @@ CREATE TABLE IF NOT EXISTS password_reset_tokens (
     created_at TIMESTAMP NOT NULL,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    aggregate_type VARCHAR(50) NOT NULL,
+    aggregate_id VARCHAR(64),
+    event_type VARCHAR(100) NOT NULL,
+    topic VARCHAR(200) NOT NULL,
+    message_key VARCHAR(200),
+    payload CLOB NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    leased_until TIMESTAMP(3) NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_events_key ON outbox_events (message_key, id);
+
+CREATE TABLE IF NOT EXISTS outbox_relay_lock (
+    id INT PRIMARY KEY
+);
+
+MERGE INTO outbox_relay_lock (id) KEY (id) VALUES (1);
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    email_type VARCHAR(40) NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    user_id BIGINT NULL,
+    status VARCHAR(16) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(500) NULL,
+    next_attempt_at TIMESTAMP(3) NOT NULL,
+    created_at TIMESTAMP(3) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_email_outbox_due ON email_outbox (status, next_attempt_at, id);